@@ -1,12 +1,15 @@
 package methods.AHP;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
+import methods.BasicTypes.AlternativeBatches;
+import methods.BasicTypes.BatchScorer;
+import methods.BasicTypes.CsvReader;
+import methods.BasicTypes.DataFileException;
+import methods.BasicTypes.DecisionMatrix;
+import methods.BasicTypes.ParallelExecutor;
+import methods.BasicTypes.Ranking;
+import methods.BasicTypes.TopScores;
 import org.ejml.simple.SimpleMatrix;
 import org.ejml.simple.SimpleEVD;
 
@@ -16,6 +19,20 @@ import org.ejml.simple.SimpleEVD;
  */
 public class AHP {
     
+    /**
+     * Enum type describing how priority vectors (principal eigenvectors of pairwise comparisons matrices) are calculated.
+     */
+    public enum EigenvectorMethod {
+        /**
+         * Power iteration, O(n^2) time per step. If it does not converge (e.g. for matrix with zeros or negative values) EVD method is used.
+         */
+        POWER_ITERATION,
+        /**
+         * Full eigen decomposition of the matrix (and of its square, until vectors differ by less than epsilon), O(n^3) time.
+         */
+        EVD
+    }
+    
         /**
          * LinkedList containing all the criteria in MCO problem represented by UTASTAR method object.
         */
@@ -25,21 +42,31 @@ public class AHP {
         */
         private LinkedList<Alternative> alternatives;
         /**
-         * LinkedList containing all the alternatives in MCO problem represented by UTASTAR method object ordered by their score calculated by UTASTAR method based on reference alternative preference standings.
+         * Ranking of all the alternatives in MCO problem represented by AHP method object ordered by their score calculated by AHP method.
         */
-        private LinkedList<Alternative> ranking;
+        private Ranking<Alternative> ranking;
         
         
 	/**
-         * Alternatives' criteria pariwise comparisons values matrices.
+         * Alternatives' criteria pariwise comparisons values matrices (null for criteria with incomplete comparisons).
          */
 	private LinkedList<SimpleMatrix> altsCriteriaValues; 
         
+        /**
+         * Alternatives' criteria incomplete pairwise comparisons (null for criteria with comparisons matrices).
+         */
+        private LinkedList<IncompleteComparisons> altsCriteriaComparisons;
+        
         /**
          * Alternatives' criteria pariwise comparisons values matrices consinstency ratios.
          */
         private LinkedList<Double> altsCriteriaValues_cr;
         
+        /**
+         * Rating scales of the criteria, used instead of alternatives' pairwise comparisons in ratings mode.
+         */
+        private LinkedList<RatingScale> ratingScales;
+        
         
         /**
          * Criteria importance pairwise comparisons matrix.   
@@ -57,6 +84,11 @@ public class AHP {
          */
         private double epsilon; 
         
+        /**
+         * Method of priority vectors calculation.
+         */
+        private EigenvectorMethod eigenvectorMethod = EigenvectorMethod.POWER_ITERATION;
+        
         
         /**
          * Auxillary variable indicating if calculations have been performed.
@@ -80,15 +112,14 @@ public class AHP {
         private SimpleMatrix alternativesValues;         
         
         /**
-         * Temporary variable used to carry matrix consistency ratio.
+         * Executor used to calculate priority vectors of alternatives' criteria pairwise comparisons matrices in parallel.
          */
-        private double tmp_cr;
+        private ParallelExecutor executor = new ParallelExecutor(0);
         
         /**
-         * Random consistency index values, used to calculate Consistency Ration of a pairwise comparison matrix.
+         * Provider of random consistency index values, used to calculate Consistency Ration of a pairwise comparison matrix.
          */
-        
-        private static double[] randomConsistencyIndex = {0, 0, 0.52, 0.89, 1.11, 1.25, 1.35, 1.40, 1.45, 1.49, 1.51, 1.54, 1.56, 1.57, 1.58};
+        private RandomConsistencyIndex randomConsistencyIndex = RandomConsistencyIndex.getDefault();
         
         /**
 	* AHP class constructor with data file as a parameter. 
@@ -96,179 +127,119 @@ public class AHP {
         * It should be structured as csv file in dataFileExamples/ahp.csv. In the first line there should be epsilon value followed by criteria number and alternatives number. In the second line you should place alternatives' names. 
         * Starting from third line there is place for criteria name and fixing matrix flag (fixMatrix or doNotFixMatrix) followed by alternatives' criterium pariwaise comparisons values matrix.
         * At the end of the data file there should be criteriaMatrix (criteria pairwaise comparison matrix) with fixing matrix flag. It has to be preceded by line with "criteriaMatrix,fixMatrix" or "criteriaMatrix,doNotFixMatrix".
+        * @throws DataFileException if the file can not be read or has wrong format, exception points to the wrong line and column.
 	*/
 	public AHP(String filename) {		
 		alternatives = new LinkedList<Alternative>();
-                ranking = new LinkedList<Alternative>();
+                ranking = new Ranking<Alternative>();
                 criteria = new LinkedList<Criterium>();
                 this.altsCriteriaValues = new LinkedList<SimpleMatrix>();
                 this.altsCriteriaValues_cr = new LinkedList<Double>();
+                this.altsCriteriaComparisons = new LinkedList<IncompleteComparisons>();
+                this.ratingScales = new LinkedList<RatingScale>();
 			
-		BufferedReader br = null;
-		String line = "";
 		int altsCount = 0;
                 int criteriaCount = 0;
                 
                 boolean fixMatrix = false;
-                
-                String[] values;
 		
+		CsvReader reader = new CsvReader(filename);
 		try {
                     //first line of datafile
-			br = new BufferedReader(new FileReader(filename));
-        		line = br.readLine(); 
-                        if(line != null)    {
-				values = line.split(",");
-                                if(values.length==3)  {
-                                        try {
-                                            this.epsilon = Double.parseDouble(values[0]);
-                                            criteriaCount = Integer.parseInt(values[1]);
-                                            altsCount = Integer.parseInt(values[2]);
-                                        }
-                                        catch(Exception e)  {
-                                            throw new Exception("Wrong file format");
-                                        }
-                                }
-                                else    {
-                                    throw new Exception("Wrong file format");
-                                }                                    
+                        reader.requireLine();
+                        if(reader.getFieldsNum()==3)  {
+                            this.epsilon = reader.getDouble(0);
+                            criteriaCount = reader.getInt(1);
+                            altsCount = reader.getInt(2);
                         }
                         else    {
-                            throw new Exception("Wrong file format");
-                        }
+                            throw reader.error(0, "Wrong file format, first line should contain epsilon, criteria number and alternatives number.");
+                        }                                    
                         
                      //second line of datafile
-        		line = br.readLine(); 
-                        if(line != null)    {                        
-				values = line.split(",");
-                                if(values.length==altsCount)  {
-                                        for(int j = 0; j<altsCount; j++) {
-                                            try{
-                                                Alternative alternative = new Alternative(values[j]);
-                                                alternative.setId(j);
-                                                alternatives.add(alternative);
-                                            }
-                                            catch(Exception e)  {
-                                                throw new Exception("Wrong file format.");
-                                            }
-                                        }
-                                }
-                                else    {
-                                        throw new Exception("Wrong file format");
-                                }  
+                        reader.requireLine();
+                        if(reader.getFieldsNum()==altsCount)  {
+                            for(int j = 0; j<altsCount; j++) {
+                                Alternative alternative = new Alternative(reader.getString(j));
+                                alternative.setId(j);
+                                alternatives.add(alternative);
+                            }
                         }
                         else    {
-                            throw new Exception("Wrong file format");
-                        }
+                            throw reader.error(0, "Wrong file format, expected " + altsCount + " alternatives names.");
+                        }  
                         
                                                
                         for(int c=0; c<criteriaCount; c++)    {
-                            line = br.readLine(); 
-                            if(line != null)    {
-				values = line.split(",");
-                                if(values.length==2)  {
-                                    Criterium criterium = new Criterium(values[0]);
-                                    
-                                    if(values[1].contentEquals("fixMatrix"))  {
-                                        fixMatrix = true;
-                                    }
-                                    else if(values[1].contentEquals("doNotFixMatrix")) {
-                                        fixMatrix = false;
-                                    }
-                                    else    {
-                                        throw new Exception("Wrong file format");
-                                    }
-                                    
-                                    this.criteria.add(criterium);
+                            reader.requireLine();
+                            if(reader.getFieldsNum()==2)  {
+                                Criterium criterium = new Criterium(reader.getString(0));
+                                
+                                if(reader.fieldEquals(1, "fixMatrix"))  {
+                                    fixMatrix = true;
+                                }
+                                else if(reader.fieldEquals(1, "doNotFixMatrix")) {
+                                    fixMatrix = false;
                                 }
                                 else    {
-                                    throw new Exception("Wrong file format");
+                                    throw reader.error(1, "Wrong file format, expected fixMatrix or doNotFixMatrix.");
                                 }
+                                
+                                this.criteria.add(criterium);
                             }
                             else    {
-                                throw new Exception("Wrong file format");
+                                throw reader.error(0, "Wrong file format, expected criterium name and fixing matrix flag.");
                             }
                             
                             double[][] altsCriteriumValues = new double[altsCount][altsCount];
                             
                             for(int l=0; l<altsCount;l++) {
-                                line = br.readLine(); 
-                                if(line != null)    {
-                                    values = line.split(",");
-                                    if(values.length==altsCount)  {
-                                        for(int r=0;r<altsCount;r++)    {
-                                            altsCriteriumValues[l][r] = Double.parseDouble(values[r]);
-                                        }
-                                    }
-                                    else    {
-                                        throw new Exception("Wrong file format");
-                                    }
+                                reader.requireLine();
+                                if(reader.getFieldsNum()==altsCount)  {
+                                    reader.getDoubles(0, altsCriteriumValues[l], 0, 1);
                                 }
                                 else    {
-                                    throw new Exception("Wrong file format");
+                                    throw reader.error(0, "Wrong file format, expected " + altsCount + " values.");
                                 }
                             }
                             this.addAltsCriteriumValues(altsCriteriumValues, fixMatrix);
                                                        
                         }
                         
-                        line = br.readLine(); 
-                        if(line != null)    {
-                            values = line.split(",");
-                            if(values.length==2 && values[0].contentEquals("criteriaMatrix"))  {  
-                                    if(values[1].contentEquals("fixMatrix"))  {
-                                        fixMatrix = true;
-                                    }
-                                    else if(values[1].contentEquals("doNotFixMatrix")) {
-                                        fixMatrix = false;
+                        reader.requireLine();
+                        if(reader.getFieldsNum()==2 && reader.fieldEquals(0, "criteriaMatrix"))  {  
+                                if(reader.fieldEquals(1, "fixMatrix"))  {
+                                    fixMatrix = true;
+                                }
+                                else if(reader.fieldEquals(1, "doNotFixMatrix")) {
+                                    fixMatrix = false;
+                                }
+                                else    {
+                                    throw reader.error(1, "Wrong file format, expected fixMatrix or doNotFixMatrix.");
+                                }
+                                
+                                                                    
+                                double[][] tmpCriteriaMatrix = new double[criteriaCount][criteriaCount];
+                        
+                                for(int l=0; l<criteriaCount;l++) {
+                                    reader.requireLine();
+                                    if(reader.getFieldsNum()==criteriaCount)  {
+                                        reader.getDoubles(0, tmpCriteriaMatrix[l], 0, 1);
                                     }
                                     else    {
-                                        throw new Exception("Wrong file format");
+                                        throw reader.error(0, "Wrong file format, expected " + criteriaCount + " values.");
                                     }
-                                    
-                                                                        
-                                    double[][] tmpCriteriaMatrix = new double[criteriaCount][criteriaCount];
-                            
-                                    for(int l=0; l<criteriaCount;l++) {
-                                        line = br.readLine(); 
-                                        if(line != null)    {
-                                            values = line.split(",");
-                                            if(values.length==criteriaCount)  {
-                                                for(int r=0;r<criteriaCount;r++)    {
-                                                    tmpCriteriaMatrix[l][r] = Double.parseDouble(values[r]);
-                                                }
-                                            }
-                                            else    {
-                                                throw new Exception("Wrong file format");
-                                            }
-                                        }
-                                        else    {
-                                            throw new Exception("Wrong file format");
-                                        }
-                                    }
-                                    this.setCriteriaMatrix(tmpCriteriaMatrix, fixMatrix);
-                                    
-                                }
-                                else    {
-                                    throw new Exception("Wrong file format");
                                 }
+                                this.setCriteriaMatrix(tmpCriteriaMatrix, fixMatrix);
+                                
                             }
                             else    {
-                                throw new Exception("Wrong file format");
+                                throw reader.error(0, "Wrong file format, expected criteriaMatrix line.");
                             }
-                        
-                        br.close();
                 }
-                catch (FileNotFoundException e) {
-        			e.printStackTrace();
-		}
-		catch (IOException e) {
-				e.printStackTrace();
-				
-                } catch (Exception e) {
-        			e.printStackTrace();
-		}
-               					
+                finally {
+                    reader.close();
+                }
     }
 	
         
@@ -280,8 +251,11 @@ public class AHP {
     public AHP() {
                 this.criteria = new LinkedList<Criterium>();
                 this.alternatives = new LinkedList<Alternative>();
+                this.ranking = new Ranking<Alternative>();
 		this.altsCriteriaValues = new LinkedList<SimpleMatrix>();
                 this.altsCriteriaValues_cr = new LinkedList<Double>();
+                this.altsCriteriaComparisons = new LinkedList<IncompleteComparisons>();
+                this.ratingScales = new LinkedList<RatingScale>();
                 this.epsilon = 0.0001;
                 this.calculated_ = false;
     }
@@ -298,10 +272,14 @@ public class AHP {
     public AHP(LinkedList<Criterium> criteria, LinkedList<Alternative> alternatives, LinkedList<SimpleMatrix> altsCriteriaValues, SimpleMatrix criteriaMatrix, double epsilon) {
                 this.criteria = criteria;
                 this.alternatives = alternatives;
+                this.ranking = new Ranking<Alternative>();
 		this.altsCriteriaValues = altsCriteriaValues;
                 this.altsCriteriaValues_cr = new LinkedList<Double>();
+                this.altsCriteriaComparisons = new LinkedList<IncompleteComparisons>();
+                this.ratingScales = new LinkedList<RatingScale>();
                 for(int i=0; i<this.altsCriteriaValues.size(); i++) {
                     this.altsCriteriaValues_cr.add(0.0);
+                    this.altsCriteriaComparisons.add(null);
                 }
                 this.criteriaMatrix = criteriaMatrix;
                 this.epsilon = epsilon;
@@ -360,6 +338,7 @@ public class AHP {
                             altsCriteriaValues.add(altsCriteriumValues);
                             this.altsCriteriaValues_cr.add(0.0);
                         }
+                        this.altsCriteriaComparisons.add(null);
                     }
                     else    
                        System.out.println("Wrong matrix size."); 
@@ -367,6 +346,45 @@ public class AHP {
                 else
                     System.out.println("Matrix is not square.");
 	}
+    
+    /**
+     * Adds incomplete pairwise comparisons of alternatives for specific criterium. AltsCriteriumValues has to be added in the same as order as respective criteria are added.
+     * Priorities are calculated by logarithmic least squares method in O(n+k) time per iteration, so alternatives can be compared with few other alternatives only.
+     * Matrix in which only some pairs are compared can be converted by IncompleteComparisons.of methods (from array with zeros for pairs which are not compared or from compressed sparse rows).
+     * Consistency ratio is not calculated for incomplete comparisons (it is equal to 0).
+     * @param comparisons IncompleteComparisons object with the same number of alternatives as AHP object.
+     */
+    public void addAltsCriteriumComparisons(IncompleteComparisons comparisons) {
+            if(alternatives.size() == comparisons.getAlternativesNum())    {
+                altsCriteriaValues.add(null);
+                altsCriteriaComparisons.add(comparisons);
+                this.altsCriteriaValues_cr.add(0.0);
+            }
+            else
+                System.out.println("Wrong number of alternatives.");
+        }
+    
+    /**
+     * Adds rating scale of the next criterium, used by calculateRatings() and rankFile() methods. Rating scales have to be added in the same order as respective criteria are added.
+     * @param scale RatingScale object.
+     */
+    public void addRatingScale(RatingScale scale) {
+            ratingScales.add(scale);
+        }
+    
+    /**
+     * Adds rating scale of the next criterium, used by calculateRatings() and rankFile() methods. Rating scales have to be added in the same order as respective criteria are added.
+     * @param intensities Names of the intensities of the scale (e.g. excellent, good, poor).
+     * @param rawComparisons Two dimensional double array representing pairwise comparison values of the intensities. E.g. value(i1,i2) = 3.0 means that intensity i1 is three times as good as intensity i2.
+     * @param fixMatrix Boolean flag allowing to run automatically run method whick adapts comparisons matrix to AHP method requirements: M(i,i) = 1, if i < j M(i,j) = rawComparisons(i,j) and if j<i M(i,j) = 1/rawComparisons(j,i).
+     */
+    public void addRatingScale(String[] intensities, double[][] rawComparisons, boolean fixMatrix) {
+            SimpleMatrix comparisons = new SimpleMatrix(rawComparisons);
+            if(fixMatrix)   {
+                comparisons = fixMatrix(comparisons);
+            }
+            ratingScales.add(new RatingScale(intensities, comparisons));
+        }
        
         /**
      * Sets epsilon value.
@@ -380,55 +398,182 @@ public class AHP {
      * Performs AHP method calculations on data added to AHP object.
      */
     public void calculate() {
-            criteriaWeights = calculateEigenVector(criteriaMatrix);
-            this.criteriaMatrix_cr = this.tmp_cr;
-            if(this.criteriaMatrix_cr>0.1)  {
-                System.out.println("WARNING! Criteria pairwise comparisons matrix is not consistent enough. Consistency index = " + this.criteriaMatrix_cr + ". You should evaluate pairwise comparisons once again.");
-            }
-            
-            for(int i=0; i<criteria.size(); i++)    {
-                criteria.get(i).setWeight(criteriaWeights.get(i));
-            }
+            calculateCriteriaWeights();
            
             alternativesCriteriaValues = new SimpleMatrix(alternatives.size(), criteria.size());
-            SimpleMatrix tmp;
-            int colNum = 0;
+            final SimpleMatrix[] matrices = altsCriteriaValues.toArray(new SimpleMatrix[altsCriteriaValues.size()]);
+            final IncompleteComparisons[] comparisons = altsCriteriaComparisons.toArray(new IncompleteComparisons[matrices.length]);
+            final PriorityVector[] priorities = new PriorityVector[matrices.length];
+            executor.forRange(0, matrices.length, 1, new ParallelExecutor.RangeTask() {
+                @Override
+                public void run(int from, int to) {
+                    for(int i=from; i<to; i++)  {
+                        if(matrices[i] != null)   {
+                            priorities[i] = calculateEigenVector(matrices[i]);
+                        }
+                        else    {
+                            priorities[i] = new PriorityVector(comparisons[i].calculatePriorities(), 0.0);
+                        }
+                    }
+                }
+            });
             
-            for(int i=0; i<altsCriteriaValues.size(); i++)  {
-                tmp = calculateEigenVector(altsCriteriaValues.get(i));
-                this.altsCriteriaValues_cr.set(i, tmp_cr);
-                if(this.tmp_cr>0.1)  {
-                    System.out.println("WARNING! Alternative pairwise comparisons matrix for criterium " + (i+1) + " is not consistent enough. Consistency index = " + this.tmp_cr + ". You should evaluate pairwise comparisons once again.");
+            for(int colNum=0; colNum<priorities.length; colNum++)  {
+                SimpleMatrix tmp = priorities[colNum].vector;
+                double cr = priorities[colNum].consistencyRatio;
+                this.altsCriteriaValues_cr.set(colNum, cr);
+                if(cr>0.1)  {
+                    System.out.println("WARNING! Alternative pairwise comparisons matrix for criterium " + (colNum+1) + " is not consistent enough. Consistency index = " + cr + ". You should evaluate pairwise comparisons once again.");
                 }
                 
                 for(int r = 0; r < alternatives.size(); r++)    {
                     alternativesCriteriaValues.set(r, colNum, tmp.get(r, 0));
                 }
-                colNum++;
             }
            
             alternativesValues = alternativesCriteriaValues.mult(criteriaWeights);
             
-            for(int i=0; i<alternatives.size(); i++)   {
-                alternatives.get(i).setScore(alternativesValues.get(i));
+            double[] scores = new double[alternatives.size()];
+            for(int i=0; i<scores.length; i++)  {
+                scores[i] = alternativesValues.get(i);
             }
+            setScores(scores);
+        }
+    
+    /**
+     * Performs AHP method calculations in ratings (absolute measurement) mode. Alternatives are not compared pairwise - each alternative is rated 
+     * on every criterium by intensity of the criterium rating scale, given as its criterium value (intensity order number, starting from 0).
+     * Priorities of the intensities are calculated once per criterium and score of alternative is the sum of criteria weights multiplied by 
+     * idealized priorities of its ratings, so calculations take O(n*m) time for n alternatives and m criteria. Criteria weights are calculated from criteriaMatrix as in calculate() method.
+     * @throws IllegalStateException if rating scale has not been added for every criterium.
+     * @throws IllegalArgumentException if some criterium value of some alternative is not an intensity order number.
+     */
+    public void calculateRatings() {
+            BatchScorer scorer = createRatingsScorer();
+            int criteriaNum = criteria.size();
+            DecisionMatrix matrix = DecisionMatrix.of(alternatives, criteriaNum, DecisionMatrix.Layout.COLUMN_MAJOR);
+            double[] scores = new double[alternatives.size()];
+            scorer.calculateScores(matrix, scores);
             
-            ranking = new LinkedList<Alternative>(alternatives);
-            Collections.sort(ranking, new Comparator<Alternative>() {
-             @Override
-             public int compare(Alternative o1, Alternative o2) {
-                 if(o1.getScore()<o2.getScore())    {
-                     return 1;
-                 }
-                 else if(o1.getScore()>o2.getScore())   {
-                     return -1;
-                 }
-                 return 0;
-             }
-            });
+            double[] values = matrix.getValues();
+            double[][] priorities = new double[criteriaNum][];
+            for(int c=0; c<criteriaNum; c++)    {
+                priorities[c] = ratingScales.get(c).getPriorities();
+            }
+            alternativesCriteriaValues = new SimpleMatrix(alternatives.size(), criteriaNum);
+            alternativesValues = new SimpleMatrix(alternatives.size(), 1);
+            for(int r=0; r<scores.length; r++)  {
+                int offset = matrix.index(0, r);
+                for(int c=0; c<criteriaNum; c++)    {
+                    alternativesCriteriaValues.set(r, c, priorities[c][(int) values[offset+c]]);
+                }
+                alternativesValues.set(r, 0, scores[r]);
+            }
+            setScores(scores);
+        }
+    
+    /**
+     * Scores alternatives rated in data file batch by batch and returns k best of them, without adding them to AHP object (ratings mode, see calculateRatings() method).
+     * Memory used does not depend on the number of alternatives in the file, so files with more alternatives than fits in memory can be ranked.
+     * Every line of the file contains ratings (intensity order numbers) of one alternative on all the criteria, the file is read as described in AlternativeBatches class,
+     * alternatives are identified by order numbers of their lines with ratings. Scores are equal to the ones calculated by calculateRatings() method.
+     * @param filename Path to the file.
+     * @param k Number of best alternatives to return.
+     * @param batchSize Number of alternatives read at once.
+     * @return TopScores object with order numbers and scores of k best alternatives.
+     * @throws DataFileException if the file can not be read or has wrong format.
+     * @throws IllegalStateException if rating scale has not been added for every criterium.
+     * @throws IllegalArgumentException if some rating is not an intensity order number.
+     */
+    public TopScores rankFile(String filename, int k, int batchSize)  {
+        BatchScorer scorer = createRatingsScorer();
+        AlternativeBatches batches = new AlternativeBatches(filename, criteria.size(), batchSize, DecisionMatrix.Layout.COLUMN_MAJOR);
+        try {
+            return batches.rank(scorer, k);
+        }
+        finally {
+            batches.close();
+        }
+    }
+    
+    /**
+     * Calculates criteria weights and criteriaMatrix consistency ratio, sets weights of the criteria.
+     */
+    private void calculateCriteriaWeights() {
+            PriorityVector criteriaPriorities = calculateEigenVector(criteriaMatrix);
+            criteriaWeights = criteriaPriorities.vector;
+            this.criteriaMatrix_cr = criteriaPriorities.consistencyRatio;
+            if(this.criteriaMatrix_cr>0.1)  {
+                System.out.println("WARNING! Criteria pairwise comparisons matrix is not consistent enough. Consistency index = " + this.criteriaMatrix_cr + ". You should evaluate pairwise comparisons once again.");
+            }
+            
+            int i = 0;
+            for(Iterator<Criterium> it = criteria.iterator(); it.hasNext(); i++)    {
+                it.next().setWeight(criteriaWeights.get(i));
+            }
+        }
+    
+    /**
+     * Sets scores of the alternatives and creates ranking.
+     * @param scores Scores of the alternatives in order of their order numbers.
+     */
+    private void setScores(double[] scores) {
+            int i = 0;
+            for(Iterator<Alternative> it = alternatives.iterator(); it.hasNext(); i++)   {
+                it.next().setScore(scores[i]);
+            }
+            
+            ranking = new Ranking<Alternative>(alternatives, scores);
             
             calculated_ = true;
         }
+    
+    /**
+     * Calculates criteria weights and idealized priorities of all the rating scales, then creates scorer of rated alternatives.
+     * @return BatchScorer object calculating scores of alternatives from their ratings in O(m) time per alternative.
+     * @throws IllegalStateException if rating scale has not been added for every criterium.
+     */
+    private BatchScorer createRatingsScorer() {
+            if(ratingScales.size() != criteria.size())  {
+                throw new IllegalStateException("Expected " + criteria.size() + " rating scales (one per criterium), got " + ratingScales.size() + ".");
+            }
+            calculateCriteriaWeights();
+            
+            final int criteriaNum = criteria.size();
+            final double[] weights = new double[criteriaNum];
+            final double[][] priorities = new double[criteriaNum][];
+            int c = 0;
+            for(Iterator<RatingScale> it = ratingScales.iterator(); it.hasNext(); c++)   {
+                RatingScale scale = it.next();
+                PriorityVector scalePriorities = calculateEigenVector(scale.getComparisonsMatrix());
+                scale.setPriorities(scalePriorities.vector, scalePriorities.consistencyRatio);
+                if(scalePriorities.consistencyRatio>0.1)  {
+                    System.out.println("WARNING! Rating scale pairwise comparisons matrix for criterium " + (c+1) + " is not consistent enough. Consistency index = " + scalePriorities.consistencyRatio + ". You should evaluate pairwise comparisons once again.");
+                }
+                weights[c] = criteriaWeights.get(c);
+                priorities[c] = scale.getPriorities();
+            }
+            
+            return new BatchScorer() {
+                @Override
+                public void calculateScores(DecisionMatrix batch, double[] scores) {
+                    double[] values = batch.getValues();
+                    for(int i=0; i<batch.getAlternativesNum(); i++)    {
+                        double score = 0;
+                        int offset = batch.index(0, i);
+                        for(int j=0; j<criteriaNum; j++)    {
+                            double rating = values[offset+j];
+                            int intensity = (int) rating;
+                            if(intensity != rating || intensity < 0 || intensity >= priorities[j].length)   {
+                                throw new IllegalArgumentException("Rating " + rating + " on criterium " + (j+1) + " is not an intensity order number of its rating scale.");
+                            }
+                            score = score + weights[j]*priorities[j][intensity];
+                        }
+                        scores[i] = score;
+                    }
+                }
+            };
+        }
         
 	
 	/**
@@ -451,11 +596,54 @@ public class AHP {
 	}
 	
         
+        /**
+         * Priority vector of pairwise comparisons matrix with consistency ratio of the matrix.
+         */
+        private static class PriorityVector {
+            
+            /**
+             * Eigen vector normalized to sum 1.
+             */
+            final SimpleMatrix vector;
+            
+            /**
+             * Consistency ratio of the matrix.
+             */
+            final double consistencyRatio;
+            
+            /**
+             * PriorityVector constructor.
+             * @param vector Eigen vector normalized to sum 1.
+             * @param consistencyRatio Consistency ratio of the matrix.
+             */
+            PriorityVector(SimpleMatrix vector, double consistencyRatio) {
+                this.vector = vector;
+                this.consistencyRatio = consistencyRatio;
+            }
+        }
+        
+        /** 
+         * Calculates eigen vector of the matrix provided as a parameter with matrix consinstency ratio. It does not change the state of AHP object, so it can be called in parallel.
+         * Power iteration is used by default, eigen decomposition if it is selected by setEigenvectorMethod method or if power iteration does not converge.
+         * @param matrix Matrix for which eigen vector will be calculated.
+         * @return PriorityVector object.
+         */
+	private PriorityVector calculateEigenVector(SimpleMatrix matrix) {
+                        if(eigenvectorMethod == EigenvectorMethod.POWER_ITERATION)  {
+                            PowerIteration power = new PowerIteration(matrix);
+                            if(power.solve())   {
+                                return new PriorityVector(power.getVector(), consistencyRatio(power.getLambdaMax(), matrix.numRows()));
+                            }
+                        }
+                        return calculateEigenVectorEVD(matrix);
+	}
+        
         /** 
-         * Calculates eigen vector of the matrix provided as a parameter. Additionaly it saves matrix consinstency ratio to tmp_cr variable.
+         * Calculates eigen vector of the matrix provided as a parameter by eigen decomposition, with matrix consinstency ratio.
          * @param matrix Matrix for which eigen vector will be calculated.
+         * @return PriorityVector object.
          */
-	private SimpleMatrix calculateEigenVector(SimpleMatrix matrix) {
+	private PriorityVector calculateEigenVectorEVD(SimpleMatrix matrix) {
                         SimpleMatrix tmp = matrix;
 			SimpleEVD  decomp;
                         double error = 0;
@@ -476,11 +664,7 @@ public class AHP {
                             }     
                             eigenVector1 = eigenVector2;
                            
-                        if(matrix.numCols()<=15) {
-                                double eigMax = decomp.getEigenvalue(decomp.getIndexMax()).getMagnitude();
-                                double consistencyIndex = (eigMax - matrix.numCols())/(matrix.numCols()-1);
-                                this.tmp_cr = consistencyIndex/AHP.randomConsistencyIndex[matrix.numCols()];
-                        }
+                        double eigMax = decomp.getEigenvalue(decomp.getIndexMax()).getMagnitude();
                         
                         while (error>epsilon) {
                             error = 0;
@@ -501,7 +685,7 @@ public class AHP {
                             eigenVector1 = eigenVector2;
                         } 
                         
-                        return eigenVector1;
+                        return new PriorityVector(eigenVector1, consistencyRatio(eigMax, matrix.numRows()));
 	}
         
    
@@ -557,11 +741,21 @@ public class AHP {
 
         /**
      * Returns ranking - all the alternatives in AHP object ordered by their score calculated by AHP method. 
+     * The whole ranking is ordered on first call, use getTopAlternatives method if only the best alternatives are needed.
      * @return LinkedList object containing Alternative objects ordered by their AHP score. 
      */
     public LinkedList<Alternative> getRanking() {
-            return ranking;
+            return ranking.toList();
         }
+    
+    /**
+     * Returns k best alternatives of ranking calculated by AHP method, without ordering the rest of the ranking.
+     * @param k Number of alternatives.
+     * @return LinkedList object containing at most k Alternative objects ordered by their AHP score.
+     */
+    public LinkedList<Alternative> getTopAlternatives(int k) {
+        return ranking.top(k);
+    }
 
         /**
      * Returns AHP score of i-th alternative.
@@ -648,7 +842,7 @@ public class AHP {
      * @return Alternative object of alternative with wanted rank.
      */
     public Alternative getAlternativeByRank(int rank)    {
-        return ranking.get(rank-1);
+        return ranking.get(rank);
     }        
     
     /**
@@ -670,11 +864,20 @@ public class AHP {
     /**
      * Returns i'th alternatives' criterium pariwise comparisons values matrix.
      * @param i Order number of the criterium.
-     * @return Alternatives' criterium parwise comparisons values matrix.
+     * @return Alternatives' criterium parwise comparisons values matrix, null if incomplete comparisons were added for the criterium.
      */
     public SimpleMatrix getAltsCriteriaValues(int i) {
         return altsCriteriaValues.get(i);
     }
+    
+    /**
+     * Returns i'th alternatives' criterium incomplete pairwise comparisons.
+     * @param i Order number of the criterium.
+     * @return IncompleteComparisons object, null if comparisons matrix was added for the criterium.
+     */
+    public IncompleteComparisons getAltsCriteriaComparisons(int i) {
+        return altsCriteriaComparisons.get(i);
+    }
 
     /**
      * Returns consistency ratio of the i'th alternatives' criterium pariwise comparisons values matrix.
@@ -685,6 +888,23 @@ public class AHP {
         return altsCriteriaValues_cr.get(i);
     }
 
+    /**
+     * Returns rating scale of the i'th criterium.
+     * @param i Order number of the criterium.
+     * @return RatingScale object.
+     */
+    public RatingScale getRatingScale(int i) {
+        return ratingScales.get(i);
+    }
+    
+    /**
+     * Returns number of rating scales added to AHP object.
+     * @return Number of rating scales.
+     */
+    public int getRatingScalesNum() {
+        return ratingScales.size();
+    }
+
     /**
      * Returns criteria importance pairwise comparisons values matrix.
      * @return Criteria importance pairwise comparisons values matrix.
@@ -702,19 +922,85 @@ public class AHP {
     }
     
     
+    /**
+     * Calculates consistency ratio of pairwise comparisons matrix. Principal eigenvalue is calculated by power iteration,
+     * or by eigen decomposition if it is selected by setEigenvectorMethod method or if power iteration does not converge.
+     * @param matrix Pairwise comparisons matrix.
+     * Random consistency index of matrices larger than 15 x 15 is simulated on first use (see RandomConsistencyIndex class).
+     * @return Consistency ratio of the matrix.
+     */
     public double calculateConsistencyRatio(SimpleMatrix matrix) {
-			SimpleEVD  decomp;
-                          
-                        decomp = matrix.eig();                           
-                        if(matrix.numCols()<=15) {
-                                double eigMax = decomp.getEigenvalue(decomp.getIndexMax()).getMagnitude();
-                                double consistencyIndex = (eigMax - matrix.numCols())/(matrix.numCols()-1);
-                                return consistencyIndex/AHP.randomConsistencyIndex[matrix.numCols()];
+                        double eigMax;
+                        PowerIteration power = new PowerIteration(matrix);
+                        if(eigenvectorMethod == EigenvectorMethod.POWER_ITERATION && power.solve())   {
+                            eigMax = power.getLambdaMax();
                         }
                         else    {
-                            System.out.println("WARNING! This matrix is too big to calculate proper consistency ration.");
-                            return 0.0;
+                            SimpleEVD decomp = matrix.eig();
+                            eigMax = decomp.getEigenvalue(decomp.getIndexMax()).getMagnitude();
                         }
-              
+                        return consistencyRatio(eigMax, matrix.numCols());
+    }
+    
+    /**
+     * Calculates consistency ratio from principal eigenvalue of pairwise comparisons matrix.
+     * @param eigMax Principal eigenvalue (lambda max).
+     * @param n Size of the matrix.
+     * @return Consistency ratio, 0 for matrices smaller than 3 x 3 (which are always consistent).
+     */
+    private double consistencyRatio(double eigMax, int n) {
+        if(n < 3)   {
+            return 0.0;
+        }
+        double consistencyIndex = (eigMax - n)/(n-1);
+        return consistencyIndex/randomConsistencyIndex.getIndex(n);
+    }
+    
+    /**
+     * Sets provider of random consistency index values used to calculate consistency ratios.
+     * @param randomConsistencyIndex RandomConsistencyIndex object, by default the one returned by RandomConsistencyIndex.getDefault() method.
+     */
+    public void setRandomConsistencyIndex(RandomConsistencyIndex randomConsistencyIndex)    {
+        this.randomConsistencyIndex = randomConsistencyIndex;
+    }
+    
+    /**
+     * Returns provider of random consistency index values used to calculate consistency ratios.
+     * @return RandomConsistencyIndex object.
+     */
+    public RandomConsistencyIndex getRandomConsistencyIndex()    {
+        return randomConsistencyIndex;
+    }
+    
+    /**
+     * Sets number of threads used to calculate priority vectors of alternatives' criteria pairwise comparisons matrices.
+     * @param parallelism Number of threads, value lower than 1 means number of available processors.
+     */
+    public void setParallelism(int parallelism)    {
+        executor = new ParallelExecutor(parallelism);
+    }
+    
+    /**
+     * Returns number of threads used to calculate priority vectors of alternatives' criteria pairwise comparisons matrices.
+     * @return Number of threads.
+     */
+    public int getParallelism()    {
+        return executor.getParallelism();
+    }
+    
+    /**
+     * Sets method of priority vectors calculation.
+     * @param eigenvectorMethod POWER_ITERATION (default) or EVD.
+     */
+    public void setEigenvectorMethod(EigenvectorMethod eigenvectorMethod)    {
+        this.eigenvectorMethod = eigenvectorMethod;
+    }
+    
+    /**
+     * Returns method of priority vectors calculation.
+     * @return Eigenvector method.
+     */
+    public EigenvectorMethod getEigenvectorMethod()    {
+        return eigenvectorMethod;
     }
 }
@@ -0,0 +1,297 @@
+package methods.AHP;
+
+import java.util.Arrays;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.ConjugateGradient;
+import org.apache.commons.math3.linear.JacobiPreconditioner;
+import org.apache.commons.math3.linear.RealLinearOperator;
+import org.apache.commons.math3.linear.RealVector;
+import org.ejml.simple.SimpleMatrix;
+
+/**
+ * Incomplete set of pairwise comparisons of alternatives for one criterium, used by AHP class instead of full n x n matrix.
+ * Only given comparisons are stored (as lists of compared pairs), so k comparisons per alternative take O(n*k) memory.
+ * Priorities are calculated by logarithmic least squares method: logarithms of priorities minimize sum of squared differences
+ * ln(a(i,j)) - (ln(w(i)) - ln(w(j))) over given comparisons. Normal equations of this problem form Laplacian system of comparisons graph,
+ * which is solved by preconditioned conjugate gradient method in O(n+k) time per iteration. For complete matrix the result is equal to row geometric means.
+ * Comparisons graph has to be connected, otherwise priorities of some alternatives can not be compared.
+ */
+public class IncompleteComparisons {
+
+    /**
+     * Relative residual norm at which conjugate gradient iteration stops.
+     */
+    static final double TOLERANCE = 1e-12;
+
+    /**
+     * Number of compared alternatives.
+     */
+    private final int n;
+
+    /**
+     * First alternative of every comparison.
+     */
+    private int[] first;
+
+    /**
+     * Second alternative of every comparison.
+     */
+    private int[] second;
+
+    /**
+     * Logarithm of comparison value of every comparison.
+     */
+    private double[] logValues;
+
+    /**
+     * Number of comparisons.
+     */
+    private int size;
+
+    /**
+     * IncompleteComparisons constructor, creates empty set of comparisons.
+     * @param n Number of compared alternatives.
+     */
+    public IncompleteComparisons(int n) {
+        if(n < 1)   {
+            throw new IllegalArgumentException("Number of alternatives has to be positive, got " + n + ".");
+        }
+        this.n = n;
+        this.first = new int[16];
+        this.second = new int[16];
+        this.logValues = new double[16];
+    }
+
+    /**
+     * Creates set of comparisons from matrix in which zero means that the pair is not compared, every non-zero element outside the diagonal is one comparison.
+     * If both a(i,j) and a(j,i) are given, both are used - they give the same result as one of them if they are reciprocal.
+     * @param matrix Square matrix, element [i][j] = 2.0 means that i-th alternative is twice as good as j-th one.
+     * @return IncompleteComparisons object.
+     */
+    public static IncompleteComparisons of(double[][] matrix) {
+        int n = matrix.length;
+        IncompleteComparisons comparisons = new IncompleteComparisons(n);
+        for(int i=0; i<n; i++)  {
+            if(matrix[i].length != n)   {
+                throw new IllegalArgumentException("Matrix is not square.");
+            }
+            for(int j=0; j<n; j++)  {
+                double value = matrix[i][j];
+                if(i != j && value != 0)  {
+                    comparisons.addComparison(i, j, value);
+                }
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Creates set of comparisons from sparse matrix in compressed sparse row format, every element outside the diagonal is one comparison.
+     * Creating the set takes O(n+k) time for k elements, so it can be used for large matrices which do not fit in memory as dense ones.
+     * If both a(i,j) and a(j,i) are given, both are used - they give the same result as one of them if they are reciprocal.
+     * @param rowStarts Array of size n+1, elements of i-th row are at positions from rowStarts[i] (inclusive) to rowStarts[i+1] (exclusive) of the other arrays.
+     * @param columns Column numbers of the elements.
+     * @param values Values of the elements, value 2.0 in row i and column j means that i-th alternative is twice as good as j-th one.
+     * @return IncompleteComparisons object.
+     */
+    public static IncompleteComparisons of(int[] rowStarts, int[] columns, double[] values) {
+        if(rowStarts.length < 2 || rowStarts[0] != 0 || columns.length != values.length || rowStarts[rowStarts.length-1] != columns.length)    {
+            throw new IllegalArgumentException("Wrong compressed sparse row matrix.");
+        }
+        int n = rowStarts.length - 1;
+        IncompleteComparisons comparisons = new IncompleteComparisons(n);
+        for(int i=0; i<n; i++)  {
+            if(rowStarts[i+1] < rowStarts[i])   {
+                throw new IllegalArgumentException("Wrong compressed sparse row matrix, row " + i + " ends before it starts.");
+            }
+            for(int e=rowStarts[i]; e<rowStarts[i+1]; e++)  {
+                if(columns[e] != i)  {
+                    comparisons.addComparison(i, columns[e], values[e]);
+                }
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Adds comparison of two alternatives.
+     * @param i Order number of the first alternative.
+     * @param j Order number of the second alternative.
+     * @param value Comparison value, e.g. 2.0 means that i-th alternative is twice as good as j-th one.
+     */
+    public void addComparison(int i, int j, double value) {
+        if(i < 0 || j < 0 || i >= n || j >= n || i == j)    {
+            throw new IllegalArgumentException("Wrong pair of alternatives (" + i + ", " + j + ") for " + n + " alternatives.");
+        }
+        if(!(value > 0) || Double.isInfinite(value))   {
+            throw new IllegalArgumentException("Comparison value has to be positive, got " + value + ".");
+        }
+        if(size == first.length)    {
+            first = Arrays.copyOf(first, 2*size);
+            second = Arrays.copyOf(second, 2*size);
+            logValues = Arrays.copyOf(logValues, 2*size);
+        }
+        first[size] = i;
+        second[size] = j;
+        logValues[size] = Math.log(value);
+        size++;
+    }
+
+    /**
+     * Returns number of compared alternatives.
+     * @return Number of alternatives.
+     */
+    public int getAlternativesNum() {
+        return n;
+    }
+
+    /**
+     * Returns number of comparisons.
+     * @return Number of comparisons.
+     */
+    public int getComparisonsNum() {
+        return size;
+    }
+
+    /**
+     * Returns comparisons as reciprocal matrix with ones on the diagonal and zeros for pairs which are not compared.
+     * If some pair was compared more than once, the last comparison is used. Matrix takes O(n^2) memory, so it is meant for small sets.
+     * @return Array of size n x n.
+     */
+    public double[][] toMatrix() {
+        double[][] matrix = new double[n][n];
+        for(int i=0; i<n; i++)  {
+            matrix[i][i] = 1;
+        }
+        for(int c=0; c<size; c++)   {
+            double value = Math.exp(logValues[c]);
+            matrix[first[c]][second[c]] = value;
+            matrix[second[c]][first[c]] = 1/value;
+        }
+        return matrix;
+    }
+
+    /**
+     * Checks if comparisons graph is connected, by union-find.
+     * @return True if every alternative is compared (directly or through other alternatives) with every other one.
+     */
+    public boolean isConnected() {
+        int[] parent = new int[n];
+        for(int i=0; i<n; i++)  {
+            parent[i] = i;
+        }
+        int components = n;
+        for(int c=0; c<size; c++)   {
+            int a = find(parent, first[c]);
+            int b = find(parent, second[c]);
+            if(a != b)  {
+                parent[a] = b;
+                components--;
+            }
+        }
+        return components == 1;
+    }
+
+    /**
+     * Finds representative of alternative set, compressing the path.
+     * @param parent Parent array of union-find structure.
+     * @param i Alternative order number.
+     * @return Order number of set representative.
+     */
+    private static int find(int[] parent, int i) {
+        int root = i;
+        while(parent[root] != root) {
+            root = parent[root];
+        }
+        while(parent[i] != root)    {
+            int next = parent[i];
+            parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    /**
+     * Calculates priorities of the alternatives by logarithmic least squares method.
+     * @return Column matrix with priorities normalized to sum 1.
+     * @throws IllegalStateException if comparisons graph is not connected.
+     */
+    public SimpleMatrix calculatePriorities() {
+        if(!isConnected())  {
+            throw new IllegalStateException("Comparisons of " + n + " alternatives do not connect all of them, priorities can not be calculated.");
+        }
+        double[] degrees = new double[n];
+        double[] rhs = new double[n];
+        for(int c=0; c<size; c++)   {
+            degrees[first[c]]++;
+            degrees[second[c]]++;
+            rhs[first[c]] = rhs[first[c]] + logValues[c];
+            rhs[second[c]] = rhs[second[c]] - logValues[c];
+        }
+        // Laplacian is singular (constant vectors), adding mean of x to every row makes it positive definite without changing differences of the solution
+        double[] diagonal = new double[n];
+        for(int i=0; i<n; i++)  {
+            diagonal[i] = degrees[i] + 1.0/n;
+        }
+        RealLinearOperator laplacian = new LaplacianOperator(degrees);
+        ConjugateGradient solver = new ConjugateGradient(Math.max(1000, 10*n), TOLERANCE, false);
+        RealVector logPriorities = solver.solve(laplacian, new JacobiPreconditioner(diagonal, false), new ArrayRealVector(rhs, false));
+
+        SimpleMatrix priorities = new SimpleMatrix(n, 1);
+        double max = logPriorities.getMaxValue();
+        double sum = 0;
+        for(int i=0; i<n; i++)  {
+            double value = Math.exp(logPriorities.getEntry(i) - max);
+            priorities.set(i, 0, value);
+            sum = sum + value;
+        }
+        for(int i=0; i<n; i++)  {
+            priorities.set(i, 0, priorities.get(i, 0)/sum);
+        }
+        return priorities;
+    }
+
+    /**
+     * Laplacian of comparisons graph shifted by matrix of ones divided by n, applied in O(n+k) time without creating any matrix.
+     */
+    private class LaplacianOperator extends RealLinearOperator {
+
+        /**
+         * Number of comparisons of every alternative.
+         */
+        private final double[] degrees;
+
+        LaplacianOperator(double[] degrees) {
+            this.degrees = degrees;
+        }
+
+        @Override
+        public int getRowDimension() {
+            return n;
+        }
+
+        @Override
+        public int getColumnDimension() {
+            return n;
+        }
+
+        @Override
+        public RealVector operate(RealVector x) {
+            double[] values = x.toArray();
+            double mean = 0;
+            for(int i=0; i<n; i++)  {
+                mean = mean + values[i];
+            }
+            mean = mean / n;
+            double[] result = new double[n];
+            for(int i=0; i<n; i++)  {
+                result[i] = degrees[i]*values[i] + mean;
+            }
+            for(int c=0; c<size; c++)   {
+                result[first[c]] = result[first[c]] - values[second[c]];
+                result[second[c]] = result[second[c]] - values[first[c]];
+            }
+            return new ArrayRealVector(result, false);
+        }
+    }
+}
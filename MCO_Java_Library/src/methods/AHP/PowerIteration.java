@@ -0,0 +1,139 @@
+package methods.AHP;
+
+import org.ejml.simple.SimpleMatrix;
+
+/**
+ * Power iteration solver calculating principal (Perron) eigenvector and eigenvalue of pairwise comparisons matrix, used by AHP class.
+ * For positive (or irreducible non-negative) matrix the principal eigenvector is positive and repeated multiplication of positive vector by the matrix converges to it,
+ * each step costs O(n^2) time instead of O(n^3) time of full eigen decomposition.
+ * Iteration starts from normalized row sums of the matrix, which is already a good approximation for nearly consistent matrices.
+ */
+class PowerIteration {
+
+    /**
+     * Maximal number of iterations, if the vector does not converge in this number of steps calculations are abandoned.
+     */
+    static final int MAX_ITERATIONS = 1000;
+
+    /**
+     * Convergence tolerance per matrix row - iteration stops when sum of absolute changes of normalized vector elements is not larger than n times this value.
+     */
+    static final double TOLERANCE = 1e-15;
+
+    /**
+     * Matrix values in row-major order.
+     */
+    private final double[] values;
+
+    /**
+     * Size of the matrix.
+     */
+    private final int n;
+
+    /**
+     * Principal eigenvector normalized to sum 1.
+     */
+    private double[] vector;
+
+    /**
+     * Principal eigenvalue.
+     */
+    private double lambdaMax;
+
+    /**
+     * Number of performed iterations.
+     */
+    private int iterations;
+
+    /**
+     * PowerIteration constructor.
+     * @param matrix Square pairwise comparisons matrix.
+     */
+    PowerIteration(SimpleMatrix matrix) {
+        this.n = matrix.numRows();
+        this.values = matrix.getMatrix().getData();
+    }
+
+    /**
+     * Calculates principal eigenvector and eigenvalue.
+     * @return True if iteration converged, false if matrix has negative elements or zero row or iteration did not converge (e.g. for reducible matrix with zeros).
+     */
+    boolean solve() {
+        double[] current = new double[n];
+        double[] next = new double[n];
+        double sum = 0;
+        for(int i=0; i<n; i++)  {
+            double rowSum = 0;
+            for(int j=0; j<n; j++)  {
+                double value = values[i*n+j];
+                if(!(value >= 0))   {
+                    return false;
+                }
+                rowSum = rowSum + value;
+            }
+            if(rowSum == 0) {
+                return false;
+            }
+            current[i] = rowSum;
+            sum = sum + rowSum;
+        }
+        for(int i=0; i<n; i++)  {
+            current[i] = current[i] / sum;
+        }
+        for(iterations=1; iterations<=MAX_ITERATIONS; iterations++)  {
+            // for vector with sum 1 sum of the product elements is the Rayleigh-like estimate of the eigenvalue
+            double lambda = 0;
+            for(int i=0; i<n; i++)  {
+                double product = 0;
+                int offset = i*n;
+                for(int j=0; j<n; j++)  {
+                    product = product + values[offset+j] * current[j];
+                }
+                next[i] = product;
+                lambda = lambda + product;
+            }
+            double change = 0;
+            for(int i=0; i<n; i++)  {
+                next[i] = next[i] / lambda;
+                change = change + Math.abs(next[i] - current[i]);
+            }
+            double[] swap = current;
+            current = next;
+            next = swap;
+            if(change <= n * TOLERANCE) {
+                vector = current;
+                lambdaMax = lambda;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns principal eigenvector calculated by solve() method.
+     * @return Column matrix with eigenvector normalized to sum 1.
+     */
+    SimpleMatrix getVector() {
+        SimpleMatrix result = new SimpleMatrix(n, 1);
+        for(int i=0; i<n; i++)  {
+            result.set(i, 0, vector[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns principal eigenvalue calculated by solve() method.
+     * @return Principal eigenvalue (lambda max).
+     */
+    double getLambdaMax() {
+        return lambdaMax;
+    }
+
+    /**
+     * Returns number of iterations performed by solve() method.
+     * @return Number of iterations.
+     */
+    int getIterations() {
+        return iterations;
+    }
+}
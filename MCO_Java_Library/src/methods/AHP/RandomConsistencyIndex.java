@@ -0,0 +1,311 @@
+package methods.AHP;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Random;
+import methods.BasicTypes.CsvReader;
+import methods.BasicTypes.DataFileException;
+import methods.BasicTypes.ParallelExecutor;
+import org.ejml.simple.SimpleMatrix;
+
+/**
+ * Provider of random consistency index RI(n) - average consistency index of random reciprocal pairwise comparisons matrices of size n,
+ * used by AHP class to calculate consistency ratio CR = CI/RI of matrix of any size.
+ * For n up to 15 published values are used. For larger matrices RI(n) is estimated by Monte Carlo simulation: elements above the diagonal
+ * are drawn uniformly from Saaty scale (1/9, 1/8, ..., 1, 2, ..., 9), principal eigenvalue of every sample is calculated by power iteration
+ * and samples are processed in parallel. Number of samples decreases with n, because variance of the index decreases while cost of a sample grows as n^2.
+ * Samples are drawn in fixed blocks, every block by its own generator seeded from simulation seed, matrix size and block number,
+ * so simulated value depends on the seed only (not on number of threads) and consistency ratio of large matrices is reproducible.
+ * Simulated values are kept in memory, so every size is simulated once by one provider. Optionally they are also appended to cache file
+ * (lines with n, RI(n) and number of samples) given by the program, values read from the file are trusted, so it should not be writable by other users.
+ * Cache file errors are not reported - values which can not be read or written are simulated again.
+ */
+public class RandomConsistencyIndex {
+
+    /**
+     * Published random consistency index values for n = 1, ..., 15 (value for size n at index n-1).
+     */
+    private static final double[] TABLE = {0, 0, 0.52, 0.89, 1.11, 1.25, 1.35, 1.40, 1.45, 1.49, 1.51, 1.54, 1.56, 1.57, 1.58};
+
+    /**
+     * Total number of matrix elements of all the samples of one simulation.
+     */
+    static final long SAMPLES_BUDGET = 50000000L;
+
+    /**
+     * Minimal number of samples of one simulation.
+     */
+    static final int MIN_SAMPLES = 100;
+
+    /**
+     * Maximal number of samples of one simulation.
+     */
+    static final int MAX_SAMPLES = 10000;
+
+    /**
+     * Number of samples drawn by one generator.
+     */
+    static final int BLOCK_SAMPLES = 64;
+
+    /**
+     * Seed of simulation used by getIndex method.
+     */
+    public static final long DEFAULT_SEED = 0x52493A4148504CL;
+
+    /**
+     * Saaty scale values from which matrix elements are drawn.
+     */
+    private static final double[] SCALE = {1.0/9, 1.0/8, 1.0/7, 1.0/6, 1.0/5, 1.0/4, 1.0/3, 1.0/2, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+    /**
+     * Provider shared by AHP objects, values are kept in memory only.
+     */
+    private static RandomConsistencyIndex defaultProvider;
+
+    /**
+     * Cache file, null if values are kept in memory only.
+     */
+    private final File cacheFile;
+
+    /**
+     * Values known so far (read from cache file or simulated), by matrix size.
+     */
+    private final HashMap<Integer, Double> values;
+
+    /**
+     * Executor running simulation samples in parallel.
+     */
+    private ParallelExecutor executor;
+
+    /**
+     * RandomConsistencyIndex constructor, simulated values are kept in memory only.
+     */
+    public RandomConsistencyIndex() {
+        this(null);
+    }
+
+    /**
+     * RandomConsistencyIndex constructor, reads values cached in the file. Values read from the file are not checked by simulation.
+     * @param cacheFile Cache file, it is created on first simulation if it does not exist. Null if values should be kept in memory only.
+     */
+    public RandomConsistencyIndex(File cacheFile) {
+        this.cacheFile = cacheFile;
+        this.values = new HashMap<Integer, Double>();
+        this.executor = new ParallelExecutor(0);
+        readCache();
+    }
+
+    /**
+     * Returns provider shared by AHP objects by default, it keeps simulated values in memory only.
+     * Provider with cache file has to be created by the program and set by AHP.setRandomConsistencyIndex method.
+     * @return RandomConsistencyIndex object.
+     */
+    public static synchronized RandomConsistencyIndex getDefault() {
+        if(defaultProvider == null) {
+            defaultProvider = new RandomConsistencyIndex();
+        }
+        return defaultProvider;
+    }
+
+    /**
+     * Returns random consistency index of matrices of size n, it is simulated with DEFAULT_SEED if it is not known yet.
+     * Simulation runs without holding the lock of this object, so other sizes can be read or simulated at the same time.
+     * If the same size is simulated by two threads at once, both get the same value, because simulation is seeded.
+     * @param n Size of the matrix.
+     * @return Random consistency index RI(n), 0 for n lower than 3.
+     */
+    public double getIndex(int n) {
+        if(n <= TABLE.length)   {
+            return n < 1 ? 0.0 : TABLE[n-1];
+        }
+        synchronized(this)  {
+            Double value = values.get(n);
+            if(value != null)   {
+                return value;
+            }
+        }
+        int samples = getSamplesNum(n);
+        double value = simulate(n, samples, DEFAULT_SEED);
+        synchronized(this)  {
+            if(!values.containsKey(n))  {
+                values.put(n, value);
+                writeCache(n, value, samples);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns number of samples used to simulate random consistency index of matrices of size n.
+     * @param n Size of the matrix.
+     * @return Number of samples.
+     */
+    public static int getSamplesNum(int n) {
+        long samples = SAMPLES_BUDGET / ((long) n * n);
+        return (int) Math.max(MIN_SAMPLES, Math.min(MAX_SAMPLES, samples));
+    }
+
+    /**
+     * Estimates random consistency index of matrices of size n by Monte Carlo simulation with DEFAULT_SEED, without using or updating the cache.
+     * @param n Size of the matrix (at least 3).
+     * @param samples Number of random matrices.
+     * @return Average consistency index of the random matrices.
+     */
+    public double simulate(int n, int samples) {
+        return simulate(n, samples, DEFAULT_SEED);
+    }
+
+    /**
+     * Estimates random consistency index of matrices of size n by Monte Carlo simulation, without using or updating the cache.
+     * Result depends on the arguments only, not on number of threads.
+     * @param n Size of the matrix (at least 3).
+     * @param samples Number of random matrices.
+     * @param seed Seed of the simulation.
+     * @return Average consistency index of the random matrices.
+     */
+    public double simulate(final int n, final int samples, long seed) {
+        if(n < 3 || samples < 1)   {
+            throw new IllegalArgumentException("Matrix size has to be at least 3 and number of samples has to be positive.");
+        }
+        final long sizeSeed = mixSeed(seed, n);
+        int blocks = (samples + BLOCK_SAMPLES - 1) / BLOCK_SAMPLES;
+        // sums of blocks are added in block order after the simulation, so rounding does not depend on threads
+        final double[] sums = new double[blocks];
+        final int[] counts = new int[blocks];
+        int chunks = Math.max(1, executor.getParallelism() * 4);
+        int grain = Math.max(1, (blocks + chunks - 1) / chunks);
+        executor.forRange(0, blocks, grain, new ParallelExecutor.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                Random random = new Random();
+                SimpleMatrix matrix = new SimpleMatrix(n, n);
+                double[] data = matrix.getMatrix().getData();
+                for(int block=from; block<to; block++)  {
+                    random.setSeed(mixSeed(sizeSeed, block));
+                    int last = Math.min(samples, (block+1)*BLOCK_SAMPLES);
+                    double sum = 0;
+                    int count = 0;
+                    for(int s=block*BLOCK_SAMPLES; s<last; s++)  {
+                        for(int i=0; i<n; i++)  {
+                            data[i*n+i] = 1;
+                            for(int j=i+1; j<n; j++)    {
+                                double value = SCALE[random.nextInt(SCALE.length)];
+                                data[i*n+j] = value;
+                                data[j*n+i] = 1/value;
+                            }
+                        }
+                        PowerIteration power = new PowerIteration(matrix);
+                        // positive matrix always converges, the check only protects the average
+                        if(power.solve())   {
+                            sum = sum + (power.getLambdaMax() - n)/(n-1);
+                            count++;
+                        }
+                    }
+                    sums[block] = sum;
+                    counts[block] = count;
+                }
+            }
+        });
+        double sum = 0;
+        long count = 0;
+        for(int block=0; block<blocks; block++) {
+            sum = sum + sums[block];
+            count = count + counts[block];
+        }
+        return sum/count;
+    }
+
+    /**
+     * Mixes bits of a seed and a number (SplitMix64 finalizer), so that generators of consecutive sizes and blocks are not correlated.
+     * @param seed Seed.
+     * @param number Matrix size or block number.
+     * @return Mixed seed.
+     */
+    private static long mixSeed(long seed, int number) {
+        long z = seed + (number + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Reads values from cache file, lines which can not be read are ignored.
+     */
+    private void readCache() {
+        if(cacheFile == null || !cacheFile.isFile() || cacheFile.length() == 0)   {
+            return;
+        }
+        try {
+            CsvReader reader = new CsvReader(cacheFile.getPath());
+            try {
+                while(reader.nextLine())    {
+                    if(reader.getFieldsNum() == 3)  {
+                        int n = reader.getInt(0);
+                        double value = reader.getDouble(1);
+                        // published values are never replaced and malformed values are simulated again
+                        if(n > TABLE.length && value > 0 && !Double.isInfinite(value))  {
+                            values.put(n, value);
+                        }
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (DataFileException e) {
+            // values read before the wrong line are kept, the rest is simulated again
+        }
+    }
+
+    /**
+     * Appends simulated value to cache file.
+     * @param n Size of the matrix.
+     * @param value Random consistency index.
+     * @param samples Number of samples.
+     */
+    private void writeCache(int n, double value, int samples) {
+        if(cacheFile == null)   {
+            return;
+        }
+        try {
+            Writer writer = new FileWriter(cacheFile, true);
+            try {
+                writer.write(n + "," + value + "," + samples + "\n");
+            }
+            finally {
+                writer.close();
+            }
+        }
+        catch (IOException e) {
+            // value is kept in memory, it will be simulated again by the next program
+        }
+    }
+
+    /**
+     * Returns cache file.
+     * @return Cache file, null if values are kept in memory only.
+     */
+    public File getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * Sets number of threads used by simulation.
+     * @param parallelism Number of threads, value lower than 1 means number of available processors.
+     */
+    public void setParallelism(int parallelism)    {
+        executor = new ParallelExecutor(parallelism);
+    }
+
+    /**
+     * Returns number of threads used by simulation.
+     * @return Number of threads.
+     */
+    public int getParallelism()    {
+        return executor.getParallelism();
+    }
+}
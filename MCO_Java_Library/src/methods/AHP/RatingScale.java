@@ -0,0 +1,128 @@
+package methods.AHP;
+
+import org.ejml.simple.SimpleMatrix;
+
+/**
+ * Rating scale of one criterium, used by AHP method in ratings (absolute measurement) mode.
+ * Scale consists of few intensities (e.g. excellent, good, poor) compared pairwise by decision maker, instead of comparing all the alternatives.
+ * Priorities of intensities are calculated once by AHP object and idealized (divided by the largest one), so the best intensity has priority 1
+ * and score of an alternative does not depend on other alternatives. Alternative is rated by intensity order number (starting from 0) given as its criterium value.
+ * @see methods.AHP.AHP#calculateRatings()
+ */
+public class RatingScale {
+
+    /**
+     * Names of the intensities.
+     */
+    private final String[] intensities;
+
+    /**
+     * Intensities pairwise comparisons matrix.
+     */
+    private final SimpleMatrix comparisonsMatrix;
+
+    /**
+     * Idealized priorities of the intensities, null until calculated.
+     */
+    private double[] priorities;
+
+    /**
+     * Consistency ratio of comparisons matrix.
+     */
+    private double consistencyRatio;
+
+    /**
+     * RatingScale constructor.
+     * @param intensities Names of the intensities, intensity order numbers are their positions in the array.
+     * @param comparisonsMatrix Intensities pairwise comparisons matrix. E.g. value(i1,i2) = 3.0 means that intensity i1 is three times as good as intensity i2.
+     */
+    public RatingScale(String[] intensities, SimpleMatrix comparisonsMatrix) {
+        if(intensities.length == 0 || comparisonsMatrix.numRows() != intensities.length || comparisonsMatrix.numCols() != intensities.length)   {
+            throw new IllegalArgumentException("Intensities pairwise comparisons matrix has to be square matrix of size " + intensities.length + ".");
+        }
+        this.intensities = intensities.clone();
+        this.comparisonsMatrix = comparisonsMatrix;
+    }
+
+    /**
+     * Returns number of intensities of the scale.
+     * @return Number of intensities.
+     */
+    public int getIntensitiesNum() {
+        return intensities.length;
+    }
+
+    /**
+     * Returns name of i-th intensity.
+     * @param i Intensity order number.
+     * @return Intensity name.
+     */
+    public String getIntensityName(int i) {
+        return intensities[i];
+    }
+
+    /**
+     * Returns order number of intensity with given name, it can be used as criterium value of rated alternative.
+     * @param name Intensity name.
+     * @return Intensity order number or -1 if there is no such intensity.
+     */
+    public int getIntensity(String name) {
+        for(int i=0; i<intensities.length; i++) {
+            if(intensities[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns intensities pairwise comparisons matrix.
+     * @return Comparisons matrix.
+     */
+    public SimpleMatrix getComparisonsMatrix() {
+        return comparisonsMatrix;
+    }
+
+    /**
+     * Returns idealized priority of i-th intensity calculated by AHP object.
+     * @param i Intensity order number.
+     * @return Priority of the intensity, 0 if priorities have not been calculated yet.
+     */
+    public double getPriority(int i) {
+        return priorities == null ? 0.0 : priorities[i];
+    }
+
+    /**
+     * Returns consistency ratio of comparisons matrix calculated by AHP object.
+     * @return Consistency ratio.
+     */
+    public double getConsistencyRatio() {
+        return consistencyRatio;
+    }
+
+    /**
+     * Sets priorities of the intensities, normalizing them so that the largest one is equal to 1.
+     * @param vector Priority vector of comparisons matrix.
+     * @param consistencyRatio Consistency ratio of comparisons matrix.
+     */
+    void setPriorities(SimpleMatrix vector, double consistencyRatio) {
+        double max = 0;
+        for(int i=0; i<intensities.length; i++) {
+            max = Math.max(max, vector.get(i, 0));
+        }
+        double[] idealized = new double[intensities.length];
+        for(int i=0; i<intensities.length; i++) {
+            idealized[i] = vector.get(i, 0) / max;
+        }
+        this.priorities = idealized;
+        this.consistencyRatio = consistencyRatio;
+    }
+
+    /**
+     * Returns idealized priorities of the intensities.
+     * @return Priorities array (not copied), null if priorities have not been calculated yet.
+     */
+    double[] getPriorities() {
+        return priorities;
+    }
+}
@@ -1,5 +1,6 @@
 package methods.BasicTypes;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 
 /**
@@ -21,6 +22,16 @@ public abstract class Alternative {
       * Alternative id, set by method class object.
       */   
         private int id; 
+        
+     /**
+      * Decision matrix holding criteria values of this alternative instead of criteriaValues list (null if alternative is not bound to any matrix).
+      */
+        private DecisionMatrix matrix;
+        
+     /**
+      * Column of the decision matrix holding criteria values of this alternative.
+      */
+        private int matrixColumn;
        
 	/**
      * Basic Alternative class constructor. 
@@ -59,6 +70,7 @@ public abstract class Alternative {
      * @param value Criterium value.
      */
     public void addCriteriumValue(double value)   {
+            unbind();
             this.criteriaValues.add(value);
         }
         
@@ -84,6 +96,7 @@ public abstract class Alternative {
      * @return LinkedList containing all the criteria values stored in this alternative.
      */
     public LinkedList<Double> getCriteriaValues() {
+            unbind();
             return criteriaValues;
         }
 
@@ -92,6 +105,7 @@ public abstract class Alternative {
      * @param criteriaValues LinkedList containing Double criteriaValues;
      */
     public void setCriteriaValues(LinkedList<Double> criteriaValues) {
+            this.matrix = null;
             this.criteriaValues = criteriaValues;
         }
         
@@ -101,6 +115,9 @@ public abstract class Alternative {
      * @return Double value of i-th criterium for this alternative. 
      */
     public Double getCriteriumValue(int i)   {
+            if(matrix != null)  {
+                return matrix.get(i, matrixColumn);
+            }
             return criteriaValues.get(i);
         }
         
@@ -110,7 +127,91 @@ public abstract class Alternative {
      * @param value New value of the criterium value;
      */
     public void setCriteriumValue(int i, double value)   {
-            criteriaValues.set(i, value);
+            if(matrix != null)  {
+                matrix.set(i, matrixColumn, value);
+            }
+            else    {
+                criteriaValues.set(i, value);
+            }
+        }
+        
+        /**
+     * Returns number of criteria values stored in this alternative.
+     * @return Number of criteria values.
+     */
+    public int getCriteriaValuesNum()   {
+            if(matrix != null)  {
+                return matrix.getCriteriaNum();
+            }
+            return criteriaValues.size();
+        }
+        
+        /**
+     * Binds this alternative to the column of the decision matrix. From now on criteria values are read from and written to the matrix,
+     * until list of criteria values is requested or modified (then values are copied back to the LinkedList and alternative is unbound).
+     * @param matrix Decision matrix containing criteria values of this alternative.
+     * @param column Column of the matrix which contains criteria values of this alternative.
+     */
+    public void bindToDecisionMatrix(DecisionMatrix matrix, int column)   {
+            if(column < 0 || column >= matrix.getAlternativesNum())  {
+                throw new IndexOutOfBoundsException("There is no column " + column + " in decision matrix.");
+            }
+            this.matrix = matrix;
+            this.matrixColumn = column;
+            this.criteriaValues = null;
+        }
+        
+        /**
+     * Returns decision matrix to which this alternative is bound.
+     * @return DecisionMatrix object or null if criteria values are stored in LinkedList.
+     */
+    public DecisionMatrix getDecisionMatrix()   {
+            return matrix;
+        }
+        
+        /**
+     * Returns column of the decision matrix to which this alternative is bound.
+     * @return Column index, meaningful only if getDecisionMatrix() does not return null.
+     */
+    public int getDecisionMatrixColumn()   {
+            return matrixColumn;
+        }
+        
+        /**
+     * Copies criteria values of this alternative to the column of decision matrix provided as parameter.
+     * @param target Decision matrix to which values are copied.
+     * @param column Column of the target matrix.
+     */
+    protected void copyCriteriaValues(DecisionMatrix target, int column)   {
+            int criteriaNum = target.getCriteriaNum();
+            if(this.getCriteriaValuesNum() < criteriaNum)   {
+                throw new IndexOutOfBoundsException("Alternative object has wrong criteria values list.");
+            }
+            if(matrix != null)  {
+                for(int i=0; i<criteriaNum; i++)    {
+                    target.set(i, column, matrix.get(i, matrixColumn));
+                }
+            }
+            else    {
+                Iterator<Double> it = criteriaValues.iterator();
+                for(int i=0; i<criteriaNum; i++)    {
+                    target.set(i, column, it.next());
+                }
+            }
+        }
+        
+        /**
+     * Moves criteria values from decision matrix back to LinkedList, so that list returned by getCriteriaValues() is the only storage of those values.
+     */
+    private void unbind()   {
+            if(matrix != null)  {
+                LinkedList<Double> values = new LinkedList<Double>();
+                for(int i=0; i<matrix.getCriteriaNum(); i++)    {
+                    values.add(matrix.get(i, matrixColumn));
+                }
+                criteriaValues = values;
+                matrix = null;
+            }
         }
 
         /**
@@ -0,0 +1,184 @@
+package methods.BasicTypes;
+
+import java.io.Closeable;
+
+/**
+ * Reader of alternatives from data file in fixed-size batches, used to score files with more alternatives than fits in memory.
+ * Each batch is a decision matrix reusing the same array, so memory used by the reader does not depend on the number of alternatives in the file.
+ * File contains one line of criteria values per alternative. It can be a data file of the method - then all the lines up to and including the one
+ * starting with "Alternatives" keyword are skipped (alternatives names are not read, the line can contain the keyword only).
+ * If the first line starts with a number, criteria values are read from the beginning of the file.
+ * Alternatives are identified by order numbers (starting from 0) of their lines with criteria values.
+ * @see methods.BasicTypes.TopScores
+ */
+public class AlternativeBatches implements Closeable {
+
+    /**
+     * Default number of alternatives in one batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 65536;
+
+    /**
+     * Reader of the file.
+     */
+    private final CsvReader reader;
+
+    /**
+     * Number of criteria values in every line.
+     */
+    private final int criteriaNum;
+
+    /**
+     * Maximal number of alternatives in one batch.
+     */
+    private final int batchSize;
+
+    /**
+     * Layout of batch matrices.
+     */
+    private final DecisionMatrix.Layout layout;
+
+    /**
+     * Array of criteria values shared by all the batches.
+     */
+    private final double[] values;
+
+    /**
+     * Matrix of full batch size over values array, alternatives are read into its columns.
+     */
+    private final DecisionMatrix fullBatch;
+
+    /**
+     * True if the current line of the reader has not been read into a batch yet.
+     */
+    private boolean pending;
+
+    /**
+     * Order number of the first alternative of the last batch.
+     */
+    private long firstIndex;
+
+    /**
+     * Number of alternatives read so far.
+     */
+    private long readNum;
+
+    /**
+     * AlternativeBatches constructor, opens the file and skips its header.
+     * @param filename Path to the file.
+     * @param criteriaNum Number of criteria values in every line.
+     * @param batchSize Maximal number of alternatives in one batch.
+     * @param layout Layout of batch matrices.
+     * @throws DataFileException if the file can not be read or does not contain "Alternatives" line after the header.
+     */
+    public AlternativeBatches(String filename, int criteriaNum, int batchSize, DecisionMatrix.Layout layout) {
+        if(criteriaNum < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Number of criteria and batch size have to be positive.");
+        }
+        if((long) criteriaNum * batchSize > Integer.MAX_VALUE)    {
+            throw new IllegalArgumentException("Batch of " + batchSize + " alternatives with " + criteriaNum + " criteria is too large for an array.");
+        }
+        this.reader = new CsvReader(filename);
+        this.criteriaNum = criteriaNum;
+        this.batchSize = batchSize;
+        this.layout = layout;
+        this.values = new double[criteriaNum*batchSize];
+        this.fullBatch = new DecisionMatrix(values, criteriaNum, batchSize, layout);
+        try {
+            pending = reader.nextLine();
+            if(pending && !startsWithNumber(reader.getString(0)))   {
+                while(!reader.fieldEquals(0, "Alternatives"))   {
+                    if(!reader.nextLine())  {
+                        throw reader.error("Line starting with Alternatives keyword not found.");
+                    }
+                }
+                pending = reader.nextLine();
+            }
+        }
+        catch (DataFileException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks if the text looks like a number (not like a keyword).
+     * @param text Text of the field.
+     * @return True if the text starts with a digit, sign or decimal point.
+     */
+    private static boolean startsWithNumber(String text) {
+        if(text.isEmpty())  {
+            return false;
+        }
+        char c = text.charAt(0);
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+    }
+
+    /**
+     * Reads next batch of alternatives.
+     * Returned matrix shares its array with the previous batches, so it is valid only until the next call of this method.
+     * @return Decision matrix with criteria values of at most batchSize alternatives, null at the end of the file.
+     * @throws DataFileException if some line has wrong number of values or some value is not a number.
+     */
+    public DecisionMatrix next() {
+        if(!pending)    {
+            return null;
+        }
+        int count = 0;
+        while(pending && count < batchSize)    {
+            reader.getColumn(fullBatch, count);
+            count++;
+            pending = reader.nextLine();
+        }
+        firstIndex = readNum;
+        readNum = readNum + count;
+        if(count == batchSize)  {
+            return fullBatch;
+        }
+        if(layout == DecisionMatrix.Layout.COLUMN_MAJOR)  {
+            return new DecisionMatrix(values, criteriaNum, count, layout);
+        }
+        // rows of shorter ROW_MAJOR batch have to be contiguous
+        for(int r=1; r<criteriaNum; r++)    {
+            System.arraycopy(values, r*batchSize, values, r*count, count);
+        }
+        return new DecisionMatrix(values, criteriaNum, count, layout);
+    }
+
+    /**
+     * Returns order number of the first alternative of the batch returned by the last call of next() method.
+     * @return Order number (starting from 0).
+     */
+    public long getFirstIndex() {
+        return firstIndex;
+    }
+
+    /**
+     * Returns number of alternatives read so far.
+     * @return Number of alternatives.
+     */
+    public long getReadNum() {
+        return readNum;
+    }
+
+    /**
+     * Scores all the remaining alternatives of the file batch by batch and keeps k best of them.
+     * @param scorer Object calculating scores of the alternatives of one batch.
+     * @param k Number of best alternatives to keep.
+     * @return TopScores object with order numbers and scores of k best alternatives.
+     */
+    public TopScores rank(BatchScorer scorer, int k) {
+        TopScores top = new TopScores(k);
+        double[] scores = new double[batchSize];
+        for(DecisionMatrix batch = next(); batch != null; batch = next())  {
+            scorer.calculateScores(batch, scores);
+            top.offer(firstIndex, scores, batch.getAlternativesNum());
+        }
+        return top;
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+    }
+}
@@ -0,0 +1,15 @@
+package methods.BasicTypes;
+
+/**
+ * Interface of methods calculating scores of alternatives given as decision matrix, used to rank alternatives read from file in batches.
+ * @see methods.BasicTypes.AlternativeBatches
+ */
+public interface BatchScorer {
+
+    /**
+     * Calculates scores of all the alternatives of decision matrix, higher score means better alternative.
+     * @param batch Decision matrix with criteria values of the alternatives.
+     * @param scores Array to which score of i-th alternative (column) of the matrix is written at index i.
+     */
+    public void calculateScores(DecisionMatrix batch, double[] scores);
+}
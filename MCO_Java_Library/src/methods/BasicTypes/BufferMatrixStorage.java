@@ -0,0 +1,160 @@
+package methods.BasicTypes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Matrix stored in byte buffers, every buffer (tile) contains a band of whole rows. Single buffer can not be larger than 2 GB,
+ * so tiles make it possible to store matrices of any size. Subclasses decide where buffers are allocated.
+ */
+public abstract class BufferMatrixStorage extends MatrixStorage {
+
+    /**
+     * Maximal number of bytes in one tile.
+     */
+    protected static final int MAX_TILE_BYTES = 1 << 30;
+
+    /**
+     * Precision of stored values.
+     */
+    private final Precision precision;
+
+    /**
+     * Number of rows in one tile (the last tile can be smaller).
+     */
+    protected final int tileRows;
+
+    /**
+     * Tiles of the matrix, set by subclasses.
+     */
+    protected final ByteBuffer[] tiles;
+
+    /**
+     * BufferMatrixStorage constructor, tiles have to be set by subclass constructor.
+     * @param rows Number of rows.
+     * @param columns Number of columns.
+     * @param precision Precision of stored values.
+     */
+    protected BufferMatrixStorage(int rows, int columns, Precision precision) {
+        super(rows, columns);
+        this.precision = precision;
+        long rowBytes = (long) columns * precision.getBytes();
+        if(rowBytes > MAX_TILE_BYTES)   {
+            throw new IllegalArgumentException("Row of " + columns + " values is too large for a tile.");
+        }
+        this.tileRows = rowBytes == 0 ? Math.max(1, rows) : (int) Math.max(1, MAX_TILE_BYTES / rowBytes);
+        this.tiles = new ByteBuffer[rows == 0 ? 0 : (rows - 1) / tileRows + 1];
+    }
+
+    /**
+     * Returns size of the tile in bytes.
+     * @param tile Tile index.
+     * @return Number of bytes.
+     */
+    protected int tileBytes(int tile) {
+        int tileRowsNum = Math.min(rows - tile*tileRows, tileRows);
+        return tileRowsNum * columns * precision.getBytes();
+    }
+
+    /**
+     * Prepares allocated buffer to be used as a tile.
+     * @param buffer Buffer.
+     * @return The same buffer with native byte order.
+     */
+    protected static ByteBuffer prepare(ByteBuffer buffer) {
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Returns position of the cell in its tile.
+     * @param row Row index.
+     * @param column Column index.
+     * @return Byte index.
+     */
+    private int position(int row, int column) {
+        return ((row % tileRows)*columns + column) * precision.getBytes();
+    }
+
+    @Override
+    public double get(int row, int column) {
+        ByteBuffer tile = tiles[row / tileRows];
+        switch(precision)   {
+            case FIXED16:
+                return fromFixed16(tile.getChar(position(row, column)));
+            case FLOAT:
+                return tile.getFloat(position(row, column));
+            default:
+                return tile.getDouble(position(row, column));
+        }
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        ByteBuffer tile = tiles[row / tileRows];
+        switch(precision)   {
+            case FIXED16:
+                tile.putChar(position(row, column), toFixed16(value));
+                break;
+            case FLOAT:
+                tile.putFloat(position(row, column), (float) value);
+                break;
+            default:
+                tile.putDouble(position(row, column), value);
+        }
+    }
+
+    @Override
+    public void getRow(int row, int column, double[] buffer, int offset, int length) {
+        ByteBuffer tile = tiles[row / tileRows];
+        int position = position(row, column);
+        if(precision == Precision.FIXED16)  {
+            for(int k=0; k<length; k++) {
+                buffer[offset + k] = fromFixed16(tile.getChar(position + 2*k));
+            }
+        }
+        else if(precision == Precision.FLOAT)   {
+            for(int k=0; k<length; k++) {
+                buffer[offset + k] = tile.getFloat(position + 4*k);
+            }
+        }
+        else    {
+            // duplicate has its own position, so many threads can read rows of the same tile
+            ByteBuffer view = prepare(tile.duplicate());
+            view.position(position);
+            view.asDoubleBuffer().get(buffer, offset, length);
+        }
+    }
+
+    @Override
+    public void setRow(int row, int column, double[] values, int offset, int length) {
+        ByteBuffer tile = tiles[row / tileRows];
+        int position = position(row, column);
+        if(precision == Precision.FIXED16)  {
+            for(int k=0; k<length; k++) {
+                tile.putChar(position + 2*k, toFixed16(values[offset + k]));
+            }
+        }
+        else if(precision == Precision.FLOAT)   {
+            for(int k=0; k<length; k++) {
+                tile.putFloat(position + 4*k, (float) values[offset + k]);
+            }
+        }
+        else    {
+            ByteBuffer view = prepare(tile.duplicate());
+            view.position(position);
+            view.asDoubleBuffer().put(values, offset, length);
+        }
+    }
+
+    @Override
+    public void close() {
+        for(int t=0; t<tiles.length; t++)   {
+            tiles[t] = null;
+        }
+    }
+}
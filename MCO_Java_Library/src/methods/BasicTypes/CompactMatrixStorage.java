@@ -0,0 +1,90 @@
+package methods.BasicTypes;
+
+/**
+ * Matrix stored on the heap with FLOAT or FIXED16 precision, every row is a separate array, so matrix can have more than 2^31 cells.
+ */
+public class CompactMatrixStorage extends MatrixStorage {
+
+    /**
+     * Precision of stored values.
+     */
+    private final Precision precision;
+
+    /**
+     * Rows of FLOAT matrix (null for FIXED16 matrix).
+     */
+    private final float[][] floatRows;
+
+    /**
+     * Rows of FIXED16 matrix (null for FLOAT matrix).
+     */
+    private final char[][] fixedRows;
+
+    /**
+     * CompactMatrixStorage constructor, creates matrix filled with zeros.
+     * @param rows Number of rows.
+     * @param columns Number of columns.
+     * @param precision FLOAT or FIXED16.
+     */
+    public CompactMatrixStorage(int rows, int columns, Precision precision) {
+        super(rows, columns);
+        if(precision == Precision.DOUBLE)   {
+            throw new IllegalArgumentException("Compact matrix can not have DOUBLE precision, use HeapMatrixStorage.");
+        }
+        this.precision = precision;
+        this.floatRows = precision == Precision.FLOAT ? new float[rows][columns] : null;
+        this.fixedRows = precision == Precision.FIXED16 ? new char[rows][columns] : null;
+    }
+
+    @Override
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return floatRows != null ? floatRows[row][column] : fromFixed16(fixedRows[row][column]);
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        if(floatRows != null)   {
+            floatRows[row][column] = (float) value;
+        }
+        else    {
+            fixedRows[row][column] = toFixed16(value);
+        }
+    }
+
+    @Override
+    public void getRow(int row, int column, double[] buffer, int offset, int length) {
+        if(floatRows != null)   {
+            float[] values = floatRows[row];
+            for(int k=0; k<length; k++) {
+                buffer[offset + k] = values[column + k];
+            }
+        }
+        else    {
+            char[] values = fixedRows[row];
+            for(int k=0; k<length; k++) {
+                buffer[offset + k] = fromFixed16(values[column + k]);
+            }
+        }
+    }
+
+    @Override
+    public void setRow(int row, int column, double[] values, int offset, int length) {
+        if(floatRows != null)   {
+            float[] target = floatRows[row];
+            for(int k=0; k<length; k++) {
+                target[column + k] = (float) values[offset + k];
+            }
+        }
+        else    {
+            char[] target = fixedRows[row];
+            for(int k=0; k<length; k++) {
+                target[column + k] = toFixed16(values[offset + k]);
+            }
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package methods.BasicTypes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Streaming reader of comma separated data files used by all the methods classes.
+ * File is memory-mapped in windows, so it is read by the operating system without copying to the heap and files larger than the heap
+ * (or than 2 GB) can be read. Lines are split into fields in place and numbers are parsed directly from the mapped bytes,
+ * so reading numeric fields does not create any objects. Only text fields (names) are converted to String objects.
+ * Empty lines are skipped, empty fields at the end of the line are ignored (as by String.split(",")).
+ * All the errors are reported as DataFileException pointing to the line and column of the file.
+ */
+public class CsvReader implements Closeable {
+
+    /**
+     * Default size of the mapped window in bytes. Single line can not be longer than the window.
+     */
+    public static final int DEFAULT_WINDOW_BYTES = 1 << 28;
+
+    /**
+     * Charset of text fields.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Powers of 10 which are exactly representable as double.
+     */
+    private static final double[] POWERS_OF_10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Path to the file.
+     */
+    private final String filename;
+
+    /**
+     * Opened file.
+     */
+    private final RandomAccessFile file;
+
+    /**
+     * Size of the file in bytes.
+     */
+    private final long size;
+
+    /**
+     * Size of the mapped window in bytes.
+     */
+    private final int windowBytes;
+
+    /**
+     * Currently mapped part of the file.
+     */
+    private MappedByteBuffer window;
+
+    /**
+     * Position in the file of the first byte of the window.
+     */
+    private long windowStart;
+
+    /**
+     * Position in the window of the first byte after the current line.
+     */
+    private int next;
+
+    /**
+     * Number of the current line (starting from 1), 0 before the first line.
+     */
+    private int line;
+
+    /**
+     * Position in the window of the first byte of the current line.
+     */
+    private int lineStart;
+
+    /**
+     * Number of fields in the current line.
+     */
+    private int fieldsNum;
+
+    /**
+     * Positions in the window of the first bytes of the fields.
+     */
+    private int[] fieldStarts;
+
+    /**
+     * Positions in the window of the first bytes after the fields.
+     */
+    private int[] fieldEnds;
+
+    /**
+     * Buffer used to decode text fields.
+     */
+    private byte[] textBuffer;
+
+    /**
+     * CsvReader constructor, opens the file with default window size.
+     * @param filename Path to the file.
+     * @throws DataFileException if the file can not be opened.
+     */
+    public CsvReader(String filename) {
+        this(filename, DEFAULT_WINDOW_BYTES);
+    }
+
+    /**
+     * CsvReader constructor, opens the file.
+     * @param filename Path to the file.
+     * @param windowBytes Size of the mapped window in bytes, it limits the length of single line.
+     * @throws DataFileException if the file can not be opened.
+     */
+    public CsvReader(String filename, int windowBytes) {
+        if(windowBytes <= 0)    {
+            throw new IllegalArgumentException("Window size has to be positive.");
+        }
+        this.filename = filename;
+        this.windowBytes = windowBytes;
+        this.fieldStarts = new int[16];
+        this.fieldEnds = new int[16];
+        this.textBuffer = new byte[64];
+        try {
+            this.file = new RandomAccessFile(filename, "r");
+            this.size = file.length();
+            map(0);
+        }
+        catch (IOException e) {
+            throw new DataFileException(filename, 0, 0, "Can not read file: " + e.getMessage(), e);
+        }
+        if(size >= 3 && byteAt(0) == (byte) 0xEF && byteAt(1) == (byte) 0xBB && byteAt(2) == (byte) 0xBF)  {
+            next = 3;
+        }
+    }
+
+    /**
+     * Maps window of the file starting at given position.
+     * @param position Position in the file.
+     * @throws IOException if the file can not be mapped.
+     */
+    private void map(long position) throws IOException {
+        int length = (int) Math.min(windowBytes, size - position);
+        window = file.getChannel().map(FileChannel.MapMode.READ_ONLY, position, length);
+        windowStart = position;
+        next = 0;
+    }
+
+    /**
+     * Returns byte of the window.
+     * @param position Position in the window.
+     * @return Byte value.
+     */
+    private byte byteAt(int position) {
+        return window.get(position);
+    }
+
+    /**
+     * Moves to the next not empty line of the file.
+     * @return True if there is such line, false at the end of the file.
+     * @throws DataFileException if the line is longer than the window or the file can not be read.
+     */
+    public boolean nextLine() {
+        while(true) {
+            if(windowStart + next >= size)  {
+                fieldsNum = 0;
+                return false;
+            }
+            int limit = window.limit();
+            int end = next;
+            while(end < limit && byteAt(end) != '\n')   {
+                end++;
+            }
+            if(end == limit && windowStart + limit < size)    {
+                if(next == 0)   {
+                    throw new DataFileException(filename, line + 1, 0, "Line is longer than " + windowBytes + " bytes.", null);
+                }
+                try {
+                    map(windowStart + next);
+                }
+                catch (IOException e) {
+                    throw new DataFileException(filename, line + 1, 0, "Can not read file: " + e.getMessage(), e);
+                }
+                continue;
+            }
+            line++;
+            lineStart = next;
+            next = end < limit ? end + 1 : end;
+            if(end > lineStart && byteAt(end - 1) == '\r')  {
+                end--;
+            }
+            split(lineStart, end);
+            if(fieldsNum > 0)   {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves to the next not empty line of the file, which has to exist.
+     * @throws DataFileException if there are no more lines.
+     */
+    public void requireLine() {
+        if(!nextLine()) {
+            throw new DataFileException(filename, line + 1, 0, "Unexpected end of file.", null);
+        }
+    }
+
+    /**
+     * Splits the line into fields.
+     * @param start Position in the window of the first byte of the line.
+     * @param end Position in the window of the first byte after the line.
+     */
+    private void split(int start, int end) {
+        fieldsNum = 0;
+        int fieldStart = start;
+        for(int i=start; i<=end; i++)    {
+            if(i == end || byteAt(i) == ',')    {
+                if(fieldsNum == fieldStarts.length) {
+                    int[] starts = new int[2*fieldsNum];
+                    int[] ends = new int[2*fieldsNum];
+                    System.arraycopy(fieldStarts, 0, starts, 0, fieldsNum);
+                    System.arraycopy(fieldEnds, 0, ends, 0, fieldsNum);
+                    fieldStarts = starts;
+                    fieldEnds = ends;
+                }
+                fieldStarts[fieldsNum] = fieldStart;
+                fieldEnds[fieldsNum] = i;
+                fieldsNum++;
+                fieldStart = i + 1;
+            }
+        }
+        while(fieldsNum > 0 && fieldStarts[fieldsNum-1] == fieldEnds[fieldsNum-1]) {
+            fieldsNum--;
+        }
+    }
+
+    /**
+     * Returns number of the current line.
+     * @return Line number (starting from 1).
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Returns number of fields in the current line.
+     * @return Number of fields.
+     */
+    public int getFieldsNum() {
+        return fieldsNum;
+    }
+
+    /**
+     * Checks if field index is valid.
+     * @param field Field index (starting from 0).
+     */
+    private void checkField(int field) {
+        if(field < 0 || field >= fieldsNum) {
+            throw new DataFileException(filename, line, 0, "There is no field " + (field + 1) + " in the line.", null);
+        }
+    }
+
+    /**
+     * Returns text of the field.
+     * @param field Field index (starting from 0).
+     * @return Field text (not trimmed).
+     */
+    public String getString(int field) {
+        checkField(field);
+        int length = fieldEnds[field] - fieldStarts[field];
+        if(textBuffer.length < length)  {
+            textBuffer = new byte[Math.max(length, 2*textBuffer.length)];
+        }
+        for(int i=0; i<length; i++) {
+            textBuffer[i] = byteAt(fieldStarts[field] + i);
+        }
+        return new String(textBuffer, 0, length, UTF8);
+    }
+
+    /**
+     * Checks if the field is equal to the text, without creating String object.
+     * @param field Field index (starting from 0).
+     * @param text ASCII text.
+     * @return True if the field is equal to the text, false otherwise (or if there is no such field).
+     */
+    public boolean fieldEquals(int field, String text) {
+        return fieldEquals(field, text, false);
+    }
+
+    /**
+     * Checks if the field is equal to the text ignoring case of ASCII letters, without creating String object.
+     * @param field Field index (starting from 0).
+     * @param text ASCII text.
+     * @return True if the field is equal to the text, false otherwise (or if there is no such field).
+     */
+    public boolean fieldEqualsIgnoreCase(int field, String text) {
+        return fieldEquals(field, text, true);
+    }
+
+    /**
+     * Compares field with the text.
+     * @param field Field index.
+     * @param text ASCII text.
+     * @param ignoreCase True if case of ASCII letters should be ignored.
+     * @return True if the field is equal to the text.
+     */
+    private boolean fieldEquals(int field, String text, boolean ignoreCase) {
+        if(field < 0 || field >= fieldsNum || fieldEnds[field] - fieldStarts[field] != text.length())   {
+            return false;
+        }
+        int start = fieldStarts[field];
+        for(int i=0; i<text.length(); i++)  {
+            int a = byteAt(start + i);
+            int b = text.charAt(i);
+            if(ignoreCase)  {
+                a = (a >= 'a' && a <= 'z') ? a - 'a' + 'A' : a;
+                b = (b >= 'a' && b <= 'z') ? b - 'a' + 'A' : b;
+            }
+            if(a != b)  {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the field as a number. Whitespace around the number is ignored, accepted formats are the same as of Double.parseDouble().
+     * Decimal numbers with at most 18 significant digits and small exponent (the common case) are parsed without creating any objects,
+     * result is always the same as the one returned by Double.parseDouble().
+     * @param field Field index (starting from 0).
+     * @return Parsed value.
+     * @throws DataFileException if the field is not a number.
+     */
+    public double getDouble(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while(start < end && (byteAt(start) & 0xFF) <= ' ')  {
+            start++;
+        }
+        while(end > start && (byteAt(end - 1) & 0xFF) <= ' ')    {
+            end--;
+        }
+        int i = start;
+        boolean negative = false;
+        if(i < end && (byteAt(i) == '-' || byteAt(i) == '+'))   {
+            negative = byteAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        boolean fraction = false;
+        for(; i < end; i++) {
+            byte b = byteAt(i);
+            if(b >= '0' && b <= '9')    {
+                anyDigit = true;
+                if(mantissa != 0 || b != '0')   {
+                    if(digits == 18)    {
+                        return parseSlow(field);
+                    }
+                    mantissa = 10*mantissa + (b - '0');
+                    digits++;
+                }
+                if(fraction)    {
+                    exponent--;
+                }
+            }
+            else if(b == '.' && !fraction)  {
+                fraction = true;
+            }
+            else    {
+                break;
+            }
+        }
+        if(i < end && anyDigit && (byteAt(i) == 'e' || byteAt(i) == 'E'))   {
+            i++;
+            boolean negativeExponent = false;
+            if(i < end && (byteAt(i) == '-' || byteAt(i) == '+'))   {
+                negativeExponent = byteAt(i) == '-';
+                i++;
+            }
+            int exponentDigits = 0;
+            int explicitExponent = 0;
+            for(; i < end && byteAt(i) >= '0' && byteAt(i) <= '9'; i++)   {
+                if(explicitExponent < 10000)    {
+                    explicitExponent = 10*explicitExponent + (byteAt(i) - '0');
+                }
+                exponentDigits++;
+            }
+            if(exponentDigits == 0) {
+                return parseSlow(field);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if(i != end || !anyDigit || mantissa >= (1L << 53) || exponent < -22 || exponent > 22)   {
+            return parseSlow(field);
+        }
+        // both mantissa and power of 10 are exact doubles, so single multiplication or division gives correctly rounded result
+        double value = exponent >= 0 ? mantissa * POWERS_OF_10[exponent] : mantissa / POWERS_OF_10[-exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses number using Double.parseDouble(), used for numbers which can not be parsed exactly by getDouble().
+     * @param field Field index.
+     * @return Parsed value.
+     */
+    private double parseSlow(int field) {
+        String text = getString(field).trim();
+        try {
+            return Double.parseDouble(text);
+        }
+        catch (NumberFormatException e) {
+            throw error(field, "\"" + text + "\" is not a number.");
+        }
+    }
+
+    /**
+     * Parses the field as an integer number. Whitespace around the number is ignored.
+     * @param field Field index (starting from 0).
+     * @return Parsed value.
+     * @throws DataFileException if the field is not an integer number.
+     */
+    public int getInt(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while(start < end && (byteAt(start) & 0xFF) <= ' ')  {
+            start++;
+        }
+        while(end > start && (byteAt(end - 1) & 0xFF) <= ' ')    {
+            end--;
+        }
+        int i = start;
+        boolean negative = false;
+        if(i < end && (byteAt(i) == '-' || byteAt(i) == '+'))   {
+            negative = byteAt(i) == '-';
+            i++;
+        }
+        long value = 0;
+        if(i == end)    {
+            throw error(field, "\"" + getString(field).trim() + "\" is not an integer number.");
+        }
+        for(; i < end; i++) {
+            byte b = byteAt(i);
+            if(b < '0' || b > '9' || value > Integer.MAX_VALUE + 1L)   {
+                throw error(field, "\"" + getString(field).trim() + "\" is not an integer number.");
+            }
+            value = 10*value + (b - '0');
+        }
+        value = negative ? -value : value;
+        if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)  {
+            throw error(field, "\"" + getString(field).trim() + "\" is not an integer number.");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses all the fields of the current line starting from given one as numbers and writes them to the array.
+     * @param field Index of the first field to parse.
+     * @param target Array to which values are written.
+     * @param offset Index in the array of the first value.
+     * @param stride Distance in the array between consecutive values.
+     * @return Number of parsed values.
+     */
+    public int getDoubles(int field, double[] target, int offset, int stride) {
+        int count = 0;
+        for(int f=field; f<fieldsNum; f++)  {
+            target[offset + count*stride] = getDouble(f);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Parses the current line as criteria values of the alternative and writes them directly to the column of decision matrix.
+     * @param matrix Decision matrix.
+     * @param alternative Column of the matrix.
+     * @throws DataFileException if number of fields is different than number of criteria in the matrix or some field is not a number.
+     */
+    public void getColumn(DecisionMatrix matrix, int alternative) {
+        if(fieldsNum != matrix.getCriteriaNum())    {
+            throw error("Expected " + matrix.getCriteriaNum() + " values, found " + fieldsNum + ".");
+        }
+        int offset = matrix.index(0, alternative);
+        int stride = fieldsNum > 1 ? matrix.index(1, alternative) - offset : 1;
+        getDoubles(0, matrix.getValues(), offset, stride);
+    }
+
+    /**
+     * Creates exception pointing to the field of the current line.
+     * @param field Field index (starting from 0).
+     * @param message Description of the problem.
+     * @return DataFileException object.
+     */
+    public DataFileException error(int field, String message) {
+        int column = field >= 0 && field < fieldsNum ? fieldStarts[field] - lineStart + 1 : 0;
+        return new DataFileException(filename, line, column, message, null);
+    }
+
+    /**
+     * Creates exception pointing to the current line.
+     * @param message Description of the problem.
+     * @return DataFileException object.
+     */
+    public DataFileException error(String message) {
+        return new DataFileException(filename, line, 0, message, null);
+    }
+
+    /**
+     * Closes the file.
+     * @throws DataFileException if the file can not be closed.
+     */
+    @Override
+    public void close() {
+        window = null;
+        try {
+            file.close();
+        }
+        catch (IOException e) {
+            throw new DataFileException(filename, 0, 0, "Can not close file: " + e.getMessage(), e);
+        }
+    }
+}
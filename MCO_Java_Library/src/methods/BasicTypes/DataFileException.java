@@ -0,0 +1,82 @@
+package methods.BasicTypes;
+
+/**
+ * Exception thrown when data file of MCO method can not be read or does not match the format expected by the method.
+ * It points to the line and column of the file where the problem was found.
+ */
+public class DataFileException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Path to the data file.
+     */
+    private final String filename;
+
+    /**
+     * Line number (starting from 1), 0 if error is not related to any line.
+     */
+    private final int line;
+
+    /**
+     * Column number (starting from 1), 0 if error is not related to any column.
+     */
+    private final int column;
+
+    /**
+     * DataFileException constructor.
+     * @param filename Path to the data file.
+     * @param line Line number (starting from 1), 0 if error is not related to any line.
+     * @param column Column number (starting from 1), 0 if error is not related to any column.
+     * @param message Description of the problem.
+     * @param cause Exception which caused the problem, can be null.
+     */
+    public DataFileException(String filename, int line, int column, String message, Throwable cause) {
+        super(location(filename, line, column) + message, cause);
+        this.filename = filename;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Creates prefix of the message describing position in the file.
+     * @param filename Path to the data file.
+     * @param line Line number.
+     * @param column Column number.
+     * @return Text like "file.csv:3:7: ".
+     */
+    private static String location(String filename, int line, int column) {
+        StringBuilder location = new StringBuilder(filename);
+        if(line > 0)    {
+            location.append(':').append(line);
+            if(column > 0)  {
+                location.append(':').append(column);
+            }
+        }
+        return location.append(": ").toString();
+    }
+
+    /**
+     * Returns path to the data file.
+     * @return Path to the file.
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Returns number of the line in which problem was found.
+     * @return Line number (starting from 1), 0 if error is not related to any line.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Returns number of the column in which problem was found, columns are counted in bytes from the beginning of the line.
+     * @return Column number (starting from 1), 0 if error is not related to any column.
+     */
+    public int getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,223 @@
+package methods.BasicTypes;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Decision matrix class storing criteria values of all the alternatives in MCO problem in one contiguous double array.
+ * Matrix has criteria as rows and alternatives as columns. It is used by methods classes in their calculations,
+ * LinkedList based criteria values of Alternative objects are kept only for compatibility.
+ * @see methods.BasicTypes.Alternative
+ */
+public class DecisionMatrix {
+
+    /**
+     * Enum type describing how values are placed in the underlying array.
+     */
+    public enum Layout {
+        /**
+         * Rows (criteria) are stored one after another, so values of one criterium for all the alternatives are contiguous.
+         * It is the best choice for pairwise comparisons of alternatives done criterium by criterium (Promethee, Electre).
+         */
+        ROW_MAJOR,
+        /**
+         * Columns (alternatives) are stored one after another, so all the criteria values of one alternative are contiguous.
+         * It is the best choice for methods scoring each alternative separately (MAUT, UTASTAR).
+         */
+        COLUMN_MAJOR
+    }
+
+    /**
+     * Criteria values of all the alternatives.
+     */
+    private final double[] values;
+
+    /**
+     * Number of criteria (rows).
+     */
+    private final int criteriaNum;
+
+    /**
+     * Number of alternatives (columns).
+     */
+    private final int alternativesNum;
+
+    /**
+     * Layout of the values array.
+     */
+    private final Layout layout;
+
+    /**
+     * DecisionMatrix constructor, all the values are set to 0.
+     * @param criteriaNum Number of criteria.
+     * @param alternativesNum Number of alternatives.
+     * @param layout Layout of the values array.
+     */
+    public DecisionMatrix(int criteriaNum, int alternativesNum, Layout layout) {
+        this(new double[criteriaNum*alternativesNum], criteriaNum, alternativesNum, layout);
+    }
+
+    /**
+     * DecisionMatrix constructor wrapping already filled values array (it is not copied).
+     * @param values Criteria values placed as described by layout parameter.
+     * @param criteriaNum Number of criteria.
+     * @param alternativesNum Number of alternatives.
+     * @param layout Layout of the values array.
+     */
+    public DecisionMatrix(double[] values, int criteriaNum, int alternativesNum, Layout layout) {
+        if(values.length < criteriaNum*alternativesNum)   {
+            throw new IllegalArgumentException("Values array is too small for " + criteriaNum + " criteria and " + alternativesNum + " alternatives.");
+        }
+        this.values = values;
+        this.criteriaNum = criteriaNum;
+        this.alternativesNum = alternativesNum;
+        this.layout = layout;
+    }
+
+    /**
+     * Creates decision matrix containing first criteriaNum criteria values of every alternative from the list.
+     * If all the alternatives are bound to columns of one matrix with requested layout (in the same order) this matrix is returned without copying.
+     * @param alternatives List of alternatives, i-th alternative becomes i-th column of the matrix.
+     * @param criteriaNum Number of criteria.
+     * @param layout Layout of the values array.
+     * @return DecisionMatrix object with criteria values of the alternatives.
+     */
+    public static DecisionMatrix of(List<? extends Alternative> alternatives, int criteriaNum, Layout layout) {
+        DecisionMatrix shared = sharedMatrix(alternatives, criteriaNum, layout);
+        if(shared != null)  {
+            return shared;
+        }
+        DecisionMatrix matrix = new DecisionMatrix(criteriaNum, alternatives.size(), layout);
+        int alt = 0;
+        for(Iterator<? extends Alternative> it = alternatives.iterator(); it.hasNext(); alt++)  {
+            it.next().copyCriteriaValues(matrix, alt);
+        }
+        return matrix;
+    }
+
+    /**
+     * Checks if all the alternatives are already bound to consecutive columns of one matrix.
+     * @param alternatives List of alternatives.
+     * @param criteriaNum Number of criteria.
+     * @param layout Wanted layout.
+     * @return Matrix shared by all the alternatives or null if there is no such matrix.
+     */
+    private static DecisionMatrix sharedMatrix(List<? extends Alternative> alternatives, int criteriaNum, Layout layout) {
+        if(alternatives.isEmpty())  {
+            return null;
+        }
+        DecisionMatrix shared = alternatives.get(0).getDecisionMatrix();
+        if(shared == null || shared.layout != layout || shared.criteriaNum != criteriaNum || shared.alternativesNum != alternatives.size())   {
+            return null;
+        }
+        int alt = 0;
+        for(Iterator<? extends Alternative> it = alternatives.iterator(); it.hasNext(); alt++)  {
+            Alternative alternative = it.next();
+            if(alternative.getDecisionMatrix() != shared || alternative.getDecisionMatrixColumn() != alt)  {
+                return null;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Returns position of the value in the underlying array.
+     * @param criterium Criterium (row) index.
+     * @param alternative Alternative (column) index.
+     * @return Index of the value in array returned by getValues().
+     */
+    public int index(int criterium, int alternative)    {
+        if(layout == Layout.ROW_MAJOR)  {
+            return criterium*alternativesNum + alternative;
+        }
+        return alternative*criteriaNum + criterium;
+    }
+
+    /**
+     * Returns value of the criterium for the alternative.
+     * @param criterium Criterium (row) index.
+     * @param alternative Alternative (column) index.
+     * @return Criterium value.
+     */
+    public double get(int criterium, int alternative)  {
+        return values[index(criterium, alternative)];
+    }
+
+    /**
+     * Sets value of the criterium for the alternative.
+     * @param criterium Criterium (row) index.
+     * @param alternative Alternative (column) index.
+     * @param value New criterium value.
+     */
+    public void set(int criterium, int alternative, double value)  {
+        values[index(criterium, alternative)] = value;
+    }
+
+    /**
+     * Returns copy of the criterium values for all the alternatives.
+     * @param criterium Criterium (row) index.
+     * @return Array with alternativesNum values.
+     */
+    public double[] getRow(int criterium)  {
+        double[] row = new double[alternativesNum];
+        if(layout == Layout.ROW_MAJOR)  {
+            System.arraycopy(values, criterium*alternativesNum, row, 0, alternativesNum);
+        }
+        else    {
+            for(int alt=0; alt<alternativesNum; alt++)  {
+                row[alt] = values[alt*criteriaNum + criterium];
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Returns copy of all the criteria values of the alternative.
+     * @param alternative Alternative (column) index.
+     * @return Array with criteriaNum values.
+     */
+    public double[] getColumn(int alternative)  {
+        double[] column = new double[criteriaNum];
+        if(layout == Layout.COLUMN_MAJOR)  {
+            System.arraycopy(values, alternative*criteriaNum, column, 0, criteriaNum);
+        }
+        else    {
+            for(int cri=0; cri<criteriaNum; cri++)  {
+                column[cri] = values[cri*alternativesNum + alternative];
+            }
+        }
+        return column;
+    }
+
+    /**
+     * Returns the underlying array (not a copy), values are placed as described by getLayout().
+     * @return Array containing all the values of the matrix.
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * Returns layout of the underlying array.
+     * @return Layout of the values array.
+     */
+    public Layout getLayout()  {
+        return layout;
+    }
+
+    /**
+     * Returns number of criteria (rows) in the matrix.
+     * @return Number of criteria.
+     */
+    public int getCriteriaNum() {
+        return criteriaNum;
+    }
+
+    /**
+     * Returns number of alternatives (columns) in the matrix.
+     * @return Number of alternatives.
+     */
+    public int getAlternativesNum() {
+        return alternativesNum;
+    }
+}
@@ -0,0 +1,23 @@
+package methods.BasicTypes;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Matrix stored in direct buffers, outside of the heap, so it does not increase heap size nor garbage collection pauses.
+ * Memory is released when the matrix is closed and its buffers are collected.
+ */
+public class DirectMatrixStorage extends BufferMatrixStorage {
+
+    /**
+     * DirectMatrixStorage constructor, creates matrix filled with zeros.
+     * @param rows Number of rows.
+     * @param columns Number of columns.
+     * @param precision Precision of stored values.
+     */
+    public DirectMatrixStorage(int rows, int columns, Precision precision) {
+        super(rows, columns, precision);
+        for(int t=0; t<tiles.length; t++)   {
+            tiles[t] = prepare(ByteBuffer.allocateDirect(tileBytes(t)));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package methods.BasicTypes;
+
+import org.ejml.simple.SimpleMatrix;
+
+/**
+ * Matrix stored on the heap in SimpleMatrix object, with double precision.
+ */
+public class HeapMatrixStorage extends MatrixStorage {
+
+    /**
+     * Matrix with the values.
+     */
+    private final SimpleMatrix matrix;
+
+    /**
+     * Row-major array of the matrix.
+     */
+    private final double[] data;
+
+    /**
+     * HeapMatrixStorage constructor, creates matrix filled with zeros.
+     * @param rows Number of rows.
+     * @param columns Number of columns.
+     */
+    public HeapMatrixStorage(int rows, int columns) {
+        this(new SimpleMatrix(rows, columns));
+    }
+
+    /**
+     * HeapMatrixStorage constructor, values are stored in given matrix (they are not copied).
+     * @param matrix SimpleMatrix object.
+     */
+    public HeapMatrixStorage(SimpleMatrix matrix) {
+        super(matrix.numRows(), matrix.numCols());
+        this.matrix = matrix;
+        this.data = matrix.getMatrix().data;
+    }
+
+    @Override
+    public Precision getPrecision() {
+        return Precision.DOUBLE;
+    }
+
+    @Override
+    public double get(int row, int column) {
+        return data[row*columns + column];
+    }
+
+    @Override
+    public void set(int row, int column, double value) {
+        data[row*columns + column] = value;
+    }
+
+    @Override
+    public void getRow(int row, int column, double[] buffer, int offset, int length) {
+        System.arraycopy(data, row*columns + column, buffer, offset, length);
+    }
+
+    @Override
+    public void setRow(int row, int column, double[] values, int offset, int length) {
+        System.arraycopy(values, offset, data, row*columns + column, length);
+    }
+
+    @Override
+    public double[] asArray() {
+        return data;
+    }
+
+    @Override
+    public SimpleMatrix toSimpleMatrix() {
+        return matrix;
+    }
+}
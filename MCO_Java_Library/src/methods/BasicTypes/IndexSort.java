@@ -0,0 +1,134 @@
+package methods.BasicTypes;
+
+/**
+ * Sorting of alternatives order numbers by their scores, working on primitive arrays without creating any objects.
+ * Sort is stable - alternatives with equal scores are ordered by ascending order number.
+ */
+public class IndexSort {
+
+    /**
+     * Length of runs sorted by insertion sort before merging.
+     */
+    private static final int RUN = 16;
+
+    private IndexSort() {
+    }
+
+    /**
+     * Returns order numbers of the alternatives ordered by descending score.
+     * @param scores Scores of the alternatives.
+     * @return Array of order numbers.
+     */
+    public static int[] sortDescending(double[] scores) {
+        int[] order = new int[scores.length];
+        sortDescending(scores, scores.length, order, new int[scores.length]);
+        return order;
+    }
+
+    /**
+     * Returns order numbers of the alternatives ordered by descending integer score (e.g. ranking points of Electre methods).
+     * @param scores Scores of the alternatives.
+     * @return Array of order numbers.
+     */
+    public static int[] sortDescending(int[] scores) {
+        // every int is exactly representable as double, so order is the same
+        double[] values = new double[scores.length];
+        for(int i=0; i<scores.length; i++)  {
+            values[i] = scores[i];
+        }
+        return sortDescending(values);
+    }
+
+    /**
+     * Returns dense rank of every alternative - alternatives with equal scores share the rank and there are no gaps between ranks.
+     * @param scores Scores of the alternatives.
+     * @param order Order numbers of the alternatives ordered by descending score, as returned by sortDescending.
+     * @return Array with rank of every alternative, 1 is the best rank.
+     */
+    public static int[] denseRanks(double[] scores, int[] order) {
+        int[] ranks = new int[order.length];
+        int rank = 0;
+        for(int i=0; i<order.length; i++)   {
+            if(i == 0 || scores[order[i]] != scores[order[i-1]])    {
+                rank++;
+            }
+            ranks[order[i]] = rank;
+        }
+        return ranks;
+    }
+
+    /**
+     * Returns dense rank of every alternative - alternatives with equal scores share the rank and there are no gaps between ranks.
+     * @param scores Integer scores of the alternatives.
+     * @param order Order numbers of the alternatives ordered by descending score, as returned by sortDescending.
+     * @return Array with rank of every alternative, 1 is the best rank.
+     */
+    public static int[] denseRanks(int[] scores, int[] order) {
+        int[] ranks = new int[order.length];
+        int rank = 0;
+        for(int i=0; i<order.length; i++)   {
+            if(i == 0 || scores[order[i]] != scores[order[i-1]])    {
+                rank++;
+            }
+            ranks[order[i]] = rank;
+        }
+        return ranks;
+    }
+
+    /**
+     * Orders alternatives by descending score, without allocating memory.
+     * @param scores Scores of the alternatives.
+     * @param length Number of alternatives (first length elements of scores array are sorted).
+     * @param order Array to which order numbers of the alternatives ordered by descending score are written.
+     * @param buffer Auxiliary array, at least length elements long.
+     */
+    public static void sortDescending(double[] scores, int length, int[] order, int[] buffer) {
+        for(int i=0; i<length; i++) {
+            order[i] = i;
+        }
+        for(int from=0; from<length; from+=RUN)  {
+            int to = Math.min(from + RUN, length);
+            for(int i=from+1; i<to; i++)    {
+                int index = order[i];
+                double score = scores[index];
+                int j = i - 1;
+                while(j >= from && scores[order[j]] < score)   {
+                    order[j+1] = order[j];
+                    j--;
+                }
+                order[j+1] = index;
+            }
+        }
+        int[] source = order;
+        int[] target = buffer;
+        for(int width=RUN; width<length; width*=2)  {
+            for(int from=0; from<length; from+=2*width)  {
+                int middle = Math.min(from + width, length);
+                int to = Math.min(from + 2*width, length);
+                int left = from;
+                int right = middle;
+                int k = from;
+                while(left < middle && right < to)  {
+                    if(scores[source[right]] > scores[source[left]])    {
+                        target[k++] = source[right++];
+                    }
+                    else    {
+                        target[k++] = source[left++];
+                    }
+                }
+                while(left < middle)    {
+                    target[k++] = source[left++];
+                }
+                while(right < to)   {
+                    target[k++] = source[right++];
+                }
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if(source != order)  {
+            System.arraycopy(source, 0, order, 0, length);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package methods.BasicTypes;
+
+/**
+ * Score model in which score of the alternative is weighted sum of its criteria contributions (e.g. utilities in MAUT method).
+ * @see methods.BasicTypes.ScoreModel
+ */
+public class LinearScoreModel implements ScoreModel {
+
+    /**
+     * Criteria contributions, contribution of r-th criterium to score of i-th alternative is at index i*criteriaNum+r.
+     */
+    private final double[] contributions;
+
+    /**
+     * Number of alternatives.
+     */
+    private final int alternativesNum;
+
+    /**
+     * Number of criteria.
+     */
+    private final int criteriaNum;
+
+    /**
+     * Reference criteria weights.
+     */
+    private final double[] weights;
+
+    /**
+     * LinearScoreModel constructor.
+     * @param contributions Criteria contributions, contribution of r-th criterium to score of i-th alternative is at index i*criteriaNum+r (array is not copied).
+     * @param alternativesNum Number of alternatives.
+     * @param criteriaNum Number of criteria.
+     * @param weights Reference criteria weights.
+     */
+    public LinearScoreModel(double[] contributions, int alternativesNum, int criteriaNum, double[] weights) {
+        if(contributions.length < alternativesNum*criteriaNum || weights.length != criteriaNum)   {
+            throw new IllegalArgumentException("Contributions or weights array size does not match number of alternatives and criteria.");
+        }
+        this.contributions = contributions;
+        this.alternativesNum = alternativesNum;
+        this.criteriaNum = criteriaNum;
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Returns number of alternatives.
+     * @return Number of alternatives.
+     */
+    public int getAlternativesNum() {
+        return alternativesNum;
+    }
+
+    /**
+     * Returns number of criteria.
+     * @return Number of criteria.
+     */
+    public int getCriteriaNum() {
+        return criteriaNum;
+    }
+
+    /**
+     * Returns reference criteria weights.
+     * @return Copy of weights array.
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Returns contribution of the criterium to score of the alternative.
+     * @param alternative Alternative order number.
+     * @param criterium Criterium order number.
+     * @return Criterium contribution.
+     */
+    public double getContribution(int alternative, int criterium) {
+        return contributions[alternative*criteriaNum + criterium];
+    }
+
+    /**
+     * Calculates scores of all the alternatives as weighted sums of criteria contributions.
+     * @param weights Normalized criteria weights.
+     * @param scores Array to which score of every alternative is written.
+     */
+    public void calculateScores(double[] weights, double[] scores) {
+        for(int i=0; i<alternativesNum; i++)    {
+            int offset = i*criteriaNum;
+            double sum = 0;
+            for(int r=0; r<criteriaNum; r++)    {
+                sum = sum + weights[r] * contributions[offset + r];
+            }
+            scores[i] = sum;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package methods.BasicTypes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+/**
+ * Matrix stored in memory-mapped temporary file, every tile is mapped separately. Operating system keeps in memory only recently used pages,
+ * so size of the matrix is limited by disk space instead of the heap. File is deleted when the matrix is closed
+ * (or when the program exits, if the system does not allow deleting it while it is still mapped).
+ */
+public class MappedMatrixStorage extends BufferMatrixStorage {
+
+    /**
+     * File with the values.
+     */
+    private final File file;
+
+    /**
+     * Opened file.
+     */
+    private final RandomAccessFile randomAccessFile;
+
+    /**
+     * MappedMatrixStorage constructor, creates temporary file of proper size filled with zeros.
+     * @param directory Directory in which file is created, null means default temporary directory.
+     * @param rows Number of rows.
+     * @param columns Number of columns.
+     * @param precision Precision of stored values.
+     */
+    public MappedMatrixStorage(File directory, int rows, int columns, Precision precision) {
+        super(rows, columns, precision);
+        try {
+            this.file = File.createTempFile("matrix", ".bin", directory);
+            this.randomAccessFile = new RandomAccessFile(file, "rw");
+            randomAccessFile.setLength((long) rows * columns * precision.getBytes());
+            FileChannel channel = randomAccessFile.getChannel();
+            long position = 0;
+            for(int t=0; t<tiles.length; t++)   {
+                int bytes = tileBytes(t);
+                tiles[t] = prepare(channel.map(FileChannel.MapMode.READ_WRITE, position, bytes));
+                position = position + bytes;
+            }
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Can not create memory-mapped matrix " + rows + " x " + columns + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns file with the values.
+     * @return File object.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Closes and deletes the file.
+     * @throws IllegalStateException if the file can not be closed, it is deleted anyway.
+     */
+    @Override
+    public void close() {
+        super.close();
+        try {
+            randomAccessFile.close();
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Can not close memory-mapped matrix file " + file + ": " + e.getMessage(), e);
+        }
+        finally {
+            // mapping is released when buffers are collected, until then file can not be deleted on some systems,
+            // only such file is registered for deletion on exit, so the list of files deleted on exit does not grow with every matrix
+            if(!file.delete() && file.exists())  {
+                file.deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package methods.BasicTypes;
+
+import java.io.File;
+
+import org.ejml.simple.SimpleMatrix;
+
+/**
+ * Storage of large matrices of indices calculated for every pair of alternatives (e.g. Electre concordance or Promethee MPD matrix).
+ * Matrix can be kept on the heap, in direct buffers outside of the heap or in memory-mapped file, so matrix of n alternatives does not have to fit in the heap.
+ * Values are accessed by single cells or by row segments, methods filling matrices write whole row segments, so off-heap storages are filled sequentially.
+ * Cells can be read and written by many threads at once as long as no cell is written by two threads.
+ */
+public abstract class MatrixStorage {
+
+    /**
+     * Enum type describing precision of stored values.
+     * Compact precisions are meant for indices from range [0, 1] (concordance, credibility, aggregated preference), which are only compared with thresholds -
+     * comparison with threshold can change only if value differs from the threshold by no more than getMaxError().
+     */
+    public enum Precision {
+        /**
+         * 2 bytes per value, values from range [0, 1] are stored as unsigned 16-bit fixed-point numbers round(value*65535).
+         * Values outside of the range are clamped to it. 0 and 1 are stored exactly.
+         */
+        FIXED16(2, 0.5/65535),
+        /**
+         * 4 bytes per value, values are rounded to float (relative error 2^-24, absolute error not greater than 2^-25 for values from range [0, 1]).
+         */
+        FLOAT(4, 0x1.0p-25),
+        /**
+         * 8 bytes per value, values are stored exactly.
+         */
+        DOUBLE(8, 0);
+
+        /**
+         * Number of bytes of one value.
+         */
+        private final int bytes;
+
+        /**
+         * Maximal absolute error of stored value from range [0, 1].
+         */
+        private final double maxError;
+
+        Precision(int bytes, double maxError) {
+            this.bytes = bytes;
+            this.maxError = maxError;
+        }
+
+        /**
+         * Returns number of bytes of one value.
+         * @return Number of bytes.
+         */
+        public int getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns maximal absolute difference between value from range [0, 1] and the value read back from the matrix.
+         * @return Error bound, 0 for DOUBLE precision.
+         */
+        public double getMaxError() {
+            return maxError;
+        }
+    }
+
+    /**
+     * Factory creating matrices of given size, used by methods to create their matrices.
+     */
+    public interface Factory {
+        /**
+         * Creates matrix filled with zeros.
+         * @param rows Number of rows.
+         * @param columns Number of columns.
+         * @return MatrixStorage object.
+         */
+        MatrixStorage create(int rows, int columns);
+    }
+
+    /**
+     * Number of rows.
+     */
+    protected final int rows;
+
+    /**
+     * Number of columns.
+     */
+    protected final int columns;
+
+    /**
+     * MatrixStorage constructor.
+     * @param rows Number of rows.
+     * @param columns Number of columns.
+     */
+    protected MatrixStorage(int rows, int columns) {
+        if(rows < 0 || columns < 0)  {
+            throw new IllegalArgumentException("Matrix size can not be negative: " + rows + " x " + columns);
+        }
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns factory of matrices stored on the heap (in SimpleMatrix objects), with double precision. It is the default storage.
+     * @return Factory object.
+     */
+    public static Factory heap() {
+        return new Factory() {
+            @Override
+            public MatrixStorage create(int rows, int columns) {
+                return new HeapMatrixStorage(rows, columns);
+            }
+        };
+    }
+
+    /**
+     * Returns factory of matrices stored on the heap with given precision. FLOAT and FIXED16 matrices need 2 or 4 times less memory than DOUBLE ones.
+     * @param precision Precision of stored values.
+     * @return Factory object.
+     */
+    public static Factory heap(final Precision precision) {
+        if(precision == Precision.DOUBLE)   {
+            return heap();
+        }
+        return new Factory() {
+            @Override
+            public MatrixStorage create(int rows, int columns) {
+                return new CompactMatrixStorage(rows, columns, precision);
+            }
+        };
+    }
+
+    /**
+     * Returns factory of matrices stored in direct buffers, outside of the heap.
+     * @param precision Precision of stored values.
+     * @return Factory object.
+     */
+    public static Factory direct(final Precision precision) {
+        return new Factory() {
+            @Override
+            public MatrixStorage create(int rows, int columns) {
+                return new DirectMatrixStorage(rows, columns, precision);
+            }
+        };
+    }
+
+    /**
+     * Returns factory of matrices stored in memory-mapped temporary files, deleted when matrix is closed (or when virtual machine exits).
+     * @param directory Directory in which files are created, null means default temporary directory.
+     * @param precision Precision of stored values.
+     * @return Factory object.
+     */
+    public static Factory mapped(final File directory, final Precision precision) {
+        return new Factory() {
+            @Override
+            public MatrixStorage create(int rows, int columns) {
+                return new MappedMatrixStorage(directory, rows, columns, precision);
+            }
+        };
+    }
+
+    /**
+     * Converts value to FIXED16 representation.
+     * @param value Value from range [0, 1], other values are clamped.
+     * @return Fixed-point value as unsigned 16-bit number.
+     */
+    protected static char toFixed16(double value) {
+        if(value <= 0)  {
+            return 0;
+        }
+        if(value >= 1)  {
+            return 65535;
+        }
+        return (char) Math.round(value * 65535);
+    }
+
+    /**
+     * Converts FIXED16 representation to value.
+     * @param fixed Fixed-point value as unsigned 16-bit number.
+     * @return Value from range [0, 1].
+     */
+    protected static double fromFixed16(char fixed) {
+        return fixed / 65535.0;
+    }
+
+    /**
+     * Returns number of rows.
+     * @return Number of rows.
+     */
+    public int numRows() {
+        return rows;
+    }
+
+    /**
+     * Returns number of columns.
+     * @return Number of columns.
+     */
+    public int numCols() {
+        return columns;
+    }
+
+    /**
+     * Returns precision of stored values.
+     * @return Precision.
+     */
+    public abstract Precision getPrecision();
+
+    /**
+     * Returns value of the cell.
+     * @param row Row index.
+     * @param column Column index.
+     * @return Value.
+     */
+    public abstract double get(int row, int column);
+
+    /**
+     * Sets value of the cell.
+     * @param row Row index.
+     * @param column Column index.
+     * @param value Value.
+     */
+    public abstract void set(int row, int column, double value);
+
+    /**
+     * Reads segment of the row.
+     * @param row Row index.
+     * @param column Index of the first column of the segment.
+     * @param buffer Array to which values are written.
+     * @param offset Index in buffer of the first value.
+     * @param length Number of values.
+     */
+    public void getRow(int row, int column, double[] buffer, int offset, int length) {
+        for(int k=0; k<length; k++) {
+            buffer[offset + k] = get(row, column + k);
+        }
+    }
+
+    /**
+     * Writes segment of the row.
+     * @param row Row index.
+     * @param column Index of the first column of the segment.
+     * @param values Array with values.
+     * @param offset Index in values array of the first value.
+     * @param length Number of values.
+     */
+    public void setRow(int row, int column, double[] values, int offset, int length) {
+        for(int k=0; k<length; k++) {
+            set(row, column + k, values[offset + k]);
+        }
+    }
+
+    /**
+     * Returns all the values as row-major array. For heap storage it is the array used by the matrix, for other storages it is a copy.
+     * @return Array of size rows*columns.
+     */
+    public double[] asArray() {
+        if((long) rows * columns > Integer.MAX_VALUE)  {
+            throw new IllegalArgumentException("Matrix " + rows + " x " + columns + " is too large for an array.");
+        }
+        double[] values = new double[rows*columns];
+        for(int i=0; i<rows; i++)   {
+            getRow(i, 0, values, i*columns, columns);
+        }
+        return values;
+    }
+
+    /**
+     * Returns matrix as SimpleMatrix object. For heap storage it is the matrix used to store values, for other storages it is a copy.
+     * @return SimpleMatrix object.
+     */
+    public SimpleMatrix toSimpleMatrix() {
+        SimpleMatrix matrix = new SimpleMatrix(rows, columns);
+        double[] data = matrix.getMatrix().data;
+        for(int i=0; i<rows; i++)   {
+            getRow(i, 0, data, i*columns, columns);
+        }
+        return matrix;
+    }
+
+    /**
+     * Releases resources used by the matrix (memory or file). Matrix can not be used after it is closed.
+     */
+    public void close() {
+    }
+}
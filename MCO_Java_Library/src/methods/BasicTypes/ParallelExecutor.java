@@ -0,0 +1,123 @@
+package methods.BasicTypes;
+
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Helper class used by methods classes to split loops over alternatives into chunks processed in parallel on a ForkJoin pool.
+ * With parallelism level equal to 1 all the work is done in the calling thread, without creating any pool.
+ * Pools are shared by all the executors with the same parallelism level and created on first use, so executors can be created freely
+ * (e.g. by short-lived methods objects) without starting new threads. Worker threads of the pools are daemon threads.
+ */
+public class ParallelExecutor {
+
+    /**
+     * Interface of the work done for a range of loop indices.
+     */
+    public interface RangeTask {
+        /**
+         * Processes loop indices from the range [from, to).
+         * @param from First index (inclusive).
+         * @param to Last index (exclusive).
+         */
+        void run(int from, int to);
+    }
+
+    /**
+     * Number of threads used by executor.
+     */
+    private final int parallelism;
+
+    /**
+     * Pools shared by executors, by parallelism level.
+     */
+    private static final HashMap<Integer, ForkJoinPool> POOLS = new HashMap<Integer, ForkJoinPool>();
+
+    /**
+     * ParallelExecutor constructor.
+     * @param parallelism Number of threads, value lower than 1 means number of available processors.
+     */
+    public ParallelExecutor(int parallelism) {
+        if(parallelism < 1)   {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns number of threads used by executor.
+     * @return Parallelism level.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Runs task for all the indices from the range [from, to), split into chunks not smaller than grain.
+     * Method returns when all the chunks are processed, exception thrown by any chunk is rethrown in calling thread.
+     * @param from First index (inclusive).
+     * @param to Last index (exclusive).
+     * @param grain Minimal number of indices processed by one chunk.
+     * @param task Task run for every chunk.
+     */
+    public void forRange(int from, int to, int grain, RangeTask task) {
+        if(to <= from)  {
+            return;
+        }
+        if(grain < 1)   {
+            grain = 1;
+        }
+        if(parallelism == 1 || to - from <= grain)    {
+            task.run(from, to);
+            return;
+        }
+        getPool(parallelism).invoke(new RangeAction(from, to, grain, task));
+    }
+
+    /**
+     * Returns pool shared by executors with given parallelism level, creates it if needed.
+     * @param parallelism Parallelism level.
+     * @return ForkJoinPool object.
+     */
+    private static ForkJoinPool getPool(int parallelism)  {
+        synchronized(POOLS) {
+            ForkJoinPool pool = POOLS.get(parallelism);
+            if(pool == null)    {
+                pool = new ForkJoinPool(parallelism);
+                POOLS.put(parallelism, pool);
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * ForkJoin action splitting range of indices in halves until it is not bigger than grain.
+     */
+    private static class RangeAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeTask task;
+
+        RangeAction(int from, int to, int grain, RangeTask task) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= grain)  {
+                task.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, middle, grain, task), new RangeAction(middle, to, grain, task));
+        }
+    }
+}
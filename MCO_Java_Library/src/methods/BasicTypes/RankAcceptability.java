@@ -0,0 +1,395 @@
+package methods.BasicTypes;
+
+import java.util.Random;
+
+/**
+ * Monte Carlo simulation of MCO method results under uncertain criteria weights.
+ * Weight vectors are drawn from distribution centered at reference weights of the score model, every vector is normalized
+ * and alternatives are ranked by scores calculated by the model. Result is rank acceptability matrix - probability that alternative takes specific rank.
+ * Samples are processed in parallel, every task has its own random number generator and buffers, so no memory is allocated per sample.
+ * Samples are drawn in blocks of BLOCK_SAMPLES, generator of every block is seeded with the seed and block number, so for a given seed
+ * the result does not depend on number of threads.
+ * @see methods.BasicTypes.ScoreModel
+ */
+public class RankAcceptability {
+
+    /**
+     * Enum type describing distribution of criteria weights.
+     */
+    public enum Distribution {
+        /**
+         * Every weight is drawn independently from uniform distribution on [w*(1-spread), w*(1+spread)], where w is reference weight.
+         */
+        UNIFORM,
+        /**
+         * Every weight is drawn independently from normal distribution with mean w and standard deviation w*spread (negative values are replaced by 0).
+         */
+        NORMAL,
+        /**
+         * Weights vector is drawn from Dirichlet distribution with parameters w*m/spread (m - number of criteria), using normalized Gamma variables
+         * (generated by Marsaglia-Tsang method, so time of drawing does not depend on the parameters).
+         * For equal reference weights and spread equal to 1 weights are uniformly distributed on the simplex.
+         */
+        DIRICHLET;
+    }
+
+    /**
+     * Number of samples drawn with one seed of random number generator.
+     */
+    static final int BLOCK_SAMPLES = 256;
+
+    /**
+     * Score model of MCO method.
+     */
+    private final ScoreModel model;
+
+    /**
+     * Distribution of criteria weights.
+     */
+    private Distribution distribution;
+
+    /**
+     * Spread of weights distribution.
+     */
+    private double spread;
+
+    /**
+     * Number of samples.
+     */
+    private int samples;
+
+    /**
+     * Executor used to process samples in parallel.
+     */
+    private ParallelExecutor executor;
+
+    /**
+     * Seed of random number generators, null if new seed is drawn for every simulation.
+     */
+    private Long seed;
+
+    /**
+     * Rank acceptability matrix, counts of alternative i taking rank k are at index i*n+k (null before calculations).
+     */
+    private long[] counts;
+
+    /**
+     * Number of samples used to calculate counts.
+     */
+    private int countedSamples;
+
+    /**
+     * RankAcceptability constructor. By default 10000 samples are drawn from uniform distribution with spread 0.2, using all available processors.
+     * @param model Score model of MCO method.
+     */
+    public RankAcceptability(ScoreModel model) {
+        this.model = model;
+        this.distribution = Distribution.UNIFORM;
+        this.spread = 0.2;
+        this.samples = 10000;
+        this.executor = new ParallelExecutor(0);
+    }
+
+    /**
+     * RankAcceptability constructor with seed of random number generators, so that simulation results can be reproduced.
+     * @param model Score model of MCO method.
+     * @param seed Seed of random number generators.
+     */
+    public RankAcceptability(ScoreModel model, long seed) {
+        this(model);
+        this.seed = seed;
+    }
+
+    /**
+     * Sets seed of random number generators, every simulation run with the same seed and parameters gives the same result.
+     * @param seed Seed of random number generators.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns seed of random number generators.
+     * @return Seed or null if new seed is drawn for every simulation.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets distribution of criteria weights.
+     * @param distribution Distribution type.
+     */
+    public void setDistribution(Distribution distribution) {
+        this.distribution = distribution;
+    }
+
+    /**
+     * Returns distribution of criteria weights.
+     * @return Distribution type.
+     */
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    /**
+     * Sets spread of weights distribution (its meaning depends on distribution type).
+     * @param spread Positive spread value.
+     */
+    public void setSpread(double spread) {
+        if(!(spread > 0))   {
+            throw new IllegalArgumentException("Spread has to be positive.");
+        }
+        this.spread = spread;
+    }
+
+    /**
+     * Returns spread of weights distribution.
+     * @return Spread value.
+     */
+    public double getSpread() {
+        return spread;
+    }
+
+    /**
+     * Sets number of samples (weight vectors) drawn in simulation.
+     * @param samples Number of samples.
+     */
+    public void setSamples(int samples) {
+        if(samples < 1) {
+            throw new IllegalArgumentException("Number of samples has to be positive.");
+        }
+        this.samples = samples;
+    }
+
+    /**
+     * Returns number of samples drawn in simulation.
+     * @return Number of samples.
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Sets number of threads used in simulation.
+     * @param parallelism Number of threads, value lower than 1 means number of available processors.
+     */
+    public void setParallelism(int parallelism) {
+        executor = new ParallelExecutor(parallelism);
+    }
+
+    /**
+     * Returns number of threads used in simulation.
+     * @return Number of threads.
+     */
+    public int getParallelism() {
+        return executor.getParallelism();
+    }
+
+    /**
+     * Runs simulation and returns rank acceptability matrix.
+     * @return Array of size n x n, element [i][k] is probability that i-th alternative takes (k+1)-th place in ranking.
+     */
+    public double[][] calculate() {
+        final int altsNum = model.getAlternativesNum();
+        final double[] reference = normalize(model.getWeights());
+        final int samplesNum = samples;
+        final long simulationSeed = seed != null ? seed : new Random().nextLong();
+        counts = new long[altsNum*altsNum];
+        countedSamples = samplesNum;
+        int blocks = (samplesNum + BLOCK_SAMPLES - 1) / BLOCK_SAMPLES;
+        int chunks = Math.max(1, executor.getParallelism() * 4);
+        int grain = Math.max(1, (blocks + chunks - 1) / chunks);
+
+        executor.forRange(0, blocks, grain, new ParallelExecutor.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                WeightSampler sampler = new WeightSampler(reference, distribution, spread);
+                double[] weights = new double[reference.length];
+                double[] scores = new double[altsNum];
+                int[] order = new int[altsNum];
+                int[] buffer = new int[altsNum];
+                long[] localCounts = new long[altsNum*altsNum];
+                for(int block=from; block<to; block++)  {
+                    sampler.setSeed(blockSeed(simulationSeed, block));
+                    int last = Math.min(samplesNum, (block+1)*BLOCK_SAMPLES);
+                    for(int s=block*BLOCK_SAMPLES; s<last; s++)  {
+                        sampler.sample(weights);
+                        model.calculateScores(weights, scores);
+                        IndexSort.sortDescending(scores, altsNum, order, buffer);
+                        for(int k=0; k<altsNum; k++)    {
+                            localCounts[order[k]*altsNum + k]++;
+                        }
+                    }
+                }
+                synchronized(RankAcceptability.this)    {
+                    for(int i=0; i<localCounts.length; i++) {
+                        counts[i] = counts[i] + localCounts[i];
+                    }
+                }
+            }
+        });
+        return getAcceptabilityMatrix();
+    }
+
+    /**
+     * Returns rank acceptability matrix calculated by last run of calculate() method.
+     * @return Array of size n x n, element [i][k] is probability that i-th alternative takes (k+1)-th place in ranking, null if simulation was not run.
+     */
+    public synchronized double[][] getAcceptabilityMatrix() {
+        if(counts == null)  {
+            return null;
+        }
+        int altsNum = model.getAlternativesNum();
+        double[][] result = new double[altsNum][altsNum];
+        for(int i=0; i<altsNum; i++)    {
+            for(int k=0; k<altsNum; k++)    {
+                result[i][k] = (double)counts[i*altsNum + k] / countedSamples;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calculates seed of random number generator of one block of samples, mixing bits of simulation seed and block number (SplitMix64 finalizer),
+     * so that generators of consecutive blocks are not correlated.
+     * @param seed Simulation seed.
+     * @param block Block number.
+     * @return Seed of the block.
+     */
+    private static long blockSeed(long seed, int block) {
+        long z = seed + (block + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Normalizes weights so that they sum up to 1.
+     * @param weights Criteria weights.
+     * @return New array with normalized weights.
+     */
+    private static double[] normalize(double[] weights) {
+        double sum = 0;
+        for(int r=0; r<weights.length; r++) {
+            sum = sum + weights[r];
+        }
+        if(!(sum > 0))  {
+            throw new IllegalArgumentException("Sum of reference weights has to be positive.");
+        }
+        double[] normalized = new double[weights.length];
+        for(int r=0; r<weights.length; r++) {
+            normalized[r] = weights[r]/sum;
+        }
+        return normalized;
+    }
+
+    /**
+     * Generator of normalized weight vectors, one object is used by one thread only.
+     */
+    private static class WeightSampler {
+
+        /**
+         * Reference weights.
+         */
+        private final double[] reference;
+
+        /**
+         * Distribution of criteria weights.
+         */
+        private final Distribution distribution;
+
+        /**
+         * Spread of weights distribution.
+         */
+        private final double spread;
+
+        /**
+         * Shape parameters of Gamma variables, one per criterium (null for distributions other than Dirichlet).
+         */
+        private final double[] shapes;
+
+        /**
+         * Source of random numbers.
+         */
+        private final Random random;
+
+        WeightSampler(double[] reference, Distribution distribution, double spread) {
+            this.reference = reference;
+            this.distribution = distribution;
+            this.spread = spread;
+            this.shapes = distribution == Distribution.DIRICHLET ? new double[reference.length] : null;
+            this.random = new Random();
+            if(shapes != null)  {
+                for(int r=0; r<reference.length; r++)   {
+                    shapes[r] = reference[r] > 0 ? reference[r]*reference.length/spread : 0;
+                }
+            }
+        }
+
+        /**
+         * Sets seed of random number generator.
+         * @param seed Seed.
+         */
+        void setSeed(long seed) {
+            random.setSeed(seed);
+        }
+
+        /**
+         * Draws normalized weights vector.
+         * @param weights Array to which weights are written.
+         */
+        void sample(double[] weights) {
+            double sum = 0;
+            for(int r=0; r<weights.length; r++) {
+                double weight = reference[r];
+                if(weight <= 0) {
+                    weights[r] = 0;
+                }
+                else if(distribution == Distribution.UNIFORM)    {
+                    weights[r] = Math.max(0, weight*(1-spread) + 2*weight*spread*random.nextDouble());
+                }
+                else if(distribution == Distribution.NORMAL)    {
+                    weights[r] = Math.max(0, weight + weight*spread*random.nextGaussian());
+                }
+                else    {
+                    weights[r] = gamma(shapes[r]);
+                }
+                sum = sum + weights[r];
+            }
+            if(!(sum > 0))  {
+                System.arraycopy(reference, 0, weights, 0, weights.length);
+                return;
+            }
+            for(int r=0; r<weights.length; r++) {
+                weights[r] = weights[r]/sum;
+            }
+        }
+
+        /**
+         * Draws Gamma variable with rate 1 using Marsaglia-Tsang method.
+         * @param shape Positive shape parameter.
+         * @return Random value.
+         */
+        private double gamma(double shape) {
+            if(shape < 1)   {
+                // Gamma(shape) = Gamma(shape+1) * U^(1/shape)
+                return gamma(shape + 1) * Math.pow(random.nextDouble(), 1/shape);
+            }
+            double d = shape - 1.0/3;
+            double c = 1/Math.sqrt(9*d);
+            while(true) {
+                double x = random.nextGaussian();
+                double v = 1 + c*x;
+                if(v <= 0)  {
+                    continue;
+                }
+                v = v*v*v;
+                double u = random.nextDouble();
+                if(Math.log(u) < 0.5*x*x + d - d*v + d*Math.log(v))   {
+                    return d*v;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package methods.BasicTypes;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Ranking of alternatives by descending score, ordered lazily - only as many best alternatives are ordered as were requested.
+ * Best k alternatives are selected from the rest by introselect in O(n) time and sorted in O(k*log k) time, so getting first ranks
+ * of large ranking does not need the full sort. Ordered part grows at least twice on every extension, so reading the whole ranking
+ * rank by rank costs O(n*log n) time in total. Alternative with given rank is returned in O(1) time once it is ordered.
+ * Alternatives with equal scores are ordered by ascending order number (as by stable sort), NaN scores are ranked last.
+ * @param <T> Type of ranked alternatives.
+ */
+public class Ranking<T> {
+
+    /**
+     * Minimal number of alternatives ordered at once.
+     */
+    private static final int MIN_ORDERED = 64;
+
+    /**
+     * Length of ranges sorted by insertion sort.
+     */
+    private static final int INSERTION_SORT = 16;
+
+    /**
+     * Ranked alternatives in order of their order numbers.
+     */
+    private final Object[] items;
+
+    /**
+     * Scores of the alternatives.
+     */
+    private final double[] scores;
+
+    /**
+     * Order numbers of the alternatives, first orderedNum of them are ordered by rank, the rest are ranked lower in any order.
+     */
+    private final int[] order;
+
+    /**
+     * Number of ordered alternatives.
+     */
+    private int orderedNum;
+
+    /**
+     * Complete ranking as list, created on first request.
+     */
+    private LinkedList<T> list;
+
+    /**
+     * Creates empty ranking.
+     */
+    public Ranking() {
+        this(new LinkedList<T>(), new double[0]);
+    }
+
+    /**
+     * Ranking constructor. Alternatives are not ordered until they are requested.
+     * @param items List of alternatives, i-th alternative has order number i.
+     * @param scores Scores of the alternatives, score of i-th alternative at index i. Array is copied.
+     */
+    public Ranking(List<? extends T> items, double[] scores) {
+        int n = items.size();
+        if(scores.length < n)   {
+            throw new IllegalArgumentException("Expected " + n + " scores, got " + scores.length + ".");
+        }
+        this.items = new Object[n];
+        this.scores = new double[n];
+        this.order = new int[n];
+        int i = 0;
+        for(Iterator<? extends T> it = items.iterator(); it.hasNext(); i++)  {
+            this.items[i] = it.next();
+            this.scores[i] = Double.isNaN(scores[i]) ? Double.NEGATIVE_INFINITY : scores[i];
+            this.order[i] = i;
+        }
+    }
+
+    /**
+     * Returns number of ranked alternatives.
+     * @return Number of alternatives.
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Returns alternative with given rank.
+     * @param rank Rank (starting from 1).
+     * @return Alternative object.
+     * @throws IndexOutOfBoundsException if there is no such rank.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int rank) {
+        return (T) items[getIndex(rank)];
+    }
+
+    /**
+     * Returns order number of alternative with given rank.
+     * @param rank Rank (starting from 1).
+     * @return Order number of the alternative.
+     * @throws IndexOutOfBoundsException if there is no such rank.
+     */
+    public int getIndex(int rank) {
+        if(rank < 1 || rank > items.length) {
+            throw new IndexOutOfBoundsException("There is no alternative with rank " + rank + ".");
+        }
+        ensureOrdered(rank);
+        return order[rank-1];
+    }
+
+    /**
+     * Returns score of alternative with given rank.
+     * @param rank Rank (starting from 1).
+     * @return Score of the alternative.
+     * @throws IndexOutOfBoundsException if there is no such rank.
+     */
+    public double getScore(int rank) {
+        return scores[getIndex(rank)];
+    }
+
+    /**
+     * Returns k best alternatives, without ordering the rest of the ranking.
+     * @param k Number of alternatives, if it is larger than ranking size all the alternatives are returned.
+     * @return List of alternatives ordered by rank.
+     */
+    @SuppressWarnings("unchecked")
+    public LinkedList<T> top(int k) {
+        int count = Math.max(0, Math.min(k, items.length));
+        ensureOrdered(count);
+        LinkedList<T> result = new LinkedList<T>();
+        for(int i=0; i<count; i++)  {
+            result.add((T) items[order[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns complete ranking, the whole ranking is ordered on first call.
+     * @return List of all the alternatives ordered by rank (the same list is returned by every call).
+     */
+    public LinkedList<T> toList() {
+        if(list == null)    {
+            list = top(items.length);
+        }
+        return list;
+    }
+
+    /**
+     * Returns number of alternatives which are already ordered.
+     * @return Number of ordered alternatives.
+     */
+    public int getOrderedNum() {
+        return orderedNum;
+    }
+
+    /**
+     * Orders at least count best alternatives.
+     * @param count Number of alternatives.
+     */
+    private void ensureOrdered(int count) {
+        if(count <= orderedNum) {
+            return;
+        }
+        int n = items.length;
+        int target = Math.min(n, Math.max(count, Math.max(2*orderedNum, MIN_ORDERED)));
+        if(target < n)  {
+            select(orderedNum, n, target);
+        }
+        sort(orderedNum, target);
+        orderedNum = target;
+    }
+
+    /**
+     * Checks if alternative is ranked higher than the other one.
+     * @param a Order number of the first alternative.
+     * @param b Order number of the second alternative.
+     * @return True if the first alternative has higher score, or equal score and lower order number.
+     */
+    private boolean better(int a, int b) {
+        return scores[a] > scores[b] || (!(scores[a] < scores[b]) && a < b);
+    }
+
+    /**
+     * Swaps two elements of order array.
+     * @param i First position.
+     * @param j Second position.
+     */
+    private void swap(int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+
+    /**
+     * Moves best alternatives of the range [from, to) of order array to positions [from, k), by introselect.
+     * If partitioning does not converge the range is sorted, so worst case time is O(n*log n).
+     * @param from First position of the range (inclusive).
+     * @param to Last position of the range (exclusive).
+     * @param k Position after the last selected alternative.
+     */
+    private void select(int from, int to, int k) {
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while(to - from > INSERTION_SORT)   {
+            if(depth-- == 0)    {
+                sort(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            if(better(order[middle], order[from]))  {
+                swap(middle, from);
+            }
+            if(better(order[to-1], order[from]))    {
+                swap(to-1, from);
+            }
+            if(better(order[to-1], order[middle]))  {
+                swap(to-1, middle);
+            }
+            swap(middle, to-1);
+            int pivot = order[to-1];
+            int store = from;
+            for(int i=from; i<to-1; i++)    {
+                if(better(order[i], pivot))  {
+                    swap(i, store++);
+                }
+            }
+            swap(store, to-1);
+            if(k <= store)  {
+                to = store;
+            }
+            else if(k > store + 1)  {
+                from = store + 1;
+            }
+            else    {
+                return;
+            }
+        }
+        sort(from, to);
+    }
+
+    /**
+     * Sorts range [from, to) of order array by rank, using insertion sort for short ranges and merge sort for the others.
+     * @param from First position of the range (inclusive).
+     * @param to Last position of the range (exclusive).
+     */
+    private void sort(int from, int to) {
+        if(to - from <= INSERTION_SORT)   {
+            for(int i=from+1; i<to; i++)    {
+                int index = order[i];
+                int j = i - 1;
+                while(j >= from && better(index, order[j]))   {
+                    order[j+1] = order[j];
+                    j--;
+                }
+                order[j+1] = index;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(from, middle);
+        sort(middle, to);
+        if(!better(order[middle], order[middle-1]))   {
+            return;
+        }
+        int[] left = new int[middle - from];
+        System.arraycopy(order, from, left, 0, left.length);
+        int i = 0;
+        int j = middle;
+        int k = from;
+        while(i < left.length && j < to)  {
+            order[k++] = better(order[j], left[i]) ? order[j++] : left[i++];
+        }
+        while(i < left.length)  {
+            order[k++] = left[i++];
+        }
+    }
+}
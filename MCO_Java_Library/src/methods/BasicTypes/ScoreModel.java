@@ -0,0 +1,34 @@
+package methods.BasicTypes;
+
+/**
+ * Interface of MCO method results decomposed so that scores of all the alternatives can be recalculated quickly for different criteria weights.
+ * It is used by RankAcceptability class to simulate method results under uncertain weights. Higher score means better alternative.
+ * Implementations have to be safe for use by many threads at once (calculateScores method cannot modify the object).
+ * @see methods.BasicTypes.RankAcceptability
+ */
+public interface ScoreModel {
+    /**
+     * Returns number of alternatives.
+     * @return Number of alternatives.
+     */
+    public int getAlternativesNum();
+    
+    /**
+     * Returns number of criteria (number of elements of weights vector).
+     * @return Number of criteria.
+     */
+    public int getCriteriaNum();
+    
+    /**
+     * Returns criteria weights for which method was calculated (reference weights).
+     * @return Array of weights.
+     */
+    public double[] getWeights();
+    
+    /**
+     * Calculates scores of all the alternatives for criteria weights provided as parameter.
+     * @param weights Normalized criteria weights (they sum up to 1).
+     * @param scores Array to which score of every alternative is written.
+     */
+    public void calculateScores(double[] weights, double[] scores);
+}
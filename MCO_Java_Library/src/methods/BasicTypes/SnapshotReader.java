@@ -0,0 +1,247 @@
+package methods.BasicTypes;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Reader of binary snapshots written by SnapshotWriter. Records are read sequentially in the order they were written,
+ * decision matrix values are copied to the matrix array directly from memory-mapped file.
+ * All the errors (wrong header, unsupported version, truncated file) are reported as DataFileException.
+ * @see methods.BasicTypes.SnapshotWriter
+ */
+public class SnapshotReader implements Closeable {
+
+    /**
+     * Maximal number of bytes mapped at once.
+     */
+    private static final int MAX_MAPPED_BYTES = 1 << 30;
+
+    /**
+     * Path to the file.
+     */
+    private final String filename;
+
+    /**
+     * Opened file.
+     */
+    private final FileInputStream file;
+
+    /**
+     * Buffered input used to read records.
+     */
+    private final InputStream buffered;
+
+    /**
+     * Input used to read records.
+     */
+    private final DataInputStream input;
+
+    /**
+     * Number of bytes read so far.
+     */
+    private long position;
+
+    /**
+     * Checks if the file is a snapshot (starts with snapshot header bytes).
+     * @param filename Path to the file.
+     * @return True if file exists and is a snapshot, false otherwise.
+     */
+    public static boolean isSnapshot(String filename) {
+        byte[] magic = new byte[SnapshotWriter.MAGIC.length];
+        try {
+            DataInputStream input = new DataInputStream(new FileInputStream(filename));
+            try {
+                input.readFully(magic);
+            }
+            finally {
+                input.close();
+            }
+        }
+        catch (IOException e) {
+            return false;
+        }
+        return Arrays.equals(magic, SnapshotWriter.MAGIC);
+    }
+
+    /**
+     * SnapshotReader constructor, opens the file and checks its header.
+     * @param filename Path to the file.
+     * @param family Name of methods family which has to match the one given to SnapshotWriter.
+     * @throws DataFileException if the file can not be read, is not a snapshot of given family or has unsupported version.
+     */
+    public SnapshotReader(String filename, String family) {
+        this.filename = filename;
+        try {
+            this.file = new FileInputStream(filename);
+        }
+        catch (IOException e) {
+            throw new DataFileException(filename, 0, 0, "Can not read file: " + e.getMessage(), e);
+        }
+        this.buffered = new BufferedInputStream(file, 1 << 16);
+        this.input = new DataInputStream(buffered);
+        try {
+            byte[] magic = new byte[SnapshotWriter.MAGIC.length];
+            input.readFully(magic);
+            position = magic.length;
+            if(!Arrays.equals(magic, SnapshotWriter.MAGIC))  {
+                throw new DataFileException(filename, 0, 0, "File is not a snapshot.", null);
+            }
+            int version = readInt();
+            if(version != SnapshotWriter.VERSION)   {
+                throw new DataFileException(filename, 0, 0, "Unsupported snapshot version " + version + ".", null);
+            }
+            String fileFamily = readString();
+            if(!fileFamily.equals(family))  {
+                throw new DataFileException(filename, 0, 0, "File is a snapshot of " + fileFamily + " problem, not of " + family + " problem.", null);
+            }
+        }
+        catch (IOException e) {
+            close();
+            throw error(e);
+        }
+        catch (DataFileException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates exception describing input problem.
+     * @param e Exception thrown by input stream.
+     * @return DataFileException object.
+     */
+    private DataFileException error(IOException e) {
+        if(e instanceof EOFException)   {
+            return new DataFileException(filename, 0, 0, "Snapshot is truncated at byte " + position + ".", e);
+        }
+        return new DataFileException(filename, 0, 0, "Can not read file: " + e.getMessage(), e);
+    }
+
+    /**
+     * Reads integer number.
+     * @return Value.
+     */
+    public int readInt() {
+        try {
+            int value = input.readInt();
+            position = position + 4;
+            return value;
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+    }
+
+    /**
+     * Reads double number.
+     * @return Value.
+     */
+    public double readDouble() {
+        try {
+            double value = input.readDouble();
+            position = position + 8;
+            return value;
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+    }
+
+    /**
+     * Reads string.
+     * @return Text.
+     */
+    public String readString() {
+        try {
+            String value = input.readUTF();
+            position = position + SnapshotWriter.utfLength(value);
+            return value;
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+    }
+
+    /**
+     * Reads integer number which has to be from given range.
+     * @param min Minimal value.
+     * @param max Maximal value.
+     * @param what Description of the value used in error message.
+     * @return Value.
+     */
+    public int readInt(int min, int max, String what) {
+        int value = readInt();
+        if(value < min || value > max)  {
+            throw new DataFileException(filename, 0, 0, "Wrong " + what + " " + value + " before byte " + position + ".", null);
+        }
+        return value;
+    }
+
+    /**
+     * Reads decision matrix. Values are copied to the matrix array from memory-mapped file, without parsing.
+     * @return DecisionMatrix object with the same size and layout as the written one.
+     */
+    public DecisionMatrix readDecisionMatrix() {
+        int criteriaNum = readInt(0, Integer.MAX_VALUE, "number of criteria");
+        int alternativesNum = readInt(0, Integer.MAX_VALUE, "number of alternatives");
+        DecisionMatrix.Layout layout = DecisionMatrix.Layout.values()[readInt(0, DecisionMatrix.Layout.values().length - 1, "matrix layout")];
+        long length = (long) criteriaNum * alternativesNum;
+        if(length > Integer.MAX_VALUE)  {
+            throw new DataFileException(filename, 0, 0, "Decision matrix " + criteriaNum + " x " + alternativesNum + " is too large for an array.", null);
+        }
+        try {
+            long start = (position + 7) / 8 * 8;
+            long end = start + 8*length;
+            FileChannel channel = file.getChannel();
+            if(end > channel.size())  {
+                throw new DataFileException(filename, 0, 0, "Snapshot is truncated, decision matrix needs " + (end - start) + " bytes from byte " + start + ".", null);
+            }
+            double[] values = new double[(int) length];
+            for(long from=start; from<end; from=from+MAX_MAPPED_BYTES)  {
+                int bytes = (int) Math.min(MAX_MAPPED_BYTES, end - from);
+                channel.map(FileChannel.MapMode.READ_ONLY, from, bytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer()
+                        .get(values, (int) ((from - start) / 8), bytes / 8);
+            }
+            skip(end - position);
+            return new DecisionMatrix(values, criteriaNum, alternativesNum, layout);
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+    }
+
+    /**
+     * Skips bytes of the input.
+     * @param bytes Number of bytes.
+     * @throws IOException if input can not be read.
+     */
+    private void skip(long bytes) throws IOException {
+        long remaining = bytes;
+        while(remaining > 0)    {
+            long skipped = buffered.skip(remaining);
+            if(skipped <= 0)    {
+                throw new EOFException();
+            }
+            remaining = remaining - skipped;
+        }
+        position = position + bytes;
+    }
+
+    @Override
+    public void close() {
+        try {
+            input.close();
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+    }
+}
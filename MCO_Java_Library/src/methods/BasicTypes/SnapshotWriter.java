@@ -0,0 +1,181 @@
+package methods.BasicTypes;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * Writer of binary snapshots of MCO problems, which can be loaded much faster than csv data files.
+ * Snapshot (version 1) starts with "MCOS" bytes, format version and name of methods family (e.g. "Promethee"), then there are records written by the method
+ * (criteria, constraints, alternatives names) and decision matrix. Numbers and strings of the records are stored as by DataOutputStream (big-endian, modified UTF-8).
+ * Decision matrix is stored as its size and layout followed by the values aligned to 8 bytes, little-endian, in the order of the matrix array,
+ * so SnapshotReader copies them from memory-mapped file to the matrix array without any parsing.
+ * @see methods.BasicTypes.SnapshotReader
+ */
+public class SnapshotWriter implements Closeable {
+
+    /**
+     * First bytes of every snapshot.
+     */
+    static final byte[] MAGIC = {'M', 'C', 'O', 'S'};
+
+    /**
+     * Current version of snapshot format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Number of values copied to the output at once.
+     */
+    private static final int CHUNK_VALUES = 8192;
+
+    /**
+     * Path to the file.
+     */
+    private final String filename;
+
+    /**
+     * Output stream.
+     */
+    private final DataOutputStream output;
+
+    /**
+     * Number of bytes written so far.
+     */
+    private long position;
+
+    /**
+     * SnapshotWriter constructor, creates the file (or overwrites it) and writes snapshot header.
+     * @param filename Path to the file.
+     * @param family Name of methods family, checked when snapshot is read.
+     * @throws DataFileException if the file can not be written.
+     */
+    public SnapshotWriter(String filename, String family) {
+        this.filename = filename;
+        try {
+            this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16));
+        }
+        catch (IOException e) {
+            throw new DataFileException(filename, 0, 0, "Can not write file: " + e.getMessage(), e);
+        }
+        try {
+            output.write(MAGIC);
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+        position = MAGIC.length;
+        writeInt(VERSION);
+        writeString(family);
+    }
+
+    /**
+     * Creates exception describing output problem.
+     * @param e Exception thrown by output stream.
+     * @return DataFileException object.
+     */
+    private DataFileException error(IOException e) {
+        return new DataFileException(filename, 0, 0, "Can not write file: " + e.getMessage(), e);
+    }
+
+    /**
+     * Writes integer number.
+     * @param value Value.
+     */
+    public void writeInt(int value) {
+        try {
+            output.writeInt(value);
+            position = position + 4;
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+    }
+
+    /**
+     * Writes double number.
+     * @param value Value.
+     */
+    public void writeDouble(double value) {
+        try {
+            output.writeDouble(value);
+            position = position + 8;
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+    }
+
+    /**
+     * Writes string (at most 65535 bytes in modified UTF-8).
+     * @param value Text, can not be null.
+     */
+    public void writeString(String value) {
+        try {
+            output.writeUTF(value);
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+        position = position + utfLength(value);
+    }
+
+    /**
+     * Returns number of bytes of the string written by DataOutputStream.writeUTF().
+     * @param value Text.
+     * @return Number of bytes, including 2 bytes of length.
+     */
+    static int utfLength(String value) {
+        int length = 2;
+        for(int i=0; i<value.length(); i++) {
+            char c = value.charAt(i);
+            length = length + (c >= 1 && c <= 0x7F ? 1 : (c <= 0x7FF ? 2 : 3));
+        }
+        return length;
+    }
+
+    /**
+     * Writes decision matrix.
+     * @param matrix Decision matrix.
+     */
+    public void writeDecisionMatrix(DecisionMatrix matrix) {
+        writeInt(matrix.getCriteriaNum());
+        writeInt(matrix.getAlternativesNum());
+        writeInt(matrix.getLayout().ordinal());
+        try {
+            while(position % 8 != 0)    {
+                output.write(0);
+                position++;
+            }
+            double[] values = matrix.getValues();
+            int length = matrix.getCriteriaNum()*matrix.getAlternativesNum();
+            ByteBuffer chunk = ByteBuffer.allocate(8*CHUNK_VALUES).order(ByteOrder.LITTLE_ENDIAN);
+            DoubleBuffer doubles = chunk.asDoubleBuffer();
+            for(int from=0; from<length; from=from+CHUNK_VALUES)  {
+                int count = Math.min(CHUNK_VALUES, length - from);
+                doubles.clear();
+                doubles.put(values, from, count);
+                output.write(chunk.array(), 0, 8*count);
+                position = position + 8L*count;
+            }
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            output.close();
+        }
+        catch (IOException e) {
+            throw error(e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package methods.BasicTypes;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Bounded ranking keeping k best scored alternatives out of any number of offered ones, in O(k) memory.
+ * Alternatives are identified by their order numbers (e.g. line numbers in data file), scores are kept in a binary min-heap on primitive arrays,
+ * so offering an alternative which is worse than the k-th best one costs one comparison.
+ * Higher score is better, alternatives with equal scores are ranked by order number (lower one first), so the result does not depend on the order of offering.
+ * NaN scores are ranked last (kept as negative infinity), the same as by Ranking class.
+ */
+public class TopScores {
+
+    /**
+     * Maximal number of kept alternatives.
+     */
+    private final int k;
+
+    /**
+     * Order numbers of kept alternatives, heap order (the worst one at index 0).
+     */
+    private final long[] indices;
+
+    /**
+     * Scores of kept alternatives, heap order.
+     */
+    private final double[] scores;
+
+    /**
+     * Number of kept alternatives.
+     */
+    private int size;
+
+    /**
+     * Number of offered alternatives.
+     */
+    private long offered;
+
+    /**
+     * TopScores constructor.
+     * @param k Maximal number of kept alternatives.
+     */
+    public TopScores(int k) {
+        if(k < 1)   {
+            throw new IllegalArgumentException("Number of kept alternatives has to be positive, got " + k + ".");
+        }
+        this.k = k;
+        this.indices = new long[k];
+        this.scores = new double[k];
+    }
+
+    /**
+     * Checks if first alternative is ranked lower than the second one.
+     * @param score1 Score of the first alternative.
+     * @param index1 Order number of the first alternative.
+     * @param score2 Score of the second alternative.
+     * @param index2 Order number of the second alternative.
+     * @return True if the first alternative is worse.
+     */
+    private static boolean worse(double score1, long index1, double score2, long index2) {
+        int comparison = Double.compare(score1, score2);
+        return comparison < 0 || (comparison == 0 && index1 > index2);
+    }
+
+    /**
+     * Offers alternative to the ranking, it is kept if it is one of k best alternatives offered so far.
+     * @param index Order number of the alternative.
+     * @param score Score of the alternative, NaN is ranked as negative infinity.
+     */
+    public void offer(long index, double score) {
+        offered++;
+        if(Double.isNaN(score)) {
+            score = Double.NEGATIVE_INFINITY;
+        }
+        if(size < k)    {
+            int position = size++;
+            while(position > 0)    {
+                int parent = (position - 1) / 2;
+                if(!worse(score, index, scores[parent], indices[parent]))    {
+                    break;
+                }
+                scores[position] = scores[parent];
+                indices[position] = indices[parent];
+                position = parent;
+            }
+            scores[position] = score;
+            indices[position] = index;
+        }
+        else if(worse(scores[0], indices[0], score, index))  {
+            int position = 0;
+            while(true) {
+                int child = 2*position + 1;
+                if(child >= size)   {
+                    break;
+                }
+                if(child + 1 < size && worse(scores[child+1], indices[child+1], scores[child], indices[child]))    {
+                    child++;
+                }
+                if(!worse(scores[child], indices[child], score, index))    {
+                    break;
+                }
+                scores[position] = scores[child];
+                indices[position] = indices[child];
+                position = child;
+            }
+            scores[position] = score;
+            indices[position] = index;
+        }
+    }
+
+    /**
+     * Offers scores of consecutive alternatives.
+     * @param firstIndex Order number of the alternative with the first score.
+     * @param scores Scores array.
+     * @param count Number of scores (from the beginning of the array).
+     */
+    public void offer(long firstIndex, double[] scores, int count) {
+        for(int i=0; i<count; i++)  {
+            offer(firstIndex + i, scores[i]);
+        }
+    }
+
+    /**
+     * Returns positions of kept alternatives in the heap, sorted from the best alternative.
+     * @return Positions array.
+     */
+    private int[] order() {
+        Integer[] positions = new Integer[size];
+        for(int i=0; i<size; i++)   {
+            positions[i] = i;
+        }
+        Arrays.sort(positions, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer p1, Integer p2) {
+                if(worse(scores[p1], indices[p1], scores[p2], indices[p2]))  {
+                    return 1;
+                }
+                return worse(scores[p2], indices[p2], scores[p1], indices[p1]) ? -1 : 0;
+            }
+        });
+        int[] order = new int[size];
+        for(int i=0; i<size; i++)   {
+            order[i] = positions[i];
+        }
+        return order;
+    }
+
+    /**
+     * Returns order numbers of kept alternatives.
+     * @return Array of order numbers, the best alternative first.
+     */
+    public long[] getIndices() {
+        int[] order = order();
+        long[] result = new long[size];
+        for(int i=0; i<size; i++)   {
+            result[i] = indices[order[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Returns scores of kept alternatives.
+     * @return Array of scores in the same order as order numbers returned by getIndices() method.
+     */
+    public double[] getScores() {
+        int[] order = order();
+        double[] result = new double[size];
+        for(int i=0; i<size; i++)   {
+            result[i] = scores[order[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Returns number of kept alternatives.
+     * @return Number of kept alternatives, at most k.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns maximal number of kept alternatives.
+     * @return k value.
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Returns number of all the alternatives offered to the ranking.
+     * @return Number of offered alternatives.
+     */
+    public long getOfferedNum() {
+        return offered;
+    }
+}
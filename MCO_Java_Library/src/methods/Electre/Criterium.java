@@ -22,7 +22,7 @@ public class Criterium extends methods.BasicTypes.Criterium{
 	
 
     /**
-     * Criterium optimization veto. 
+     * Criterium optimization veto. Positive infinity means no veto, 0 means that any advantage over preference threshold vetoes the outranking.
      */
 	private Double veto_;   
     /**
@@ -0,0 +1,392 @@
+package methods.Electre;
+
+import methods.BasicTypes.IndexSort;
+
+/**
+ * Descending and ascending distillation of ElectreIII method.
+ * Alternative a lambda-outranks alternative b if credibility(a,b) is greater than lambda and credibility(a,b) - credibility(b,a) is greater
+ * than discrimination threshold s(credibility(a,b)) = alpha + beta*credibility(a,b). The second condition does not depend on lambda, so it is checked once
+ * for every pair and pairs are sorted by descending credibility - lowering lambda only adds pairs from the beginning of the sorted list
+ * and removing alternative only subtracts its pairs. Qualifications (strength minus weakness) are updated incrementally instead of being
+ * calculated from the whole matrix for every lambda cut.
+ */
+class Distillation {
+
+    /**
+     * Credibility matrix, credibility of alternative a over b is at index a*altsNum+b.
+     */
+    private final double[] credibility;
+
+    /**
+     * Number of alternatives.
+     */
+    private final int altsNum;
+
+    /**
+     * Constant term of discrimination threshold.
+     */
+    private final double alpha;
+
+    /**
+     * Linear term of discrimination threshold.
+     */
+    private final double beta;
+
+    /**
+     * For every pair: true if credibility difference satisfies discrimination threshold.
+     */
+    private final boolean[] discriminated;
+
+    /**
+     * All the pairs of different alternatives (encoded as a*altsNum+b) ordered by descending credibility.
+     */
+    private final int[] order;
+
+    /**
+     * Distillation constructor.
+     * @param credibility Credibility matrix data (row-major n x n array).
+     * @param altsNum Number of alternatives.
+     * @param alpha Constant term of discrimination threshold.
+     * @param beta Linear term of discrimination threshold.
+     */
+    Distillation(double[] credibility, int altsNum, double alpha, double beta) {
+        this.credibility = credibility;
+        this.altsNum = altsNum;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.discriminated = new boolean[altsNum*altsNum];
+        for(int a=0; a<altsNum; a++)    {
+            for(int b=0; b<altsNum; b++)    {
+                if(a != b)  {
+                    double value = credibility[a*altsNum + b];
+                    discriminated[a*altsNum + b] = value - credibility[b*altsNum + a] > threshold(value);
+                }
+            }
+        }
+        int[] all = IndexSort.sortDescending(credibility);
+        this.order = new int[altsNum*altsNum - altsNum];
+        int k = 0;
+        for(int i=0; i<all.length; i++) {
+            if(all[i] / altsNum != all[i] % altsNum)  {
+                order[k++] = all[i];
+            }
+        }
+    }
+
+    /**
+     * Returns discrimination threshold for given credibility level.
+     * @param lambda Credibility level.
+     * @return Threshold value.
+     */
+    private double threshold(double lambda) {
+        return alpha + beta*lambda;
+    }
+
+    /**
+     * Runs descending or ascending distillation.
+     * Descending distillation repeatedly takes alternatives with the highest qualification as the next class, ascending one - alternatives with the lowest qualification
+     * as the previous class.
+     * @param descending true for descending distillation, false for ascending one.
+     * @return Class of every alternative, 0 is the best class.
+     */
+    int[] distill(boolean descending) {
+        int[] classes = new int[altsNum];
+        boolean[] alive = new boolean[altsNum];
+        for(int a=0; a<altsNum; a++)    {
+            alive[a] = true;
+        }
+        Qualifications engine = new Qualifications(order, alive);
+        int remaining = altsNum;
+        int classesNum = 0;
+        while(remaining > 0)    {
+            int[] selected = select(engine, descending);
+            for(int i=0; i<selected.length; i++)    {
+                classes[selected[i]] = classesNum;
+                engine.remove(selected[i]);
+            }
+            remaining = remaining - selected.length;
+            classesNum++;
+        }
+        if(!descending) {
+            for(int a=0; a<altsNum; a++)    {
+                classes[a] = classesNum - 1 - classes[a];
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Selects next class of distillation from alternatives alive in engine. Lambda is lowered step by step, every time alternatives with the best
+     * qualification are kept, until one alternative is left or lambda reaches 0.
+     * @param engine Qualifications of alternatives not assigned to any class yet.
+     * @param descending true for descending distillation, false for ascending one.
+     * @return Selected alternatives.
+     */
+    private int[] select(Qualifications engine, boolean descending) {
+        int[] candidates = engine.aliveAlternatives();
+        if(candidates.length == 1)  {
+            return candidates;
+        }
+        Qualifications current = engine;
+        double lambda = current.maxCredibility();
+        while(true) {
+            double next = current.maxCredibilityBelow(lambda - threshold(lambda));
+            current.activate(next);
+            int[] best = current.best(candidates, descending);
+            if(best.length == 1 || next <= 0)   {
+                return best;
+            }
+            if(current == engine)   {
+                current = new Qualifications(pairsOf(best), aliveArray(best));
+            }
+            else    {
+                boolean[] kept = aliveArray(best);
+                for(int i=0; i<candidates.length; i++)  {
+                    if(!kept[candidates[i]])    {
+                        current.remove(candidates[i]);
+                    }
+                }
+            }
+            candidates = best;
+            lambda = next;
+        }
+    }
+
+    /**
+     * Returns all the pairs of different alternatives from the set, ordered by descending credibility.
+     * @param alternatives Set of alternatives.
+     * @return Array of pairs encoded as a*altsNum+b.
+     */
+    private int[] pairsOf(int[] alternatives) {
+        int size = alternatives.length;
+        int[] pairs = new int[size*size - size];
+        double[] values = new double[pairs.length];
+        int k = 0;
+        for(int i=0; i<size; i++)   {
+            for(int j=0; j<size; j++)   {
+                if(i != j)  {
+                    pairs[k] = alternatives[i]*altsNum + alternatives[j];
+                    values[k] = credibility[pairs[k]];
+                    k++;
+                }
+            }
+        }
+        int[] sorted = IndexSort.sortDescending(values);
+        int[] result = new int[pairs.length];
+        for(int i=0; i<sorted.length; i++)  {
+            result[i] = pairs[sorted[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Returns membership array of the set of alternatives.
+     * @param alternatives Set of alternatives.
+     * @return Array with true for alternatives from the set.
+     */
+    private boolean[] aliveArray(int[] alternatives) {
+        boolean[] alive = new boolean[altsNum];
+        for(int i=0; i<alternatives.length; i++)    {
+            alive[alternatives[i]] = true;
+        }
+        return alive;
+    }
+
+    /**
+     * Qualifications of alternatives from a shrinking set at a changing lambda level.
+     * Strength (number of alternatives lambda-outranked by alternative) and weakness (number of alternatives lambda-outranking it) are updated
+     * only for pairs entering or leaving the relation, pointers to the sorted pairs list move monotonically in usual case of decreasing lambda.
+     */
+    private class Qualifications {
+
+        /**
+         * Pairs taken into account, ordered by descending credibility.
+         */
+        private final int[] pairs;
+
+        /**
+         * Alternatives belonging to the set.
+         */
+        private final boolean[] alive;
+
+        /**
+         * Number of alternatives lambda-outranked by every alternative.
+         */
+        private final int[] strength;
+
+        /**
+         * Number of alternatives lambda-outranking every alternative.
+         */
+        private final int[] weakness;
+
+        /**
+         * Pairs before this position have credibility greater than current lambda.
+         */
+        private int active;
+
+        /**
+         * Current lambda level.
+         */
+        private double lambda;
+
+        /**
+         * Pairs before this position have at least one alternative outside of the set.
+         */
+        private int first;
+
+        /**
+         * Position from which search for pair with credibility below threshold is continued.
+         */
+        private int below;
+
+        /**
+         * Threshold used in last search for pair with credibility below it.
+         */
+        private double belowThreshold;
+
+        Qualifications(int[] pairs, boolean[] alive) {
+            this.pairs = pairs;
+            this.alive = alive;
+            this.strength = new int[altsNum];
+            this.weakness = new int[altsNum];
+            this.lambda = Double.POSITIVE_INFINITY;
+            this.belowThreshold = Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Checks whether both alternatives of the pair belong to the set.
+         * @param pair Pair encoded as a*altsNum+b.
+         * @return true if pair is taken into account.
+         */
+        private boolean isAlive(int pair) {
+            return alive[pair / altsNum] && alive[pair % altsNum];
+        }
+
+        /**
+         * Returns the highest credibility of pair of alternatives from the set.
+         * @return Credibility value.
+         */
+        double maxCredibility() {
+            while(first < pairs.length && !isAlive(pairs[first]))   {
+                first++;
+            }
+            return first < pairs.length ? credibility[pairs[first]] : 0;
+        }
+
+        /**
+         * Returns the highest credibility of pair of alternatives from the set which is lower than threshold.
+         * @param threshold Threshold value.
+         * @return Credibility value or 0 if there is no such pair.
+         */
+        double maxCredibilityBelow(double threshold) {
+            if(threshold > belowThreshold || below < first)  {
+                below = first;
+            }
+            belowThreshold = threshold;
+            while(below < pairs.length && (!isAlive(pairs[below]) || credibility[pairs[below]] >= threshold))   {
+                below++;
+            }
+            return below < pairs.length ? credibility[pairs[below]] : 0;
+        }
+
+        /**
+         * Sets lambda level, updating qualifications of alternatives from pairs entering or leaving lambda-outranking relation.
+         * @param level New lambda level.
+         */
+        void activate(double level) {
+            while(active < pairs.length && credibility[pairs[active]] > level)  {
+                update(pairs[active], 1);
+                active++;
+            }
+            while(active > 0 && credibility[pairs[active-1]] <= level)  {
+                active--;
+                update(pairs[active], -1);
+            }
+            lambda = level;
+        }
+
+        /**
+         * Adds or subtracts pair from the relation if it is lambda-outranking pair of alternatives from the set.
+         * @param pair Pair encoded as a*altsNum+b.
+         * @param change 1 or -1.
+         */
+        private void update(int pair, int change) {
+            if(discriminated[pair] && isAlive(pair))    {
+                strength[pair / altsNum] += change;
+                weakness[pair % altsNum] += change;
+            }
+        }
+
+        /**
+         * Removes alternative from the set, subtracting its pairs from qualifications of the other alternatives.
+         * @param x Alternative index.
+         */
+        void remove(int x) {
+            for(int y=0; y<altsNum; y++)    {
+                if(y != x && alive[y])  {
+                    int outranking = x*altsNum + y;
+                    if(discriminated[outranking] && credibility[outranking] > lambda)   {
+                        weakness[y]--;
+                    }
+                    int outranked = y*altsNum + x;
+                    if(discriminated[outranked] && credibility[outranked] > lambda)   {
+                        strength[y]--;
+                    }
+                }
+            }
+            strength[x] = 0;
+            weakness[x] = 0;
+            alive[x] = false;
+        }
+
+        /**
+         * Returns all the alternatives from the set.
+         * @return Array of alternatives indices.
+         */
+        int[] aliveAlternatives() {
+            int count = 0;
+            for(int a=0; a<altsNum; a++)    {
+                if(alive[a])    {
+                    count++;
+                }
+            }
+            int[] result = new int[count];
+            count = 0;
+            for(int a=0; a<altsNum; a++)    {
+                if(alive[a])    {
+                    result[count++] = a;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns candidates with the highest (or the lowest) qualification.
+         * @param candidates Alternatives from the set.
+         * @param highest true to select the highest qualification, false to select the lowest one.
+         * @return Selected alternatives.
+         */
+        int[] best(int[] candidates, boolean highest) {
+            int bestValue = 0;
+            int count = 0;
+            for(int i=0; i<candidates.length; i++)  {
+                int value = strength[candidates[i]] - weakness[candidates[i]];
+                if(count == 0 || (highest ? value > bestValue : value < bestValue))   {
+                    bestValue = value;
+                    count = 1;
+                }
+                else if(value == bestValue) {
+                    count++;
+                }
+            }
+            int[] result = new int[count];
+            count = 0;
+            for(int i=0; i<candidates.length; i++)  {
+                if(strength[candidates[i]] - weakness[candidates[i]] == bestValue)    {
+                    result[count++] = candidates[i];
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -1,22 +1,22 @@
 package methods.Electre;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
-import java.util.List;
 
 import org.ejml.simple.SimpleMatrix;
 
 import methods.Electre.Alternative;
 import methods.Electre.Criterium;
 import methods.Electre.Criterium.Direction;
+import methods.BasicTypes.BufferMatrixStorage;
+import methods.BasicTypes.CsvReader;
+import methods.BasicTypes.DataFileException;
+import methods.BasicTypes.DecisionMatrix;
+import methods.BasicTypes.IndexSort;
+import methods.BasicTypes.MatrixStorage;
+import methods.BasicTypes.ParallelExecutor;
+import methods.BasicTypes.SnapshotReader;
+import methods.BasicTypes.SnapshotWriter;
 
 public abstract class Electre {
 
@@ -38,6 +38,16 @@ public abstract class Electre {
      */
     protected LinkedList<Alternative> ranking_;
     
+    /**
+     * Dense rank of every alternative in ranking_, 1 is the best rank.
+     */
+    protected int[] denseRanks_;
+    
+    /**
+     * LinkedList containing reference profiles separating categories, ordered from the worst to the best one. Used only by ElectreTri.
+     */
+    protected LinkedList<Alternative> profiles_;
+    
     /**
      * Alternatives count for iteration purposes
      */
@@ -59,18 +69,20 @@ public abstract class Electre {
 
     /**
      * Matrix containing concordance indices for each pair of alternatives. 
+     * Type of this matrix and of discordance and credibility matrices was changed from SimpleMatrix to MatrixStorage,
+     * child classes which need SimpleMatrix should use getConcordanceSimpleMatrix, getDiscordanceSimpleMatrix and getCredibilitySimpleMatrix methods.
      */
-    protected SimpleMatrix concordanceMatrix_;
+    protected MatrixStorage concordanceMatrix_;
     
     /**
      * Matrix containing discordance indices for each pair of alternatives. 
      */
-	protected SimpleMatrix discordanceMatrix_;	
+	protected MatrixStorage discordanceMatrix_;	
     
     /**
      * Matrix used in ElectreIII and ElectreTri. Contains credibility indices for each pair of alternatives.
      */
-	protected SimpleMatrix credibilityMatrix_;
+	protected MatrixStorage credibilityMatrix_;
     
     /**
      * Matrix computed at the beginning of every Electre method. 
@@ -78,93 +90,215 @@ public abstract class Electre {
      */
     protected SimpleMatrix normalized_;
     
+    /**
+     * Executor used to calculate rows of matrices in parallel.
+     */
+    protected ParallelExecutor executor_ = new ParallelExecutor(0);
+    
+    /**
+     * Factory creating concordance, discordance and credibility matrices. By default matrices are stored on the heap.
+     */
+    protected MatrixStorage.Factory matrixStorage_ = MatrixStorage.heap();
+    
+    /**
+     * Factory creating matrices of indices from range [0, 1] - concordance and credibility matrices. By default the same as matrixStorage_.
+     */
+    protected MatrixStorage.Factory indexStorage_ = matrixStorage_;
+    
+    /**
+     * Name of methods family written to snapshot files.
+     */
+    private static final String SNAPSHOT_FAMILY = "Electre";
+    
 	/**
 	* Electre class constructor with data file as an parameter. 
+	* Criteria values of the alternatives are parsed directly into one decision matrix, to which the alternatives are bound.
 	* @param filename Path to the file from which data can be read. 
-	* It should be structured as shown in example csv file in dataFileExamples/electre.csv.
+	* It should be structured as shown in example csv file in dataFileExamples/electre.csv or it can be a snapshot written by writeSnapshot() method.
+	* @throws DataFileException if the file can not be read or has wrong format, exception points to the wrong line and column.
 	*/
-    @SuppressWarnings("resource")
 	public Electre(String filename) {
     	
         criteria_ = new LinkedList<Criterium>();
         alternatives_ = new LinkedList<Alternative>();
         ranking_ = new LinkedList<Alternative>();
+        profiles_ = new LinkedList<Alternative>();
+        s_=0.5;
+        v_=0.1;
+        if(SnapshotReader.isSnapshot(filename))  {
+            readSnapshot(filename);
+            return;
+        }
 
-		BufferedReader br = null;
-		String line = "";
 		int altsCount = 0;
         int altsIterationCount = 0;
         int criteriaCount = 0;
-		String[] values;
+        Alternative[] alternatives = null;
+        DecisionMatrix matrix = null;
 		
+		CsvReader reader = new CsvReader(filename);
 		try {
-            br = new BufferedReader(new FileReader(filename));
-            line = br.readLine(); 
-            while(line != null)    {
-                values = line.split(",");
-                if(altsCount == 0 && values[0].contentEquals("Criterium") && values.length>=5 )   {
+            while(reader.nextLine())    {
+                int fieldsNum = reader.getFieldsNum();
+                if(altsCount == 0 && reader.fieldEquals(0, "Criterium") && fieldsNum>=5 )   {
                 	
                 	Criterium cr;
-                	Double veto = 0.0, p = 0.0, q = 0.0;
-                	if (values.length > 4) {
-                		veto = Double.parseDouble(values[4]);
+                	// empty veto field means no veto, the same as veto of Criterium object equal to positive infinity
+                	Double veto = Double.POSITIVE_INFINITY, p = 0.0, q = 0.0;
+                	if (fieldsNum > 4 && !reader.getString(4).trim().isEmpty()) {
+                		veto = reader.getDouble(4);
                 	}
-                	if (values.length > 5) {
-                		p = Double.parseDouble(values[5]);
-                		q = Double.parseDouble(values[6]);
+                	if (fieldsNum > 5) {
+                		p = reader.getDouble(5);
+                		q = reader.getDouble(6);
                 	}
                 		
-                	if(values[3].equalsIgnoreCase("MAX"))  {
-                		cr = new Criterium(values[1],Double.parseDouble(values[2]),Criterium.Direction.MAX, veto, p, q);
+                	if(reader.fieldEqualsIgnoreCase(3, "MAX"))  {
+                		cr = new Criterium(reader.getString(1),reader.getDouble(2),Criterium.Direction.MAX, veto, p, q);
                 	}
-	                else if(values[3].equalsIgnoreCase("MIN"))  {
-	                	cr = new Criterium(values[1],Double.parseDouble(values[2]),Criterium.Direction.MIN, veto, p, q);
+	                else if(reader.fieldEqualsIgnoreCase(3, "MIN"))  {
+	                	cr = new Criterium(reader.getString(1),reader.getDouble(2),Criterium.Direction.MIN, veto, p, q);
 	                }
 	                else    {
-	                	throw new Exception("Wrong file format");
+	                	throw reader.error(3, "Wrong file format, expected MAX or MIN.");
 	                }
                 this.addCriterium(cr);
                 criteriaCount++;
                 }
-                else if ( altsCount == 0 && values[0].contentEquals("Alternatives") && criteriaCount != 0)   {                          
-                    for(int i=1; i<values.length;i++)   {
-                        Alternative alternative = new Alternative(values[i]);
+                else if (reader.fieldEquals(0, "Profile") && criteriaCount != 0 && fieldsNum == criteriaCount + 2)   {
+                    Alternative profile = new Alternative(reader.getString(1));
+                    for(int i=2; i<fieldsNum; i++)  {
+                        profile.addCriteriumValue(reader.getDouble(i));
+                    }
+                    profiles_.add(profile);
+                }
+                else if ( altsCount == 0 && reader.fieldEquals(0, "Alternatives") && criteriaCount != 0)   {                          
+                    alternatives = new Alternative[fieldsNum-1];
+                    for(int i=1; i<fieldsNum;i++)   {
+                        Alternative alternative = new Alternative(reader.getString(i));
                         this.addAlternative(alternative);
+                        alternatives[altsCount] = alternative;
                         altsCount++;
                     }
+                    matrix = new DecisionMatrix(criteriaCount, altsCount, DecisionMatrix.Layout.ROW_MAJOR);
                 } 
-                else if(altsCount!=0 && criteriaCount!=0 && altsIterationCount < altsCount && values.length == criteriaCount)   {
-                    for(int i=0; i<values.length; i++)  {
-                        alternatives_.get(altsIterationCount).addCriteriumValue(Double.parseDouble(values[i]));
-                    }
+                else if(altsCount!=0 && criteriaCount!=0 && altsIterationCount < altsCount && fieldsNum == criteriaCount)   {
+                    reader.getColumn(matrix, altsIterationCount);
+                    alternatives[altsIterationCount].bindToDecisionMatrix(matrix, altsIterationCount);
                     altsIterationCount++;
                 }
                 else    {
-                    throw new Exception("Wrong file format");
+                    throw reader.error(0, "Wrong file format.");
                 }
-                line = br.readLine(); 
             }
-           
-            br.close();
-            
-            criteriaCount_ = criteriaCount;
-            altsCount_ = altsCount;
+        }
+        finally {
+            reader.close();
+        }
             
-    		concordanceMatrix_ = new SimpleMatrix(altsCount_, altsCount_);
-    		discordanceMatrix_ = new SimpleMatrix(altsCount_, altsCount_);
-            s_=0.5;
-            v_=0.1;
-    			
+        criteriaCount_ = criteriaCount;
+        altsCount_ = altsCount;
+    }
+    
+    /**
+     * Writes criteria, profiles and alternatives of this object to binary snapshot file.
+     * Snapshot can be loaded by the constructor with data file parameter of any Electre method class much faster than csv file,
+     * criteria values are copied to the decision matrix from memory-mapped file without parsing.
+     * @param filename Path to the snapshot file, existing file is overwritten.
+     * @throws DataFileException if the file can not be written.
+     */
+    public void writeSnapshot(String filename) {
+        int criteriaNum = criteria_.size();
+        DecisionMatrix matrix = DecisionMatrix.of(alternatives_, criteriaNum, DecisionMatrix.Layout.ROW_MAJOR);
+        DecisionMatrix profiles = DecisionMatrix.of(profiles_, criteriaNum, DecisionMatrix.Layout.ROW_MAJOR);
+        SnapshotWriter writer = new SnapshotWriter(filename, SNAPSHOT_FAMILY);
+        try {
+            writer.writeInt(criteriaNum);
+            for(Iterator<Criterium> it = criteria_.iterator(); it.hasNext(); )  {
+                Criterium criterium = it.next();
+                writer.writeString(criterium.getName());
+                writer.writeDouble(criterium.getWeight());
+                writer.writeInt(criterium.getDirection().ordinal());
+                // thresholds not set in criterium are stored as NaN
+                writer.writeDouble(criterium.getVeto() != null ? criterium.getVeto() : Double.NaN);
+                writer.writeDouble(criterium.getP() != null ? criterium.getP() : Double.NaN);
+                writer.writeDouble(criterium.getQ() != null ? criterium.getQ() : Double.NaN);
+            }
+            writeSnapshotAlternatives(writer, profiles_, profiles);
+            writeSnapshotAlternatives(writer, alternatives_, matrix);
         }
-        catch (FileNotFoundException e) {
-			e.printStackTrace();
+        finally {
+            writer.close();
         }
-		catch (IOException e) {
-			e.printStackTrace();
-
-		} catch (Exception e) {
-			e.printStackTrace();
-		}				
+    }
+    
+    /**
+     * Writes names and criteria values of the alternatives to the snapshot.
+     * @param writer Snapshot writer.
+     * @param alternatives List of alternatives.
+     * @param matrix Decision matrix with criteria values of the alternatives.
+     */
+    private static void writeSnapshotAlternatives(SnapshotWriter writer, LinkedList<Alternative> alternatives, DecisionMatrix matrix) {
+        writer.writeInt(alternatives.size());
+        for(Iterator<Alternative> it = alternatives.iterator(); it.hasNext(); )  {
+            writer.writeString(it.next().getName());
+        }
+        writer.writeDecisionMatrix(matrix);
+    }
+    
+    /**
+     * Reads criteria, profiles and alternatives from snapshot written by writeSnapshot() method. Alternatives are bound to columns of the decision matrix read from the file.
+     * @param filename Path to the snapshot file.
+     */
+    private void readSnapshot(String filename) {
+        SnapshotReader reader = new SnapshotReader(filename, SNAPSHOT_FAMILY);
+        try {
+            int criteriaNum = reader.readInt(0, Integer.MAX_VALUE, "number of criteria");
+            for(int i=0; i<criteriaNum; i++)    {
+                Criterium criterium = new Criterium(reader.readString(), reader.readDouble());
+                criterium.setDirection(Criterium.Direction.values()[reader.readInt(0, Criterium.Direction.values().length - 1, "criterium direction")]);
+                double veto = reader.readDouble();
+                double p = reader.readDouble();
+                double q = reader.readDouble();
+                criterium.setVeto_(Double.isNaN(veto) ? null : veto);
+                criterium.setP_(Double.isNaN(p) ? null : p);
+                criterium.setQ_(Double.isNaN(q) ? null : q);
+                this.addCriterium(criterium);
+            }
+            profiles_.addAll(readSnapshotAlternatives(reader, filename, criteriaNum));
+            for(Iterator<Alternative> it = readSnapshotAlternatives(reader, filename, criteriaNum).iterator(); it.hasNext(); )  {
+                this.addAlternative(it.next());
+            }
+            criteriaCount_ = criteriaNum;
+            altsCount_ = alternatives_.size();
+        }
+        finally {
+            reader.close();
+        }
+    }
+    
+    /**
+     * Reads names and criteria values of the alternatives from the snapshot.
+     * @param reader Snapshot reader.
+     * @param filename Path to the snapshot file.
+     * @param criteriaNum Number of criteria.
+     * @return List of alternatives bound to columns of the decision matrix read from the file.
+     */
+    private static LinkedList<Alternative> readSnapshotAlternatives(SnapshotReader reader, String filename, int criteriaNum) {
+        int alternativesNum = reader.readInt(0, Integer.MAX_VALUE, "number of alternatives");
+        LinkedList<Alternative> alternatives = new LinkedList<Alternative>();
+        for(int i=0; i<alternativesNum; i++)    {
+            alternatives.add(new Alternative(reader.readString()));
+        }
+        DecisionMatrix matrix = reader.readDecisionMatrix();
+        if(matrix.getCriteriaNum() != criteriaNum || matrix.getAlternativesNum() != alternativesNum)    {
+            throw new DataFileException(filename, 0, 0, "Decision matrix does not match criteria and alternatives.", null);
+        }
+        int column = 0;
+        for(Iterator<Alternative> it = alternatives.iterator(); it.hasNext(); column++)  {
+            it.next().bindToDecisionMatrix(matrix, column);
+        }
+        return alternatives;
     }
    
     /**
@@ -174,6 +308,7 @@ public abstract class Electre {
         criteria_ = new LinkedList<Criterium>();
         alternatives_ = new LinkedList<Alternative>();
         ranking_ = new LinkedList<Alternative>();
+        profiles_ = new LinkedList<Alternative>();
         s_=0.5;
         v_=0.1;
 }
@@ -208,6 +343,14 @@ public abstract class Electre {
        }
    }   
 	
+   /**
+    * Creates score model of Electre method (number of alternatives outranked according to ElectreI rules) for rank acceptability analysis.
+    * @return ElectreScoreModel object.
+    */
+   public ElectreScoreModel createScoreModel()  {
+       return new ElectreScoreModel(this);
+   }
+	
 	   /**
 	  * Returns list of all the criteria in Electre object.
 	  * @return LinkedList containing Criterium objects.
@@ -275,6 +418,14 @@ public abstract class Electre {
         return ranking_.get(rank-1);
     }        
     
+    /**
+     * Returns dense rank of every alternative - alternatives with equal ranking points share the rank and there are no gaps between ranks.
+     * @return Array with rank of every alternative (in order of adding), 1 is the best rank. Empty before ranking is calculated.
+     */
+    public int[] getDenseRanks() {
+        return denseRanks_ == null ? new int[0] : denseRanks_.clone();
+    }
+    
     /**
      * Returns number of criteria in Electre object.
      * @return Number of criteria in Electre object.
@@ -353,16 +504,39 @@ public abstract class Electre {
 	}
 
 	/**
-	 * Method calculating concordance matrix for every pair of alternatives
+	 * Method calculating concordance matrix for every pair of alternatives.
+	 * Both indices of a pair are calculated at once - criterium preferring strictly one of the alternatives adds its weight
+	 * to concordance of this alternative, tie adds it to both of them. Result is the same as from concordance_index(i, j) for every pair.
 	 */
 	protected void calculate_concordance_matrix() {
 		
-		for (int i=0; i< altsCount_; i++)
-			 for (int j=0; j<altsCount_; j++) 
-				 if (i!=j) 
-					 concordanceMatrix_.set(i, j, concordance_index(i, j));
-				 else 
-					 concordanceMatrix_.set(i, j, 0);
+		final double[] values = normalizedByAlternative();
+		final double[] weights = criteriaWeights();
+		final boolean[] maximized = criteriaMaximized();
+		concordanceMatrix_ = calculate_symmetric_matrix(concordanceMatrix_, new RowIndex() {
+			@Override
+			public void calculate(int a, int from, int to, double[] over, double[] under) {
+				int offsetA = a*criteriaCount_;
+				for (int b=from; b<to; b++) {
+					int offsetB = b*criteriaCount_;
+					double cab = 0;
+					double cba = 0;
+					for (int cri=0; cri<criteriaCount_; cri++) {
+						double diff = maximized[cri] ? values[offsetA+cri] - values[offsetB+cri] : values[offsetB+cri] - values[offsetA+cri];
+						if (diff > 0)
+							cab += weights[cri];
+						else if (diff < 0)
+							cba += weights[cri];
+						else if (diff == 0) {
+							cab += weights[cri];
+							cba += weights[cri];
+						}
+					}
+					over[b-from] = cab;
+					under[b-from] = cba;
+				}
+			}
+		});
 	}
 
 	/**
@@ -385,17 +559,122 @@ public abstract class Electre {
 	  }
 
 	/**
-	 * Method calculating discordance matrix for every pair of alternatives
+	 * Method calculating discordance matrix for every pair of alternatives.
+	 * Both indices of a pair are calculated at once - difference on criterium preferring strictly one of the alternatives
+	 * is discordance of the other one (ties give difference equal to 0). Result is the same as from discordance_index(i, j) for every pair.
 	 */
 	protected void calculate_discordance_matrix() {
 		
-		for (int i=0; i< altsCount_; i++)
-			 for (int j=0; j<altsCount_; j++) 
-				 if (i!=j) 
-					 discordanceMatrix_.set(i, j, discordance_index(i, j));
-				 else 
-					 discordanceMatrix_.set(i, j, 0);
+		final double[] values = normalizedByAlternative();
+		final boolean[] maximized = criteriaMaximized();
+		// discordance can be greater than 1, so it is not stored with index precision
+		discordanceMatrix_ = calculate_symmetric_matrix(squareMatrix(discordanceMatrix_, matrixStorage_), new RowIndex() {
+			@Override
+			public void calculate(int a, int from, int to, double[] over, double[] under) {
+				int offsetA = a*criteriaCount_;
+				for (int b=from; b<to; b++) {
+					int offsetB = b*criteriaCount_;
+					double dab = 0;
+					double dba = 0;
+					for (int cri=0; cri<criteriaCount_; cri++) {
+						double diff = maximized[cri] ? values[offsetA+cri] - values[offsetB+cri] : values[offsetB+cri] - values[offsetA+cri];
+						if (diff > dba)
+							dba = diff;
+						else if (-diff > dab)
+							dab = -diff;
+					}
+					over[b-from] = dab;
+					under[b-from] = dba;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Method calculating concordance matrix regarding the concordance condition with q threshold (used by ElectreIII) for every pair of alternatives.
+	 * Both indices of a pair are calculated at once, result is the same as from concordance_index_with_q(i, j) for every pair.
+	 */
+	protected void calculate_concordance_matrix_with_q() {
+		
+		final double[] values = normalizedByAlternative();
+		final double[] weights = criteriaWeights();
+		final boolean[] maximized = criteriaMaximized();
+		final double[] q = new double[criteriaCount_];
+		int k = 0;
+		for (Iterator<Criterium> it = criteria_.iterator(); it.hasNext(); k++)
+			q[k] = it.next().getQ();
+		concordanceMatrix_ = calculate_symmetric_matrix(concordanceMatrix_, new RowIndex() {
+			@Override
+			public void calculate(int a, int from, int to, double[] over, double[] under) {
+				int offsetA = a*criteriaCount_;
+				for (int b=from; b<to; b++) {
+					int offsetB = b*criteriaCount_;
+					double cab = 0;
+					double cba = 0;
+					for (int cri=0; cri<criteriaCount_; cri++) {
+						double va = values[offsetA+cri];
+						double vb = values[offsetB+cri];
+						if (maximized[cri]) {
+							if (va + q[cri] >= vb)
+								cab += weights[cri];
+							if (vb + q[cri] >= va)
+								cba += weights[cri];
+						}
+						else {
+							if (va - q[cri] <= vb)
+								cab += weights[cri];
+							if (vb - q[cri] <= va)
+								cba += weights[cri];
+						}
+					}
+					over[b-from] = cab;
+					under[b-from] = cba;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns normalized values of the criteria placed alternative after alternative, so that values of one alternative are contiguous.
+	 * @return Array with value of cri-th criterium for alt-th alternative at index alt*criteriaCount_+cri.
+	 */
+	protected double[] normalizedByAlternative() {
+		
+		double[] data = normalized_.getMatrix().data;
+		double[] values = new double[altsCount_*criteriaCount_];
+		for (int cri=0; cri<criteriaCount_; cri++) {
+			int offset = cri*altsCount_;
+			for (int alt=0; alt<altsCount_; alt++)
+				values[alt*criteriaCount_ + cri] = data[offset + alt];
 		}
+		return values;
+	}
+
+	/**
+	 * Returns weights of all the criteria.
+	 * @return Array of criteria weights.
+	 */
+	protected double[] criteriaWeights() {
+		
+		double[] weights = new double[criteriaCount_];
+		int cri = 0;
+		for (Iterator<Criterium> it = criteria_.iterator(); it.hasNext(); cri++)
+			weights[cri] = it.next().getWeight();
+		return weights;
+	}
+
+	/**
+	 * Returns directions of all the criteria.
+	 * @return Array with true for maximized criteria and false for minimized ones.
+	 */
+	protected boolean[] criteriaMaximized() {
+		
+		boolean[] maximized = new boolean[criteriaCount_];
+		int cri = 0;
+		for (Iterator<Criterium> it = criteria_.iterator(); it.hasNext(); cri++)
+			maximized[cri] = it.next().getDirection() == Criterium.Direction.MAX;
+		return maximized;
+	}
 
 	/**
 	 * Returns discordance index for given alternatives regarding the q and p threshold of given criterium.
@@ -468,9 +747,129 @@ public abstract class Electre {
 	 */
 	protected void calculate_credibility_matrix() {
 		
-		for (int i=0; i< altsCount_; i++)
-			 for (int j=0; j<altsCount_; j++) 
-				 credibilityMatrix_.set(i, j, credibility_index(i, j));	 
+		credibilityMatrix_ = calculate_matrix(credibilityMatrix_, false, new PairIndex() {
+			@Override
+			public double calculate(int a, int b) {
+				return credibility_index(a, b);
+			}
+		});
+	}
+
+	/**
+	 * Index calculated for ordered pair of alternatives, used to fill matrices in parallel.
+	 */
+	protected interface PairIndex {
+		/**
+		 * Calculates index of alternative a over alternative b.
+		 * @param a alternative a index
+		 * @param b alternative b index
+		 * @return index value
+		 */
+		double calculate(int a, int b);
+	}
+
+	/**
+	 * Index calculated at once for alternative over a range of alternatives and for those alternatives over it, used to fill matrices
+	 * which have both indices of a pair calculated from the same differences.
+	 */
+	protected interface RowIndex {
+		/**
+		 * Calculates index of alternative a over alternatives from, ..., to-1 and index of those alternatives over alternative a.
+		 * @param a alternative a index
+		 * @param from index of the first alternative of the range
+		 * @param to index of the alternative after the range
+		 * @param over array to which index of a over b is written at index b-from
+		 * @param under array to which index of b over a is written at index b-from
+		 */
+		void calculate(int a, int from, int to, double[] over, double[] under);
+	}
+
+	/**
+	 * Fills matrix with index calculated for every ordered pair of alternatives. Rows are calculated in parallel and written as whole rows,
+	 * so index has to only read the state of Electre object.
+	 * @param matrix n x n matrix to fill, new matrix is created if it is null or has wrong size
+	 * @param zeroDiagonal if true diagonal is filled with zeros instead of index of alternative over itself
+	 * @param index index calculated for every pair
+	 * @return filled matrix
+	 */
+	protected MatrixStorage calculate_matrix(MatrixStorage matrix, final boolean zeroDiagonal, final PairIndex index) {
+		
+		final MatrixStorage result = squareMatrix(matrix);
+		executor_.forRange(0, altsCount_, rowGrain(), new ParallelExecutor.RangeTask() {
+			@Override
+			public void run(int from, int to) {
+				double[] row = new double[altsCount_];
+				for (int i=from; i<to; i++) {
+					for (int j=0; j<altsCount_; j++)
+						row[j] = (zeroDiagonal && i == j) ? 0 : index.calculate(i, j);
+					result.setRow(i, 0, row, 0, altsCount_);
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Fills matrix with index calculated for every ordered pair of alternatives, diagonal is filled with zeros. Rows are processed in parallel,
+	 * every cell is written by one task only, so result does not depend on number of threads.
+	 * Matrix stored in memory is filled visiting every unordered pair once - row i gets indices of i over alternatives after it,
+	 * column i gets indices of those alternatives over i. Off-heap matrix (direct or memory-mapped buffers) is filled row by row (every pair is visited twice)
+	 * so that buffer tiles are written sequentially instead of with column stride. Index of a pair does not depend on which alternative it was calculated for, so both ways give the same matrix.
+	 * @param matrix n x n matrix to fill, new matrix is created if it is null or has wrong size
+	 * @param index index calculated for every pair
+	 * @return filled matrix
+	 */
+	protected MatrixStorage calculate_symmetric_matrix(MatrixStorage matrix, final RowIndex index) {
+		
+		final MatrixStorage result = squareMatrix(matrix);
+		final boolean symmetric = !(result instanceof BufferMatrixStorage);
+		executor_.forRange(0, altsCount_, rowGrain(), new ParallelExecutor.RangeTask() {
+			@Override
+			public void run(int from, int to) {
+				double[] over = new double[altsCount_];
+				double[] under = new double[altsCount_];
+				for (int i=from; i<to; i++) {
+					if (symmetric) {
+						int count = altsCount_ - i - 1;
+						index.calculate(i, i+1, altsCount_, over, under);
+						result.set(i, i, 0);
+						result.setRow(i, i+1, over, 0, count);
+						for (int k=0; k<count; k++)
+							result.set(i+1+k, i, under[k]);
+					}
+					else {
+						index.calculate(i, 0, altsCount_, over, under);
+						over[i] = 0;
+						result.setRow(i, 0, over, 0, altsCount_);
+					}
+				}
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Returns number of matrix rows processed by one parallel task.
+	 * @return Number of rows.
+	 */
+	private int rowGrain() {
+		return Math.max(1, altsCount_ / (16*executor_.getParallelism()));
+	}
+
+	/**
+	 * Sets number of threads used to calculate matrices.
+	 * @param parallelism Number of threads, value lower than 1 means number of available processors.
+	 */
+	public void setParallelism(int parallelism) {
+		executor_ = new ParallelExecutor(parallelism);
+	}
+
+	/**
+	 * Returns number of threads used to calculate matrices.
+	 * @return Number of threads.
+	 */
+	public int getParallelism() {
+		return executor_.getParallelism();
 	}
 	
 	/**
@@ -479,80 +878,172 @@ public abstract class Electre {
 	public void normalize() {
 		
 		normalizeWeights();
+		updateCounts();
 		normalized_ = new SimpleMatrix(criteriaCount_, altsCount_);
 		
+		double[] values = DecisionMatrix.of(alternatives_, criteriaCount_, DecisionMatrix.Layout.ROW_MAJOR).getValues();
+		double[] normalizedData = normalized_.getMatrix().data;
 		double[] squares = new double[criteriaCount_];
 		
 		// temporary list of squarerooted sums of squares of every criterium value
 		for (int cri=0; cri<criteriaCount_; cri++)
 		{
 			double sum=0;
+			int offset = cri*altsCount_;
 			 for (int i=0; i<altsCount_; i++) {
-				 sum += Math.pow(alternatives_.get(i).getCriteriumValue(cri), 2);
+				 sum += Math.pow(values[offset+i], 2);
 			 }
 			squares[cri]=Math.sqrt(sum);
 		}
 		// actual normalizing of alternative values
-		for (int cri=0; cri<criteriaCount_; cri++)
+		for (int cri=0; cri<criteriaCount_; cri++) {
+			Criterium criterium = criteria_.get(cri);
+			double weight = criterium.getWeight();
+			int offset = cri*altsCount_;
 			for (int alt=0; alt<altsCount_; alt++) {
-				normalized_.set(cri, alt, criteria_.get(cri).getWeight() * alternatives_.get(alt).getCriteriumValue(cri) / squares[cri]);
-				criteria_.get(cri).setP_(criteria_.get(cri).getWeight() * criteria_.get(cri).getP() / squares[cri]);
-				criteria_.get(cri).setQ_(criteria_.get(cri).getWeight() * criteria_.get(cri).getQ() / squares[cri]);
-				criteria_.get(cri).setVeto_(criteria_.get(cri).getWeight() * criteria_.get(cri).getVeto() / squares[cri]);
+				normalizedData[offset+alt] = weight * values[offset+alt] / squares[cri];
+				criterium.setP_(weight * criterium.getP() / squares[cri]);
+				criterium.setQ_(weight * criterium.getQ() / squares[cri]);
+				criterium.setVeto_(weight * criterium.getVeto() / squares[cri]);
 			}
+		}
 	}
 
 	/**
-	 * Method preparing the ranking list of alternatives
-	 * @param rankMap a map containing ranking points of every alternative
+	 * Updates numbers of alternatives and criteria (alternatives and criteria could be added after construction).
 	 */
-	protected void createAlternativesRanking(HashMap<Integer,Integer> rankMap) {
+	protected void updateCounts() {
+		
+		altsCount_ = alternatives_.size();
+		criteriaCount_ = criteria_.size();
+	}
 
-		 LinkedHashMap<Integer,Integer> sorted_map = sortHashMapByValuesD(rankMap);
-	        Integer[] rank = sorted_map.keySet().toArray(new Integer[altsCount_]);
-	        Integer[] rankingPoints = sorted_map.values().toArray(new Integer[altsCount_]);
-	        
-	        for (int i=0; i<altsCount_; i++) {
-	        		
-	        	Alternative alt = alternatives_.get(rank[i]);
-	        	alt.setRankingPoints_(rankingPoints[i]);
-	        	ranking_.add(alt);
-	        }
+	/**
+	 * Returns matrix of indices from range [0, 1] of size n x n (n - number of alternatives), matrices are created by index storage factory
+	 * when they are calculated first time.
+	 * @param matrix current matrix or null
+	 * @return matrix provided as parameter if it has proper size, otherwise new matrix filled with zeros (the old one is closed)
+	 */
+	protected MatrixStorage squareMatrix(MatrixStorage matrix) {
+		
+		return squareMatrix(matrix, indexStorage_);
 	}
-	
+
 	/**
-	 * Method used for sorting maps by value
-	 * @param passedMap Integer map to sort by value
-	 * @return Integer map sorted by value
+	 * Returns matrix of size n x n (n - number of alternatives) created by given factory.
+	 * @param matrix current matrix or null
+	 * @param factory factory used to create new matrix
+	 * @return matrix provided as parameter if it has proper size, otherwise new matrix filled with zeros (the old one is closed)
 	 */
-	protected LinkedHashMap<Integer, Integer> sortHashMapByValuesD(HashMap<Integer, Integer> passedMap) {
-	    List<Integer> mapKeys = new ArrayList<Integer>(passedMap.keySet());
-	    List<Integer> mapValues = new ArrayList<Integer>(passedMap.values());
-	    Collections.sort(mapValues);
-	    Collections.sort(mapKeys);
-	    Collections.reverse(mapValues);
-	
-	    LinkedHashMap<Integer, Integer> sortedMap = 
-	        new LinkedHashMap<Integer, Integer>();
-	    
-	    Iterator<Integer> valueIt = mapValues.iterator();
-	    while (valueIt.hasNext()) {
-	        Integer val = valueIt.next();
-	        Iterator<Integer> keyIt = mapKeys.iterator();
-	        
-	        while (keyIt.hasNext()) {
-	        	Integer key = keyIt.next();
-	            Integer comp1 = passedMap.get(key);
-	            Integer comp2 = val;
-	            
-	            if (comp1.equals(comp2)){
-	                passedMap.remove(key);
-	                mapKeys.remove(key);
-	                sortedMap.put(key, val);
-	                break;
-	            }
-	        }
-	    }
-	    return sortedMap;
+	protected MatrixStorage squareMatrix(MatrixStorage matrix, MatrixStorage.Factory factory) {
+		
+		if (matrix == null || matrix.numRows() != altsCount_) {
+			if (matrix != null)
+				matrix.close();
+			return factory.create(altsCount_, altsCount_);
+		}
+		return matrix;
+	}
+
+	/**
+	 * Sets storage of concordance, discordance and credibility matrices, e.g. MatrixStorage.mapped(directory, Precision.FLOAT) to keep
+	 * large matrices in memory-mapped files. Matrices calculated before are closed.
+	 * @param factory factory creating matrices
+	 */
+	public void setMatrixStorage(MatrixStorage.Factory factory) {
+		
+		matrixStorage_ = factory;
+		if (discordanceMatrix_ != null)
+			discordanceMatrix_.close();
+		discordanceMatrix_ = null;
+		setIndexMatrixStorage(factory);
+	}
+
+	/**
+	 * Sets storage of concordance and credibility matrices only. Their indices are from range [0, 1] and are only compared with thresholds,
+	 * so they can be stored compactly, e.g. MatrixStorage.heap(Precision.FIXED16) needs 4 times less memory than the default storage.
+	 * Decision can differ from the one made with exact index only if index differs from threshold by no more than Precision.getMaxError()
+	 * (credibility is calculated from stored concordance, so its error can be larger).
+	 * Matrices calculated before are closed.
+	 * @param factory factory creating matrices
+	 */
+	public void setIndexMatrixStorage(MatrixStorage.Factory factory) {
+		
+		indexStorage_ = factory;
+		if (concordanceMatrix_ != null)
+			concordanceMatrix_.close();
+		if (credibilityMatrix_ != null)
+			credibilityMatrix_.close();
+		concordanceMatrix_ = null;
+		credibilityMatrix_ = null;
+	}
+
+	/**
+	 * Returns concordance matrix calculated by last run of calculate() method.
+	 * @return Matrix with concordance index of i-th alternative over j-th one in i-th row and j-th column.
+	 */
+	public MatrixStorage getConcordanceMatrix() {
+		return concordanceMatrix_;
+	}
+
+	/**
+	 * Returns discordance matrix calculated by last run of calculate() method (not calculated by ElectreIs, ElectreIv, ElectreIII and ElectreTri).
+	 * @return Matrix with discordance index of i-th alternative with j-th one in i-th row and j-th column.
+	 */
+	public MatrixStorage getDiscordanceMatrix() {
+		return discordanceMatrix_;
+	}
+
+	/**
+	 * Returns credibility matrix calculated by last run of calculate() method (only ElectreIII and ElectreTri).
+	 * @return Matrix with credibility index of i-th alternative over j-th one in i-th row and j-th column, null for other methods.
+	 */
+	public MatrixStorage getCredibilityMatrix() {
+		return credibilityMatrix_;
+	}
+
+	/**
+	 * Returns concordance matrix as SimpleMatrix object, for child classes written when concordanceMatrix_ field was a SimpleMatrix.
+	 * For heap storage changes of returned matrix change the concordance matrix, for other storages it is a copy.
+	 * @return SimpleMatrix object, null if the matrix has not been calculated.
+	 */
+	protected SimpleMatrix getConcordanceSimpleMatrix() {
+		return concordanceMatrix_ == null ? null : concordanceMatrix_.toSimpleMatrix();
+	}
+
+	/**
+	 * Returns discordance matrix as SimpleMatrix object, for child classes written when discordanceMatrix_ field was a SimpleMatrix.
+	 * For heap storage changes of returned matrix change the discordance matrix, for other storages it is a copy.
+	 * @return SimpleMatrix object, null if the matrix has not been calculated.
+	 */
+	protected SimpleMatrix getDiscordanceSimpleMatrix() {
+		return discordanceMatrix_ == null ? null : discordanceMatrix_.toSimpleMatrix();
+	}
+
+	/**
+	 * Returns credibility matrix as SimpleMatrix object, for child classes written when credibilityMatrix_ field was a SimpleMatrix.
+	 * For heap storage changes of returned matrix change the credibility matrix, for other storages it is a copy.
+	 * @return SimpleMatrix object, null if the matrix has not been calculated.
+	 */
+	protected SimpleMatrix getCredibilitySimpleMatrix() {
+		return credibilityMatrix_ == null ? null : credibilityMatrix_.toSimpleMatrix();
+	}
+
+	/**
+	 * Method preparing the ranking list of alternatives. Alternatives are ordered by descending ranking points, alternatives with equal points
+	 * keep the order of adding. Sorting works on primitive arrays in O(n log n) time.
+	 * @param points ranking points of every alternative
+	 */
+	protected void createAlternativesRanking(int[] points) {
+
+		int[] order = IndexSort.sortDescending(points);
+		denseRanks_ = IndexSort.denseRanks(points, order);
+		Alternative[] alternativesArray = alternatives_.toArray(new Alternative[alternatives_.size()]);
+		ranking_.clear();
+		for (int i=0; i<order.length; i++) {
+			Alternative alt = alternativesArray[order[i]];
+			alt.setRankingPoints_(points[order[i]]);
+			ranking_.add(alt);
+		}
 	}
 }
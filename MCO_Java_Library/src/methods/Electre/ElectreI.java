@@ -1,6 +1,8 @@
 package methods.Electre;
 
-import java.util.HashMap;
+import java.util.LinkedList;
+
+import methods.BasicTypes.ParallelExecutor;
 
 /**
  *
@@ -8,6 +10,10 @@ import java.util.HashMap;
  */
 public class ElectreI extends Electre {
 	
+	/**
+	 * Outranking relation calculated by last run of calculate() or calculateOutrankingRelation() method.
+	 */
+	private OutrankingRelation outranking_;
 
 	/**
 	* ElectreI class constructor with data file as an parameter. 
@@ -33,30 +39,121 @@ public class ElectreI extends Electre {
 		normalize();
 		calculate_concordance_matrix();
 		calculate_discordance_matrix();
+		calculate_outranking_from_matrices();
 		calculate_ranking();
 	}
 
 	/**
-	 * Method calculating the final ranking of alternatives - different for each Electre method
+	 * Public method calculating only the outranking relation, without concordance and discordance matrices and ranking.
+	 * Indices of every pair are used as soon as they are calculated, so only n^2/8 bytes of relation are kept instead of two n x n matrices.
+	 * Rows of the relation are calculated in parallel.
+	 * @return OutrankingRelation object, the same as one calculated by calculate() method
 	 */
-	private void calculate_ranking() {
-
-		HashMap<Integer,Integer> rankMap = new HashMap<Integer,Integer>();
+	public OutrankingRelation calculateOutrankingRelation() {
+		normalize();
 		
-		for (int a=0; a<altsCount_; a++) {
-			int points = 0;
-			
-			for (int b=0; b<altsCount_; b++){
-				if (a!=b) {
-					if ((concordanceMatrix_.get(a, b) >= s_) && (discordanceMatrix_.get( a,  b) <= v_))
-					{
-						points ++;
+		final double[] values = normalizedByAlternative();
+		final double[] weights = criteriaWeights();
+		boolean[] maximized = criteriaMaximized();
+		// values of minimized criteria are negated, so that higher value is always better (negation does not change differences)
+		for (int i=0; i<values.length; i++)
+			if (!maximized[i % criteriaCount_])
+				values[i] = -values[i];
+		final double s = s_;
+		final double v = v_;
+		final OutrankingRelation relation = new OutrankingRelation(altsCount_);
+		
+		executor_.forRange(0, altsCount_, Math.max(1, altsCount_ / (16*executor_.getParallelism())), new ParallelExecutor.RangeTask() {
+			@Override
+			public void run(int from, int to) {
+				for (int a=from; a<to; a++) {
+					int offsetA = a*criteriaCount_;
+					for (int b=0; b<altsCount_; b++) {
+						if (a == b)
+							continue;
+						int offsetB = b*criteriaCount_;
+						double concordance = 0;
+						double discordance = 0;
+						for (int cri=0; cri<criteriaCount_; cri++) {
+							double diff = values[offsetA+cri] - values[offsetB+cri];
+							if (diff >= 0)
+								concordance += weights[cri];
+							else if (-diff > discordance)
+								discordance = -diff;
+						}
+						if ((concordance >= s) && (discordance <= v))
+							relation.set(a, b);
 					}
 				}
 			}
-			rankMap.put(a, points);
-		}
-		createAlternativesRanking(rankMap);
+		});
+		outranking_ = relation;
+		return relation;
+	}
+
+	/**
+	 * Returns outranking relation calculated by last run of calculate() or calculateOutrankingRelation() method.
+	 * @return OutrankingRelation object or null if nothing was calculated
+	 */
+	public OutrankingRelation getOutrankingRelation() {
+		return outranking_;
+	}
+
+	/**
+	 * Returns kernel (choice set) of ElectreI method - alternatives not outranked by each other which outrank all the other alternatives.
+	 * Alternatives in cycles of outranking relation are treated as one alternative. Relation is calculated if calculate() was not run before.
+	 * @return LinkedList containing kernel Alternative objects in order of alternatives in Electre object
+	 */
+	public LinkedList<Alternative> getKernel() {
+		if (outranking_ == null)
+			calculateOutrankingRelation();
+		
+		int[] kernel = outranking_.getKernel();
+		Alternative[] alternativesArray = alternatives_.toArray(new Alternative[altsCount_]);
+		LinkedList<Alternative> result = new LinkedList<Alternative>();
+		for (int i=0; i<kernel.length; i++)
+			result.add(alternativesArray[kernel[i]]);
+		return result;
+	}
+
+	/**
+	 * Checks whether outranking relation contains cycles. Relation is calculated if calculate() was not run before.
+	 * @return true if some alternatives outrank each other directly or indirectly, otherwise false
+	 */
+	public boolean hasCycles() {
+		if (outranking_ == null)
+			calculateOutrankingRelation();
+		return outranking_.hasCycles();
+	}
+
+	/**
+	 * Method building outranking relation from concordance and discordance matrices
+	 */
+	private void calculate_outranking_from_matrices() {
+		
+		final OutrankingRelation relation = new OutrankingRelation(altsCount_);
+		executor_.forRange(0, altsCount_, Math.max(1, altsCount_ / (16*executor_.getParallelism())), new ParallelExecutor.RangeTask() {
+			@Override
+			public void run(int from, int to) {
+				for (int a=from; a<to; a++)
+					for (int b=0; b<altsCount_; b++)
+						if ((a != b) && (concordanceMatrix_.get(a, b) >= s_) && (discordanceMatrix_.get(a, b) <= v_))
+							relation.set(a, b);
+			}
+		});
+		outranking_ = relation;
+	}
+
+	/**
+	 * Method calculating the final ranking of alternatives - different for each Electre method
+	 */
+	private void calculate_ranking() {
+
+		int[] rankingPoints = new int[altsCount_];
+		
+		for (int a=0; a<altsCount_; a++)
+			rankingPoints[a] = outranking_.countOutranked(a);
+		createAlternativesRanking(rankingPoints);
 	}
 	
 }
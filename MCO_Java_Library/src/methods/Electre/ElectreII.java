@@ -1,6 +1,5 @@
 package methods.Electre;
 
-import java.util.HashMap;
 
 public class ElectreII extends Electre {
 
@@ -33,6 +32,10 @@ public class ElectreII extends Electre {
 	 */
 	public void calculate() {
 		normalize();
+		if (concordance_dominant_.length != altsCount_) {
+			concordance_dominant_ = new Double[altsCount_];
+			discordance_dominant_ = new Double[altsCount_];
+		}
 		calculate_concordance_matrix();
 		calculate_discordance_matrix();
 		calculate_concordance_dominant();
@@ -89,12 +92,12 @@ public class ElectreII extends Electre {
 	 */
 	private void calculate_ranking() {
 		
-		HashMap<Integer,Integer> rankMap = new HashMap<Integer,Integer>();
+		int[] rankingPoints = new int[altsCount_];
 		
 		for (int i=0; i< altsCount_; i++)
 			{
-			rankMap.put(i, (int) (concordance_dominant_[i] + discordance_dominant_[i]) / 2);
+			rankingPoints[i] = (int) (concordance_dominant_[i] + discordance_dominant_[i]) / 2;
 			}
-        createAlternativesRanking(rankMap);		
+        createAlternativesRanking(rankingPoints);		
 	}	
 }
@@ -1,10 +1,58 @@
 package methods.Electre;
 
-import java.util.HashMap;
-import org.ejml.simple.SimpleMatrix;
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+import methods.BasicTypes.IndexSort;
 
 public class ElectreIII extends Electre {
 
+	/**
+	 * Enum type describing relation of two alternatives in final pre-order of ElectreIII method.
+	 */
+	public enum PreorderRelation {
+		/**
+		 * First alternative is not worse in both distillations and better in at least one of them.
+		 */
+		PREFERRED,
+		/**
+		 * Alternatives are in the same classes of both distillations.
+		 */
+		INDIFFERENT,
+		/**
+		 * Second alternative is not worse in both distillations and better in at least one of them.
+		 */
+		OUTRANKED,
+		/**
+		 * Each of the alternatives is better in one of the distillations.
+		 */
+		INCOMPARABLE
+	}
+
+	/**
+	 * Constant term of discrimination threshold s(lambda) = alpha + beta*lambda used in distillations. By default it is set to 0.3
+	 */
+	private double alpha_ = 0.3;
+
+	/**
+	 * Linear term of discrimination threshold s(lambda) = alpha + beta*lambda used in distillations. By default it is set to -0.15
+	 */
+	private double beta_ = -0.15;
+
+	/**
+	 * Class of every alternative in descending distillation (0 is the best class).
+	 */
+	private int[] descendingClasses_;
+
+	/**
+	 * Class of every alternative in ascending distillation (0 is the best class).
+	 */
+	private int[] ascendingClasses_;
+
+	/**
+	 * Rank of every alternative in final pre-order (0 is the best rank).
+	 */
+	private int[] finalRanks_;
 
 	/**
 	* ElectreIII class constructor with data file as an parameter. 
@@ -14,7 +62,6 @@ public class ElectreIII extends Electre {
 	public ElectreIII(String filename) {
 
 		super(filename);
-		credibilityMatrix_ = new SimpleMatrix(altsCount_, altsCount_);
 	}
 
     /**
@@ -22,7 +69,6 @@ public class ElectreIII extends Electre {
 	*/
     public ElectreIII() {
     	super();
-		credibilityMatrix_ = new SimpleMatrix(altsCount_, altsCount_);
     }
     
 	/**
@@ -33,19 +79,145 @@ public class ElectreIII extends Electre {
 		calculate_concordance_matrix();
 		calculate_credibility_matrix();
 		calculate_ranking();
+		calculate_distillations();
 	}
 
 	/**
-	 * Method calculating concordance matrix for every pair of alternatives
+	 * Sets discrimination threshold s(lambda) = alpha + beta*lambda used in distillations. Threshold has to be positive for lambda from [0, 1].
+	 * @param alpha constant term of threshold
+	 * @param beta linear term of threshold
 	 */
-	public void calculate_concordance_matrix() {
+	public void setDiscriminationThreshold(double alpha, double beta) {
+		if (!(alpha > 0) || !(alpha + beta > 0))
+			throw new IllegalArgumentException("Discrimination threshold has to be positive for lambda from [0, 1].");
+		alpha_ = alpha;
+		beta_ = beta;
+	}
+
+	/**
+	 * Returns constant term of discrimination threshold.
+	 * @return alpha value
+	 */
+	public double getDiscriminationAlpha() {
+		return alpha_;
+	}
+
+	/**
+	 * Returns linear term of discrimination threshold.
+	 * @return beta value
+	 */
+	public double getDiscriminationBeta() {
+		return beta_;
+	}
+
+	/**
+	 * Method calculating descending and ascending distillations and final pre-order being their intersection.
+	 * Rank of alternative in final pre-order is the length of the longest chain of alternatives preferred to it, so alternatives with equal ranks
+	 * are indifferent or incomparable.
+	 */
+	private void calculate_distillations() {
+		
+		Distillation distillation = new Distillation(credibilityMatrix_.asArray(), altsCount_, alpha_, beta_);
+		descendingClasses_ = distillation.distill(true);
+		ascendingClasses_ = distillation.distill(false);
+		
+		// alternatives ordered by descending class and then ascending class, so that every alternative is preceded by all the alternatives preferred to it
+		double[] keys = new double[altsCount_];
+		for (int i=0; i<altsCount_; i++)
+			keys[i] = -((double)descendingClasses_[i]*altsCount_ + ascendingClasses_[i]);
+		int[] order = IndexSort.sortDescending(keys);
+		
+		// longest chain ending at every alternative, prefix maximum over ascending classes is kept in Fenwick tree
+		int[] tree = new int[altsCount_ + 1];
+		finalRanks_ = new int[altsCount_];
+		int start = 0;
+		while (start < altsCount_) {
+			int end = start;
+			int first = order[start];
+			while (end < altsCount_ && descendingClasses_[order[end]] == descendingClasses_[first] && ascendingClasses_[order[end]] == ascendingClasses_[first])
+				end++;
+			int rank = 0;
+			for (int k = ascendingClasses_[first] + 1; k > 0; k -= k & (-k))
+				rank = Math.max(rank, tree[k]);
+			for (int i=start; i<end; i++)
+				finalRanks_[order[i]] = rank;
+			for (int k = ascendingClasses_[first] + 1; k <= altsCount_; k += k & (-k))
+				tree[k] = Math.max(tree[k], rank + 1);
+			start = end;
+		}
+	}
+
+	/**
+	 * Returns classes of descending distillation calculated by last run of calculate() method.
+	 * @return LinkedList of classes from the best one, every class is LinkedList containing Alternative objects
+	 */
+	public LinkedList<LinkedList<Alternative>> getDescendingDistillation() {
+		return classesOf(descendingClasses_);
+	}
+
+	/**
+	 * Returns classes of ascending distillation calculated by last run of calculate() method.
+	 * @return LinkedList of classes from the best one, every class is LinkedList containing Alternative objects
+	 */
+	public LinkedList<LinkedList<Alternative>> getAscendingDistillation() {
+		return classesOf(ascendingClasses_);
+	}
+
+	/**
+	 * Returns final pre-order calculated by last run of calculate() method - alternatives grouped by their rank in intersection of both distillations.
+	 * Alternatives in one class are indifferent or incomparable, use getPreorderRelation method to distinguish them.
+	 * @return LinkedList of classes from the best one, every class is LinkedList containing Alternative objects
+	 */
+	public LinkedList<LinkedList<Alternative>> getFinalPreorder() {
+		return classesOf(finalRanks_);
+	}
+
+	/**
+	 * Returns relation of two alternatives in final pre-order calculated by last run of calculate() method.
+	 * @param a alternative a index
+	 * @param b alternative b index
+	 * @return relation of alternative a to alternative b
+	 */
+	public PreorderRelation getPreorderRelation(int a, int b) {
+		int descending = descendingClasses_[a] - descendingClasses_[b];
+		int ascending = ascendingClasses_[a] - ascendingClasses_[b];
+		if (descending == 0 && ascending == 0)
+			return PreorderRelation.INDIFFERENT;
+		if (descending <= 0 && ascending <= 0)
+			return PreorderRelation.PREFERRED;
+		if (descending >= 0 && ascending >= 0)
+			return PreorderRelation.OUTRANKED;
+		return PreorderRelation.INCOMPARABLE;
+	}
+
+	/**
+	 * Groups alternatives by their class numbers.
+	 * @param classes class of every alternative (0 is the best class)
+	 * @return LinkedList of classes from the best one
+	 */
+	private LinkedList<LinkedList<Alternative>> classesOf(int[] classes) {
 		
-		for (int i=0; i< alternatives_.size(); i++)
-			 for (int j=0; j<alternatives_.size(); j++) 
-				 if (i!=j) 
-					 concordanceMatrix_.set(i, j, concordance_index_with_q(i, j));
-				 else 
-					 concordanceMatrix_.set(i, j, 0);
+		LinkedList<LinkedList<Alternative>> result = new LinkedList<LinkedList<Alternative>>();
+		if (classes == null)
+			return result;
+		int classesNum = 0;
+		for (int i=0; i<classes.length; i++)
+			classesNum = Math.max(classesNum, classes[i] + 1);
+		Alternative[] alternativesArray = alternatives_.toArray(new Alternative[altsCount_]);
+		ArrayList<LinkedList<Alternative>> lists = new ArrayList<LinkedList<Alternative>>(classesNum);
+		for (int c=0; c<classesNum; c++)
+			lists.add(new LinkedList<Alternative>());
+		for (int i=0; i<classes.length; i++)
+			lists.get(classes[i]).add(alternativesArray[i]);
+		result.addAll(lists);
+		return result;
+	}
+
+	/**
+	 * Method calculating concordance matrix for every pair of alternatives, regarding the concordance condition with q threshold
+	 */
+	public void calculate_concordance_matrix() {
+		calculate_concordance_matrix_with_q();
 	}
 
 	/**
@@ -53,16 +225,16 @@ public class ElectreIII extends Electre {
 	 */
 	private void calculate_ranking() {
 		
-		HashMap<Integer,Integer> rankMap = new HashMap<Integer,Integer>();
+		int[] rankingPoints = new int[altsCount_];
 
 		for (int i=0; i< altsCount_; i++) {
 			int points = 0;
 			 for (int j=0; j<altsCount_; j++) 
 				 if ((i != j) && (credibilityMatrix_.get(i, j) == 1))
 					 points++;
-			 rankMap.put(i, points);
+			 rankingPoints[i] = points;
 		}
-		createAlternativesRanking(rankMap);
+		createAlternativesRanking(rankingPoints);
 	}
 	
 }
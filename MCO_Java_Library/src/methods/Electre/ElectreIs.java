@@ -1,6 +1,5 @@
 package methods.Electre;
 
-import java.util.HashMap;
 import methods.Electre.Criterium.Direction;
 
 /**
@@ -40,12 +39,12 @@ public class ElectreIs extends Electre {
 	 */
 	protected void calculate_concordance_matrix() {
 		
-		for (int i=0; i< altsCount_; i++)
-			 for (int j=0; j<altsCount_; j++) 
-				 if (i!=j) 
-					 concordanceMatrix_.set(i, j, concordance_index_with_q(i, j) + concordance_index_with_phi(i, j));
-				 else 
-					 concordanceMatrix_.set(i, j, 0);
+		concordanceMatrix_ = calculate_matrix(concordanceMatrix_, true, new PairIndex() {
+			@Override
+			public double calculate(int a, int b) {
+				return concordance_index_with_q(a, b) + concordance_index_with_phi(a, b);
+			}
+		});
 	}
 
 	/**
@@ -127,7 +126,7 @@ public class ElectreIs extends Electre {
 	 */
 	private void calculate_ranking() {
 		
-		HashMap<Integer,Integer> rankMap = new HashMap<Integer,Integer>();
+		int[] rankingPoints = new int[altsCount_];
 		
 		for (int a=0; a<altsCount_; a++) {
 			int points =0;
@@ -139,8 +138,8 @@ public class ElectreIs extends Electre {
 					}
 				}
 			}
-			rankMap.put(a, points);
+			rankingPoints[a] = points;
 		}
-        createAlternativesRanking(rankMap);
+        createAlternativesRanking(rankingPoints);
 	}
 }
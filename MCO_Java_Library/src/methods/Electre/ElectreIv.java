@@ -1,6 +1,5 @@
 package methods.Electre;
 
-import java.util.HashMap;
 
 import methods.Electre.Criterium.Direction;
 
@@ -59,7 +58,7 @@ public class ElectreIv extends Electre {
 	 */
 	private void calculate_ranking() {
 		
-		HashMap<Integer,Integer> rankMap = new HashMap<Integer,Integer>();
+		int[] rankingPoints = new int[altsCount_];
 		
 		for (int a=0; a<altsCount_; a++) {
 			
@@ -78,9 +77,9 @@ public class ElectreIv extends Electre {
 					}
 				}
 			}
-			rankMap.put(a, points);
+			rankingPoints[a] = points;
 		}
-		createAlternativesRanking(rankMap);
+		createAlternativesRanking(rankingPoints);
 	}
 	
 }
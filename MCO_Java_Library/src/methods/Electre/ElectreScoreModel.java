@@ -0,0 +1,153 @@
+package methods.Electre;
+
+import methods.BasicTypes.DecisionMatrix;
+import methods.BasicTypes.ScoreModel;
+
+/**
+ * Score model of Electre method used in rank acceptability analysis.
+ * Score of the alternative is number of alternatives it outranks according to ElectreI rules (concordance index not lower than s threshold 
+ * and discordance index not greater than v threshold). Preference of alternatives on every criterium and unweighted differences of normalized values
+ * do not depend on weights, so they are calculated once for every pair of alternatives and only weighted in calculateScores method.
+ * Model needs O(n^2*m) memory, n^2*m has to fit in Java array index.
+ */
+public class ElectreScoreModel implements ScoreModel {
+
+    /**
+     * Number of alternatives.
+     */
+    private final int altsNum;
+
+    /**
+     * Number of criteria.
+     */
+    private final int criteriaNum;
+
+    /**
+     * Normalized reference weights of the criteria.
+     */
+    private final double[] weights;
+
+    /**
+     * Concordance condition threshold.
+     */
+    private final double s;
+
+    /**
+     * Discordance condition threshold.
+     */
+    private final double v;
+
+    /**
+     * For pair (a, b) and criterium r, at index (a*n+b)*m+r: true if alternative a is not worse than b on criterium r.
+     */
+    private final boolean[] concordant;
+
+    /**
+     * For pair (a, b) and criterium r, at index (a*n+b)*m+r: difference of normalized values (without weight) if alternative b is not worse than a on criterium r, otherwise 0.
+     */
+    private final double[] differences;
+
+    /**
+     * ElectreScoreModel constructor.
+     * @param electre Electre object with criteria and alternatives set.
+     * @throws IllegalArgumentException if there are too many alternatives and criteria for arrays of size n^2*m.
+     */
+    public ElectreScoreModel(Electre electre) {
+        altsNum = electre.getAlternativesNum();
+        criteriaNum = electre.getCriteriaNum();
+        if((long) altsNum * altsNum * criteriaNum > Integer.MAX_VALUE)    {
+            throw new IllegalArgumentException("Score model of " + altsNum + " alternatives with " + criteriaNum + " criteria is too large for an array.");
+        }
+        s = electre.s_;
+        v = electre.v_;
+
+        weights = new double[criteriaNum];
+        double sum = 0;
+        for(int r=0; r<criteriaNum; r++)    {
+            weights[r] = electre.getCriterium(r).getWeight();
+            sum = sum + weights[r];
+        }
+        for(int r=0; r<criteriaNum; r++)    {
+            weights[r] = weights[r]/sum;
+        }
+
+        double[] values = DecisionMatrix.of(electre.getAlternatives(), criteriaNum, DecisionMatrix.Layout.ROW_MAJOR).getValues();
+        concordant = new boolean[altsNum*altsNum*criteriaNum];
+        differences = new double[altsNum*altsNum*criteriaNum];
+        for(int r=0; r<criteriaNum; r++)    {
+            int offset = r*altsNum;
+            double squares = 0;
+            for(int i=0; i<altsNum; i++)    {
+                squares = squares + values[offset+i]*values[offset+i];
+            }
+            double root = Math.sqrt(squares);
+            boolean max = electre.getCriterium(r).getDirection() == Criterium.Direction.MAX;
+            for(int a=0; a<altsNum; a++)    {
+                double valueA = values[offset+a];
+                for(int b=0; b<altsNum; b++)    {
+                    double valueB = values[offset+b];
+                    int position = (a*altsNum + b)*criteriaNum + r;
+                    concordant[position] = max ? valueA >= valueB : valueA <= valueB;
+                    boolean discordant = max ? valueB >= valueA : valueB <= valueA;
+                    differences[position] = discordant ? Math.abs(valueB - valueA)/root : 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns number of alternatives.
+     * @return Number of alternatives.
+     */
+    public int getAlternativesNum() {
+        return altsNum;
+    }
+
+    /**
+     * Returns number of criteria.
+     * @return Number of criteria.
+     */
+    public int getCriteriaNum() {
+        return criteriaNum;
+    }
+
+    /**
+     * Returns normalized criteria weights of Electre object.
+     * @return Array of weights.
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Calculates number of alternatives outranked by every alternative for criteria weights provided as parameter.
+     * @param weights Normalized criteria weights.
+     * @param scores Array to which score of every alternative is written.
+     */
+    public void calculateScores(double[] weights, double[] scores) {
+        for(int a=0; a<altsNum; a++)    {
+            int points = 0;
+            for(int b=0; b<altsNum; b++)    {
+                if(a == b)  {
+                    continue;
+                }
+                int position = (a*altsNum + b)*criteriaNum;
+                double concordance = 0;
+                double discordance = 0;
+                for(int r=0; r<criteriaNum; r++)    {
+                    if(concordant[position + r])    {
+                        concordance = concordance + weights[r];
+                    }
+                    double difference = weights[r] * differences[position + r];
+                    if(difference > discordance)    {
+                        discordance = difference;
+                    }
+                }
+                if(concordance >= s && discordance <= v)   {
+                    points++;
+                }
+            }
+            scores[a] = points;
+        }
+    }
+}
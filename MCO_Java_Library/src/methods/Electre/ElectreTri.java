@@ -1,13 +1,29 @@
 package methods.Electre;
 
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
 
+import methods.BasicTypes.DecisionMatrix;
 import methods.Electre.Criterium.Direction;
 
-import org.ejml.simple.SimpleMatrix;
 
 public class ElectreTri extends Electre {
 
+	/**
+	 * Cutting level - minimal credibility of outranking between alternative and profile. By default it is set to 0.75
+	 */
+	private double cuttingLevel_ = 0.75;
+
+	/**
+	 * Category of every alternative assigned by pessimistic procedure, 0 is the worst category. Null if no profiles were defined.
+	 */
+	private int[] pessimisticAssignment_;
+
+	/**
+	 * Category of every alternative assigned by optimistic procedure, 0 is the worst category. Null if no profiles were defined.
+	 */
+	private int[] optimisticAssignment_;
+
 	/**
 	* ElectreTri class constructor with data file as an parameter. 
 	* @param filename Path to the file from which data can be read. 
@@ -16,7 +32,6 @@ public class ElectreTri extends Electre {
 	public ElectreTri(String filename) {
 		
 		super(filename);
-		credibilityMatrix_ = new SimpleMatrix(altsCount_, altsCount_);
 		
 	}
 
@@ -26,15 +41,67 @@ public class ElectreTri extends Electre {
 	public ElectreTri() {
 		
 		super();
-		credibilityMatrix_ = new SimpleMatrix(altsCount_, altsCount_);
 		
 	}
 
 	/**
-	 * Public method calculating all the matrices and filling the ranking lists
+	 * Adds reference profile - upper boundary of the next category. Profiles have to be added from the worst to the best one.
+	 * Alternatives are compared with profiles using q, p and veto thresholds of the criteria. Criterium without veto should have veto
+	 * equal to positive infinity (empty veto field in data file), veto 0 vetoes every advantage of the profile larger than preference threshold,
+	 * as in matrices calculated between alternatives.
+	 * @param profile Alternative object with value of every criterium.
+	 */
+	public void addProfile(Alternative profile) {
+		profiles_.add(profile);
+	}
+
+	/**
+	 * Returns reference profiles.
+	 * @return LinkedList of profiles ordered from the worst to the best one.
+	 */
+	public LinkedList<Alternative> getProfiles() {
+		return profiles_;
+	}
+
+	/**
+	 * Sets cutting level - minimal credibility for alternative to outrank profile (or profile to outrank alternative).
+	 * @param cuttingLevel Value from range [0.5, 1].
+	 */
+	public void setCuttingLevel(double cuttingLevel) {
+		if (cuttingLevel < 0.5 || cuttingLevel > 1) {
+			throw new IllegalArgumentException("Cutting level has to be in range [0.5, 1], got " + cuttingLevel);
+		}
+		cuttingLevel_ = cuttingLevel;
+	}
+
+	/**
+	 * Returns cutting level.
+	 * @return Cutting level.
+	 */
+	public double getCuttingLevel() {
+		return cuttingLevel_;
+	}
+
+	/**
+	 * Creates object assigning alternatives to categories defined by profiles of this method. It can be used to classify criteria values
+	 * not stored as Alternative objects, e.g. records read in chunks from large file.
+	 * @return ProfileAssignment object.
+	 */
+	public ProfileAssignment createProfileAssignment() {
+		return new ProfileAssignment(criteria_, profiles_, cuttingLevel_);
+	}
+
+	/**
+	 * Public method calculating all the matrices and filling the ranking lists.
+	 * If profiles are defined, alternatives are only assigned to categories (ElectreTri-B) - every alternative is compared with profiles,
+	 * no matrices between alternatives are calculated and ranking list stays empty.
 	 */
 	public void calculate() {
 		
+		if (!profiles_.isEmpty()) {
+			calculate_assignments();
+			return;
+		}
 		normalize();
 		calculate_concordance_matrix();
 		calculate_credibility_matrix();
@@ -42,17 +109,63 @@ public class ElectreTri extends Electre {
 		
 	}
 
+	/**
+	 * Method assigning every alternative to category with pessimistic and optimistic procedure, in parallel.
+	 */
+	protected void calculate_assignments() {
+		
+		updateCounts();
+		ProfileAssignment assignment = createProfileAssignment();
+		double[] values = DecisionMatrix.of(alternatives_, criteriaCount_, DecisionMatrix.Layout.COLUMN_MAJOR).getValues();
+		pessimisticAssignment_ = new int[altsCount_];
+		optimisticAssignment_ = new int[altsCount_];
+		assignment.assign(values, altsCount_, ProfileAssignment.Procedure.PESSIMISTIC, pessimisticAssignment_, executor_);
+		assignment.assign(values, altsCount_, ProfileAssignment.Procedure.OPTIMISTIC, optimisticAssignment_, executor_);
+	}
+
+	/**
+	 * Returns category of every alternative.
+	 * @param procedure Assignment procedure.
+	 * @return Array with category of every alternative (in order of adding), 0 is the worst category. Empty if alternatives were not assigned.
+	 */
+	public int[] getAssignment(ProfileAssignment.Procedure procedure) {
+		int[] assignment = procedure == ProfileAssignment.Procedure.PESSIMISTIC ? pessimisticAssignment_ : optimisticAssignment_;
+		if (assignment == null)
+			return new int[0];
+		return assignment.clone();
+	}
+
+	/**
+	 * Returns alternatives grouped by categories.
+	 * @param procedure Assignment procedure.
+	 * @return LinkedList with one list of alternatives for every category, from the worst category to the best one. Empty if alternatives were not assigned.
+	 */
+	public LinkedList<LinkedList<Alternative>> getCategories(ProfileAssignment.Procedure procedure) {
+		int[] assignment = getAssignment(procedure);
+		LinkedList<LinkedList<Alternative>> categories = new LinkedList<LinkedList<Alternative>>();
+		if (assignment.length == 0)
+			return categories;
+		for (int h = 0; h <= profiles_.size(); h++) {
+			categories.add(new LinkedList<Alternative>());
+		}
+		int i = 0;
+		for (Iterator<Alternative> it = alternatives_.iterator(); it.hasNext(); i++) {
+			categories.get(assignment[i]).add(it.next());
+		}
+		return categories;
+	}
+
 	/**
 	 * Method calculating concordance matrix for every pair of alternatives. Uses weighted concordance index
 	 */
 	protected void calculate_concordance_matrix() {
 		
-		for (int i=0; i< altsCount_; i++)
-			 for (int j=0; j<altsCount_; j++) 
-				 if (i!=j) 
-					 concordanceMatrix_.set(i, j, weighted_concordance_index(i, j));
-				 else 
-					 concordanceMatrix_.set(i, j, 0);
+		concordanceMatrix_ = calculate_matrix(concordanceMatrix_, true, new PairIndex() {
+			@Override
+			public double calculate(int a, int b) {
+				return weighted_concordance_index(a, b);
+			}
+		});
 	}
 	
 	/**
@@ -109,15 +222,15 @@ public class ElectreTri extends Electre {
 	 */
 	private void calculate_ranking() {
 		
-		HashMap<Integer,Integer> rankMap = new HashMap<Integer,Integer>();
+		int[] rankingPoints = new int[altsCount_];
 
 		for (int i=0; i< altsCount_; i++) {
 			int points = 0;
 			 for (int j=0; j<altsCount_; j++) 
 				 if ((i != j) && (credibilityMatrix_.get(i, j) == 1))
 					 points++;
-			 rankMap.put(i, points);
+			 rankingPoints[i] = points;
 		}
-		createAlternativesRanking(rankMap);
+		createAlternativesRanking(rankingPoints);
 	}
 }
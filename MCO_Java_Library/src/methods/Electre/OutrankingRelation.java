@@ -0,0 +1,328 @@
+package methods.Electre;
+
+import java.util.Arrays;
+
+/**
+ * Outranking relation between alternatives stored as bit matrix - row a has bit b set if alternative a outranks alternative b.
+ * Every row is packed in long words, so relation of n alternatives needs n^2/8 bytes and operations on whole rows (counting, union)
+ * process 64 alternatives at once.
+ * Relation can contain cycles, they are found as strongly connected components (Tarjan algorithm without recursion) and contracted to single nodes
+ * before kernel is calculated, as it is done in ElectreI method.
+ */
+public class OutrankingRelation {
+
+    /**
+     * Number of alternatives.
+     */
+    private final int size;
+
+    /**
+     * Number of long words in one row.
+     */
+    private final int words;
+
+    /**
+     * Bits of the relation, row a starts at index a*words.
+     */
+    private final long[] bits;
+
+    /**
+     * Strongly connected component of every alternative (null before it is calculated).
+     */
+    private int[] components;
+
+    /**
+     * Number of strongly connected components.
+     */
+    private int componentsNum;
+
+    /**
+     * OutrankingRelation constructor, creates empty relation.
+     * @param size Number of alternatives.
+     */
+    public OutrankingRelation(int size) {
+        this.size = size;
+        this.words = (size + 63) >>> 6;
+        this.bits = new long[size * words];
+    }
+
+    /**
+     * Returns number of alternatives.
+     * @return Number of alternatives.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sets alternative a as outranking alternative b. Rows can be filled in parallel as long as every row is filled by one thread only.
+     * @param a Index of outranking alternative.
+     * @param b Index of outranked alternative.
+     */
+    public void set(int a, int b) {
+        bits[a*words + (b >>> 6)] |= 1L << b;
+        components = null;
+    }
+
+    /**
+     * Checks whether alternative a outranks alternative b.
+     * @param a Index of first alternative.
+     * @param b Index of second alternative.
+     * @return true if a outranks b, otherwise false.
+     */
+    public boolean outranks(int a, int b) {
+        return (bits[a*words + (b >>> 6)] & (1L << b)) != 0;
+    }
+
+    /**
+     * Returns number of alternatives outranked by alternative a (ElectreI ranking points).
+     * @param a Index of alternative.
+     * @return Number of alternatives outranked by a.
+     */
+    public int countOutranked(int a) {
+        int count = 0;
+        for(int w=a*words; w<(a+1)*words; w++) {
+            count = count + Long.bitCount(bits[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns strongly connected component of every alternative. Components are numbered in topological order - if alternative a outranks
+     * alternative b and they are in different components, component of a has lower number.
+     * @return Array with component number of every alternative.
+     */
+    public int[] getComponents() {
+        if(components == null)  {
+            calculateComponents();
+        }
+        return components.clone();
+    }
+
+    /**
+     * Returns number of strongly connected components.
+     * @return Number of components.
+     */
+    public int getComponentsNum() {
+        if(components == null)  {
+            calculateComponents();
+        }
+        return componentsNum;
+    }
+
+    /**
+     * Checks whether relation contains cycles (alternatives outranking each other directly or indirectly).
+     * @return true if there is a component with more than one alternative, otherwise false.
+     */
+    public boolean hasCycles() {
+        return getComponentsNum() < size;
+    }
+
+    /**
+     * Returns relation between strongly connected components - component c outranks component d if any alternative of c outranks any alternative of d.
+     * Result is acyclic and its nodes are numbered as components, so in topological order.
+     * @return OutrankingRelation with getComponentsNum() nodes.
+     */
+    public OutrankingRelation contract() {
+        int componentsNum = getComponentsNum();
+        // alternatives grouped by component (counting sort)
+        int[] starts = new int[componentsNum + 1];
+        for(int a=0; a<size; a++)   {
+            starts[components[a] + 1]++;
+        }
+        for(int c=0; c<componentsNum; c++)  {
+            starts[c + 1] = starts[c + 1] + starts[c];
+        }
+        int[] members = new int[size];
+        int[] position = starts.clone();
+        for(int a=0; a<size; a++)   {
+            members[position[components[a]]++] = a;
+        }
+
+        // rows of component members are joined word by word, then every outranked alternative is mapped to its component
+        OutrankingRelation contracted = new OutrankingRelation(componentsNum);
+        long[] union = new long[words];
+        for(int c=0; c<componentsNum; c++)  {
+            Arrays.fill(union, 0L);
+            for(int k=starts[c]; k<starts[c + 1]; k++)  {
+                int offset = members[k]*words;
+                for(int w=0; w<words; w++)  {
+                    union[w] |= bits[offset + w];
+                }
+            }
+            for(int b=nextSetBit(union, 0, words, 0, null); b>=0; b=nextSetBit(union, 0, words, b+1, null))  {
+                if(components[b] != c)  {
+                    contracted.set(c, components[b]);
+                }
+            }
+        }
+        contracted.components = new int[componentsNum];
+        for(int c=0; c<componentsNum; c++)  {
+            contracted.components[c] = c;
+        }
+        contracted.componentsNum = componentsNum;
+        return contracted;
+    }
+
+    /**
+     * Calculates kernel of the relation - set of alternatives which do not outrank each other and outrank every alternative outside of the set.
+     * Cycles are contracted first and the kernel of acyclic relation (which is unique) is found by visiting its nodes in topological order:
+     * node is taken to the kernel if it is not outranked by any node already taken, outranked nodes are marked with union of whole rows.
+     * All the alternatives of kernel components belong to the kernel.
+     * @return Sorted indices of kernel alternatives.
+     */
+    public int[] getKernel() {
+        int componentsNum = getComponentsNum();
+        // without cycles every component is one alternative and rows of this relation are used directly
+        OutrankingRelation acyclic = componentsNum < size ? contract() : this;
+        int[] order = new int[componentsNum];
+        for(int a=0; a<acyclic.size; a++)   {
+            order[acyclic.components[a]] = a;
+        }
+
+        long[] covered = new long[acyclic.words];
+        long[] kernel = new long[acyclic.words];
+        for(int c=0; c<componentsNum; c++)  {
+            int node = order[c];
+            if((covered[node >>> 6] & (1L << node)) != 0)  {
+                continue;
+            }
+            kernel[node >>> 6] |= 1L << node;
+            int offset = node*acyclic.words;
+            for(int w=0; w<acyclic.words; w++)   {
+                covered[w] |= acyclic.bits[offset + w];
+            }
+        }
+
+        int count = 0;
+        int[] result = new int[size];
+        for(int a=0; a<size; a++)   {
+            int node = acyclic == this ? a : components[a];
+            if((kernel[node >>> 6] & (1L << node)) != 0)  {
+                result[count++] = a;
+            }
+        }
+        int[] trimmed = new int[count];
+        System.arraycopy(result, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    /**
+     * Finds strongly connected components with Tarjan algorithm using explicit stack instead of recursion.
+     * Successors are found in row words masked by set of alternatives not assigned to any component yet, so finished alternatives are skipped 64 at a time.
+     */
+    private void calculateComponents() {
+        int[] index = new int[size];
+        int[] low = new int[size];
+        int[] stack = new int[size];
+        boolean[] onStack = new boolean[size];
+        int[] callNode = new int[size];
+        int[] callNext = new int[size];
+        long[] live = new long[words];
+        for(int a=0; a<size; a++)   {
+            index[a] = -1;
+            live[a >>> 6] |= 1L << a;
+        }
+        int[] finished = new int[size];
+        int counter = 0;
+        int stackSize = 0;
+        int count = 0;
+
+        for(int root=0; root<size; root++)  {
+            if(index[root] >= 0)    {
+                continue;
+            }
+            int depth = 0;
+            callNode[depth] = root;
+            callNext[depth] = 0;
+            depth++;
+            index[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while(depth > 0)    {
+                int v = callNode[depth-1];
+                int w = nextLive(v, callNext[depth-1], live);
+                if(w >= 0)  {
+                    callNext[depth-1] = w + 1;
+                    if(index[w] < 0)    {
+                        index[w] = low[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        callNode[depth] = w;
+                        callNext[depth] = 0;
+                        depth++;
+                    }
+                    else if(onStack[w] && index[w] < low[v])  {
+                        low[v] = index[w];
+                    }
+                    continue;
+                }
+                if(low[v] == index[v])  {
+                    int x;
+                    do  {
+                        x = stack[--stackSize];
+                        onStack[x] = false;
+                        live[x >>> 6] &= ~(1L << x);
+                        finished[x] = count;
+                    } while(x != v);
+                    count++;
+                }
+                depth--;
+                if(depth > 0)   {
+                    int u = callNode[depth-1];
+                    if(low[v] < low[u]) {
+                        low[u] = low[v];
+                    }
+                }
+            }
+        }
+
+        // Tarjan algorithm finishes components in reverse topological order
+        components = new int[size];
+        for(int a=0; a<size; a++)   {
+            components[a] = count - 1 - finished[a];
+        }
+        componentsNum = count;
+    }
+
+    /**
+     * Returns first alternative not lower than from which is outranked by alternative a and belongs to mask.
+     * @param a Index of alternative.
+     * @param from First index to check.
+     * @param mask Bit set of alternatives taken into account.
+     * @return Index of outranked alternative or -1 if there is no such alternative.
+     */
+    private int nextLive(int a, int from, long[] mask) {
+        return nextSetBit(bits, a*words, words, from, mask);
+    }
+
+    /**
+     * Returns first set bit not lower than from in a row of bit matrix.
+     * @param bits Bits of the matrix.
+     * @param offset Index of the first word of the row.
+     * @param words Number of words in the row.
+     * @param from First bit to check.
+     * @param mask Bit set of columns taken into account, null means all the columns.
+     * @return Index of the bit or -1 if there is no such bit.
+     */
+    private static int nextSetBit(long[] bits, int offset, int words, int from, long[] mask) {
+        int w = from >>> 6;
+        if(w >= words)  {
+            return -1;
+        }
+        long word = bits[offset + w] & (-1L << from);
+        while(true) {
+            if(mask != null)    {
+                word = word & mask[w];
+            }
+            if(word != 0)   {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if(++w == words)    {
+                return -1;
+            }
+            word = bits[offset + w];
+        }
+    }
+}
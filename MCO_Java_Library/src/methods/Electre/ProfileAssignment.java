@@ -0,0 +1,251 @@
+package methods.Electre;
+
+import java.util.Iterator;
+import java.util.List;
+
+import methods.BasicTypes.ParallelExecutor;
+
+/**
+ * Assignment of alternatives to ordered categories of ElectreTri-B method.
+ * Categories are separated by k reference profiles ordered from the worst to the best one, so there are k+1 categories numbered from 0 (the worst)
+ * to k (the best). Every alternative is compared only with the profiles, using raw criteria values and q, p, veto thresholds of the criteria,
+ * so assignment of n alternatives takes O(n*k*m) time, needs no n x n matrices and alternatives can be processed in parallel.
+ */
+public class ProfileAssignment {
+
+    /**
+     * Enum type describing assignment procedure.
+     */
+    public enum Procedure {
+        /**
+         * Alternative is compared with profiles from the best one and assigned to the category above the first profile it outranks.
+         */
+        PESSIMISTIC,
+        /**
+         * Alternative is compared with profiles from the worst one and assigned to the category below the first profile strictly preferred to it.
+         */
+        OPTIMISTIC
+    }
+
+    /**
+     * Number of criteria.
+     */
+    private final int criteriaNum;
+
+    /**
+     * Number of profiles.
+     */
+    private final int profilesNum;
+
+    /**
+     * Criteria values of profiles, value of r-th criterium of h-th profile is at index h*criteriaNum+r.
+     */
+    private final double[] profiles;
+
+    /**
+     * Normalized criteria weights.
+     */
+    private final double[] weights;
+
+    /**
+     * Indifference thresholds of criteria.
+     */
+    private final double[] q;
+
+    /**
+     * Preference thresholds of criteria.
+     */
+    private final double[] p;
+
+    /**
+     * Veto thresholds of criteria (positive infinity means no veto).
+     */
+    private final double[] veto;
+
+    /**
+     * Directions of criteria, true for maximized criteria.
+     */
+    private final boolean[] maximized;
+
+    /**
+     * Cutting level - minimal credibility of outranking.
+     */
+    private final double lambda;
+
+    /**
+     * ProfileAssignment constructor.
+     * @param criteria List of criteria with weights and thresholds.
+     * @param profiles List of profiles (Alternative objects with value of every criterium) ordered from the worst to the best one.
+     * @param lambda Cutting level, usually between 0.5 and 1.
+     */
+    public ProfileAssignment(List<Criterium> criteria, List<Alternative> profiles, double lambda) {
+        this.criteriaNum = criteria.size();
+        this.profilesNum = profiles.size();
+        this.lambda = lambda;
+        this.weights = new double[criteriaNum];
+        this.q = new double[criteriaNum];
+        this.p = new double[criteriaNum];
+        this.veto = new double[criteriaNum];
+        this.maximized = new boolean[criteriaNum];
+
+        double sum = 0;
+        int r = 0;
+        for(Iterator<Criterium> it = criteria.iterator(); it.hasNext(); r++)    {
+            Criterium criterium = it.next();
+            weights[r] = criterium.getWeight();
+            q[r] = criterium.getQ();
+            p[r] = criterium.getP();
+            veto[r] = criterium.getVeto() != null ? criterium.getVeto() : Double.POSITIVE_INFINITY;
+            maximized[r] = criterium.getDirection() == Criterium.Direction.MAX;
+            sum = sum + weights[r];
+        }
+        for(r=0; r<criteriaNum; r++)    {
+            weights[r] = weights[r]/sum;
+        }
+
+        this.profiles = new double[profilesNum*criteriaNum];
+        int h = 0;
+        for(Iterator<Alternative> it = profiles.iterator(); it.hasNext(); h++)  {
+            List<Double> values = it.next().getCriteriaValues();
+            if(values.size() != criteriaNum)  {
+                throw new IllegalArgumentException("Profile " + h + " has " + values.size() + " criteria values, but there are " + criteriaNum + " criteria.");
+            }
+            r = 0;
+            for(Iterator<Double> valuesIt = values.iterator(); valuesIt.hasNext(); r++)  {
+                this.profiles[h*criteriaNum + r] = valuesIt.next();
+            }
+        }
+        for(h=1; h<profilesNum; h++)    {
+            for(r=0; r<criteriaNum; r++)    {
+                double lower = this.profiles[(h-1)*criteriaNum + r];
+                double upper = this.profiles[h*criteriaNum + r];
+                if(maximized[r] ? upper < lower : upper > lower)  {
+                    throw new IllegalArgumentException("Profiles have to be ordered from the worst to the best one, profile " + h + " is worse than profile " + (h-1) + " on criterium " + r + ".");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns number of categories.
+     * @return Number of profiles increased by 1.
+     */
+    public int getCategoriesNum() {
+        return profilesNum + 1;
+    }
+
+    /**
+     * Calculates credibility of outranking between alternative and profile.
+     * @param values Array with criteria values of alternatives, values of one alternative are contiguous.
+     * @param offset Index of the first criterium value of the alternative.
+     * @param profile Profile index.
+     * @param alternativeOverProfile true for credibility of alternative outranking profile, false for credibility of profile outranking alternative.
+     * @return Credibility index.
+     */
+    public double credibility(double[] values, int offset, int profile, boolean alternativeOverProfile) {
+        int profileOffset = profile*criteriaNum;
+        double concordance = 0;
+        for(int r=0; r<criteriaNum; r++)    {
+            concordance = concordance + weights[r] * partialConcordance(advantage(values, offset, profileOffset, r, alternativeOverProfile), r);
+        }
+        double credibility = concordance;
+        for(int r=0; r<criteriaNum; r++)    {
+            double discordance = partialDiscordance(advantage(values, offset, profileOffset, r, alternativeOverProfile), r);
+            if(discordance > concordance)   {
+                credibility = credibility * (1 - discordance)/(1 - concordance);
+            }
+        }
+        return credibility;
+    }
+
+    /**
+     * Returns how much better the second object of the comparison is on the criterium.
+     * @param values Array with criteria values of alternatives.
+     * @param offset Index of the first criterium value of the alternative.
+     * @param profileOffset Index of the first criterium value of the profile.
+     * @param r Criterium index.
+     * @param alternativeOverProfile true if alternative is the first object of comparison.
+     * @return Difference of values, positive if the second object is better.
+     */
+    private double advantage(double[] values, int offset, int profileOffset, int r, boolean alternativeOverProfile) {
+        double first = alternativeOverProfile ? values[offset + r] : profiles[profileOffset + r];
+        double second = alternativeOverProfile ? profiles[profileOffset + r] : values[offset + r];
+        return maximized[r] ? second - first : first - second;
+    }
+
+    /**
+     * Returns partial concordance index for given advantage of the second object.
+     * @param advantage Difference of values, positive if the second object is better.
+     * @param r Criterium index.
+     * @return Partial concordance index.
+     */
+    private double partialConcordance(double advantage, int r) {
+        if(advantage <= q[r])   {
+            return 1;
+        }
+        if(advantage >= p[r])   {
+            return 0;
+        }
+        return (p[r] - advantage)/(p[r] - q[r]);
+    }
+
+    /**
+     * Returns partial discordance index for given advantage of the second object.
+     * @param advantage Difference of values, positive if the second object is better.
+     * @param r Criterium index.
+     * @return Partial discordance index.
+     */
+    private double partialDiscordance(double advantage, int r) {
+        // the same thresholds as in Electre.discordance_index_with_p_q, veto 0 is immediate veto
+        if(Double.isInfinite(veto[r]) || advantage <= p[r])   {
+            return 0;
+        }
+        if(advantage >= veto[r])    {
+            return 1;
+        }
+        return (advantage - p[r])/(veto[r] - p[r]);
+    }
+
+    /**
+     * Assigns alternative to category.
+     * @param values Array with criteria values of alternatives, values of one alternative are contiguous.
+     * @param offset Index of the first criterium value of the alternative.
+     * @param procedure Assignment procedure.
+     * @return Category number, 0 is the worst category.
+     */
+    public int assign(double[] values, int offset, Procedure procedure) {
+        if(procedure == Procedure.PESSIMISTIC)  {
+            for(int h=profilesNum-1; h>=0; h--) {
+                if(credibility(values, offset, h, true) >= lambda)  {
+                    return h + 1;
+                }
+            }
+            return 0;
+        }
+        for(int h=0; h<profilesNum; h++)    {
+            if(credibility(values, offset, h, false) >= lambda && credibility(values, offset, h, true) < lambda)  {
+                return h;
+            }
+        }
+        return profilesNum;
+    }
+
+    /**
+     * Assigns alternatives to categories in parallel.
+     * @param values Array with criteria values of alternatives, values of one alternative are contiguous (i-th alternative starts at index i*m).
+     * @param altsNum Number of alternatives.
+     * @param procedure Assignment procedure.
+     * @param categories Array to which category of every alternative is written.
+     * @param executor Executor used to process alternatives in parallel.
+     */
+    public void assign(final double[] values, int altsNum, final Procedure procedure, final int[] categories, ParallelExecutor executor) {
+        executor.forRange(0, altsNum, 1024, new ParallelExecutor.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for(int i=from; i<to; i++)  {
+                    categories[i] = assign(values, i*criteriaNum, procedure);
+                }
+            }
+        });
+    }
+}
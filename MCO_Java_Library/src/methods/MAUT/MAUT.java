@@ -1,15 +1,17 @@
 package methods.MAUT;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.LinkedList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import methods.BasicTypes.AlternativeBatches;
+import methods.BasicTypes.BatchScorer;
+import methods.BasicTypes.CsvReader;
+import methods.BasicTypes.DataFileException;
+import methods.BasicTypes.DecisionMatrix;
+import methods.BasicTypes.LinearScoreModel;
+import methods.BasicTypes.Ranking;
+import methods.BasicTypes.TopScores;
 /**
  * MAUT (Multi-Attribute Utility Theory) method class. 
  * @author Mateusz Krasucki
@@ -25,9 +27,9 @@ public class MAUT {
         */
         private LinkedList<Alternative> alternatives;
         /**
-         * LinkedList containing all the alternatives in MCO problem represented by UTASTAR method object ordered by their score calculated by UTASTAR method based on reference alternative preference standings.
+         * Ranking of all the alternatives in MCO problem represented by MAUT method object ordered by their score calculated by MAUT method.
         */
-        private LinkedList<Alternative> ranking;
+        private Ranking<Alternative> ranking;
    
         /**
          * Auxillary variable.
@@ -39,152 +41,127 @@ public class MAUT {
 	* MAUT class constructor with data file as an parameter. 
 	* @param filename Path to the file from which data can be read. 
         * It should be structured as shown in example csv file in dataFileExamples/maut.csv.
+        * Criteria values of the alternatives are parsed directly into one decision matrix, to which the alternatives are bound.
+        * @throws DataFileException if the file can not be read or has wrong format, exception points to the wrong line and column.
 	*/
 	public MAUT(String filename) {		
 		alternatives = new LinkedList<Alternative>();
-                ranking = new LinkedList<Alternative>();
+                ranking = new Ranking<Alternative>();
                 criteria = new LinkedList<Criterium>();
 			
-		BufferedReader br = null;
-		String line = "";
 		int altsCount = 0;
                 int altsIterationCount = 0;
                 int normalCriteriaCount = 0;
                 Map<String, Criterium> root = new HashMap<String, Criterium>();
                 Map<String, Criterium> children = new HashMap<String, Criterium>();
-                
-                String[] values;
+                Alternative[] alternativesRead = null;
+                DecisionMatrix matrix = null;
 		
+		CsvReader reader = new CsvReader(filename);
 		try {
-                    br = new BufferedReader(new FileReader(filename));
-                    line = br.readLine(); 
-                    while(line != null)    {
-                        values = line.split(",");
-                        if(values[0].contentEquals("GroupCriterium") && altsCount == 0)   {
-                                if(values.length==4)    {
-                                    if(values[1].contentEquals("root"))  {
-                                        GroupCriterium criterium = new GroupCriterium(values[2],Double.parseDouble(values[3]));
-                                        root.put(values[2], criterium);
+                    while(reader.nextLine())    {
+                        int fieldsNum = reader.getFieldsNum();
+                        if(reader.fieldEquals(0, "GroupCriterium") && altsCount == 0)   {
+                                if(fieldsNum==4)    {
+                                    String parentName = reader.getString(1);
+                                    String name = reader.getString(2);
+                                    if(parentName.contentEquals("root"))  {
+                                        GroupCriterium criterium = new GroupCriterium(name,reader.getDouble(3));
+                                        root.put(name, criterium);
                                     }
                                     else    {
-                                        if(root.containsKey(values[1]))   {
-                                            GroupCriterium criterium = new GroupCriterium(values[2],Double.parseDouble(values[3]));
-                                            children.put(values[2], criterium);
-                                            GroupCriterium parent = (GroupCriterium)root.get(values[1]);
+                                        if(root.containsKey(parentName))   {
+                                            GroupCriterium criterium = new GroupCriterium(name,reader.getDouble(3));
+                                            children.put(name, criterium);
+                                            GroupCriterium parent = (GroupCriterium)root.get(parentName);
                                             parent.addInnerCriterium(criterium);
                                         }
-                                        else if(children.containsKey(values[1])) {
-                                            GroupCriterium criterium = new GroupCriterium(values[2],Double.parseDouble(values[3]));
-                                            children.put(values[2], criterium);
-                                            GroupCriterium parent = (GroupCriterium)children.get(values[1]);
+                                        else if(children.containsKey(parentName)) {
+                                            GroupCriterium criterium = new GroupCriterium(name,reader.getDouble(3));
+                                            children.put(name, criterium);
+                                            GroupCriterium parent = (GroupCriterium)children.get(parentName);
                                             parent.addInnerCriterium(criterium); 
                                         }
                                         else    {
-                                            throw new Exception("Wrong file format");
+                                            throw reader.error(1, "Wrong file format, unknown parent criterium.");
                                         }
                                     }
                                     
                                 }
                                 else    {
-                                    throw new Exception("Wrong file format");
+                                    throw reader.error(0, "Wrong file format, GroupCriterium line should have 4 fields.");
                                 }
                         }
-                        else if(values[0].contentEquals("NormalCriterium") && altsCount == 0)   {
-                                if(values.length==7)    {
-                                    NormalCriterium criterium;
-                                    if(values[4].contentEquals("LINEAR"))   {
-                                        criterium = new NormalCriterium(values[2],Double.parseDouble(values[3]),NormalCriterium.UtilityFunctionType.LINEAR,Double.parseDouble(values[5]),Double.parseDouble(values[6]));
+                        else if(reader.fieldEquals(0, "NormalCriterium") && altsCount == 0)   {
+                                NormalCriterium criterium;
+                                if(fieldsNum==7)    {
+                                    if(reader.fieldEquals(4, "LINEAR"))   {
+                                        criterium = new NormalCriterium(reader.getString(2),reader.getDouble(3),NormalCriterium.UtilityFunctionType.LINEAR,reader.getDouble(5),reader.getDouble(6));
                                     }
-                                    else if(values[4].contentEquals("EXPONENTIAL"))   {
-                                        criterium = new NormalCriterium(values[2],Double.parseDouble(values[3]),NormalCriterium.UtilityFunctionType.EXPONENTIAL,Double.parseDouble(values[5]),Double.parseDouble(values[6]));
+                                    else if(reader.fieldEquals(4, "EXPONENTIAL"))   {
+                                        criterium = new NormalCriterium(reader.getString(2),reader.getDouble(3),NormalCriterium.UtilityFunctionType.EXPONENTIAL,reader.getDouble(5),reader.getDouble(6));
                                     }
                                     else    {
-                                            throw new Exception("Wrong file format");
-                                    }
-                                    
-                                    if(values[1].contentEquals("root"))   {
-                                        root.put(values[2], criterium);
-                                        normalCriteriaCount++;
-                                    }
-                                    else  {
-                                        if(root.containsKey(values[1]))   {
-                                            GroupCriterium parent = (GroupCriterium)root.get(values[1]);
-                                            parent.addInnerCriterium(criterium);
-                                            normalCriteriaCount++;
-                                        }
-                                        else if(children.containsKey(values[1])) {
-                                            GroupCriterium parent = (GroupCriterium)children.get(values[1]);
-                                            parent.addInnerCriterium(criterium); 
-                                            normalCriteriaCount++;
-                                        }
-                                        else    {
-                                            throw new Exception("Wrong file format");
-                                        } 
+                                            throw reader.error(4, "Wrong file format, expected LINEAR or EXPONENTIAL.");
                                     }
                                 }
-                                else if(values.length==8 && values[4].contentEquals("EXPONENTIAL")) {
-                                        NormalCriterium criterium = new NormalCriterium(values[2],Double.parseDouble(values[3]),Double.parseDouble(values[5]),Double.parseDouble(values[6]),Double.parseDouble(values[7]));
-                                    if(values[1].contentEquals("root"))   {
-                                        root.put(values[2], criterium);
+                                else if(fieldsNum==8 && reader.fieldEquals(4, "EXPONENTIAL")) {
+                                    criterium = new NormalCriterium(reader.getString(2),reader.getDouble(3),reader.getDouble(5),reader.getDouble(6),reader.getDouble(7));
+                                }
+                                else    {
+                                    throw reader.error(0, "Wrong file format, wrong number of NormalCriterium fields.");
+                                }
+                                
+                                String parentName = reader.getString(1);
+                                if(parentName.contentEquals("root"))   {
+                                    root.put(criterium.getName(), criterium);
+                                    normalCriteriaCount++;
+                                }
+                                else  {
+                                    if(root.containsKey(parentName))   {
+                                        GroupCriterium parent = (GroupCriterium)root.get(parentName);
+                                        parent.addInnerCriterium(criterium);
                                         normalCriteriaCount++;
                                     }
-                                    else  {
-                                        if(root.containsKey(values[1]))   {
-                                            GroupCriterium parent = (GroupCriterium)root.get(values[1]);
-                                            parent.addInnerCriterium(criterium);
-                                            normalCriteriaCount++;
-                                        }
-                                        else if(children.containsKey(values[1])) {
-                                            GroupCriterium parent = (GroupCriterium)children.get(values[1]);
-                                            parent.addInnerCriterium(criterium); 
-                                            normalCriteriaCount++;
-                                        }
-                                        else    {
-                                            throw new Exception("Wrong file format");
-                                        } 
+                                    else if(children.containsKey(parentName)) {
+                                        GroupCriterium parent = (GroupCriterium)children.get(parentName);
+                                        parent.addInnerCriterium(criterium); 
+                                        normalCriteriaCount++;
                                     }
-                                }
-                                else    {
-                                    throw new Exception("Wrong file format");
+                                    else    {
+                                        throw reader.error(1, "Wrong file format, unknown parent criterium.");
+                                    } 
                                 }
                         }
-                        else if (values[0].contentEquals("Alternatives") && altsCount == 0 && normalCriteriaCount != 0)   {
+                        else if (reader.fieldEquals(0, "Alternatives") && altsCount == 0 && normalCriteriaCount != 0)   {
                             Iterator it = root.entrySet().iterator();
                             while (it.hasNext()) {
                                 Map.Entry pairs = (Map.Entry)it.next();
                                 this.addCriterium((Criterium)pairs.getValue());
                                 it.remove(); 
                             }                             
-                            for(int i=1; i<values.length;i++)   {
-                                Alternative alternative = new Alternative(values[i]);
+                            alternativesRead = new Alternative[fieldsNum-1];
+                            for(int i=1; i<fieldsNum;i++)   {
+                                Alternative alternative = new Alternative(reader.getString(i));
                                 this.addAlternative(alternative);
+                                alternativesRead[altsCount] = alternative;
                                 altsCount++;
                             }
+                            matrix = new DecisionMatrix(normalCriteriaCount, altsCount, DecisionMatrix.Layout.COLUMN_MAJOR);
                         } 
-                        else if(altsCount!=0 && normalCriteriaCount!=0 && altsIterationCount < altsCount && values.length == normalCriteriaCount)   {
-                            for(int i=0; i<values.length; i++)  {
-                                alternatives.get(altsIterationCount).addCriteriumValue(Double.parseDouble(values[i]));
-                            }
+                        else if(altsCount!=0 && normalCriteriaCount!=0 && altsIterationCount < altsCount && fieldsNum == normalCriteriaCount)   {
+                            reader.getColumn(matrix, altsIterationCount);
+                            alternativesRead[altsIterationCount].bindToDecisionMatrix(matrix, altsIterationCount);
                             altsIterationCount++;
                         }
                         else    {
-                            throw new Exception("Wrong file format");
+                            throw reader.error(0, "Wrong file format.");
                         }
-                        line = br.readLine(); 
                     }
-                   
-                    br.close();
                 }
-                catch (FileNotFoundException e) {
-        			e.printStackTrace();
-		}
-		catch (IOException e) {
-				e.printStackTrace();
-				
-                } catch (Exception e) {
-        			e.printStackTrace();
-		}
-               					
+                finally {
+                    reader.close();
+                }
     }
 	    
     
@@ -195,7 +172,7 @@ public class MAUT {
     public MAUT() {
                 criteria = new LinkedList<Criterium>();
                 alternatives = new LinkedList<Alternative>();
-                ranking = new LinkedList<Alternative>();
+                ranking = new Ranking<Alternative>();
     }
     
      /**
@@ -206,7 +183,7 @@ public class MAUT {
     public MAUT(LinkedList<Criterium> criteria, LinkedList<Alternative> alternatives) {
                 this.criteria = criteria;
                 this.alternatives = alternatives;
-                ranking = new LinkedList<Alternative>();
+                ranking = new Ranking<Alternative>();
     }
     
      /**
@@ -264,26 +241,53 @@ public class MAUT {
     
     /**
      * Calculates value of the specific criterium of the alternative. It is reccurent when nested group criteria are involved.
-     * @param alternative Alternative for which criterium value will be calculated.
+     * @param values Criteria values of all the alternatives stored in column-major order.
+     * @param offset Position of the first criterium value of the alternative in values array.
+     * @param criterium Criterium for which value will be calculates.
+     */
+    private double calculateCriterium(double[] values, int offset, Criterium criterium)    {
+        return criterium.getWeight() * calculateCriteriumUtility(values, offset, criterium);
+     }
+    
+    /**
+     * Calculates value of the specific criterium of the alternative without multiplying it by the weight of this criterium (weights of inner criteria are applied).
+     * @param values Criteria values of all the alternatives stored in column-major order.
+     * @param offset Position of the first criterium value of the alternative in values array.
      * @param criterium Criterium for which value will be calculates.
      */
-    private double calculateCriterium(Alternative alternative, Criterium criterium)    {
+    private double calculateCriteriumUtility(double[] values, int offset, Criterium criterium)    {
         if(criterium.isGroup())  {
             GroupCriterium groupCriterium = (GroupCriterium)criterium;
             double sum = 0;
-            for(int j=0; j < groupCriterium.getInnerCriteriaCount(); j++) {
-                sum = sum + calculateCriterium(alternative, groupCriterium.getInnerCriterium(j));
+            for(Iterator<Criterium> it = groupCriterium.getInnerCriteria().iterator(); it.hasNext(); ) {
+                sum = sum + calculateCriterium(values, offset, it.next());
             }
-            return groupCriterium.getWeight() * sum;
+            return sum;
         }
         NormalCriterium normalNode = (NormalCriterium)criterium;
         iterationCount++;
-        if(iterationCount>alternative.getCriteriaValues().size())   {
-               throw new IndexOutOfBoundsException("Alternative object has wrong criteria values list.");
-        }
-        return normalNode.getUtilityFunction().calculate(alternative.getCriteriaValues().get(iterationCount-1)) * normalNode.getWeight();
+        return normalNode.getUtilityFunction().calculate(values[offset + iterationCount-1]);
      }
     
+    /**
+     * Counts normal (leaf) criteria in the criteria tree, which is the number of criteria values every alternative has to provide.
+     * @param criteriaList List of criteria (top level criteria or inner criteria of a group criterium).
+     * @return Number of normal criteria.
+     */
+    private int countNormalCriteria(LinkedList<Criterium> criteriaList)    {
+        int count = 0;
+        for(Iterator<Criterium> it = criteriaList.iterator(); it.hasNext(); )   {
+            Criterium criterium = it.next();
+            if(criterium.isGroup())  {
+                count = count + countNormalCriteria(((GroupCriterium)criterium).getInnerCriteria());
+            }
+            else    {
+                count++;
+            }
+        }
+        return count;
+    }
+    
     
       /**
      * Performs MAUT method calculations on data added to MAUT object.
@@ -291,31 +295,132 @@ public class MAUT {
     public void calculate ()  {     
         normalizeWeights();
         
-        for(int i=0; i<alternatives.size(); i++)    {
+        int normalCriteriaNum = countNormalCriteria(criteria);
+        DecisionMatrix matrix = DecisionMatrix.of(alternatives, normalCriteriaNum, DecisionMatrix.Layout.COLUMN_MAJOR);
+        double[] values = matrix.getValues();
+        Criterium[] criteriaArray = criteria.toArray(new Criterium[criteria.size()]);
+        
+        double[] scores = new double[alternatives.size()];
+        int i = 0;
+        for(Iterator<Alternative> it = alternatives.iterator(); it.hasNext(); i++)    {
             iterationCount = 0;
             double tmpScore = 0;
-            for(int j=0; j<criteria.size(); j++)    {
-                tmpScore = tmpScore + calculateCriterium(alternatives.get(i), criteria.get(j));
+            int offset = matrix.index(0, i);
+            for(int j=0; j<criteriaArray.length; j++)    {
+                tmpScore = tmpScore + calculateCriterium(values, offset, criteriaArray[j]);
             }
-            alternatives.get(i).setScore(tmpScore);
+            it.next().setScore(tmpScore);
+            scores[i] = tmpScore;
         }
         
-        ranking = new LinkedList<Alternative>(alternatives);
-        Collections.sort(ranking, new Comparator<Alternative>() {
-         @Override
-         public int compare(Alternative o1, Alternative o2) {
-             if(o1.getScore()<o2.getScore())    {
-                 return 1;
-             }
-             else if(o1.getScore()>o2.getScore())  {
-                 return -1;
-             }
-             return 0;
-         }
-     });
+        ranking = new Ranking<Alternative>(alternatives, scores);
     
     }
     
+    /**
+     * Scores alternatives read from data file batch by batch and returns k best of them, without adding them to MAUT object.
+     * Memory used does not depend on the number of alternatives in the file, so files with more alternatives than fits in memory can be ranked.
+     * Criteria of this object are used (weights are normalized), the file is read as described in AlternativeBatches class
+     * (MAUT data file or file with criteria values only), alternatives are identified by order numbers of their lines with criteria values.
+     * Scores are equal to the ones calculated by calculate() method.
+     * @param filename Path to the file.
+     * @param k Number of best alternatives to return.
+     * @param batchSize Number of alternatives read at once.
+     * @return TopScores object with order numbers and scores of k best alternatives.
+     * @throws DataFileException if the file can not be read or has wrong format.
+     */
+    public TopScores rankFile(String filename, int k, int batchSize)  {
+        normalizeWeights();
+        
+        final Criterium[] criteriaArray = criteria.toArray(new Criterium[criteria.size()]);
+        AlternativeBatches batches = new AlternativeBatches(filename, countNormalCriteria(criteria), batchSize, DecisionMatrix.Layout.COLUMN_MAJOR);
+        try {
+            return batches.rank(new BatchScorer() {
+                @Override
+                public void calculateScores(DecisionMatrix batch, double[] scores) {
+                    double[] values = batch.getValues();
+                    for(int i=0; i<batch.getAlternativesNum(); i++)    {
+                        iterationCount = 0;
+                        double tmpScore = 0;
+                        int offset = batch.index(0, i);
+                        for(int j=0; j<criteriaArray.length; j++)    {
+                            tmpScore = tmpScore + calculateCriterium(values, offset, criteriaArray[j]);
+                        }
+                        scores[i] = tmpScore;
+                    }
+                }
+            }, k);
+        }
+        finally {
+            batches.close();
+        }
+    }
+    
+    /**
+     * Creates score model of MAUT method for rank acceptability analysis. Utility of every top level criterium 
+     * (weighted sum of inner criteria utilities for group criteria) is calculated for every alternative, so score of the alternative 
+     * for any weights of top level criteria is calculated in O(m) time.
+     * Weights are normalized as by normalizeWeights method, but weights of the criteria of MAUT object are not changed.
+     * @return LinearScoreModel object with top level criteria utilities as contributions.
+     */
+    public LinearScoreModel createScoreModel()  {
+        int normalCriteriaNum = countNormalCriteria(criteria);
+        DecisionMatrix matrix = DecisionMatrix.of(alternatives, normalCriteriaNum, DecisionMatrix.Layout.COLUMN_MAJOR);
+        double[] values = matrix.getValues();
+        Criterium[] criteriaArray = criteria.toArray(new Criterium[criteria.size()]);
+        double[] weights = normalizedWeights(criteria);
+        
+        double[] utilities = new double[alternatives.size()*criteriaArray.length];
+        for(int i=0; i<alternatives.size(); i++)    {
+            iterationCount = 0;
+            int offset = matrix.index(0, i);
+            for(int j=0; j<criteriaArray.length; j++)    {
+                utilities[i*criteriaArray.length + j] = calculateNormalizedUtility(values, offset, criteriaArray[j]);
+            }
+        }
+        return new LinearScoreModel(utilities, alternatives.size(), criteriaArray.length, weights);
+    }
+    
+    /**
+     * Returns weights of the criteria from the list divided by their sum, without changing the criteria.
+     * @param criteriaList List of criteria (top level criteria or inner criteria of a group criterium).
+     * @return Array of normalized weights.
+     */
+    private static double[] normalizedWeights(LinkedList<Criterium> criteriaList)  {
+        double[] weights = new double[criteriaList.size()];
+        double sum = 0;
+        int j = 0;
+        for(Iterator<Criterium> it = criteriaList.iterator(); it.hasNext(); j++)  {
+            weights[j] = it.next().getWeight();
+            sum = sum + weights[j];
+        }
+        for(j=0; j<weights.length; j++)    {
+            weights[j] = weights[j]/sum;
+        }
+        return weights;
+    }
+    
+    /**
+     * Calculates value of the specific criterium of the alternative without multiplying it by the weight of this criterium, 
+     * applying weights of inner criteria normalized within every group (criteria weights are not changed).
+     * @param values Criteria values of all the alternatives stored in column-major order.
+     * @param offset Position of the first criterium value of the alternative in values array.
+     * @param criterium Criterium for which value will be calculates.
+     */
+    private double calculateNormalizedUtility(double[] values, int offset, Criterium criterium)    {
+        if(criterium.isGroup())  {
+            LinkedList<Criterium> innerCriteria = ((GroupCriterium)criterium).getInnerCriteria();
+            double[] weights = normalizedWeights(innerCriteria);
+            double sum = 0;
+            int j = 0;
+            for(Iterator<Criterium> it = innerCriteria.iterator(); it.hasNext(); j++) {
+                sum = sum + weights[j] * calculateNormalizedUtility(values, offset, it.next());
+            }
+            return sum;
+        }
+        return calculateCriteriumUtility(values, offset, criterium);
+     }
+    
       /**
      * Returns list of all the criteria in MAUT object.
      * @return LinkedList containing Criterium objects.
@@ -370,10 +475,20 @@ public class MAUT {
 
         /**
      * Returns ranking - all the alternatives in MAUT object ordered by their score calculated by MAUT method. 
+     * The whole ranking is ordered on first call, use getTopAlternatives method if only the best alternatives are needed.
      * @return LinkedList object containing Alternative objects ordered by their MAUT score. 
      */
     public LinkedList<Alternative> getRanking() {
-        return ranking;
+        return ranking.toList();
+    }
+    
+    /**
+     * Returns k best alternatives of ranking calculated by MAUT method, without ordering the rest of the ranking.
+     * @param k Number of alternatives.
+     * @return LinkedList object containing at most k Alternative objects ordered by their MAUT score.
+     */
+    public LinkedList<Alternative> getTopAlternatives(int k) {
+        return ranking.top(k);
     }
     
         /**
@@ -404,7 +519,7 @@ public class MAUT {
      * @return Alternative object of alternative with wanted rank.
      */
     public Alternative getAlternativeByRank(int rank)    {
-        return ranking.get(rank-1);
+        return ranking.get(rank);
     }        
     
     /**
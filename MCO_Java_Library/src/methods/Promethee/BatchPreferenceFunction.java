@@ -0,0 +1,25 @@
+package methods.Promethee;
+
+/**
+ * Interface of preference functions which can calculate preferences between one criterium value and many other values at once.
+ * It is used by Promethee class to process whole rows of criterium values instead of calling calculatePreference method for every pair.
+ * Preference functions implementing only PreferenceFunction interface are still supported, their preferences are calculated pair by pair.
+ * @see LinearPreferenceFunction
+ * @see ThresholdPreferenceFunction
+ * @see GaussianPreferenceFunction
+ * @see LevelPreferenceFunction
+ */
+public interface BatchPreferenceFunction extends PreferenceFunction {
+    /**
+     * Calculates preference function values between value and the values from range [from, to) of the array, result[k-from] is preference for values[k].
+     * Every result has to be equal to the one returned by calculatePreference method for the same pair of values. 
+     * @param value Criterium value.
+     * @param values Array of criterium values.
+     * @param from First index in values array (inclusive).
+     * @param to Last index in values array (exclusive).
+     * @param valueOnLeft If true preferences of value over values from the array are calculated, otherwise preferences of values from the array over value.
+     * @param direction Optimization direction of the criterium.
+     * @param result Array to which preference values are written.
+     */
+    public void calculatePreferences(double value, double[] values, int from, int to, boolean valueOnLeft, Criterium.Direction direction, double[] result);
+}
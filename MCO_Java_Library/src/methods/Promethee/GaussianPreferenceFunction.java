@@ -4,12 +4,12 @@ package methods.Promethee;
 /**
  * Gaussian preference function class.
  * d = value1-value2 (MAX) OR value2-value1 (MIN), d<=0 -> result = 0, d>0 -> result = (1-Math.exp(-(Math.pow(d, 2.0)/(2*Math.pow(s,2.0)))));
- * Implements PreferenceFunction interface.
+ * Implements BatchPreferenceFunction interface.
  * Preference function object is part of every criterium in Promethee method. It provides provides calculation method to determine dimensionless one-sided preference value between two values of the criterium.
  * @author Mateusz Krasucki
  * @see PreferenceFunction
  */
-public class GaussianPreferenceFunction implements PreferenceFunction {
+public class GaussianPreferenceFunction implements BatchPreferenceFunction {
         
     /**
      * Parameter s of gaussian preference function.
@@ -17,12 +17,18 @@ public class GaussianPreferenceFunction implements PreferenceFunction {
      */
     private double s;
     
+    /**
+     * Denominator of the exponent (2*s^2), calculated when s parameter is set.
+     */
+    private double denominator;
+    
     /**
      * GaussianPreferenceFunction basic constructor.
      * S parameter is set to default 0.5.
      */
     public GaussianPreferenceFunction()   {
         this.s=0.5;
+        this.denominator = 2*Math.pow(s,2.0);
     }
   
     /**
@@ -31,6 +37,7 @@ public class GaussianPreferenceFunction implements PreferenceFunction {
      */
     public GaussianPreferenceFunction(double s)    {
         this.s = s;
+        this.denominator = 2*Math.pow(s,2.0);
     }
     
     /**
@@ -47,6 +54,7 @@ public class GaussianPreferenceFunction implements PreferenceFunction {
      */
     public void setS(double s) {
         this.s = s;
+        this.denominator = 2*Math.pow(s,2.0);
     }
     
     /**
@@ -70,7 +78,34 @@ public class GaussianPreferenceFunction implements PreferenceFunction {
                             return 0;
                 }
                 else    {
-                    return (1-Math.exp(-(Math.pow(d, 2.0)/(2*Math.pow(s,2.0)))));
+                    return (1-Math.exp(-(d*d/denominator)));
+                }
+    }
+    
+    /**
+     * Calculates gaussian preference function values between value and the values from range [from, to) of the array, result[k-from] is preference for values[k].
+     * Optimization direction is checked once, so the inner loop has no branches on direction and can be unrolled by JIT compiler.
+     * @param value Criterium value.
+     * @param values Array of criterium values.
+     * @param from First index in values array (inclusive).
+     * @param to Last index in values array (exclusive).
+     * @param valueOnLeft If true preferences of value over values from the array are calculated, otherwise preferences of values from the array over value.
+     * @param direction Optimization direction of the criterium.
+     * @param result Array to which preference values are written.
+     */
+    public void calculatePreferences(double value, double[] values, int from, int to, boolean valueOnLeft, Criterium.Direction direction, double[] result)   {
+                double denominator = this.denominator;
+                if(SortedSums.isDecreasing(valueOnLeft, direction))   {
+                            for(int k=from; k<to; k++)  {
+                                double d = value - values[k];
+                                result[k-from] = d<=0 ? 0 : (1-Math.exp(-(d*d/denominator)));
+                            }
+                }
+                else    {
+                            for(int k=from; k<to; k++)  {
+                                double d = values[k] - value;
+                                result[k-from] = d<=0 ? 0 : (1-Math.exp(-(d*d/denominator)));
+                            }
                 }
     }
 }
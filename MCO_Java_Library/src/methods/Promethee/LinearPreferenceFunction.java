@@ -8,7 +8,7 @@ package methods.Promethee;
  * @author Mateusz Krasucki
  * @see PreferenceFunction
  */
-public class LinearPreferenceFunction implements PreferenceFunction {
+public class LinearPreferenceFunction implements PiecewisePreferenceFunction {
     
     /**
      * Indifference threshold paramater. 
@@ -111,4 +111,72 @@ public class LinearPreferenceFunction implements PreferenceFunction {
                             return 1; // jesli roznica jest wieksza od progu scislej preferencji dla kryterium r wartosc relacji preferencji = 1
                 }
     }
+    
+    /**
+     * Checks if sums of preference values can be calculated by sumPreferences method, which requires indifference threshold (q parameter) not to be negative.
+     * @return True if sumPreferences method can be used.
+     */
+    public boolean supportsSortedSums()  {
+        return this.q >= 0;
+    }
+    
+    /**
+     * Calculates sum of linear preference function values between value and all the sorted values.
+     * Values with d greater than p count as 1, sum of (d - q)/(p - q) for values with d between q and p is calculated from prefix sums.
+     * @param value Criterium value.
+     * @param sorted All the values of the criterium sorted in ascending order.
+     * @param prefixSums Prefix sums of sorted values, prefixSums[k] is sum of the first k sorted values.
+     * @param valueOnLeft If true preferences of value over sorted values are summed, otherwise preferences of sorted values over value.
+     * @param direction Optimization direction of the criterium.
+     * @return Sum of dimensionless one-sided preference values.
+     */
+    public double sumPreferences(double value, double[] sorted, double[] prefixSums, boolean valueOnLeft, Criterium.Direction direction)   {
+                boolean decreasing = SortedSums.isDecreasing(valueOnLeft, direction);
+                int qBoundary = SortedSums.boundary(value, sorted, this.q, decreasing);
+                int pBoundary = SortedSums.boundary(value, sorted, this.p, decreasing);
+                int from, to;
+                if(decreasing)  {
+                            from = Math.min(pBoundary, qBoundary);
+                            to = qBoundary;
+                }
+                else    {
+                            from = qBoundary;
+                            to = Math.max(pBoundary, qBoundary);
+                }
+                int strict = SortedSums.countGreater(qBoundary, sorted.length, decreasing) - (to - from);
+                if(to == from)  {
+                            return strict;
+                }
+                double differences = SortedSums.sumDifferences(value, prefixSums, from, to, decreasing);
+                return strict + (differences - (to - from) * this.q)/(this.p-this.q);
+    }
+    
+    /**
+     * Calculates linear preference function values between value and the values from range [from, to) of the array, result[k-from] is preference for values[k].
+     * Optimization direction is checked once, so the inner loop has no branches on direction and can be unrolled by JIT compiler.
+     * @param value Criterium value.
+     * @param values Array of criterium values.
+     * @param from First index in values array (inclusive).
+     * @param to Last index in values array (exclusive).
+     * @param valueOnLeft If true preferences of value over values from the array are calculated, otherwise preferences of values from the array over value.
+     * @param direction Optimization direction of the criterium.
+     * @param result Array to which preference values are written.
+     */
+    public void calculatePreferences(double value, double[] values, int from, int to, boolean valueOnLeft, Criterium.Direction direction, double[] result)   {
+                double q = this.q;
+                double p = this.p;
+                double range = this.p - this.q;
+                if(SortedSums.isDecreasing(valueOnLeft, direction))   {
+                            for(int k=from; k<to; k++)  {
+                                double d = value - values[k];
+                                result[k-from] = d<=q ? 0 : (d<=p ? (d - q)/range : 1);
+                            }
+                }
+                else    {
+                            for(int k=from; k<to; k++)  {
+                                double d = values[k] - value;
+                                result[k-from] = d<=q ? 0 : (d<=p ? (d - q)/range : 1);
+                            }
+                }
+    }
 }
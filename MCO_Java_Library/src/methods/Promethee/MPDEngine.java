@@ -0,0 +1,511 @@
+package methods.Promethee;
+
+import java.util.Arrays;
+import methods.BasicTypes.MatrixStorage;
+import methods.BasicTypes.ParallelExecutor;
+
+/**
+ * Engine calculating aggregated preference indices matrix (MPD matrix) used by Promethee class.
+ * The (i, j) space is split into tiles of rows and columns, so criteria values of one tile stay in processor cache while all the criteria are processed.
+ * Row tiles are calculated in parallel, preference indices of one tile are accumulated in primitive buffer and copied to the MPD matrix afterwards.
+ * Weighted preferences of every pair of alternatives are summed in criteria order, so results are identical to the sequential calculations.
+ * Engine can also calculate preference flows without materializing MPD matrix (streaming mode), using O(n) additional memory per chunk of row tiles.
+ * Number of chunks (and so of parallel tasks) depends on number of alternatives only - one chunk per FLOW_CHUNK_TILES row tiles,
+ * limited so that column sums of all the chunks take at most FLOW_SUMS_BYTES.
+ * If all the criteria have piecewise preference functions flows are calculated from sorted criteria values in O(m*n*log n) time.
+ */
+class MPDEngine {
+
+    /**
+     * Number of rows (alternatives on the left side of preference relation) in one tile.
+     */
+    static final int TILE_ROWS = 32;
+
+    /**
+     * Number of columns (alternatives on the right side of preference relation) in one tile.
+     */
+    static final int TILE_COLUMNS = 256;
+
+    /**
+     * Minimal number of alternatives processed by one task in sorted flows calculations.
+     */
+    static final int SORTED_GRAIN = 1024;
+
+    /**
+     * Number of row tiles in one chunk of streaming flows calculations, every chunk accumulates its own column sums.
+     * Number of chunks does not depend on number of threads, so flows are the same for any parallelism.
+     */
+    static final int FLOW_CHUNK_TILES = 2;
+
+    /**
+     * Maximal memory taken by column sums of all the chunks of streaming flows calculations, in bytes.
+     */
+    static final long FLOW_SUMS_BYTES = 64L << 20;
+
+    /**
+     * Preference functions of the criteria.
+     */
+    private final PreferenceFunction[] functions;
+
+    /**
+     * Optimization directions of the criteria.
+     */
+    private final Criterium.Direction[] directions;
+
+    /**
+     * Weights of the criteria.
+     */
+    private final double[] weights;
+
+    /**
+     * Criteria values of all the alternatives in row-major order (values of one criterium are contiguous), r-th criterium values start at index r*stride.
+     */
+    private double[] values;
+
+    /**
+     * Number of alternatives.
+     */
+    private int altsNum;
+
+    /**
+     * Distance between first values of consecutive criteria in values array, at least altsNum (larger if there is room for added alternatives).
+     */
+    private int stride;
+
+    /**
+     * Sorted values of every criterium, created on first use by calculateReferenceFlows method (null for criteria processed pair by pair).
+     */
+    private double[][] sortedValues;
+
+    /**
+     * Prefix sums of sorted values of every criterium.
+     */
+    private double[][] sortedPrefixSums;
+
+    /**
+     * MPDEngine constructor.
+     * @param criteria Criteria of MCO problem.
+     * @param values Criteria values of all the alternatives in row-major order.
+     * @param altsNum Number of alternatives.
+     */
+    MPDEngine(Criterium[] criteria, double[] values, int altsNum) {
+        this.functions = new PreferenceFunction[criteria.length];
+        this.directions = new Criterium.Direction[criteria.length];
+        this.weights = new double[criteria.length];
+        for(int r=0; r<criteria.length; r++)    {
+            functions[r] = criteria[r].getPreferenceFunction();
+            directions[r] = criteria[r].getDirection();
+            weights[r] = criteria[r].getWeight();
+        }
+        this.values = values;
+        this.altsNum = altsNum;
+        this.stride = altsNum;
+    }
+
+    /**
+     * Returns number of alternatives.
+     * @return Number of alternatives.
+     */
+    int getAlternativesNum() {
+        return altsNum;
+    }
+
+    /**
+     * Adds alternative as the last one. Values array grows geometrically, so adding is done in O(m) amortized time.
+     * Values array has to be owned by the engine (not shared with decision matrix of the alternatives).
+     * @param criteriaValues Criteria values of the alternative.
+     */
+    void addAlternative(double[] criteriaValues) {
+        if(altsNum == stride)   {
+            int newStride = Math.max(16, 2*stride);
+            double[] newValues = new double[functions.length * newStride];
+            for(int r=0; r<functions.length; r++)    {
+                System.arraycopy(values, r*stride, newValues, r*newStride, altsNum);
+            }
+            values = newValues;
+            stride = newStride;
+        }
+        for(int r=0; r<functions.length; r++)    {
+            values[r*stride+altsNum] = criteriaValues[r];
+        }
+        altsNum++;
+        sortedValues = null;
+    }
+
+    /**
+     * Removes k-th alternative, alternatives after it are moved one position back in O(n*m) time.
+     * Values array has to be owned by the engine (not shared with decision matrix of the alternatives).
+     * @param k Index of the alternative.
+     */
+    void removeAlternative(int k) {
+        for(int r=0; r<functions.length; r++)    {
+            System.arraycopy(values, r*stride+k+1, values, r*stride+k, altsNum-k-1);
+        }
+        altsNum--;
+        sortedValues = null;
+    }
+
+    /**
+     * Sets criterium value of k-th alternative.
+     * Values array has to be owned by the engine (not shared with decision matrix of the alternatives).
+     * @param criterium Criterium order number.
+     * @param k Index of the alternative.
+     * @param value New criterium value.
+     */
+    void setValue(int criterium, int k, double value) {
+        values[criterium*stride+k] = value;
+        sortedValues = null;
+    }
+
+    /**
+     * Calculates MPD matrix.
+     * @param mpd Matrix of size altsNum x altsNum to which preference indices are written (diagonal is set to 0), tiles are written as row segments.
+     * @param executor Executor used to calculate row tiles in parallel.
+     */
+    void calculate(final MatrixStorage mpd, ParallelExecutor executor) {
+        int rowTiles = (altsNum + TILE_ROWS - 1) / TILE_ROWS;
+        executor.forRange(0, rowTiles, 1, new ParallelExecutor.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                double[] buffer = new double[TILE_ROWS * TILE_COLUMNS];
+                double[] preferences = new double[TILE_COLUMNS];
+                for(int tile=from; tile<to; tile++)   {
+                    int rowFrom = tile * TILE_ROWS;
+                    int rowTo = Math.min(rowFrom + TILE_ROWS, altsNum);
+                    for(int columnFrom=0; columnFrom<altsNum; columnFrom+=TILE_COLUMNS)   {
+                        int columnTo = Math.min(columnFrom + TILE_COLUMNS, altsNum);
+                        calculateTile(rowFrom, rowTo, columnFrom, columnTo, buffer, preferences);
+                        int width = columnTo - columnFrom;
+                        for(int i=rowFrom; i<rowTo; i++)    {
+                            mpd.setRow(i, columnFrom, buffer, (i-rowFrom)*width, width);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Calculates sums of rows (leaving flows) and columns (entering flows) of MPD matrix without materializing it.
+     * Every tile is calculated once and added both to row sums and to column sums of its chunk of row tiles, so preference index of every pair is calculated once.
+     * Column sums of the chunks are added in chunk order, so they are equal to the ones calculated from MPD matrix up to rounding errors and do not depend on number of threads.
+     * @param plusSums Array of size altsNum to which sums of MPD rows are written.
+     * @param minusSums Array of size altsNum to which sums of MPD columns are written.
+     * @param executor Executor used to calculate chunks of row tiles in parallel.
+     */
+    void calculateFlows(final double[] plusSums, final double[] minusSums, ParallelExecutor executor) {
+        final int rowTiles = (altsNum + TILE_ROWS - 1) / TILE_ROWS;
+        final int chunks = (int) Math.max(1, Math.min((rowTiles + FLOW_CHUNK_TILES - 1) / FLOW_CHUNK_TILES, FLOW_SUMS_BYTES / (8L * Math.max(1, altsNum))));
+        final double[][] columnSums = new double[chunks][];
+        executor.forRange(0, chunks, 1, new ParallelExecutor.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                double[] buffer = new double[TILE_ROWS * TILE_COLUMNS];
+                double[] preferences = new double[TILE_COLUMNS];
+                for(int chunk=from; chunk<to; chunk++)   {
+                    double[] columns = new double[altsNum];
+                    int tileFrom = (int) ((long) chunk * rowTiles / chunks);
+                    int tileTo = (int) ((long) (chunk+1) * rowTiles / chunks);
+                    for(int tile=tileFrom; tile<tileTo; tile++)   {
+                        int rowFrom = tile * TILE_ROWS;
+                        int rowTo = Math.min(rowFrom + TILE_ROWS, altsNum);
+                        for(int i=rowFrom; i<rowTo; i++)    {
+                            plusSums[i] = 0;
+                        }
+                        for(int columnFrom=0; columnFrom<altsNum; columnFrom+=TILE_COLUMNS)   {
+                            int columnTo = Math.min(columnFrom + TILE_COLUMNS, altsNum);
+                            calculateTile(rowFrom, rowTo, columnFrom, columnTo, buffer, preferences);
+                            int position = 0;
+                            for(int i=rowFrom; i<rowTo; i++)    {
+                                double plus = plusSums[i];
+                                for(int j=columnFrom; j<columnTo; j++)    {
+                                    if(i!=j)    {
+                                        plus = plus + buffer[position];
+                                        columns[j] = columns[j] + buffer[position];
+                                    }
+                                    position++;
+                                }
+                                plusSums[i] = plus;
+                            }
+                        }
+                    }
+                    columnSums[chunk] = columns;
+                }
+            }
+        });
+        Arrays.fill(minusSums, 0, altsNum, 0);
+        for(int chunk=0; chunk<chunks; chunk++)   {
+            double[] columns = columnSums[chunk];
+            for(int j=0; j<altsNum; j++)    {
+                minusSums[j] = minusSums[j] + columns[j];
+            }
+        }
+    }
+
+    /**
+     * Checks if flows can be calculated by calculateSortedFlows method (all the criteria have piecewise preference functions supporting sorted sums).
+     * @return True if sorted flows can be calculated.
+     */
+    boolean supportsSortedFlows() {
+        for(int r=0; r<functions.length; r++)    {
+            if(!(functions[r] instanceof PiecewisePreferenceFunction) || !((PiecewisePreferenceFunction)functions[r]).supportsSortedSums())  {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculates sums of rows (leaving flows) and columns (entering flows) of MPD matrix from sorted criteria values.
+     * For every criterium values are sorted once and sum of preferences of every alternative over the other alternatives (and of the others over it) is calculated by binary search and prefix sums.
+     * Sums are equal to the ones calculated from MPD matrix up to rounding errors. It can be used only if supportsSortedFlows method returns true.
+     * @param plusSums Array of size altsNum to which sums of MPD rows are written.
+     * @param minusSums Array of size altsNum to which sums of MPD columns are written.
+     * @param executor Executor used to process alternatives in parallel.
+     */
+    void calculateSortedFlows(final double[] plusSums, final double[] minusSums, ParallelExecutor executor) {
+        Arrays.fill(plusSums, 0, altsNum, 0);
+        Arrays.fill(minusSums, 0, altsNum, 0);
+        for(int r=0; r<functions.length; r++)    {
+            final PiecewisePreferenceFunction function = (PiecewisePreferenceFunction)functions[r];
+            final Criterium.Direction direction = directions[r];
+            final double weight = weights[r];
+            final int offset = r*stride;
+            final double[] sorted = Arrays.copyOfRange(values, offset, offset + altsNum);
+            Arrays.sort(sorted);
+            final double[] prefixSums = new double[altsNum + 1];
+            for(int k=0; k<altsNum; k++)    {
+                prefixSums[k+1] = prefixSums[k] + sorted[k];
+            }
+            executor.forRange(0, altsNum, SORTED_GRAIN, new ParallelExecutor.RangeTask() {
+                @Override
+                public void run(int from, int to) {
+                    for(int i=from; i<to; i++)    {
+                        double value = values[offset+i];
+                        plusSums[i] = plusSums[i] + weight * function.sumPreferences(value, sorted, prefixSums, true, direction);
+                        minusSums[i] = minusSums[i] + weight * function.sumPreferences(value, sorted, prefixSums, false, direction);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Calculates unweighted sums of preferences of every alternative over the others and of the others over every alternative, separately for every criterium.
+     * Criteria with piecewise preference functions are processed using sorted values in O(n*log n) time, the others pair by pair in O(n^2) time.
+     * @param plusSums Array of size m*altsNum, sum of preferences of i-th alternative over the others for r-th criterium is written at index r*altsNum+i.
+     * @param minusSums Array of size m*altsNum, sum of preferences of the others over i-th alternative for r-th criterium is written at index r*altsNum+i.
+     * @param executor Executor used to process alternatives in parallel.
+     */
+    void calculateUnicriterionSums(final double[] plusSums, final double[] minusSums, ParallelExecutor executor) {
+        for(int r=0; r<functions.length; r++)    {
+            final PreferenceFunction function = functions[r];
+            final Criterium.Direction direction = directions[r];
+            final int offset = r*stride;
+            final int sumsOffset = r*altsNum;
+            if(function instanceof PiecewisePreferenceFunction && ((PiecewisePreferenceFunction)function).supportsSortedSums())   {
+                final PiecewisePreferenceFunction piecewise = (PiecewisePreferenceFunction)function;
+                final double[] sorted = Arrays.copyOfRange(values, offset, offset + altsNum);
+                Arrays.sort(sorted);
+                final double[] prefixSums = new double[altsNum + 1];
+                for(int k=0; k<altsNum; k++)    {
+                    prefixSums[k+1] = prefixSums[k] + sorted[k];
+                }
+                executor.forRange(0, altsNum, SORTED_GRAIN, new ParallelExecutor.RangeTask() {
+                    @Override
+                    public void run(int from, int to) {
+                        for(int i=from; i<to; i++)    {
+                            plusSums[sumsOffset+i] = piecewise.sumPreferences(values[offset+i], sorted, prefixSums, true, direction);
+                            minusSums[sumsOffset+i] = piecewise.sumPreferences(values[offset+i], sorted, prefixSums, false, direction);
+                        }
+                    }
+                });
+            }
+            else    {
+                executor.forRange(0, altsNum, TILE_ROWS, new ParallelExecutor.RangeTask() {
+                    @Override
+                    public void run(int from, int to) {
+                        double[] preferences = new double[altsNum];
+                        for(int i=from; i<to; i++)    {
+                            double value = values[offset+i];
+                            calculatePreferences(function, value, values, offset, offset+altsNum, true, direction, preferences);
+                            plusSums[sumsOffset+i] = sumWithoutDiagonal(preferences, i);
+                            calculatePreferences(function, value, values, offset, offset+altsNum, false, direction, preferences);
+                            minusSums[sumsOffset+i] = sumWithoutDiagonal(preferences, i);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Sums first altsNum values of the array skipping the k-th one.
+     * @param preferences Array of preference values.
+     * @param k Index of skipped value.
+     * @return Sum of values.
+     */
+    private double sumWithoutDiagonal(double[] preferences, int k) {
+        double sum = 0;
+        for(int j=0; j<altsNum; j++)    {
+            if(j != k)  {
+                sum = sum + preferences[j];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Calculates aggregated preference indices between one alternative and all the others (one row and one column of MPD matrix) in O(n*m) time.
+     * @param k Index of the alternative.
+     * @param leaving Array of size altsNum to which preference indices of k-th alternative over the others are written (k-th row of MPD matrix).
+     * @param entering Array of size altsNum to which preference indices of the others over k-th alternative are written (k-th column of MPD matrix).
+     */
+    void calculatePairPreferences(int k, double[] leaving, double[] entering) {
+        double[] preferences = new double[altsNum];
+        Arrays.fill(leaving, 0, altsNum, 0);
+        Arrays.fill(entering, 0, altsNum, 0);
+        for(int r=0; r<functions.length; r++)    {
+            int offset = r*stride;
+            double value = values[offset+k];
+            calculatePreferences(functions[r], value, values, offset, offset+altsNum, true, directions[r], preferences);
+            for(int j=0; j<altsNum; j++)    {
+                leaving[j] = leaving[j] + weights[r] * preferences[j];
+            }
+            calculatePreferences(functions[r], value, values, offset, offset+altsNum, false, directions[r], preferences);
+            for(int j=0; j<altsNum; j++)    {
+                entering[j] = entering[j] + weights[r] * preferences[j];
+            }
+        }
+        leaving[k] = 0;
+        entering[k] = 0;
+    }
+
+    /**
+     * Calculates sums of preferences of external alternatives over all the alternatives of this engine (reference set) and of the reference alternatives over them.
+     * It is used to score alternatives read from file in batches against a fixed set of alternatives, each external alternative is compared with every reference one.
+     * If sorted is true criteria with piecewise preference functions are processed using sorted reference values (sorted once, on first call) in O(m*log n) time per alternative,
+     * the others pair by pair in O(m*n) time.
+     * @param batchValues Criteria values of external alternatives in row-major order.
+     * @param batchNum Number of external alternatives.
+     * @param plusSums Array to which sum of preference indices of i-th external alternative over reference alternatives is written at index i.
+     * @param minusSums Array to which sum of preference indices of reference alternatives over i-th external alternative is written at index i.
+     * @param sorted True if sorted reference values can be used.
+     * @param executor Executor used to process external alternatives in parallel.
+     */
+    void calculateReferenceFlows(final double[] batchValues, final int batchNum, final double[] plusSums, final double[] minusSums, boolean sorted, ParallelExecutor executor) {
+        if(sortedValues == null)    {
+            sortedValues = new double[functions.length][];
+            sortedPrefixSums = new double[functions.length][];
+            for(int r=0; r<functions.length; r++)    {
+                if(sorted && functions[r] instanceof PiecewisePreferenceFunction && ((PiecewisePreferenceFunction)functions[r]).supportsSortedSums())   {
+                    sortedValues[r] = Arrays.copyOfRange(values, r*stride, r*stride+altsNum);
+                    Arrays.sort(sortedValues[r]);
+                    sortedPrefixSums[r] = new double[altsNum + 1];
+                    for(int k=0; k<altsNum; k++)    {
+                        sortedPrefixSums[r][k+1] = sortedPrefixSums[r][k] + sortedValues[r][k];
+                    }
+                }
+            }
+        }
+        executor.forRange(0, batchNum, TILE_ROWS, new ParallelExecutor.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                double[] preferences = new double[altsNum];
+                for(int i=from; i<to; i++)    {
+                    double plus = 0;
+                    double minus = 0;
+                    for(int r=0; r<functions.length; r++)    {
+                        double value = batchValues[r*batchNum+i];
+                        if(sortedValues[r] != null)    {
+                            PiecewisePreferenceFunction piecewise = (PiecewisePreferenceFunction)functions[r];
+                            plus = plus + weights[r] * piecewise.sumPreferences(value, sortedValues[r], sortedPrefixSums[r], true, directions[r]);
+                            minus = minus + weights[r] * piecewise.sumPreferences(value, sortedValues[r], sortedPrefixSums[r], false, directions[r]);
+                        }
+                        else    {
+                            int offset = r*stride;
+                            calculatePreferences(functions[r], value, values, offset, offset+altsNum, true, directions[r], preferences);
+                            plus = plus + weights[r] * sum(preferences);
+                            calculatePreferences(functions[r], value, values, offset, offset+altsNum, false, directions[r], preferences);
+                            minus = minus + weights[r] * sum(preferences);
+                        }
+                    }
+                    plusSums[i] = plus;
+                    minusSums[i] = minus;
+                }
+            }
+        });
+    }
+
+    /**
+     * Sums first altsNum values of the array.
+     * @param preferences Array of preference values.
+     * @return Sum of values.
+     */
+    private double sum(double[] preferences) {
+        double sum = 0;
+        for(int j=0; j<altsNum; j++)    {
+            sum = sum + preferences[j];
+        }
+        return sum;
+    }
+
+    /**
+     * Calculates preference function values between value and the values from range [from, to) of the array, result[k-from] is preference for values[k].
+     * Batch method is used if function implements BatchPreferenceFunction interface, otherwise calculatePreference method is called for every value.
+     * @param function Preference function of the criterium.
+     * @param value Criterium value.
+     * @param values Array of criterium values.
+     * @param from First index in values array (inclusive).
+     * @param to Last index in values array (exclusive).
+     * @param valueOnLeft If true preferences of value over values from the array are calculated, otherwise preferences of values from the array over value.
+     * @param direction Optimization direction of the criterium.
+     * @param result Array to which preference values are written.
+     */
+    private static void calculatePreferences(PreferenceFunction function, double value, double[] values, int from, int to, boolean valueOnLeft, Criterium.Direction direction, double[] result) {
+        if(function instanceof BatchPreferenceFunction) {
+            ((BatchPreferenceFunction)function).calculatePreferences(value, values, from, to, valueOnLeft, direction, result);
+        }
+        else if(valueOnLeft)    {
+            for(int k=from; k<to; k++)  {
+                result[k-from] = function.calculatePreference(value, values[k], direction);
+            }
+        }
+        else    {
+            for(int k=from; k<to; k++)  {
+                result[k-from] = function.calculatePreference(values[k], value, direction);
+            }
+        }
+    }
+
+    /**
+     * Calculates preference indices of one tile.
+     * Preferences of one row alternative over all the column alternatives of the tile are calculated by one call of batch method of preference function.
+     * @param rowFrom First row of the tile (inclusive).
+     * @param rowTo Last row of the tile (exclusive).
+     * @param columnFrom First column of the tile (inclusive).
+     * @param columnTo Last column of the tile (exclusive).
+     * @param buffer Buffer to which preference indices are written, row by row.
+     * @param preferences Auxiliary array of size TILE_COLUMNS for preferences calculated by preference function.
+     */
+    private void calculateTile(int rowFrom, int rowTo, int columnFrom, int columnTo, double[] buffer, double[] preferences) {
+        int width = columnTo - columnFrom;
+        Arrays.fill(buffer, 0, (rowTo-rowFrom)*width, 0);
+        for(int r=0; r<functions.length; r++)    {
+            PreferenceFunction function = functions[r];
+            Criterium.Direction direction = directions[r];
+            double weight = weights[r];
+            int offset = r*stride;
+            for(int i=rowFrom; i<rowTo; i++)    {
+                calculatePreferences(function, values[offset+i], values, offset+columnFrom, offset+columnTo, true, direction, preferences);
+                int position = (i-rowFrom)*width;
+                for(int k=0; k<width; k++)    {
+                    buffer[position+k] = buffer[position+k] + weight * preferences[k];
+                }
+                if(i>=columnFrom && i<columnTo)  {
+                    buffer[position+i-columnFrom] = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package methods.Promethee;
+/**
+ * Interface of preference functions which are piecewise functions of the difference d between two criterium values (d = value1-value2 (MAX) OR value2-value1 (MIN)).
+ * Sum of preference values of one criterium value over all the values of the criterium can be calculated for such a function using values sorted once, 
+ * binary search and prefix sums, in O(log n) time instead of O(n). It allows Promethee class to calculate flows in O(m*n*log n) time instead of O(m*n^2).
+ * @see LinearPreferenceFunction
+ * @see LevelPreferenceFunction
+ * @see ThresholdPreferenceFunction
+ */
+public interface PiecewisePreferenceFunction extends BatchPreferenceFunction {
+    /**
+     * Checks if sums of preference values can be calculated by sumPreferences method with current function parameters.
+     * It is required that preference of the value over itself equals 0 (indifference threshold is not negative).
+     * @return True if sumPreferences method can be used.
+     */
+    public boolean supportsSortedSums();
+    
+    /**
+     * Calculates sum of preference values between value provided as parameter and all the sorted values, using the same comparisons as calculatePreference method.
+     * @param value Criterium value.
+     * @param sorted All the values of the criterium sorted in ascending order.
+     * @param prefixSums Prefix sums of sorted values, prefixSums[k] is sum of the first k sorted values (array length is sorted.length+1).
+     * @param valueOnLeft If true preferences of value over sorted values are summed, otherwise preferences of sorted values over value.
+     * @param direction Optimization direction of the criterium.
+     * @return Sum of dimensionless one-sided preference values.
+     */
+    public double sumPreferences(double value, double[] sorted, double[] prefixSums, boolean valueOnLeft, Criterium.Direction direction);
+}
@@ -1,17 +1,42 @@
 package methods.Promethee;
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedList;
+import methods.BasicTypes.AlternativeBatches;
+import methods.BasicTypes.BatchScorer;
+import methods.BasicTypes.CsvReader;
+import methods.BasicTypes.DataFileException;
+import methods.BasicTypes.DecisionMatrix;
+import methods.BasicTypes.MatrixStorage;
+import methods.BasicTypes.ParallelExecutor;
+import methods.BasicTypes.Ranking;
+import methods.BasicTypes.SnapshotReader;
+import methods.BasicTypes.SnapshotWriter;
+import methods.BasicTypes.TopScores;
 import org.ejml.simple.SimpleMatrix;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 /**
  * Abstract Promethee class on which Promethee1, Promethee2 and Promethee5 classes are based. 
  * @author Mateusz Krasucki
  */
 public abstract class Promethee {
+    
+    /**
+     * Enum type describing how multicriteria preference flows are calculated.
+     */
+    public enum FlowMode {
+        /**
+         * Aggregated preference indices matrix (MPD matrix) is calculated and flows are sums of its rows and columns. It needs O(n^2) memory.
+         */
+        MATRIX,
+        /**
+         * Flows are accumulated pair by pair without materializing MPD matrix, which needs only O(n*m) memory. MPD matrix is calculated only if getMPD method is called.
+         */
+        STREAMING;
+    }
+    
     /**
      * LinkedList containing all the criteria in MCO problem represented by Promethee method object.
      * It is protected because it is meant to be accesed only by child classes which represent indicidual MCO methods from Promethee methods set.
@@ -29,155 +54,347 @@ public abstract class Promethee {
     protected LinkedList<Constraint> constraints;
     
     /**
-     * LinkedList containing all the alternatives in MCO problem represented by Promethee method object ordered by their score calculated by Promethee method.
+     * Ranking of all the alternatives in MCO problem represented by Promethee method object ordered by their score calculated by Promethee method.
      * It is protected because it is meant to be accesed only by child classes which represent indicidual MCO methods from Promethee methods set.
+     * Its type was changed from LinkedList to Ranking, child classes which need LinkedList should use getRankingList and setRanking methods.
+     */
+    protected Ranking<Alternative> ranking;
+    
+    /**
+     * Matrix containing aggregated preference indices as calculated by Promethee family method.
+     * Its type was changed from SimpleMatrix to MatrixStorage, child classes which need SimpleMatrix should use getMPDSimpleMatrix method.
+     */
+    protected MatrixStorage mpd;
+    
+    /**
+     * Factory creating MPD matrix. By default matrix is stored on the heap.
+     */
+    private MatrixStorage.Factory matrixStorage = MatrixStorage.heap();
+    
+    /**
+     * Executor used to calculate MPD matrix in parallel.
+     */
+    private ParallelExecutor executor = new ParallelExecutor(0);
+    
+    /**
+     * Mode of multicriteria preference flows calculations.
+     */
+    private FlowMode flowMode = FlowMode.MATRIX;
+    
+    /**
+     * If true flows are calculated from sorted criteria values whenever all the criteria have piecewise preference functions.
+     * Disabled by default, so that flows and MPD matrix are calculated as set by flow mode.
+     */
+    private boolean sortedFlows = false;
+    
+    /**
+     * Sums of aggregated preference indices of every alternative over the other alternatives (MPD rows), kept after calculations for incremental updates (null before calculate() method is run).
+     */
+    private double[] plusSums;
+    
+    /**
+     * Sums of aggregated preference indices of the other alternatives over every alternative (MPD columns), kept after calculations for incremental updates (null before calculate() method is run).
      */
-    protected LinkedList<Alternative> ranking;
+    private double[] minusSums;
     
     /**
-     * Simple matrix object containing aggregated preference indices as calculated by Promethee family method.
+     * Engine with its own copy of criteria values, kept between incremental updates of flows (null until the first update after calculations).
      */
-    protected SimpleMatrix mpd;
+    private MPDEngine updateEngine;
+    
+    /**
+     * Order numbers of the alternatives, kept together with updateEngine so that updated alternative is found in O(1) time.
+     */
+    private IdentityHashMap<Alternative, Integer> positions;
+    
+    /**
+     * Number of incremental updates of flows since they were calculated from scratch.
+     */
+    private int updatesNum;
+    
+    /**
+     * Id of the last added alternative, ids of removed alternatives are not reused.
+     */
+    private int lastId;
+    
+    /**
+     * Minimal number of incremental updates after which flows are calculated from scratch, so that rounding errors of added and subtracted preference indices do not accumulate.
+     * Flows are recalculated after max(RECALCULATION_INTERVAL, n) updates, so amortized cost of an update stays O(n*m).
+     */
+    static final int RECALCULATION_INTERVAL = 64;
+    
+    /**
+     * Name of methods family written to snapshot files.
+     */
+    private static final String SNAPSHOT_FAMILY = "Promethee";
     
         /**
 	* Promethee class constructor with data file as an parameter. 
 	* @param filename Path to the file from which data can be read. 
-        * It should be structured as shown in example csv file in dataFileExamples/promethee.csv.
+        * It should be structured as shown in example csv file in dataFileExamples/promethee.csv or it can be a snapshot written by writeSnapshot() method.
+        * Criteria values of the alternatives are parsed directly into one decision matrix, to which the alternatives are bound.
+        * @throws DataFileException if the file can not be read or has wrong format, exception points to the wrong line and column.
 	*/
 	public Promethee(String filename) {	
                 criteria = new LinkedList<Criterium>();
                 alternatives = new LinkedList<Alternative>();
                 constraints = new LinkedList<Constraint>();
-                ranking = new LinkedList<Alternative>();
+                ranking = new Ranking<Alternative>();
+                if(SnapshotReader.isSnapshot(filename))  {
+                    readSnapshot(filename);
+                    return;
+                }
 			
-		BufferedReader br = null;
-		String line = "";
 		int altsCount = 0;
                 int altsIterationCount = 0;
                 int criteriaCount = 0;
                 Map<String, Criterium> criteriaByName = new HashMap<String, Criterium>();
-                
-                String[] values;
+                Alternative[] alternativesRead = null;
+                DecisionMatrix matrix = null;
 		
+		CsvReader reader = new CsvReader(filename);
 		try {
-                    br = new BufferedReader(new FileReader(filename));
-                    line = br.readLine(); 
-                    while(line != null)    {
-                        values = line.split(",");
-                        if(values[0].contentEquals("Criterium") && values.length>=5 && altsCount == 0)   {
+                    while(reader.nextLine())    {
+                        int fieldsNum = reader.getFieldsNum();
+                        if(reader.fieldEquals(0, "Criterium") && fieldsNum>=5 && altsCount == 0)   {
                                 PreferenceFunction preferenceFunction = new LinearPreferenceFunction();
-                                if(values[4].contentEquals("LINEAR")) {                                    
-                                    if(values.length == 6) {
-                                        preferenceFunction = new LinearPreferenceFunction(Double.parseDouble(values[5]));
+                                if(reader.fieldEquals(4, "LINEAR")) {                                    
+                                    if(fieldsNum == 6) {
+                                        preferenceFunction = new LinearPreferenceFunction(reader.getDouble(5));
                                     }
-                                    else if(values.length == 7) {
-                                        preferenceFunction = new LinearPreferenceFunction(Double.parseDouble(values[5]),Double.parseDouble(values[6]));
+                                    else if(fieldsNum == 7) {
+                                        preferenceFunction = new LinearPreferenceFunction(reader.getDouble(5),reader.getDouble(6));
                                     }
-                                    else  if(values.length!=5)  {
-                                        throw new Exception("Wrong file format");
+                                    else  if(fieldsNum!=5)  {
+                                        throw reader.error(7, "Wrong file format, too many LINEAR function parameters.");
                                     }
                                 }
-                                else if(values[4].contentEquals("THRESHOLD")) {
+                                else if(reader.fieldEquals(4, "THRESHOLD")) {
                                     preferenceFunction = new ThresholdPreferenceFunction();
                                     
-                                    if(values.length == 6) {
-                                        preferenceFunction = new ThresholdPreferenceFunction(Double.parseDouble(values[5]));
+                                    if(fieldsNum == 6) {
+                                        preferenceFunction = new ThresholdPreferenceFunction(reader.getDouble(5));
                                     }
-                                    else  if(values.length!=5)  {
-                                        throw new Exception("Wrong file format");
+                                    else  if(fieldsNum!=5)  {
+                                        throw reader.error(6, "Wrong file format, too many THRESHOLD function parameters.");
                                     }
                                 }
-                                else if(values[4].contentEquals("GAUSSIAN")) {
+                                else if(reader.fieldEquals(4, "GAUSSIAN")) {
                                     preferenceFunction = new GaussianPreferenceFunction();
                                     
-                                    if(values.length == 6) {
-                                        preferenceFunction = new GaussianPreferenceFunction(Double.parseDouble(values[5]));
+                                    if(fieldsNum == 6) {
+                                        preferenceFunction = new GaussianPreferenceFunction(reader.getDouble(5));
                                     }
-                                    else  if(values.length!=5)  {
-                                        throw new Exception("Wrong file format");
+                                    else  if(fieldsNum!=5)  {
+                                        throw reader.error(6, "Wrong file format, too many GAUSSIAN function parameters.");
                                     }
                                 }
-                                else if(values[4].contentEquals("LEVEL")) {
+                                else if(reader.fieldEquals(4, "LEVEL")) {
                                     preferenceFunction = new LevelPreferenceFunction();
                                     
-                                    if(values.length == 6) {
-                                        preferenceFunction = new LevelPreferenceFunction(Double.parseDouble(values[5]));
+                                    if(fieldsNum == 6) {
+                                        preferenceFunction = new LevelPreferenceFunction(reader.getDouble(5));
                                     }
-                                    else if(values.length == 7) {
-                                        preferenceFunction = new LevelPreferenceFunction(Double.parseDouble(values[5]),Double.parseDouble(values[6]));
+                                    else if(fieldsNum == 7) {
+                                        preferenceFunction = new LevelPreferenceFunction(reader.getDouble(5),reader.getDouble(6));
                                     }
-                                    else  if(values.length!=5)  {
-                                        throw new Exception("Wrong file format");
+                                    else  if(fieldsNum!=5)  {
+                                        throw reader.error(7, "Wrong file format, too many LEVEL function parameters.");
                                     }
                                 }
                                 else    {
-                                    throw new Exception("Wrong file format");
+                                    throw reader.error(4, "Wrong file format, unknown preference function.");
                                 }
 
                                     Criterium criterium;
-                                    if(values[3].contentEquals("MAX"))  {
-                                        criterium = new Criterium(values[1],Criterium.Direction.MAX,Double.parseDouble(values[2]),preferenceFunction);
+                                    if(reader.fieldEquals(3, "MAX"))  {
+                                        criterium = new Criterium(reader.getString(1),Criterium.Direction.MAX,reader.getDouble(2),preferenceFunction);
                                     }
-                                    else if(values[3].contentEquals("MIN"))  {
-                                        criterium = new Criterium(values[1],Criterium.Direction.MIN,Double.parseDouble(values[2]),preferenceFunction);
+                                    else if(reader.fieldEquals(3, "MIN"))  {
+                                        criterium = new Criterium(reader.getString(1),Criterium.Direction.MIN,reader.getDouble(2),preferenceFunction);
                                     }
                                     else    {
-                                        throw new Exception("Wrong file format");
+                                        throw reader.error(3, "Wrong file format, expected MAX or MIN.");
                                     }
                                     this.addCriterium(criterium);
-                                    criteriaByName.put(values[1], criterium);  
+                                    criteriaByName.put(criterium.getName(), criterium);  
                                     criteriaCount++;
                         }
-                        else if(values[0].contentEquals("Constraint") && values.length == 4 && altsCount == 0 && criteriaCount!=0)   {
-                                    if(criteriaByName.containsKey(values[1]))   {
-                                        Criterium criterium = criteriaByName.get(values[1]);
-                                        if(values[2].contentEquals("UPPER"))   {
-                                            Constraint constraint = new Constraint(criterium, Constraint.ConstrainType.UPPER, Double.parseDouble(values[3]));
+                        else if(reader.fieldEquals(0, "Constraint") && fieldsNum == 4 && altsCount == 0 && criteriaCount!=0)   {
+                                    Criterium criterium = criteriaByName.get(reader.getString(1));
+                                    if(criterium != null)   {
+                                        if(reader.fieldEquals(2, "UPPER"))   {
+                                            Constraint constraint = new Constraint(criterium, Constraint.ConstrainType.UPPER, reader.getDouble(3));
                                             this.addConstraint(constraint);
                                         }
-                                        else if(values[2].contentEquals("BOTTOM"))   {
-                                            Constraint constraint = new Constraint(criterium, Constraint.ConstrainType.BOTTOM, Double.parseDouble(values[3]));
+                                        else if(reader.fieldEquals(2, "BOTTOM"))   {
+                                            Constraint constraint = new Constraint(criterium, Constraint.ConstrainType.BOTTOM, reader.getDouble(3));
                                             this.addConstraint(constraint);
                                         }
                                         else    {
-                                                throw new Exception("Wrong file format");
+                                                throw reader.error(2, "Wrong file format, expected UPPER or BOTTOM.");
                                         }
                                     }
                                     else    {
-                                        throw new Exception("Wrong file format");
+                                        throw reader.error(1, "Wrong file format, unknown criterium.");
                                     }        
                         }
-                        else if (values[0].contentEquals("Alternatives") && altsCount == 0 && criteriaCount != 0)   {                          
-                            for(int i=1; i<values.length;i++)   {
-                                Alternative alternative = new Alternative(values[i]);
+                        else if (reader.fieldEquals(0, "Alternatives") && altsCount == 0 && criteriaCount != 0)   {                          
+                            alternativesRead = new Alternative[fieldsNum-1];
+                            for(int i=1; i<fieldsNum;i++)   {
+                                Alternative alternative = new Alternative(reader.getString(i));
                                 this.addAlternative(alternative);
+                                alternativesRead[altsCount] = alternative;
                                 altsCount++;
                             }
+                            matrix = new DecisionMatrix(criteriaCount, altsCount, DecisionMatrix.Layout.ROW_MAJOR);
                         } 
-                        else if(altsCount!=0 && criteriaCount!=0 && altsIterationCount < altsCount && values.length == criteriaCount)   {
-                            for(int i=0; i<values.length; i++)  {
-                                alternatives.get(altsIterationCount).addCriteriumValue(Double.parseDouble(values[i]));
-                            }
+                        else if(altsCount!=0 && criteriaCount!=0 && altsIterationCount < altsCount && fieldsNum == criteriaCount)   {
+                            reader.getColumn(matrix, altsIterationCount);
+                            alternativesRead[altsIterationCount].bindToDecisionMatrix(matrix, altsIterationCount);
                             altsIterationCount++;
                         }
                         else    {
-                            throw new Exception("Wrong file format");
+                            throw reader.error(0, "Wrong file format.");
                         }
-                        line = br.readLine(); 
                     }
-                   
-                    br.close();
                 }
-                catch (FileNotFoundException e) {
-        			e.printStackTrace();
-		}
-		catch (IOException e) {
-				e.printStackTrace();
-				
-                } catch (Exception e) {
-        			e.printStackTrace();
-		}
-               					
+                finally {
+                    reader.close();
+                }
+    }
+    
+    /**
+     * Writes criteria (with preference functions), constraints and alternatives of this object to binary snapshot file.
+     * Snapshot can be loaded by the constructor with data file parameter of any Promethee method class much faster than csv file,
+     * criteria values are copied to the decision matrix from memory-mapped file without parsing.
+     * @param filename Path to the snapshot file, existing file is overwritten.
+     * @throws IllegalArgumentException if some criterium has preference function which can not be stored (other than LINEAR, THRESHOLD, GAUSSIAN and LEVEL functions).
+     * @throws DataFileException if the file can not be written.
+     */
+    public void writeSnapshot(String filename) {
+        int criteriaNum = this.getCriteriaNum();
+        DecisionMatrix matrix = DecisionMatrix.of(alternatives, criteriaNum, DecisionMatrix.Layout.ROW_MAJOR);
+        for(Iterator<Criterium> it = criteria.iterator(); it.hasNext(); )  {
+            preferenceFunctionType(it.next().getPreferenceFunction());
+        }
+        SnapshotWriter writer = new SnapshotWriter(filename, SNAPSHOT_FAMILY);
+        try {
+            writer.writeInt(criteriaNum);
+            for(Iterator<Criterium> it = criteria.iterator(); it.hasNext(); )  {
+                Criterium criterium = it.next();
+                writer.writeString(criterium.getName());
+                writer.writeInt(criterium.getDirection().ordinal());
+                writer.writeDouble(criterium.getWeight());
+                PreferenceFunction function = criterium.getPreferenceFunction();
+                writer.writeInt(preferenceFunctionType(function));
+                if(function instanceof LinearPreferenceFunction)    {
+                    writer.writeDouble(((LinearPreferenceFunction) function).getQ());
+                    writer.writeDouble(((LinearPreferenceFunction) function).getP());
+                }
+                else if(function instanceof ThresholdPreferenceFunction)    {
+                    writer.writeDouble(((ThresholdPreferenceFunction) function).getQ());
+                }
+                else if(function instanceof GaussianPreferenceFunction)    {
+                    writer.writeDouble(((GaussianPreferenceFunction) function).getS());
+                }
+                else    {
+                    writer.writeDouble(((LevelPreferenceFunction) function).getQ());
+                    writer.writeDouble(((LevelPreferenceFunction) function).getP());
+                }
+            }
+            writer.writeInt(constraints.size());
+            for(int i=0; i<constraints.size(); i++)  {
+                writer.writeInt(criteria.indexOf(constraints.get(i).getCriterium()));
+                writer.writeInt(constraints.get(i).getConstraintType().ordinal());
+                writer.writeDouble(constraints.get(i).getValue());
+            }
+            writer.writeInt(alternatives.size());
+            for(Iterator<Alternative> it = alternatives.iterator(); it.hasNext(); )  {
+                writer.writeString(it.next().getName());
+            }
+            writer.writeDecisionMatrix(matrix);
+        }
+        finally {
+            writer.close();
+        }
+    }
+    
+    /**
+     * Returns number identifying preference function type in snapshot file.
+     * @param function Preference function.
+     * @return 0 for LINEAR, 1 for THRESHOLD, 2 for GAUSSIAN and 3 for LEVEL function.
+     * @throws IllegalArgumentException for other functions.
+     */
+    private static int preferenceFunctionType(PreferenceFunction function) {
+        if(function instanceof LinearPreferenceFunction)    {
+            return 0;
+        }
+        if(function instanceof ThresholdPreferenceFunction)    {
+            return 1;
+        }
+        if(function instanceof GaussianPreferenceFunction)    {
+            return 2;
+        }
+        if(function instanceof LevelPreferenceFunction)    {
+            return 3;
+        }
+        throw new IllegalArgumentException("Preference function " + function.getClass().getName() + " can not be stored in snapshot.");
+    }
+    
+    /**
+     * Reads criteria, constraints and alternatives from snapshot written by writeSnapshot() method. Alternatives are bound to columns of the decision matrix read from the file.
+     * @param filename Path to the snapshot file.
+     */
+    private void readSnapshot(String filename) {
+        SnapshotReader reader = new SnapshotReader(filename, SNAPSHOT_FAMILY);
+        try {
+            int criteriaNum = reader.readInt(0, Integer.MAX_VALUE, "number of criteria");
+            for(int i=0; i<criteriaNum; i++)    {
+                String name = reader.readString();
+                Criterium.Direction direction = Criterium.Direction.values()[reader.readInt(0, Criterium.Direction.values().length - 1, "criterium direction")];
+                double weight = reader.readDouble();
+                PreferenceFunction function;
+                switch(reader.readInt(0, 3, "preference function type"))   {
+                    case 0:
+                        double q = reader.readDouble();
+                        function = new LinearPreferenceFunction(q, reader.readDouble());
+                        break;
+                    case 1:
+                        function = new ThresholdPreferenceFunction(reader.readDouble());
+                        break;
+                    case 2:
+                        function = new GaussianPreferenceFunction(reader.readDouble());
+                        break;
+                    default:
+                        double levelQ = reader.readDouble();
+                        function = new LevelPreferenceFunction(levelQ, reader.readDouble());
+                }
+                this.addCriterium(new Criterium(name, direction, weight, function));
+            }
+            int constraintsNum = reader.readInt(0, Integer.MAX_VALUE, "number of constraints");
+            for(int i=0; i<constraintsNum; i++)    {
+                Criterium criterium = criteria.get(reader.readInt(0, criteriaNum - 1, "constraint criterium"));
+                Constraint.ConstrainType type = Constraint.ConstrainType.values()[reader.readInt(0, Constraint.ConstrainType.values().length - 1, "constraint type")];
+                this.addConstraint(new Constraint(criterium, type, reader.readDouble()));
+            }
+            int alternativesNum = reader.readInt(0, Integer.MAX_VALUE, "number of alternatives");
+            Alternative[] alternativesRead = new Alternative[alternativesNum];
+            for(int i=0; i<alternativesNum; i++)    {
+                alternativesRead[i] = new Alternative(reader.readString());
+                this.addAlternative(alternativesRead[i]);
+            }
+            DecisionMatrix matrix = reader.readDecisionMatrix();
+            if(matrix.getCriteriaNum() != criteriaNum || matrix.getAlternativesNum() != alternativesNum)    {
+                throw new DataFileException(filename, 0, 0, "Decision matrix does not match criteria and alternatives.", null);
+            }
+            for(int i=0; i<alternativesNum; i++)    {
+                alternativesRead[i].bindToDecisionMatrix(matrix, i);
+            }
+        }
+        finally {
+            reader.close();
+        }
     }
     
     /**
@@ -188,7 +405,7 @@ public abstract class Promethee {
                 criteria = new LinkedList<Criterium>();
                 alternatives = new LinkedList<Alternative>();
                 constraints = new LinkedList<Constraint>();
-                ranking = new LinkedList<Alternative>();
+                ranking = new Ranking<Alternative>();
     }
     
     
@@ -202,14 +419,179 @@ public abstract class Promethee {
     
     
      /**
-     * Adds alternative to Promethee method object.
+     * Adds alternative to Promethee method object. Alternative gets id greater than ids of all the alternatives added before.
+     * If calculate() method has already been run, preference flows and ranking are updated incrementally in O(n*m) time, 
+     * so alternative has to have all the criteria values set.
      * @param alternative Alternative object.
      */
     public void addAlternative(Alternative alternative)   {
-       alternative.setId(alternatives.size()+1);
+       lastId = Math.max(lastId, alternatives.size()) + 1;
+       alternative.setId(lastId);
+       if(plusSums == null)  {
+           alternatives.add(alternative);
+           return;
+       }
+       MPDEngine engine = getUpdateEngine();
        alternatives.add(alternative);
+       int criteriaNum = this.getCriteriaNum();
+       double[] criteriaValues = new double[criteriaNum];
+       for(int r=0; r<criteriaNum; r++)  {
+           criteriaValues[r] = alternative.getCriteriumValue(r);
+       }
+       engine.addAlternative(criteriaValues);
+       int altsNum = this.getAlternativesNum();
+       int k = altsNum - 1;
+       positions.put(alternative, k);
+       double[] leaving = new double[altsNum];
+       double[] entering = new double[altsNum];
+       engine.calculatePairPreferences(k, leaving, entering);
+       
+       plusSums = Arrays.copyOf(plusSums, altsNum);
+       minusSums = Arrays.copyOf(minusSums, altsNum);
+       double plus = 0;
+       double minus = 0;
+       for(int j=0; j<k; j++)  {
+           plusSums[j] = plusSums[j] + entering[j];
+           minusSums[j] = minusSums[j] + leaving[j];
+           plus = plus + leaving[j];
+           minus = minus + entering[j];
+       }
+       plusSums[k] = plus;
+       minusSums[k] = minus;
+       releaseMPD();
+       updateFlows();
     }
-   
+    
+    /**
+     * Removes alternative from Promethee method object. Ids of the other alternatives are not changed.
+     * If calculate() method has already been run, preference flows and ranking are updated incrementally in O(n*m) time.
+     * @param alternative Alternative object.
+     * @return True if alternative was removed, false if it was not added to Promethee object.
+     */
+    public boolean removeAlternative(Alternative alternative)   {
+        if(plusSums == null)  {
+            return alternatives.remove(alternative);
+        }
+        MPDEngine engine = getUpdateEngine();
+        Integer position = positions.get(alternative);
+        if(position == null) {
+            return false;
+        }
+        int k = position;
+        int altsNum = this.getAlternativesNum();
+        double[] leaving = new double[altsNum];
+        double[] entering = new double[altsNum];
+        engine.calculatePairPreferences(k, leaving, entering);
+        
+        double[] newPlusSums = new double[altsNum-1];
+        double[] newMinusSums = new double[altsNum-1];
+        for(int j=0; j<altsNum; j++)  {
+            if(j != k)  {
+                int newPosition = j < k ? j : j-1;
+                newPlusSums[newPosition] = plusSums[j] - entering[j];
+                newMinusSums[newPosition] = minusSums[j] - leaving[j];
+            }
+        }
+        plusSums = newPlusSums;
+        minusSums = newMinusSums;
+        alternatives.remove(k);
+        engine.removeAlternative(k);
+        positions.remove(alternative);
+        for(Map.Entry<Alternative, Integer> entry : positions.entrySet())  {
+            if(entry.getValue() > k)  {
+                entry.setValue(entry.getValue() - 1);
+            }
+        }
+        releaseMPD();
+        updateFlows();
+        return true;
+    }
+    
+    /**
+     * Changes criterium value of the alternative.
+     * If calculate() method has already been run, MPD matrix (if it was created), preference flows and ranking are updated incrementally in O(n*m) time.
+     * @param alternative Alternative object added to Promethee object.
+     * @param criterium Criterium order number.
+     * @param value New criterium value.
+     */
+    public void updateAlternativeValue(Alternative alternative, int criterium, double value)   {
+        if(plusSums == null)  {
+            if(!alternatives.contains(alternative)) {
+                throw new IllegalArgumentException("Alternative is not added to Promethee object.");
+            }
+            alternative.setCriteriumValue(criterium, value);
+            return;
+        }
+        MPDEngine engine = getUpdateEngine();
+        Integer position = positions.get(alternative);
+        if(position == null) {
+            throw new IllegalArgumentException("Alternative is not added to Promethee object.");
+        }
+        int k = position;
+        int altsNum = this.getAlternativesNum();
+        double[] oldLeaving = new double[altsNum];
+        double[] oldEntering = new double[altsNum];
+        engine.calculatePairPreferences(k, oldLeaving, oldEntering);
+        alternative.setCriteriumValue(criterium, value);
+        engine.setValue(criterium, k, value);
+        double[] leaving = new double[altsNum];
+        double[] entering = new double[altsNum];
+        engine.calculatePairPreferences(k, leaving, entering);
+        
+        double plus = 0;
+        double minus = 0;
+        for(int j=0; j<altsNum; j++)  {
+            if(j != k)  {
+                plusSums[j] = plusSums[j] + (entering[j] - oldEntering[j]);
+                minusSums[j] = minusSums[j] + (leaving[j] - oldLeaving[j]);
+                plus = plus + leaving[j];
+                minus = minus + entering[j];
+            }
+        }
+        plusSums[k] = plus;
+        minusSums[k] = minus;
+        if(mpd != null)  {
+            mpd.setRow(k, 0, leaving, 0, altsNum);
+            for(int j=0; j<altsNum; j++)  {
+                mpd.set(j, k, entering[j]);
+            }
+        }
+        updateFlows();
+    }
+    
+    /**
+     * Returns engine used by incremental updates, creating it with a copy of criteria values of the alternatives on first call after calculations.
+     * @return MPDEngine object.
+     */
+    private MPDEngine getUpdateEngine()  {
+        if(updateEngine == null)  {
+            int criteriaNum = this.getCriteriaNum();
+            double[] values = DecisionMatrix.of(alternatives, criteriaNum, DecisionMatrix.Layout.ROW_MAJOR).getValues().clone();
+            updateEngine = new MPDEngine(criteria.toArray(new Criterium[criteriaNum]), values, this.getAlternativesNum());
+            positions = new IdentityHashMap<Alternative, Integer>();
+            int i = 0;
+            for(Iterator<Alternative> it = alternatives.iterator(); it.hasNext(); i++)    {
+                positions.put(it.next(), i);
+            }
+        }
+        return updateEngine;
+    }
+    
+    /**
+     * Sets flows updated incrementally and ranks the alternatives again.
+     * After max(RECALCULATION_INTERVAL, n) updates flows are calculated from scratch instead, to bound rounding errors of the updated sums.
+     */
+    private void updateFlows()  {
+        updatesNum++;
+        if(updatesNum >= Math.max(RECALCULATION_INTERVAL, this.getAlternativesNum()))  {
+            calculateFlows();
+        }
+        else    {
+            setFlows(plusSums, minusSums);
+        }
+        rankAlternatives();
+    }
+    
      /**
      * Adds constraint to Promethee method object.
      * Here it is private cause it is used by common constructor methods. It is made public only in Promethee5 child class because constraints are used in this method.
@@ -240,51 +622,290 @@ public abstract class Promethee {
      */
     public abstract void calculate();
     
+    /**
+     * Returns score by which alternatives are ordered in ranking. By default it is MPF, alternatives with equal scores are ordered by order number (id).
+     * @param alternative Alternative object.
+     * @return Score of the alternative.
+     */
+    protected double getRankingScore(Alternative alternative)   {
+        return alternative.getMpf();
+    }
+    
+    /**
+     * Creates ranking of the alternatives by ranking scores. Alternatives are ordered lazily, only when ranks are requested.
+     */
+    protected void rankAlternatives()   {
+        double[] scores = new double[this.getAlternativesNum()];
+        int i = 0;
+        for(Iterator<Alternative> it = alternatives.iterator(); it.hasNext(); i++)    {
+            scores[i] = getRankingScore(it.next());
+        }
+        ranking = new Ranking<Alternative>(alternatives, scores);
+    }
+    
+    /**
+     * Returns ranking as LinkedList object, for child classes written when ranking field was a LinkedList.
+     * Changes of returned list do not change ranks of the alternatives, setRanking method has to be used to change the ranking.
+     * @return LinkedList object containing Alternative objects ordered by rank, null if ranking has not been created.
+     */
+    protected LinkedList<Alternative> getRankingList()   {
+        return ranking == null ? null : ranking.toList();
+    }
+    
+    /**
+     * Sets ranking given as LinkedList object, for child classes written when ranking field was a LinkedList.
+     * @param ranking LinkedList object containing Alternative objects ordered by rank (the best one first).
+     */
+    protected void setRanking(LinkedList<Alternative> ranking)   {
+        double[] scores = new double[ranking.size()];
+        for(int i=0; i<scores.length; i++)  {
+            scores[i] = -i;
+        }
+        this.ranking = new Ranking<Alternative>(ranking, scores);
+    }
+    
    
     /**
-     * Calculates aggregated preference indices matrix (MPD matrix).
+     * Calculates multicriteria preference flows (MPF+, MPF- and MPF) using mode set by setFlowMode method.
+     * If all the criteria have piecewise preference functions (linear, level or threshold with non negative indifference threshold) and sorted flows are enabled
+     * by setSortedFlows method, flows are calculated from sorted criteria values in O(m*n*log n) time and MPD matrix is not created, regardless of flow mode.
+     * Sorted flows differ from flows calculated pair by pair in the last digits only, because sums are added in different order.
      */
-    protected void calculateMPD()  {
-        mpd = new SimpleMatrix(this.getAlternativesNum(),this.getAlternativesNum());
-        mpd.zero();
-
-        for(int i = 0; i<this.getAlternativesNum(); i++)  {
-            for(int j=0; j<this.getAlternativesNum(); j++)    {
-                if(i!=j)    {
-                    for(int r=0; r<this.getCriteriaNum(); r++)    {
-                        double pd = criteria.get(r).calculatePreference(alternatives.get(i).getCriteriumValue(r), alternatives.get(j).getCriteriumValue(r));
-                        mpd.set(i, j, mpd.get(i, j) + criteria.get(r).getWeight() * pd);
+    protected void calculateFlows()  {
+        updateEngine = null;
+        positions = null;
+        updatesNum = 0;
+        MPDEngine engine = createMPDEngine();
+        if(sortedFlows && engine.supportsSortedFlows())   {
+            releaseMPD();
+            double[] plusSums = new double[this.getAlternativesNum()];
+            double[] minusSums = new double[this.getAlternativesNum()];
+            engine.calculateSortedFlows(plusSums, minusSums, executor);
+            setFlows(plusSums, minusSums);
+        }
+        else if(flowMode == FlowMode.STREAMING)  {
+            releaseMPD();
+            double[] plusSums = new double[this.getAlternativesNum()];
+            double[] minusSums = new double[this.getAlternativesNum()];
+            engine.calculateFlows(plusSums, minusSums, executor);
+            setFlows(plusSums, minusSums);
+        }
+        else    {
+            calculateMPD();
+            calculateMPF();
+        }
+    }
+    
+    /**
+     * Scores alternatives read from data file batch by batch against alternatives of this object (fixed reference set) and returns k best of them, without adding them to Promethee object.
+     * Score of an alternative is its net flow relative to the reference set: difference of sums of aggregated preference indices of the alternative over every reference alternative
+     * and of every reference alternative over it, divided by the number of reference alternatives. Flows of the reference alternatives themselves are not changed.
+     * Memory used depends only on the size of the reference set and batch size, so files with more alternatives than fits in memory can be ranked.
+     * The file is read as described in AlternativeBatches class (Promethee data file or file with criteria values only), alternatives are identified by order numbers of their lines with criteria values.
+     * Constraints are not checked.
+     * @param filename Path to the file.
+     * @param k Number of best alternatives to return.
+     * @param batchSize Number of alternatives read at once.
+     * @return TopScores object with order numbers and net flows of k best alternatives.
+     * @throws DataFileException if the file can not be read or has wrong format.
+     */
+    public TopScores rankFile(String filename, int k, int batchSize)  {
+        final int referenceNum = this.getAlternativesNum();
+        if(referenceNum == 0)  {
+            throw new IllegalArgumentException("Reference set is empty, alternatives have to be added before ranking file.");
+        }
+        final MPDEngine engine = createMPDEngine();
+        final double[] plusSums = new double[batchSize];
+        final double[] minusSums = new double[batchSize];
+        AlternativeBatches batches = new AlternativeBatches(filename, this.getCriteriaNum(), batchSize, DecisionMatrix.Layout.ROW_MAJOR);
+        try {
+            return batches.rank(new BatchScorer() {
+                @Override
+                public void calculateScores(DecisionMatrix batch, double[] scores) {
+                    engine.calculateReferenceFlows(batch.getValues(), batch.getAlternativesNum(), plusSums, minusSums, sortedFlows, executor);
+                    for(int i=0; i<batch.getAlternativesNum(); i++)    {
+                        scores[i] = (plusSums[i] - minusSums[i]) / referenceNum;
                     }
                 }
-            }
+            }, k);
+        }
+        finally {
+            batches.close();
+        }
+    }
+    
+    /**
+     * Calculates aggregated preference indices matrix (MPD matrix).
+     * Matrix is calculated in tiles, in parallel, using number of threads set by setParallelism method.
+     */
+    protected void calculateMPD()  {
+        int altsNum = this.getAlternativesNum();
+        if(mpd == null || mpd.numRows() != altsNum)  {
+            releaseMPD();
+            mpd = matrixStorage.create(altsNum, altsNum);
+        }
+        createMPDEngine().calculate(mpd, executor);
+    }
+    
+    /**
+     * Closes MPD matrix, releasing memory or file used by it.
+     */
+    private void releaseMPD()  {
+        if(mpd != null)  {
+            mpd.close();
+            mpd = null;
         }
     }
     
     /**
-     * Calculates multicriteria preference flows (MPF+, MPF- and MPF).
+     * Creates engine calculating preference indices for current criteria and alternatives.
+     * @return MPDEngine object.
+     */
+    MPDEngine createMPDEngine()  {
+        int criteriaNum = this.getCriteriaNum();
+        double[] values = DecisionMatrix.of(alternatives, criteriaNum, DecisionMatrix.Layout.ROW_MAJOR).getValues();
+        return new MPDEngine(criteria.toArray(new Criterium[criteriaNum]), values, this.getAlternativesNum());
+    }
+    
+    /**
+     * Calculates multicriteria preference flows (MPF+, MPF- and MPF) from MPD matrix.
+     * Matrix is read row by row, column sums are accumulated in the order of rows, so every sum is added in the same order as in column by column reading.
      */
     protected void calculateMPF()  {
-        SimpleMatrix mpf_plus = new SimpleMatrix(this.getAlternativesNum(),1);
-        mpf_plus.zero();
-        SimpleMatrix mpf_minus = new SimpleMatrix(this.getAlternativesNum(),1);
-        mpf_minus.zero();
+        int altsNum = this.getAlternativesNum();
+        double[] row = new double[altsNum];
+        double[] plusSums = new double[altsNum];
+        double[] minusSums = new double[altsNum];
 
-        for(int i=0; i<this.getAlternativesNum();i++)    {
-            for(int j=0; j<this.getAlternativesNum(); j++)   {
+        for(int i=0; i<altsNum; i++)    {
+            mpd.getRow(i, 0, row, 0, altsNum);
+            double plus = 0;
+            for(int j=0; j<altsNum; j++)   {
                 if(i!=j)    {
-                    mpf_plus.set(i, 0, mpf_plus.get(i, 0) + mpd.get(i, j));
-                    mpf_minus.set(i, 0, mpf_minus.get(i, 0) + mpd.get(j, i));
+                    plus = plus + row[j];
+                    minusSums[j] = minusSums[j] + row[j];
                 }
             }
-            mpf_plus.set(i,0,mpf_plus.get(i,0)/(this.getAlternativesNum()-1));
-            mpf_minus.set(i,0,mpf_minus.get(i,0)/(this.getAlternativesNum()-1));
-            
-            alternatives.get(i).setMpfPlus(mpf_plus.get(i, 0));
-            alternatives.get(i).setMpfMinus(mpf_minus.get(i, 0));
-            alternatives.get(i).setMpf(alternatives.get(i).getMpfPlus() -  alternatives.get(i).getMpfMinus());
+            plusSums[i] = plus;
         }
-        
+        setFlows(plusSums, minusSums);
+    }
+    
+    /**
+     * Sets multicriteria preference flows of the alternatives based on sums of aggregated preference indices.
+     * @param plusSums Sums of preference indices of every alternative over the other alternatives (MPD rows).
+     * @param minusSums Sums of preference indices of the other alternatives over every alternative (MPD columns).
+     */
+    private void setFlows(double[] plusSums, double[] minusSums)  {
+        this.plusSums = plusSums;
+        this.minusSums = minusSums;
+        // single alternative is not compared with any other one, its flows are 0 (sums are empty)
+        int others = Math.max(1, this.getAlternativesNum()-1);
+        int i = 0;
+        for(Iterator<Alternative> it = alternatives.iterator(); it.hasNext(); i++)    {
+            Alternative alternative = it.next();
+            alternative.setMpfPlus(plusSums[i]/others);
+            alternative.setMpfMinus(minusSums[i]/others);
+            alternative.setMpf(alternative.getMpfPlus() -  alternative.getMpfMinus());
+        }
+    }
+    
+    /**
+     * Returns aggregated preference indices matrix (MPD matrix).
+     * In STREAMING flow mode or when sorted flows are used matrix is not created by calculate() method, it is calculated on first call of this method.
+     * @return Matrix with preference index of i-th alternative over j-th alternative in i-th row and j-th column, null if there are no alternatives.
+     */
+    public MatrixStorage getMPD()  {
+        if(mpd == null && this.getAlternativesNum() > 0)   {
+            calculateMPD();
+        }
+        return mpd;
+    }
+    
+    /**
+     * Returns MPD matrix as SimpleMatrix object, for child classes written when mpd field was a SimpleMatrix.
+     * For heap storage changes of returned matrix change the MPD matrix, for other storages it is a copy.
+     * @return SimpleMatrix object, null if MPD matrix has not been calculated.
+     */
+    protected SimpleMatrix getMPDSimpleMatrix()  {
+        return mpd == null ? null : mpd.toSimpleMatrix();
+    }
+    
+    /**
+     * Sets storage of MPD matrix, e.g. MatrixStorage.mapped(directory, Precision.FLOAT) to keep large matrix in memory-mapped file.
+     * Matrix calculated before is closed.
+     * @param factory Factory creating matrix.
+     */
+    public void setMatrixStorage(MatrixStorage.Factory factory)  {
+        matrixStorage = factory;
+        releaseMPD();
+    }
+    
+    /**
+     * Sets mode of multicriteria preference flows calculations.
+     * @param flowMode MATRIX (default) to calculate flows from MPD matrix or STREAMING to calculate them without MPD matrix.
+     */
+    public void setFlowMode(FlowMode flowMode)    {
+        this.flowMode = flowMode;
+    }
+    
+    /**
+     * Returns mode of multicriteria preference flows calculations.
+     * @return Flow mode.
+     */
+    public FlowMode getFlowMode()    {
+        return flowMode;
+    }
+    
+    /**
+     * Enables or disables calculation of flows from sorted criteria values, used when all the criteria have piecewise preference functions.
+     * @param sortedFlows True to use sorted flows whenever it is possible, false (default) to always calculate flows pair by pair (from MPD matrix in MATRIX flow mode).
+     */
+    public void setSortedFlows(boolean sortedFlows)    {
+        this.sortedFlows = sortedFlows;
+    }
+    
+    /**
+     * Checks if calculation of flows from sorted criteria values is enabled.
+     * @return True if sorted flows are used whenever it is possible.
+     */
+    public boolean isSortedFlows()    {
+        return sortedFlows;
+    }
+    
+    /**
+     * Creates weight sensitivity analysis object for current criteria and alternatives. 
+     * Unicriterion flows are calculated once, then flows, rankings and stability intervals for different weights are calculated in O(n*m) time.
+     * @return PrometheeSensitivity object.
+     */
+    public PrometheeSensitivity createSensitivity()  {
+        return new PrometheeSensitivity(this);
+    }
+    
+    /**
+     * Returns executor used in Promethee calculations.
+     * @return ParallelExecutor object.
+     */
+    ParallelExecutor getExecutor()  {
+        return executor;
+    }
+    
+    /**
+     * Sets number of threads used in Promethee calculations.
+     * @param parallelism Number of threads, value lower than 1 means number of available processors.
+     */
+    public void setParallelism(int parallelism)    {
+        executor = new ParallelExecutor(parallelism);
+    }
+    
+    /**
+     * Returns number of threads used in Promethee calculations.
+     * @return Number of threads.
+     */
+    public int getParallelism()    {
+        return executor.getParallelism();
     }
+    
       /**
      * Returns list of all the criteria in Promethee object.
      * @return LinkedList containing Criterium objects.
@@ -308,6 +929,9 @@ public abstract class Promethee {
      */
     public void setCriteria(LinkedList<Criterium> criteria) {
         this.criteria = criteria;
+        this.plusSums = null;
+        this.minusSums = null;
+        this.updateEngine = null;
     }
 
         /**
@@ -334,15 +958,29 @@ public abstract class Promethee {
      */
     public void setAlternatives(LinkedList<Alternative> alternatives) {
         this.alternatives = alternatives;
+        this.plusSums = null;
+        this.minusSums = null;
+        this.updateEngine = null;
+        this.lastId = 0;
     }
     
 
         /**
      * Returns ranking - all the alternatives in Promethee object ordered by their score calculated by Promethee method. 
+     * The whole ranking is ordered on first call, use getTopAlternatives method if only the best alternatives are needed.
      * @return LinkedList object containing Alternative objects ordered by their Promethee score. 
      */
     public LinkedList<Alternative> getRanking() {
-        return ranking;
+        return ranking.toList();
+    }
+    
+    /**
+     * Returns k best alternatives of ranking calculated by Promethee method, without ordering the rest of the ranking.
+     * @param k Number of alternatives.
+     * @return LinkedList object containing at most k Alternative objects ordered by their Promethee score.
+     */
+    public LinkedList<Alternative> getTopAlternatives(int k) {
+        return ranking.top(k);
     }
             
     /**
@@ -351,7 +989,7 @@ public abstract class Promethee {
      * @return Alternative object of alternative with wanted rank.
      */
     public Alternative getAlternativeByRank(int rank)    {
-        return ranking.get(rank-1);
+        return ranking.get(rank);
     }        
     
     /**
@@ -1,7 +1,4 @@
 package methods.Promethee;
-import java.util.LinkedList;
-import java.util.Collections;
-import java.util.Comparator;
 
 /**
  * Promethee I (Promethee1) method class.
@@ -35,22 +32,19 @@ public class Promethee1 extends Promethee {
      */
     public void calculate()  { 
         normalizeWeights();
-        calculateMPD();     
-        calculateMPF();
+        calculateFlows();
         
-        ranking = new LinkedList<Alternative>(alternatives);
-        Collections.sort(ranking,new Comparator<Alternative>() {
-         @Override
-         public int compare(Alternative o1, Alternative o2) {
-             if(o1.getMpfPlus()<o2.getMpfPlus())    {
-                 return 1;
-             }
-             else if(o1.getMpfPlus()>o2.getMpfPlus())   {
-                 return -1;
-             }
-             return 0;
-         }
-     });
+        rankAlternatives();
+    }
+    
+    /**
+     * Returns score by which alternatives are ordered in Promethee1 ranking - MPF+, alternatives with equal MPF+ are ordered by order number (id).
+     * @param alternative Alternative object.
+     * @return MPF+ of the alternative.
+     */
+    @Override
+    protected double getRankingScore(Alternative alternative)   {
+        return alternative.getMpfPlus();
     }
     
         /**
@@ -1,7 +1,4 @@
 package methods.Promethee;
-import java.util.LinkedList;
-import java.util.Collections;
-import java.util.Comparator;
 
 /**
  * Promethee II (Promethee2) method class. 
@@ -35,22 +32,9 @@ public class Promethee2 extends Promethee {
     public void calculate()  { 
         normalizeWeights();
 
-        calculateMPD();
-        calculateMPF();
+        calculateFlows();
         
-        ranking = new LinkedList<Alternative>(alternatives);
-        Collections.sort(ranking, new Comparator<Alternative>() {
-         @Override
-         public int compare(Alternative o1, Alternative o2) {
-             if(o1.getMpf()<o2.getMpf())    {
-                 return 1;
-             }
-             else if(o1.getMpf()>o2.getMpf())   {
-                 return -1;
-             }
-             return 0;
-         }
-     });
+        rankAlternatives();
     }
     
 
@@ -1,13 +1,12 @@
 package methods.Promethee;
 import java.util.LinkedList;
-import java.util.Collections;
-import java.util.Comparator;
 import org.ojalgo.optimisation.integer.IntegerSolver;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.Variable;
 import org.ojalgo.optimisation.Expression;
 import org.ojalgo.optimisation.Optimisation;
 import java.math.BigDecimal;
+import methods.BasicTypes.DecisionMatrix;
 
 /**
  * Promethee V (Promethee5) method class. 
@@ -56,27 +55,18 @@ public class Promethee5 extends Promethee{
         public void calculate()  { 
             normalizeWeights();
 
-            calculateMPD();
-            calculateMPF();
-            ranking = new LinkedList<Alternative>(alternatives);
-            Collections.sort(ranking, new Comparator<Alternative>() {
-             @Override
-             public int compare(Alternative o1, Alternative o2) {
-                 if(o1.getMpf()<o2.getMpf())    {
-                     return 1;
-                 }
-                 else if(o1.getMpf()>o2.getMpf())   {
-                     return -1;
-                 }
-                 return 0;
-             }
-             });
+            calculateFlows();
+            rankAlternatives();
 
             LinkedList<Variable> listOfVariables = new LinkedList<Variable>();
             for(int i=0; i<this.getAlternativesNum();i++)    {
                 listOfVariables.add(Variable.makeBinary("x" + i));
             }
 
+            Variable[] variables = listOfVariables.toArray(new Variable[listOfVariables.size()]);
+            Alternative[] alternativesArray = alternatives.toArray(new Alternative[this.getAlternativesNum()]);
+            DecisionMatrix matrix = DecisionMatrix.of(alternatives, this.getCriteriaNum(), DecisionMatrix.Layout.ROW_MAJOR);
+
             ExpressionsBasedModel model = new ExpressionsBasedModel();
             model.addVariables(listOfVariables);
 
@@ -85,8 +75,9 @@ public class Promethee5 extends Promethee{
                 Constraint constraint = constraints.get(i);
                 int criteriumIndex = criteria.indexOf(constraint.getCriterium());
 
+                double[] row = matrix.getRow(criteriumIndex);
                 for(int j=0; j<this.getAlternativesNum(); j++)    {
-                    ex.setLinearFactor(listOfVariables.get(j), alternatives.get(j).getCriteriumValue(criteriumIndex));
+                    ex.setLinearFactor(variables[j], row[j]);
                 }
 
                 if(constraint.getConstraintType() == Constraint.ConstrainType.UPPER)  {
@@ -99,7 +90,7 @@ public class Promethee5 extends Promethee{
 
             Expression ex = model.addExpression("obj");
             for(int i=0; i<this.getAlternativesNum(); i++)    {
-                    ex.setLinearFactor(listOfVariables.get(i), alternatives.get(i).getMpf());
+                    ex.setLinearFactor(variables[i], alternativesArray[i].getMpf());
             }
             ex.weight(BigDecimal.ONE);
             model.setMaximisation(true);
@@ -110,7 +101,7 @@ public class Promethee5 extends Promethee{
 
             for(int i=0; i<this.getAlternativesNum(); i++)   {
                 if(res.get(i).compareTo(BigDecimal.ONE) == 0)   {
-                    alternativesBestSet.add(alternatives.get(i));
+                    alternativesBestSet.add(alternativesArray[i]);
                 }
             }
         }
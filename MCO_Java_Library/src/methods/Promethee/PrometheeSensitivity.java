@@ -0,0 +1,490 @@
+package methods.Promethee;
+
+import java.util.LinkedList;
+import methods.BasicTypes.IndexSort;
+import methods.BasicTypes.ParallelExecutor;
+import methods.BasicTypes.ScoreModel;
+
+/**
+ * Weight sensitivity analysis of Promethee method.
+ * Preference flows are linear in criteria weights, so unicriterion flows (flows calculated for every criterium separately, without weights) are calculated once
+ * and flows for any weights vector are their weighted sums, calculated in O(n*m) time instead of O(n^2*m) needed by calculate() method.
+ * Object is a snapshot of Promethee object data - changes of alternatives or criteria made after its creation are not taken into account.
+ * Weights vectors provided to methods of this class do not have to be normalized, they are divided by sum of their elements.
+ * Object is also a score model (with net flows as scores) which can be used in rank acceptability analysis.
+ * @see methods.BasicTypes.RankAcceptability
+ * @see methods.Promethee.Promethee
+ */
+public class PrometheeSensitivity implements ScoreModel {
+
+    /**
+     * Alternatives of Promethee object, in order of Promethee object.
+     */
+    private final Alternative[] alternatives;
+
+    /**
+     * Number of criteria.
+     */
+    private final int criteriaNum;
+
+    /**
+     * Unicriterion positive flows, flow of i-th alternative for r-th criterium is at index i*criteriaNum+r.
+     */
+    private final double[] plusFlows;
+
+    /**
+     * Unicriterion negative flows, flow of i-th alternative for r-th criterium is at index i*criteriaNum+r.
+     */
+    private final double[] minusFlows;
+
+    /**
+     * Unicriterion net flows, flow of i-th alternative for r-th criterium is at index i*criteriaNum+r.
+     */
+    private final double[] netFlows;
+
+    /**
+     * Weights of Promethee object criteria at the moment of creation of this object.
+     */
+    private final double[] weights;
+
+    /**
+     * Executor used to process weight scenarios in parallel.
+     */
+    private final ParallelExecutor executor;
+
+    /**
+     * PrometheeSensitivity constructor, calculates unicriterion flows of all the alternatives of Promethee object.
+     * @param promethee Promethee object with criteria and alternatives set (calculate() method does not have to be run).
+     */
+    public PrometheeSensitivity(Promethee promethee) {
+        int altsNum = promethee.getAlternativesNum();
+        this.criteriaNum = promethee.getCriteriaNum();
+        this.alternatives = promethee.getAlternatives().toArray(new Alternative[altsNum]);
+        this.executor = promethee.getExecutor();
+        this.weights = new double[criteriaNum];
+        for(int r=0; r<criteriaNum; r++)    {
+            weights[r] = promethee.getCriterium(r).getWeight();
+        }
+
+        double[] plusSums = new double[criteriaNum*altsNum];
+        double[] minusSums = new double[criteriaNum*altsNum];
+        promethee.createMPDEngine().calculateUnicriterionSums(plusSums, minusSums, executor);
+
+        plusFlows = new double[criteriaNum*altsNum];
+        minusFlows = new double[criteriaNum*altsNum];
+        netFlows = new double[criteriaNum*altsNum];
+        // single alternative is not compared with any other one, its flows are 0 (sums are empty)
+        int others = Math.max(1, altsNum-1);
+        for(int r=0; r<criteriaNum; r++)    {
+            for(int i=0; i<altsNum; i++)    {
+                int position = i*criteriaNum + r;
+                plusFlows[position] = plusSums[r*altsNum + i]/others;
+                minusFlows[position] = minusSums[r*altsNum + i]/others;
+                netFlows[position] = plusFlows[position] - minusFlows[position];
+            }
+        }
+    }
+
+    /**
+     * Returns number of alternatives.
+     * @return Number of alternatives.
+     */
+    public int getAlternativesNum() {
+        return alternatives.length;
+    }
+
+    /**
+     * Returns number of criteria.
+     * @return Number of criteria.
+     */
+    public int getCriteriaNum() {
+        return criteriaNum;
+    }
+
+    /**
+     * Returns alternative with the i-th order number.
+     * @param i Alternative order number.
+     * @return Alternative object.
+     */
+    public Alternative getAlternative(int i) {
+        return alternatives[i];
+    }
+
+    /**
+     * Returns copy of criteria weights of Promethee object at the moment of creation of this object.
+     * @return Array of weights.
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Returns unicriterion net flow of the alternative.
+     * @param alternative Alternative order number.
+     * @param criterium Criterium order number.
+     * @return Net flow of the alternative calculated only for one criterium.
+     */
+    public double getUnicriterionFlow(int alternative, int criterium) {
+        return netFlows[alternative*criteriaNum + criterium];
+    }
+
+    /**
+     * Calculates positive multicriteria preference flows (MPF+) for weights provided as parameter.
+     * @param weights Criteria weights.
+     * @return Array with MPF+ of every alternative.
+     */
+    public double[] calculatePositiveFlows(double[] weights) {
+        return weightedSums(plusFlows, normalize(weights));
+    }
+
+    /**
+     * Calculates negative multicriteria preference flows (MPF-) for weights provided as parameter.
+     * @param weights Criteria weights.
+     * @return Array with MPF- of every alternative.
+     */
+    public double[] calculateNegativeFlows(double[] weights) {
+        return weightedSums(minusFlows, normalize(weights));
+    }
+
+    /**
+     * Calculates net multicriteria preference flows (MPF) for weights provided as parameter.
+     * @param weights Criteria weights.
+     * @return Array with MPF of every alternative.
+     */
+    public double[] calculateNetFlows(double[] weights) {
+        return weightedSums(netFlows, normalize(weights));
+    }
+
+    /**
+     * Calculates net multicriteria preference flows (MPF) for many weight scenarios, scenarios are processed in parallel.
+     * @param scenarios Array of criteria weights vectors.
+     * @return Array with MPF of every alternative for every scenario.
+     */
+    public double[][] calculateNetFlows(final double[][] scenarios) {
+        final double[][] result = new double[scenarios.length][];
+        executor.forRange(0, scenarios.length, 16, new ParallelExecutor.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for(int s=from; s<to; s++)  {
+                    result[s] = calculateNetFlows(scenarios[s]);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Calculates Promethee2 ranking for weights provided as parameter.
+     * @param weights Criteria weights.
+     * @return Order numbers of the alternatives ordered by descending MPF (alternatives with equal MPF by order number).
+     */
+    public int[] calculateRanking(double[] weights) {
+        return rankingOf(calculateNetFlows(weights));
+    }
+
+    /**
+     * Calculates Promethee2 rankings for many weight scenarios, scenarios are processed in parallel.
+     * @param scenarios Array of criteria weights vectors.
+     * @return Array with ranking (order numbers of the alternatives ordered by descending MPF) for every scenario.
+     */
+    public int[][] calculateRankings(final double[][] scenarios) {
+        final int[][] result = new int[scenarios.length][];
+        executor.forRange(0, scenarios.length, 16, new ParallelExecutor.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for(int s=from; s<to; s++)  {
+                    result[s] = calculateRanking(scenarios[s]);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns Promethee2 ranking for weights provided as parameter as list of alternatives.
+     * @param weights Criteria weights.
+     * @return LinkedList containing Alternative objects ordered by descending MPF calculated for weights.
+     */
+    public LinkedList<Alternative> getRanking(double[] weights) {
+        LinkedList<Alternative> ranking = new LinkedList<Alternative>();
+        int[] order = calculateRanking(weights);
+        for(int k=0; k<order.length; k++)   {
+            ranking.add(alternatives[order[k]]);
+        }
+        return ranking;
+    }
+
+    /**
+     * Stability interval of normalized weight of one criterium.
+     * Alternatives with equal net flows are ordered by order number, so ranking may change exactly at a bound of the interval (when alternative with lower order number
+     * reaches flow of the one ranked just above it) or just after it (when alternative with higher order number reaches flow of the one ranked just below it).
+     * In the first case the bound is excluded from the interval, in the second one it is included.
+     */
+    public static class StabilityInterval {
+
+        /**
+         * Lower bound of the weight.
+         */
+        private final double lower;
+
+        /**
+         * Upper bound of the weight.
+         */
+        private final double upper;
+
+        /**
+         * True if ranking does not change for weight equal to lower bound.
+         */
+        private final boolean lowerIncluded;
+
+        /**
+         * True if ranking does not change for weight equal to upper bound.
+         */
+        private final boolean upperIncluded;
+
+        /**
+         * StabilityInterval constructor.
+         * @param lower Lower bound of the weight.
+         * @param lowerIncluded True if lower bound belongs to the interval.
+         * @param upper Upper bound of the weight.
+         * @param upperIncluded True if upper bound belongs to the interval.
+         */
+        StabilityInterval(double lower, boolean lowerIncluded, double upper, boolean upperIncluded) {
+            this.lower = lower;
+            this.lowerIncluded = lowerIncluded;
+            this.upper = upper;
+            this.upperIncluded = upperIncluded;
+        }
+
+        /**
+         * Returns lower bound of the weight.
+         * @return Lower bound.
+         */
+        public double getLower() {
+            return lower;
+        }
+
+        /**
+         * Returns upper bound of the weight.
+         * @return Upper bound.
+         */
+        public double getUpper() {
+            return upper;
+        }
+
+        /**
+         * Checks if ranking does not change for weight equal to lower bound.
+         * @return True if lower bound belongs to the interval.
+         */
+        public boolean isLowerIncluded() {
+            return lowerIncluded;
+        }
+
+        /**
+         * Checks if ranking does not change for weight equal to upper bound.
+         * @return True if upper bound belongs to the interval.
+         */
+        public boolean isUpperIncluded() {
+            return upperIncluded;
+        }
+
+        /**
+         * Checks if weight belongs to the interval.
+         * @param weight Normalized weight of the criterium.
+         * @return True if ranking does not change for the weight.
+         */
+        public boolean contains(double weight) {
+            return (weight > lower || (lowerIncluded && weight == lower)) && (weight < upper || (upperIncluded && weight == upper));
+        }
+
+        @Override
+        public String toString() {
+            return (lowerIncluded ? "[" : "(") + lower + ", " + upper + (upperIncluded ? "]" : ")");
+        }
+    }
+
+    /**
+     * Calculates stability intervals of criteria weights for weights of Promethee object.
+     * @return Stability intervals as described in calculateStabilityIntervals(double[]) method.
+     */
+    public double[][] calculateStabilityIntervals() {
+        return calculateStabilityIntervals(weights);
+    }
+
+    /**
+     * Calculates stability intervals of criteria weights - for every criterium the range of its normalized weight for which Promethee2 ranking does not change,
+     * when weights of the other criteria are scaled proportionally so that all the weights still sum up to 1.
+     * Bounds may be excluded from the intervals, getStabilityIntervals(double[]) method returns intervals with this information.
+     * @param weights Criteria weights.
+     * @return Array of size m x 2, r-th row contains lower and upper bound of normalized weight of r-th criterium.
+     */
+    public double[][] calculateStabilityIntervals(double[] weights) {
+        StabilityInterval[] stabilityIntervals = getStabilityIntervals(weights);
+        double[][] intervals = new double[criteriaNum][2];
+        for(int r=0; r<criteriaNum; r++)    {
+            intervals[r][0] = stabilityIntervals[r].getLower();
+            intervals[r][1] = stabilityIntervals[r].getUpper();
+        }
+        return intervals;
+    }
+
+    /**
+     * Calculates stability intervals of criteria weights for weights of Promethee object.
+     * @return Array with stability interval of every criterium, as described in getStabilityIntervals(double[]) method.
+     */
+    public StabilityInterval[] getStabilityIntervals() {
+        return getStabilityIntervals(weights);
+    }
+
+    /**
+     * Calculates stability intervals of criteria weights - for every criterium the range of its normalized weight for which Promethee2 ranking does not change,
+     * when weights of the other criteria are scaled proportionally so that all the weights still sum up to 1.
+     * Net flows are linear functions of the weight, so it is enough to check for which weights every two alternatives adjacent in ranking keep their order.
+     * Pair ordered by order number keeps its order when flows are equal, so its bound is included, otherwise it is excluded.
+     * If weight of the criterium equals 1, weights of the other criteria are assumed to be equal when it is decreased.
+     * @param weights Criteria weights.
+     * @return Array with stability interval of every criterium.
+     */
+    public StabilityInterval[] getStabilityIntervals(double[] weights) {
+        double[] normalized = normalize(weights);
+        int altsNum = alternatives.length;
+        int[] order = rankingOf(weightedSums(netFlows, normalized));
+        StabilityInterval[] intervals = new StabilityInterval[criteriaNum];
+
+        double[] own = new double[altsNum];
+        double[] others = new double[altsNum];
+        for(int r=0; r<criteriaNum; r++)    {
+            double weight = normalized[r];
+            if(criteriaNum == 1)    {
+                intervals[r] = new StabilityInterval(weight, true, weight, true);
+                continue;
+            }
+            for(int i=0; i<altsNum; i++)    {
+                int offset = i*criteriaNum;
+                double sum = 0;
+                for(int k=0; k<criteriaNum; k++)    {
+                    if(k != r)  {
+                        sum = sum + (weight < 1 ? normalized[k] : 1) * netFlows[offset + k];
+                    }
+                }
+                own[i] = netFlows[offset + r];
+                others[i] = weight < 1 ? sum/(1 - weight) : sum/(criteriaNum - 1);
+            }
+
+            double lower = 0;
+            double upper = 1;
+            boolean lowerIncluded = true;
+            boolean upperIncluded = true;
+            for(int k=0; k+1<altsNum; k++)   {
+                int a = order[k];
+                int b = order[k+1];
+                // flow(a) - flow(b) = constant + slope * t, where t is the weight of r-th criterium
+                double constant = others[a] - others[b];
+                double slope = (own[a] - own[b]) - constant;
+                // at the breakpoint flows are equal, a stays above b only if it has lower order number
+                boolean included = a < b;
+                if(slope > 0)   {
+                    double bound = -constant/slope;
+                    if(bound > lower)   {
+                        lower = bound;
+                        lowerIncluded = included;
+                    }
+                    else if(bound == lower) {
+                        lowerIncluded = lowerIncluded && included;
+                    }
+                }
+                else if(slope < 0)  {
+                    double bound = -constant/slope;
+                    if(bound < upper)   {
+                        upper = bound;
+                        upperIncluded = included;
+                    }
+                    else if(bound == upper) {
+                        upperIncluded = upperIncluded && included;
+                    }
+                }
+            }
+            // rounding errors can move bound of a pair tied at current weight past the weight
+            if(lower > weight)  {
+                lower = weight;
+                lowerIncluded = true;
+            }
+            if(upper < weight)  {
+                upper = weight;
+                upperIncluded = true;
+            }
+            intervals[r] = new StabilityInterval(lower, lowerIncluded, upper, upperIncluded);
+        }
+        return intervals;
+    }
+
+    /**
+     * Normalizes weights so that they sum up to 1.
+     * @param weights Criteria weights.
+     * @return New array with normalized weights.
+     */
+    private double[] normalize(double[] weights) {
+        if(weights.length != criteriaNum)   {
+            throw new IllegalArgumentException("Weights vector has " + weights.length + " elements, but there are " + criteriaNum + " criteria.");
+        }
+        double sum = 0;
+        for(int r=0; r<criteriaNum; r++)    {
+            sum = sum + weights[r];
+        }
+        if(!(sum > 0))  {
+            throw new IllegalArgumentException("Sum of weights has to be positive.");
+        }
+        double[] normalized = new double[criteriaNum];
+        for(int r=0; r<criteriaNum; r++)    {
+            normalized[r] = weights[r]/sum;
+        }
+        return normalized;
+    }
+
+    /**
+     * Calculates net multicriteria preference flows (MPF) for normalized weights without allocating memory.
+     * @param weights Normalized criteria weights.
+     * @param scores Array to which MPF of every alternative is written.
+     */
+    public void calculateScores(double[] weights, double[] scores) {
+        weightedSums(netFlows, weights, scores);
+    }
+
+    /**
+     * Calculates weighted sums of unicriterion flows.
+     * @param flows Unicriterion flows.
+     * @param weights Normalized weights.
+     * @return Array with weighted sum for every alternative.
+     */
+    private double[] weightedSums(double[] flows, double[] weights) {
+        return weightedSums(flows, weights, new double[alternatives.length]);
+    }
+
+    /**
+     * Calculates weighted sums of unicriterion flows.
+     * @param flows Unicriterion flows.
+     * @param weights Normalized weights.
+     * @param result Array to which weighted sum for every alternative is written.
+     * @return Result array.
+     */
+    private double[] weightedSums(double[] flows, double[] weights, double[] result) {
+        for(int i=0; i<alternatives.length; i++)    {
+            int offset = i*criteriaNum;
+            double sum = 0;
+            for(int r=0; r<criteriaNum; r++)    {
+                sum = sum + weights[r] * flows[offset + r];
+            }
+            result[i] = sum;
+        }
+        return result;
+    }
+
+    /**
+     * Orders alternatives by descending score.
+     * @param scores Scores of the alternatives.
+     * @return Order numbers of the alternatives ordered by descending score (alternatives with equal score by order number).
+     */
+    private static int[] rankingOf(double[] scores) {
+        return IndexSort.sortDescending(scores);
+    }
+}
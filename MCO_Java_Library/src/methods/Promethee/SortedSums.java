@@ -0,0 +1,79 @@
+package methods.Promethee;
+
+/**
+ * Auxiliary methods used by PiecewisePreferenceFunction implementations to find, by binary search, sorted values for which difference d exceeds threshold.
+ * Difference d is either value-x (decreasing along sorted values) or x-value (increasing along sorted values). 
+ * It is calculated exactly as in calculatePreference methods, so the same values are classified the same way.
+ */
+class SortedSums {
+
+    private SortedSums() {
+    }
+
+    /**
+     * Checks if difference d decreases along sorted values.
+     * @param valueOnLeft If true value is on the left side of preference relation.
+     * @param direction Optimization direction of the criterium.
+     * @return True if d = value-x, false if d = x-value.
+     */
+    static boolean isDecreasing(boolean valueOnLeft, Criterium.Direction direction) {
+        return valueOnLeft == (direction == Criterium.Direction.MAX);
+    }
+
+    /**
+     * Finds boundary between sorted values with difference d greater than threshold and values with d lower or equal to threshold.
+     * For decreasing d values with d greater than threshold are [0, boundary), for increasing d they are [boundary, n).
+     * @param value Criterium value.
+     * @param sorted Values sorted in ascending order.
+     * @param threshold Threshold.
+     * @param decreasing True if d = value-x, false if d = x-value.
+     * @return Boundary index.
+     */
+    static int boundary(double value, double[] sorted, double threshold, boolean decreasing) {
+        int low = 0;
+        int high = sorted.length;
+        while(low < high)   {
+            int middle = (low + high) >>> 1;
+            boolean below;
+            if(decreasing)  {
+                below = !(value - sorted[middle] <= threshold);
+            }
+            else    {
+                below = sorted[middle] - value <= threshold;
+            }
+            if(below)   {
+                low = middle + 1;
+            }
+            else    {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Counts sorted values with difference d greater than threshold.
+     * @param boundary Boundary index returned by boundary method.
+     * @param length Number of sorted values.
+     * @param decreasing True if d = value-x, false if d = x-value.
+     * @return Number of values.
+     */
+    static int countGreater(int boundary, int length, boolean decreasing) {
+        return decreasing ? boundary : length - boundary;
+    }
+
+    /**
+     * Calculates sum of differences d for sorted values from the range [from, to).
+     * @param value Criterium value.
+     * @param prefixSums Prefix sums of sorted values.
+     * @param from First index (inclusive).
+     * @param to Last index (exclusive).
+     * @param decreasing True if d = value-x, false if d = x-value.
+     * @return Sum of differences.
+     */
+    static double sumDifferences(double value, double[] prefixSums, int from, int to, boolean decreasing) {
+        double sum = prefixSums[to] - prefixSums[from];
+        double values = (to - from) * value;
+        return decreasing ? values - sum : sum - values;
+    }
+}
@@ -9,7 +9,7 @@ package methods.Promethee;
  * @author Mateusz Krasucki
  * @see PreferenceFunction
  */
-public class ThresholdPreferenceFunction implements PreferenceFunction {
+public class ThresholdPreferenceFunction implements PiecewisePreferenceFunction {
     
     /**
      * Indifference threshold paramater. 
@@ -73,4 +73,52 @@ public class ThresholdPreferenceFunction implements PreferenceFunction {
                             return 1; 
                 }
     }
+    
+    /**
+     * Checks if sums of preference values can be calculated by sumPreferences method, which requires indifference threshold (q parameter) not to be negative.
+     * @return True if sumPreferences method can be used.
+     */
+    public boolean supportsSortedSums()  {
+        return this.q >= 0;
+    }
+    
+    /**
+     * Calculates sum of threshold preference function values between value and all the sorted values, which is number of values with d greater than q.
+     * @param value Criterium value.
+     * @param sorted All the values of the criterium sorted in ascending order.
+     * @param prefixSums Prefix sums of sorted values (not used by this function).
+     * @param valueOnLeft If true preferences of value over sorted values are summed, otherwise preferences of sorted values over value.
+     * @param direction Optimization direction of the criterium.
+     * @return Sum of dimensionless one-sided preference values.
+     */
+    public double sumPreferences(double value, double[] sorted, double[] prefixSums, boolean valueOnLeft, Criterium.Direction direction)   {
+                boolean decreasing = SortedSums.isDecreasing(valueOnLeft, direction);
+                int qBoundary = SortedSums.boundary(value, sorted, this.q, decreasing);
+                return SortedSums.countGreater(qBoundary, sorted.length, decreasing);
+    }
+    
+    /**
+     * Calculates threshold preference function values between value and the values from range [from, to) of the array, result[k-from] is preference for values[k].
+     * Optimization direction is checked once, so the inner loop has no branches on direction and can be unrolled by JIT compiler.
+     * @param value Criterium value.
+     * @param values Array of criterium values.
+     * @param from First index in values array (inclusive).
+     * @param to Last index in values array (exclusive).
+     * @param valueOnLeft If true preferences of value over values from the array are calculated, otherwise preferences of values from the array over value.
+     * @param direction Optimization direction of the criterium.
+     * @param result Array to which preference values are written.
+     */
+    public void calculatePreferences(double value, double[] values, int from, int to, boolean valueOnLeft, Criterium.Direction direction, double[] result)   {
+                double q = this.q;
+                if(SortedSums.isDecreasing(valueOnLeft, direction))   {
+                            for(int k=from; k<to; k++)  {
+                                result[k-from] = value - values[k]<=q ? 0 : 1;
+                            }
+                }
+                else    {
+                            for(int k=from; k<to; k++)  {
+                                result[k-from] = values[k] - value<=q ? 0 : 1;
+                            }
+                }
+    }
 }
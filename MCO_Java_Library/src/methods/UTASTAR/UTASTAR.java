@@ -1,12 +1,14 @@
 package methods.UTASTAR;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
+import methods.BasicTypes.AlternativeBatches;
+import methods.BasicTypes.BatchScorer;
+import methods.BasicTypes.CsvReader;
+import methods.BasicTypes.DataFileException;
+import methods.BasicTypes.DecisionMatrix;
+import methods.BasicTypes.Ranking;
+import methods.BasicTypes.TopScores;
 import simplex.SimplexTable;
 
 /**
@@ -28,17 +30,17 @@ public class UTASTAR {
     
     
     /**
-     * LinkedList containing final ranking of reference alternatives after UTASTAR calculations. It is not always the same as preference standings provided by decision maker.
+     * Final ranking of reference alternatives after UTASTAR calculations. It is not always the same as preference standings provided by decision maker.
     */
-    private LinkedList<Alternative> referenceAlternativesRanking;
+    private Ranking<Alternative> referenceAlternativesRanking;
     /**
      * LinkedList containing all the alternatives in MCO problem represented by UTASTAR method object. Those alternatives will be scored using information obtained from reference alternatives preference standings (outranking) provided by decision maker.
     */
     private LinkedList<Alternative> alternatives;
     /**
-     * LinkedList containing all the alternatives in MCO problem represented by UTASTAR method object ordered by their score calculated by UTASTAR method based on reference alternative preference standings.
+     * Ranking of all the alternatives in MCO problem represented by UTASTAR method object ordered by their score calculated by UTASTAR method based on reference alternative preference standings.
     */
-    private LinkedList<Alternative> ranking;
+    private Ranking<Alternative> ranking;
     
     /**
      * Alternatives value difference triggering preference. Reference alternatives preference standings are interpreted by algorithm using this value.
@@ -95,8 +97,8 @@ public class UTASTAR {
                 this.criteria = new LinkedList<Criterium>();
                 this.referenceAlternatives = new LinkedList<Alternative>();
                 this.alternatives = new LinkedList<Alternative>();
-                this.referenceAlternativesRanking = new LinkedList<Alternative>();
-                this.ranking = new LinkedList<Alternative>();
+                this.referenceAlternativesRanking = new Ranking<Alternative>();
+                this.ranking = new Ranking<Alternative>();
                 this.preferenceThreshold = 0.05;
                 this.epsilon = 0.00001;
     }
@@ -111,8 +113,8 @@ public class UTASTAR {
                 this.criteria = criteria;
                 this.referenceAlternatives = referenceAlternatives;
                 this.alternatives = new LinkedList<Alternative>();
-                this.referenceAlternativesRanking = new LinkedList<Alternative>();
-                this.ranking = new LinkedList<Alternative>();
+                this.referenceAlternativesRanking = new Ranking<Alternative>();
+                this.ranking = new Ranking<Alternative>();
                 this.preferenceThreshold = 0.05;
                 this.epsilon = 0.00001;
     }
@@ -129,8 +131,8 @@ public class UTASTAR {
                  this.criteria = criteria;
                  this.referenceAlternatives = referenceAlternatives;
                  this.alternatives = new LinkedList<Alternative>();
-                 this.referenceAlternativesRanking = new LinkedList<Alternative>();
-                 this.ranking = new LinkedList<Alternative>();
+                 this.referenceAlternativesRanking = new Ranking<Alternative>();
+                 this.ranking = new Ranking<Alternative>();
                  this.preferenceThreshold = preferenceThreshold;
                  this.epsilon = epsilon;          
      }
@@ -146,8 +148,8 @@ public class UTASTAR {
                 this.criteria = criteria;
                 this.referenceAlternatives = referenceAlternatives;
                 this.alternatives = alternatives;
-                this.referenceAlternativesRanking = new LinkedList<Alternative>();
-                this.ranking = new LinkedList<Alternative>();
+                this.referenceAlternativesRanking = new Ranking<Alternative>();
+                this.ranking = new Ranking<Alternative>();
                 this.preferenceThreshold = 0.05;
                 this.epsilon = 0.00001;
     }
@@ -163,8 +165,8 @@ public class UTASTAR {
                  this.criteria = criteria;
                  this.referenceAlternatives = referenceAlternatives;
                  this.alternatives = alternatives;
-                 this.referenceAlternativesRanking = new LinkedList<Alternative>();
-                 this.ranking = new LinkedList<Alternative>();
+                 this.referenceAlternativesRanking = new Ranking<Alternative>();
+                 this.ranking = new Ranking<Alternative>();
                  this.preferenceThreshold = preferenceThreshold;
                  this.epsilon = epsilon;          
      }
@@ -187,87 +189,83 @@ public class UTASTAR {
     * Preference threshold is set to 0.05 and epsilon is set to 0.00001.
     * @param filename Path to the file from which data can be read. 
     * It should be structured as csv file in dataFileExamples/utastar.csv.
+    * Criteria values of the reference alternatives and the alternatives are parsed directly into two decision matrices, to which the alternatives are bound.
+    * @throws DataFileException if the file can not be read or has wrong format, exception points to the wrong line and column.
     */
     public UTASTAR(String filename) {
                 this.criteria = new LinkedList<Criterium>();
                 this.referenceAlternatives = new LinkedList<Alternative>();
                 this.alternatives = new LinkedList<Alternative>();
-                this.referenceAlternativesRanking = new LinkedList<Alternative>();
-                this.ranking = new LinkedList<Alternative>();
+                this.referenceAlternativesRanking = new Ranking<Alternative>();
+                this.ranking = new Ranking<Alternative>();
                 this.preferenceThreshold = 0.05;
                 this.epsilon = 0.00001;             
 			
-		BufferedReader br = null;
-		String line = "";
 		int refAltsCount = 0;
                 int altsCount = 0;
                 int refAltsIterationCount = 0;
                 int altsIterationCount = 0;
                 int criteriaCount = 0;
-                
-                String[] values;
+                Alternative[] referenceAlternativesRead = null;
+                Alternative[] alternativesRead = null;
+                DecisionMatrix referenceMatrix = null;
+                DecisionMatrix matrix = null;
 		
+		CsvReader reader = new CsvReader(filename);
 		try {
-                    br = new BufferedReader(new FileReader(filename));
-                    line = br.readLine(); 
-                    while(line != null)    {
-                        values = line.split(",");
-                        if(values[0].contentEquals("Criterium") && values.length>=3 && altsCount == 0)   {
-                                    Criterium criterium = new Criterium(values[1]);
-                                    for(int i = 2; i<values.length; i++)    {
-                                        criterium.addMufArg(Double.parseDouble(values[i]));
+                    while(reader.nextLine())    {
+                        int fieldsNum = reader.getFieldsNum();
+                        if(reader.fieldEquals(0, "Criterium") && fieldsNum>=3 && altsCount == 0)   {
+                                    Criterium criterium = new Criterium(reader.getString(1));
+                                    for(int i = 2; i<fieldsNum; i++)    {
+                                        criterium.addMufArg(reader.getDouble(i));
                                     }
                                     this.addCriterium(criterium);
                                     criteriaCount++;
                         }
-                        else if (values[0].contentEquals("ReferenceAlternatives") && refAltsCount == 0 && altsCount == 0 && criteriaCount != 0)   {                          
-                            for(int i=1; i<values.length;i++)   {
-                                Alternative alternative = new Alternative(values[i]);
+                        else if (reader.fieldEquals(0, "ReferenceAlternatives") && refAltsCount == 0 && altsCount == 0 && criteriaCount != 0)   {                          
+                            referenceAlternativesRead = new Alternative[fieldsNum-1];
+                            for(int i=1; i<fieldsNum;i++)   {
+                                Alternative alternative = new Alternative(reader.getString(i));
                                 this.addReferenceAlternative(alternative);
+                                referenceAlternativesRead[refAltsCount] = alternative;
                                 refAltsCount++;
                             }
+                            referenceMatrix = new DecisionMatrix(criteriaCount, refAltsCount, DecisionMatrix.Layout.COLUMN_MAJOR);
                         } 
-                        else if (values[0].contentEquals("PreferenceStandings") && refAltsCount != 0 && values.length == refAltsCount+1 && altsCount == 0 && criteriaCount != 0)   {                          
-                            for(int i=1; i<values.length;i++)   {
-                                this.getReferenceAlternative(i-1).setPreferenceStanding(Integer.parseInt(values[i]));
+                        else if (reader.fieldEquals(0, "PreferenceStandings") && refAltsCount != 0 && fieldsNum == refAltsCount+1 && altsCount == 0 && criteriaCount != 0)   {                          
+                            for(int i=1; i<fieldsNum;i++)   {
+                                referenceAlternativesRead[i-1].setPreferenceStanding(reader.getInt(i));
                             }
                         } 
-                        else if(refAltsCount !=0 && altsCount==0 && criteriaCount!=0 && refAltsIterationCount < refAltsCount && values.length == criteriaCount)   {
-                            for(int i=0; i<values.length; i++)  {
-                                this.getReferenceAlternative(refAltsIterationCount).addCriteriumValue(Double.parseDouble(values[i]));
-                            }
+                        else if(refAltsCount !=0 && altsCount==0 && criteriaCount!=0 && refAltsIterationCount < refAltsCount && fieldsNum == criteriaCount)   {
+                            reader.getColumn(referenceMatrix, refAltsIterationCount);
+                            referenceAlternativesRead[refAltsIterationCount].bindToDecisionMatrix(referenceMatrix, refAltsIterationCount);
                             refAltsIterationCount++;
                         }
-                        else if (values[0].contentEquals("Alternatives") && refAltsCount != 0 && altsCount == 0 && criteriaCount != 0)   {                          
-                            for(int i=1; i<values.length;i++)   {
-                                Alternative alternative = new Alternative(values[i]);
+                        else if (reader.fieldEquals(0, "Alternatives") && refAltsCount != 0 && altsCount == 0 && criteriaCount != 0)   {                          
+                            alternativesRead = new Alternative[fieldsNum-1];
+                            for(int i=1; i<fieldsNum;i++)   {
+                                Alternative alternative = new Alternative(reader.getString(i));
                                 this.addAlternative(alternative);
+                                alternativesRead[altsCount] = alternative;
                                 altsCount++;
                             }
+                            matrix = new DecisionMatrix(criteriaCount, altsCount, DecisionMatrix.Layout.COLUMN_MAJOR);
                         } 
-                        else if(refAltsCount !=0 && altsCount!=0 && criteriaCount!=0 && altsIterationCount < altsCount && values.length == criteriaCount)   {
-                            for(int i=0; i<values.length; i++)  {
-                                this.getAlternative(altsIterationCount).addCriteriumValue(Double.parseDouble(values[i]));
-                            }
+                        else if(refAltsCount !=0 && altsCount!=0 && criteriaCount!=0 && altsIterationCount < altsCount && fieldsNum == criteriaCount)   {
+                            reader.getColumn(matrix, altsIterationCount);
+                            alternativesRead[altsIterationCount].bindToDecisionMatrix(matrix, altsIterationCount);
                             altsIterationCount++;
                         }
                         else    {
-                            throw new Exception("Wrong file format");
+                            throw reader.error(0, "Wrong file format.");
                         }
-                        line = br.readLine(); 
                     }
-                   
-                    br.close();
                 }
-                catch (FileNotFoundException e) {
-        			e.printStackTrace();
-		}
-		catch (IOException e) {
-				e.printStackTrace();
-				
-                } catch (Exception e) {
-        			e.printStackTrace();
-		}       					
+                finally {
+                    reader.close();
+                }
     }
    
     /**
@@ -614,6 +612,76 @@ public class UTASTAR {
         alternative.setScore(score);
     }
     
+    /**
+     * Calculates scores of all the alternatives from the list based on marginal utility function calculated by UTASTAR method.
+     * Criteria values are read from column-major decision matrix instead of criteria values lists of the alternatives.
+     * @param alternativesList List of alternatives for which scores will be calculated. The alternatives criteria values have to be in compliance with UTASTAR object criteria list.
+     */
+    private void calculateAlternativesScores(LinkedList<Alternative> alternativesList) {
+        int criteriaNum = this.getCriteriaNum();
+        DecisionMatrix matrix = DecisionMatrix.of(alternativesList, criteriaNum, DecisionMatrix.Layout.COLUMN_MAJOR);
+        double[] values = matrix.getValues();
+        Criterium[] criteriaArray = criteria.toArray(new Criterium[criteriaNum]);
+        int offset = 0;
+        for(Iterator<Alternative> it = alternativesList.iterator(); it.hasNext(); offset += criteriaNum)  {
+            double score = 0;
+            for(int i=0; i<criteriaNum; i++)  {
+                score = score + criteriaArray[i].getMarginalUtilityFunctionValue(values[offset+i]);
+            }
+            it.next().setScore(score);
+        }
+    }
+    
+    /**
+     * Creates ranking of the alternatives by their scores.
+     * @param alternativesList List of scored alternatives.
+     * @return Ranking object, alternatives are ordered lazily.
+     */
+    private static Ranking<Alternative> rankByScore(LinkedList<Alternative> alternativesList) {
+        double[] scores = new double[alternativesList.size()];
+        int i = 0;
+        for(Iterator<Alternative> it = alternativesList.iterator(); it.hasNext(); i++)  {
+            scores[i] = it.next().getScore();
+        }
+        return new Ranking<Alternative>(alternativesList, scores);
+    }
+    
+    /**
+     * Scores alternatives read from data file batch by batch using marginal utility functions and returns k best of them, without adding them to UTASTAR object.
+     * Memory used does not depend on the number of alternatives in the file, so files with more alternatives than fits in memory can be ranked.
+     * Marginal utility functions have to be calculated by calculate() method first. The file is read as described in AlternativeBatches class
+     * (values of alternatives after Alternatives line of UTASTAR data file, or file with criteria values only), alternatives are identified by order numbers of their lines with criteria values.
+     * @param filename Path to the file.
+     * @param k Number of best alternatives to return.
+     * @param batchSize Number of alternatives read at once.
+     * @return TopScores object with order numbers and scores of k best alternatives.
+     * @throws DataFileException if the file can not be read or has wrong format.
+     */
+    public TopScores rankFile(String filename, int k, int batchSize) {
+        final int criteriaNum = this.getCriteriaNum();
+        final Criterium[] criteriaArray = criteria.toArray(new Criterium[criteriaNum]);
+        AlternativeBatches batches = new AlternativeBatches(filename, criteriaNum, batchSize, DecisionMatrix.Layout.COLUMN_MAJOR);
+        try {
+            return batches.rank(new BatchScorer() {
+                @Override
+                public void calculateScores(DecisionMatrix batch, double[] scores) {
+                    double[] values = batch.getValues();
+                    int offset = 0;
+                    for(int j=0; j<batch.getAlternativesNum(); j++, offset += criteriaNum)  {
+                        double score = 0;
+                        for(int i=0; i<criteriaNum; i++)  {
+                            score = score + criteriaArray[i].getMarginalUtilityFunctionValue(values[offset+i]);
+                        }
+                        scores[j] = score;
+                    }
+                }
+            }, k);
+        }
+        finally {
+            batches.close();
+        }
+    }
+    
   
     /**
      * Performs UTASTAR method calculations on data added to UTASTAR object. 
@@ -675,48 +743,16 @@ public class UTASTAR {
               this.getCriterium(i).marginalUtilityFunction.set(j, temp[i]);
           }
 
-          for(int z=0; z<this.getReferenceAlternativesNum(); z++)   {
-              this.calculateAlternativeScore(this.getReferenceAlternative(z));
-          }
-          
-          for(int z=0; z<this.getAlternativesNum(); z++)   {
-              this.calculateAlternativeScore(this.getAlternative(z));
-          }          
+          this.calculateAlternativesScores(referenceAlternatives);
+          this.calculateAlternativesScores(alternatives);
           
           
           if(alternatives.size()==0)    {
-              alternatives = referenceAlternativesRanking;
+              alternatives = referenceAlternativesRanking.toList();
           }
       
-          this.referenceAlternativesRanking = new LinkedList<Alternative>(referenceAlternatives);
-          this.ranking = new LinkedList<Alternative>(alternatives);
-          
-          
-            Collections.sort(this.referenceAlternativesRanking, new Comparator<Alternative>() {
-             @Override
-             public int compare(Alternative o1, Alternative o2) {
-                 if(o1.getScore()<o2.getScore())    {
-                     return 1;
-                 }
-                 else if(o1.getScore()>o2.getScore())  {
-                     return -1;
-                 }
-                 return 0;
-             }
-            });
-            
-            Collections.sort(this.ranking, new Comparator<Alternative>() {
-             @Override
-             public int compare(Alternative o1, Alternative o2) {
-                 if(o1.getScore()<o2.getScore())    {
-                     return 1;
-                 }
-                 else if(o1.getScore()>o2.getScore())  {
-                     return -1;
-                 }
-                 return 0;
-             }
-            });
+          this.referenceAlternativesRanking = rankByScore(referenceAlternatives);
+          this.ranking = rankByScore(alternatives);
         }
         catch(Exception e)  {
             e.printStackTrace();
@@ -841,10 +877,20 @@ public class UTASTAR {
     
         /**
      * Returns alternatives ranking - all the alternatives in UTASTAR object ordered by their score calculated by UTASTAR method. 
+     * The whole ranking is ordered on first call, use getTopAlternatives method if only the best alternatives are needed.
      * @return LinkedList object containing Alternative objects ordered by their UTASTAR score. 
      */
     public LinkedList<Alternative> getRanking() {
-        return ranking;
+        return ranking.toList();
+    }
+    
+    /**
+     * Returns k best alternatives of ranking calculated by UTASTAR method, without ordering the rest of the ranking.
+     * @param k Number of alternatives.
+     * @return LinkedList object containing at most k Alternative objects ordered by their UTASTAR score.
+     */
+    public LinkedList<Alternative> getTopAlternatives(int k) {
+        return ranking.top(k);
     }
     
         /**
@@ -853,7 +899,7 @@ public class UTASTAR {
      * @return LinkedList object containing reference alternatives Alternative objects ordered by their UTASTAR score. 
      */
     public LinkedList<Alternative> getReferenceAlternativesRanking() {
-        return referenceAlternativesRanking;
+        return referenceAlternativesRanking.toList();
     }
     
     
@@ -896,10 +942,7 @@ public class UTASTAR {
      * @return Alternative object of alternative with wanted rank.
      */
     public Alternative getAlternativeByRank(int rank)    {
-        if(rank>=this.ranking.size()) {
-            throw new IndexOutOfBoundsException("There is no alternative with this index.");
-        }
-        return ranking.get(rank-1);
+        return ranking.get(rank);
     }    
     
     /**
@@ -908,10 +951,7 @@ public class UTASTAR {
      * @return Alternative object of reference alternative with wanted rank.
      */
     public Alternative getReferenceAlternativeByRank(int rank)    {
-        if(rank>=this.referenceAlternativesRanking.size()) {
-            throw new IndexOutOfBoundsException("There is no alternative with this index.");
-        }
-        return this.referenceAlternativesRanking.get(rank-1);
+        return this.referenceAlternativesRanking.get(rank);
     }      
     
     /**
@@ -4,6 +4,15 @@ import org.ejml.simple.SimpleMatrix;
 import org.ejml.simple.SimpleEVD;
 import methods.AHP.Criterium;
 import methods.AHP.Alternative;
+import methods.AHP.IncompleteComparisons;
+import methods.AHP.RandomConsistencyIndex;
+import methods.BasicTypes.TopScores;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
 
 /**
  *
@@ -152,5 +161,294 @@ public class AHP_test {
         System.out.println("Alternatywa 2 o nazwie " + ahpTest.getAlternative(2).getName() + " " + ahpTest.getAlternativeValue(2));
         System.out.println("Alternatywa 3 o nazwie " + ahpTest.getAlternative(3).getName() + " " + ahpTest.getAlternativeValue(3));
     }
+    public static void testPowerIteration()   {
+        System.out.println();
+        System.out.println(">>>>> TEST AHP, WEKTOR PRIORYTETOW METODA POTEGOWA I PRZEZ ROZKLAD EVD <<<<<");
+        int n = 300;
+        double[][] comparisons = createComparisons(n, new Random(n));
+        double[][] criteria = {{1.0}};
+        AHP power = new AHP();
+        AHP evd = new AHP();
+        evd.setEigenvectorMethod(AHP.EigenvectorMethod.EVD);
+        for(AHP ahp : new AHP[] {power, evd})   {
+            ahp.addCriterium(new Criterium("c1"));
+            ahp.setCriteriaMatrix(criteria, false);
+            for(int i=0; i<n; i++)  {
+                ahp.addAlternative(new Alternative("a" + i));
+            }
+            ahp.addAltsCriteriumValues(comparisons, false);
+        }
+        long start = System.nanoTime();
+        power.calculate();
+        long powerTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        evd.calculate();
+        long evdTime = System.nanoTime() - start;
+        System.out.println("n: " + n + " metoda potegowa: " + powerTime/1000000 + " ms EVD: " + evdTime/1000000 + " ms");
+        double maxDifference = 0;
+        for(int i=0; i<n; i++)  {
+            maxDifference = Math.max(maxDifference, Math.abs(power.getAlternativeValue(i) - evd.getAlternativeValue(i)));
+        }
+        double[][] style = {
+			{1.0000, 0.2500, 4.0000, 0.1667},
+			{4.0000, 1.0000, 4.0000, 0.2500},
+			{0.2500, 0.2500, 1.0000, 0.2000},
+                        {6.0000, 4.0000, 5.0000, 1.0000}
+	};
+        double crDifference = Math.abs(power.calculateConsistencyRatio(new SimpleMatrix(style)) - evd.calculateConsistencyRatio(new SimpleMatrix(style)));
+        System.out.println("roznica ocen mniejsza niz 1e-12: " + (maxDifference < 1e-12) + " roznica CR mniejsza niz 1e-12: " + (crDifference < 1e-12));
+    }
+    
+    public static void testParallelCriteria()   {
+        System.out.println();
+        System.out.println(">>>>> TEST AHP, ROWNOLEGLE OBLICZANIE WEKTOROW PRIORYTETOW KRYTERIOW <<<<<");
+        int n = 200;
+        int m = 8;
+        Random random = new Random(m);
+        double[][] criteria = createComparisons(m, random);
+        double[][][] comparisons = new double[m][][];
+        for(int c=0; c<m; c++)  {
+            comparisons[c] = createComparisons(n, random);
+        }
+        AHP sequential = new AHP();
+        sequential.setParallelism(1);
+        AHP parallel = new AHP();
+        parallel.setParallelism(4);
+        long[] times = new long[2];
+        int k = 0;
+        for(AHP ahp : new AHP[] {sequential, parallel})   {
+            for(int c=0; c<m; c++)  {
+                ahp.addCriterium(new Criterium("c" + c));
+            }
+            ahp.setCriteriaMatrix(criteria, false);
+            for(int i=0; i<n; i++)  {
+                ahp.addAlternative(new Alternative("a" + i));
+            }
+            for(int c=0; c<m; c++)  {
+                ahp.addAltsCriteriumValues(comparisons[c], false);
+            }
+            long start = System.nanoTime();
+            ahp.calculate();
+            times[k++] = System.nanoTime() - start;
+        }
+        System.out.println("n: " + n + " kryteria: " + m + " sekwencyjnie: " + times[0]/1000000 + " ms rownolegle: " + times[1]/1000000 + " ms");
+        boolean identical = true;
+        for(int i=0; i<n; i++)  {
+            identical = identical && sequential.getAlternativeValue(i) == parallel.getAlternativeValue(i);
+        }
+        for(int c=0; c<m; c++)  {
+            identical = identical && sequential.getAltsCriteriaValues_cr(c) == parallel.getAltsCriteriaValues_cr(c);
+        }
+        System.out.println("watki: " + parallel.getParallelism() + " wyniki identyczne: " + identical);
+    }
+    
+    public static void testRatings() throws IOException   {
+        System.out.println();
+        System.out.println(">>>>> TEST AHP, TRYB OCEN (POMIAR ABSOLUTNY) <<<<<");
+        int n = 100000;
+        int k = 10;
+        AHP ahp = new AHP();
+        ahp.addCriterium(new Criterium("cena"));
+        ahp.addCriterium(new Criterium("jakosc"));
+        ahp.addCriterium(new Criterium("dostawa"));
+        ahp.setCriteriaMatrix(new double[][] {{1, 3, 5}, {0, 1, 2}, {0, 0, 1}}, true);
+        ahp.addRatingScale(new String[] {"niska", "srednia", "wysoka"}, new double[][] {{1, 3, 7}, {0, 1, 3}, {0, 0, 1}}, true);
+        ahp.addRatingScale(new String[] {"doskonala", "dobra", "przecietna", "slaba"}, new double[][] {{1, 2, 5, 9}, {0, 1, 3, 6}, {0, 0, 1, 3}, {0, 0, 0, 1}}, true);
+        ahp.addRatingScale(new String[] {"szybka", "wolna"}, new double[][] {{1, 4}, {0, 1}}, true);
+        
+        Random random = new Random(n);
+        File ratingsFile = File.createTempFile("ahp", ".csv");
+        Writer ratings = new FileWriter(ratingsFile);
+        for(int i=0; i<n; i++)  {
+            Alternative alternative = new Alternative("a" + i);
+            String line = "";
+            for(int c=0; c<3; c++)  {
+                int intensity = random.nextInt(ahp.getRatingScale(c).getIntensitiesNum());
+                alternative.addCriteriumValue(intensity);
+                line = line + (c > 0 ? "," : "") + intensity;
+            }
+            ahp.addAlternative(alternative);
+            ratings.write(line + "\n");
+        }
+        ratings.close();
+        
+        long start = System.nanoTime();
+        ahp.calculateRatings();
+        System.out.println("n: " + n + " ocena alternatyw: " + (System.nanoTime() - start)/1000000 + " ms");
+        System.out.println("wagi kryteriow: " + ahp.getCriteriaWeights().get(0) + " " + ahp.getCriteriaWeights().get(1) + " " + ahp.getCriteriaWeights().get(2));
+        for(int c=0; c<3; c++)  {
+            String priorities = "";
+            for(int i=0; i<ahp.getRatingScale(c).getIntensitiesNum(); i++)  {
+                priorities = priorities + " " + ahp.getRatingScale(c).getIntensityName(i) + "=" + ahp.getRatingScale(c).getPriority(i);
+            }
+            System.out.println("skala kryterium " + ahp.getCriterium(c).getName() + ":" + priorities + " CR: " + ahp.getRatingScale(c).getConsistencyRatio());
+        }
+        
+        Alternative alternative = ahp.getAlternative(12345);
+        double expected = 0;
+        for(int c=0; c<3; c++)  {
+            expected = expected + ahp.getCriteriumWeight(c) * ahp.getRatingScale(c).getPriority(alternative.getCriteriumValue(c).intValue());
+        }
+        System.out.println("wynik alternatywy " + alternative.getName() + " zgodny z wagami i ocenami: " + (Math.abs(expected - alternative.getScore()) < 1e-15));
+        
+        long[] expectedIndices = new long[k];
+        double[] expectedScores = new double[k];
+        int rank = 0;
+        for(Alternative top : ahp.getTopAlternatives(k)) {
+            expectedIndices[rank] = top.getId();
+            expectedScores[rank++] = top.getScore();
+        }
+        TopScores fromFile = ahp.rankFile(ratingsFile.getPath(), k, 4096);
+        System.out.println("przeczytane alternatywy: " + fromFile.getOfferedNum() + " zgodne z calculateRatings(): " 
+                + (Arrays.equals(expectedIndices, fromFile.getIndices()) && Arrays.equals(expectedScores, fromFile.getScores())));
+        ratingsFile.delete();
+    }
+    
+    public static void testRandomConsistencyIndex() throws IOException   {
+        System.out.println();
+        System.out.println(">>>>> TEST AHP, SYMULOWANY INDEKS LOSOWEJ ZGODNOSCI DLA DOWOLNEGO ROZMIARU MACIERZY <<<<<");
+        File cacheFile = File.createTempFile("ahp_ri", ".csv");
+        RandomConsistencyIndex provider = new RandomConsistencyIndex(cacheFile);
+        double simulated = provider.simulate(10, 5000);
+        System.out.println("symulowany RI(10) zgodny z tablica (1.49): " + (Math.abs(simulated - provider.getIndex(10)) < 0.03));
+        
+        int n = 40;
+        long start = System.nanoTime();
+        double index = provider.getIndex(n);
+        long simulationTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        double cached = new RandomConsistencyIndex(cacheFile).getIndex(n);
+        long cacheTime = System.nanoTime() - start;
+        System.out.println("RI(" + n + ") symulacja: " + simulationTime/1000000 + " ms z pliku: " + cacheTime/1000000 + " ms");
+        System.out.println("RI(" + n + ") miedzy RI(15) a 2: " + (index > provider.getIndex(15) && index < 2) + " wartosc z pliku identyczna: " + (index == cached));
+        
+        // simulation is seeded, so value does not depend on provider nor on number of threads
+        RandomConsistencyIndex single = new RandomConsistencyIndex();
+        single.setParallelism(1);
+        RandomConsistencyIndex parallel = new RandomConsistencyIndex();
+        parallel.setParallelism(4);
+        System.out.println("RI(" + n + ") powtarzalny dla 1 i 4 watkow: " + (single.getIndex(n) == index && parallel.getIndex(n) == index)
+                + " inny seed daje inna wartosc: " + (single.simulate(n, RandomConsistencyIndex.getSamplesNum(n), 1) != index));
+        System.out.println("domyslny dostawca bez pliku: " + (RandomConsistencyIndex.getDefault().getCacheFile() == null));
+        
+        AHP ahp = new AHP();
+        ahp.setRandomConsistencyIndex(provider);
+        double[][] comparisons = createComparisons(n, new Random(n));
+        double ratio = ahp.calculateConsistencyRatio(new SimpleMatrix(comparisons));
+        System.out.println("CR macierzy " + n + " x " + n + " bliskiej zgodnej: 0 < CR < 0.1: " + (ratio > 0 && ratio < 0.1));
+        cacheFile.delete();
+    }
+    
+    public static void testIncompleteComparisons()   {
+        System.out.println();
+        System.out.println(">>>>> TEST AHP, NIEPELNE POROWNANIA PARAMI (METODA NAJMNIEJSZYCH KWADRATOW LOGARYTMOW) <<<<<");
+        int n = 5000;
+        int k = 10;
+        Random random = new Random(n);
+        double[] weights = new double[n];
+        double weightsSum = 0;
+        for(int i=0; i<n; i++)  {
+            weights[i] = 1 + 8*random.nextDouble();
+            weightsSum = weightsSum + weights[i];
+        }
+        // every alternative is compared with the next one (so comparisons are connected) and with k-1 random ones
+        IncompleteComparisons consistent = new IncompleteComparisons(n);
+        IncompleteComparisons disturbed = new IncompleteComparisons(n);
+        for(int i=0; i<n; i++)  {
+            for(int c=0; c<k; c++)  {
+                int j = c == 0 ? (i+1) % n : random.nextInt(n);
+                if(j != i)  {
+                    consistent.addComparison(i, j, weights[i]/weights[j]);
+                    disturbed.addComparison(i, j, weights[i]/weights[j] * (0.8 + 0.4*random.nextDouble()));
+                }
+            }
+        }
+        AHP ahp = new AHP();
+        ahp.addCriterium(new Criterium("c1"));
+        ahp.addCriterium(new Criterium("c2"));
+        ahp.setCriteriaMatrix(new double[][] {{1, 2}, {0, 1}}, true);
+        for(int i=0; i<n; i++)  {
+            ahp.addAlternative(new Alternative("a" + i));
+        }
+        ahp.addAltsCriteriumComparisons(consistent);
+        ahp.addAltsCriteriumComparisons(disturbed);
+        long start = System.nanoTime();
+        ahp.calculate();
+        System.out.println("n: " + n + " porownania: " + (consistent.getComparisonsNum() + disturbed.getComparisonsNum()) + " obliczenia: " + (System.nanoTime() - start)/1000000 + " ms");
+        double maxError = 0;
+        double meanError = 0;
+        for(int i=0; i<n; i++)  {
+            double expected = weights[i]/weightsSum;
+            maxError = Math.max(maxError, Math.abs(ahp.getAlternativeCriteriumValue(i, 0) - expected)/expected);
+            meanError = meanError + Math.abs(ahp.getAlternativeCriteriumValue(i, 1) - expected)/expected/n;
+        }
+        System.out.println("zgodne porownania odtwarzaja wagi: " + (maxError < 1e-9) + " sredni blad wzgledny dla zaburzonych < 5%: " + (meanError < 0.05));
+        
+        // complete consistent matrix given sparsely gives the same priorities as eigenvector of the dense one
+        int m = 6;
+        double[][] complete = new double[m][m];
+        double[][] upper = new double[m][m];
+        int[] rowStarts = new int[m+1];
+        int[] columns = new int[m*(m-1)/2];
+        double[] values = new double[columns.length];
+        for(int i=0; i<m; i++)  {
+            rowStarts[i+1] = rowStarts[i];
+            for(int j=0; j<m; j++)  {
+                complete[i][j] = weights[i]/weights[j];
+                if(i < j)   {
+                    upper[i][j] = complete[i][j];
+                    columns[rowStarts[i+1]] = j;
+                    values[rowStarts[i+1]] = complete[i][j];
+                    rowStarts[i+1]++;
+                }
+            }
+        }
+        IncompleteComparisons sparse = IncompleteComparisons.of(rowStarts, columns, values);
+        double matrixDifference = 0;
+        double[][] restored = sparse.toMatrix();
+        for(int i=0; i<m; i++)  {
+            for(int j=0; j<m; j++)  {
+                matrixDifference = Math.max(matrixDifference, Math.abs(restored[i][j] - complete[i][j])/complete[i][j]);
+            }
+        }
+        System.out.println("macierz CSR zgodna z tablica z zerami: " + (IncompleteComparisons.of(upper).getComparisonsNum() == sparse.getComparisonsNum())
+                + " odtworzona macierz odwrotnosciowa: " + (matrixDifference < 1e-12));
+        AHP dense = new AHP();
+        AHP incomplete = new AHP();
+        for(AHP small : new AHP[] {dense, incomplete})   {
+            small.addCriterium(new Criterium("c1"));
+            small.setCriteriaMatrix(new double[][] {{1}}, false);
+            for(int i=0; i<m; i++)  {
+                small.addAlternative(new Alternative("a" + i));
+            }
+        }
+        dense.addAltsCriteriumValues(complete, false);
+        incomplete.addAltsCriteriumComparisons(sparse);
+        dense.calculate();
+        incomplete.calculate();
+        double difference = 0;
+        for(int i=0; i<m; i++)  {
+            difference = Math.max(difference, Math.abs(dense.getAlternativeValue(i) - incomplete.getAlternativeValue(i)));
+        }
+        System.out.println("macierz rzadka zgodna z gesta: " + (difference < 1e-12));
+    }
+    
+    private static double[][] createComparisons(int n, Random random)   {
+        double[] weights = new double[n];
+        for(int i=0; i<n; i++)  {
+            weights[i] = 1 + 8*random.nextDouble();
+        }
+        // nearly consistent reciprocal matrix, ratios of weights disturbed by up to 20%
+        double[][] comparisons = new double[n][n];
+        for(int i=0; i<n; i++)  {
+            comparisons[i][i] = 1;
+            for(int j=i+1; j<n; j++)  {
+                comparisons[i][j] = weights[i]/weights[j] * (0.8 + 0.4*random.nextDouble());
+                comparisons[j][i] = 1/comparisons[i][j];
+            }
+        }
+        return comparisons;
+    }
+    
 }
 
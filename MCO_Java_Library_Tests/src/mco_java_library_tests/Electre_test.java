@@ -1,12 +1,34 @@
 package mco_java_library_tests;
 
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import methods.BasicTypes.DataFileException;
+import methods.BasicTypes.MatrixStorage;
+import methods.BasicTypes.RankAcceptability;
+import methods.Electre.Alternative;
+import methods.Electre.Criterium;
+import methods.Electre.Electre;
 import methods.Electre.ElectreI;
 import methods.Electre.ElectreIII;
 import methods.Electre.ElectreIv;
 import methods.Electre.ElectreIs;
+import methods.Electre.ElectreScoreModel;
 import methods.Electre.ElectreII;
 import methods.Electre.ElectreTri;
+import methods.Electre.OutrankingRelation;
+import methods.Electre.ProfileAssignment;
+import methods.Promethee.Promethee2;
 
 public class Electre_test {
 
@@ -68,5 +90,531 @@ public class Electre_test {
 
         
 	}
-}
 
+	public static void testTies()   {
+		
+        System.out.println();
+        System.out.println(">>>>> TEST ElectreI, REMISY NA KRYTERIACH <<<<<");
+        double[][] values = {
+        		{ 1.0, 5.0, 2.0, 7.0 },
+        		{ 1.0, 4.0, 2.0, 9.0 },
+        		{ 3.0, 5.0, 1.0, 7.0 },
+        		{ 1.0, 5.0, 2.0, 7.0 },
+        		{ 2.0, 6.0, 2.0, 8.0 }
+        };
+        ElectreI symmetric = createElectre(new ElectreI(), values);
+        ElectreI pairwise = createElectre(new PairwiseElectreI(), values);
+        symmetric.calculate();
+        pairwise.calculate();
+        
+        System.out.println("max roznica zgodnosci: " + maxDifference(symmetric.getConcordanceMatrix(), pairwise.getConcordanceMatrix()));
+        System.out.println("max roznica niezgodnosci: " + maxDifference(symmetric.getDiscordanceMatrix(), pairwise.getDiscordanceMatrix()));
+        
+        // concordance(i,j) + concordance(j,i) = 1 + sum of weights of criteria on which alternatives are tied
+        double maxError = 0;
+        for(int i=0; i<values.length; i++)  {
+        	for(int j=i+1; j<values.length; j++)  {
+        		double tied = 0;
+        		for(int cri=0; cri<symmetric.getCriteriaNum(); cri++)  {
+        			if(values[i][cri] == values[j][cri])  {
+        				tied += symmetric.getCriterium(cri).getWeight();
+        			}
+        		}
+        		double sum = symmetric.getConcordanceMatrix().get(i, j) + symmetric.getConcordanceMatrix().get(j, i);
+        		maxError = Math.max(maxError, Math.abs(sum - 1 - tied));
+        	}
+        }
+        System.out.println("max blad sumy zgodnosci par: " + maxError);
+        System.out.println("zgodnosc identycznych alternatyw Car1 i Car4: " + symmetric.getConcordanceMatrix().get(0, 3) + " " + symmetric.getConcordanceMatrix().get(3, 0));
+        System.out.println("niezgodnosc identycznych alternatyw Car1 i Car4: " + symmetric.getDiscordanceMatrix().get(0, 3) + " " + symmetric.getDiscordanceMatrix().get(3, 0));
+	}
+	
+	public static void testKernel()   {
+		
+        System.out.println();
+        System.out.println(">>>>> TEST ElectreI, JADRO RELACJI PRZEWYZSZANIA <<<<<");
+        double[][] values = {
+        		{ 1.0, 5.0, 2.0, 7.0 },
+        		{ 1.0, 4.0, 2.0, 9.0 },
+        		{ 3.0, 5.0, 1.0, 7.0 },
+        		{ 1.0, 5.0, 2.0, 7.0 },
+        		{ 2.0, 6.0, 2.0, 8.0 },
+        		{ 9.0, 1.0, 9.0, 1.0 }
+        };
+        ElectreI electre = createElectre(new ElectreI(), values);
+        electre.calculate();
+        OutrankingRelation relation = electre.getOutrankingRelation();
+        for(int a=0; a<values.length; a++)  {
+        	System.out.print(electre.getAlternative(a).getName() + " przewyzsza:");
+        	for(int b=0; b<values.length; b++)  {
+        		if(relation.outranks(a, b))  {
+        			System.out.print(" " + electre.getAlternative(b).getName());
+        		}
+        	}
+        	System.out.println(" (skladowa " + relation.getComponents()[a] + ")");
+        }
+        System.out.println("cykle: " + electre.hasCycles());
+        System.out.print("jadro:");
+        for(Alternative alternative : electre.getKernel())  {
+        	System.out.print(" " + alternative.getName());
+        }
+        System.out.println();
+        
+        int n = 2000;
+        double[][] random = randomValues(n, 6, new Random(n));
+        ElectreI fromMatrices = createElectre(new ElectreI(), random);
+        fromMatrices.calculate();
+        ElectreI streaming = createElectre(new ElectreI(), random);
+        long start = System.nanoTime();
+        OutrankingRelation streamed = streaming.calculateOutrankingRelation();
+        int kernelSize = streaming.getKernel().size();
+        long time = System.nanoTime() - start;
+        int differences = 0;
+        for(int a=0; a<n; a++)  {
+        	for(int b=0; b<n; b++)  {
+        		if(streamed.outranks(a, b) != fromMatrices.getOutrankingRelation().outranks(a, b))  {
+        			differences++;
+        		}
+        	}
+        }
+        System.out.println("n: " + n + " relacja bez macierzy i jadro: " + time/1000000 + " ms rozne pary: " + differences
+        		+ " skladowe: " + streamed.getComponentsNum() + " jadro: " + kernelSize + " " + fromMatrices.getKernel().size());
+	}
+	
+	public static void testDistillation()   {
+		
+        System.out.println();
+        System.out.println(">>>>> TEST ElectreIII, DESTYLACJA ZSTEPUJACA I WSTEPUJACA <<<<<");
+        ElectreIII electre = new ElectreIII(Electre_test.class.getResource("/datafileExamples/electre.csv").getPath());
+        electre.calculate();
+        printClasses("destylacja zstepujaca:", electre.getDescendingDistillation());
+        printClasses("destylacja wstepujaca:", electre.getAscendingDistillation());
+        printClasses("preporzadek koncowy:", electre.getFinalPreorder());
+        for(int a=0; a<electre.getAlternativesNum(); a++)  {
+        	for(int b=a+1; b<electre.getAlternativesNum(); b++)  {
+        		System.out.print(electre.getAlternative(a).getName() + "-" + electre.getAlternative(b).getName() + ": " + electre.getPreorderRelation(a, b) + " ");
+        	}
+        }
+        System.out.println();
+	}
+	
+	private static void printClasses(String title, List<LinkedList<Alternative>> classes)   {
+		
+		System.out.print(title);
+		for(LinkedList<Alternative> alternatives : classes)  {
+			System.out.print(" {");
+			for(Alternative alternative : alternatives)  {
+				System.out.print(" " + alternative.getName());
+			}
+			System.out.print(" }");
+		}
+		System.out.println();
+	}
+	
+	public static void testProfileAssignment()   {
+		
+        System.out.println();
+        System.out.println(">>>>> TEST ElectreTri-B, PRZYDZIAL DO KATEGORII WZGLEDEM PROFILI <<<<<");
+        ElectreTri electre = new ElectreTri(Electre_test.class.getResource("/datafileExamples/electre_tri.csv").getPath());
+        electre.calculate();
+        printClasses("przydzial pesymistyczny:", electre.getCategories(ProfileAssignment.Procedure.PESSIMISTIC));
+        printClasses("przydzial optymistyczny:", electre.getCategories(ProfileAssignment.Procedure.OPTIMISTIC));
+        
+        // large problem: one thread and four threads give the same categories, pessimistic category is never better than optimistic one
+        int n = 200000;
+        double[][] values = randomValues(n, 4, new Random(n));
+        ElectreTri single = createProfiles(createElectre(new ElectreTri(), values));
+        single.setParallelism(1);
+        single.calculate();
+        ElectreTri parallel = createProfiles(createElectre(new ElectreTri(), values));
+        parallel.setParallelism(4);
+        parallel.calculate();
+        int[] pessimistic = single.getAssignment(ProfileAssignment.Procedure.PESSIMISTIC);
+        int[] optimistic = single.getAssignment(ProfileAssignment.Procedure.OPTIMISTIC);
+        boolean ordered = true;
+        int[] counts = new int[2*single.getProfiles().size() + 2];
+        for(int i=0; i<n; i++)  {
+        	ordered = ordered && pessimistic[i] <= optimistic[i];
+        	counts[pessimistic[i]]++;
+        	counts[single.getProfiles().size() + 1 + optimistic[i]]++;
+        }
+        System.out.println("n: " + n + " liczebnosci kategorii (pesymistycznie, optymistycznie): " + Arrays.toString(counts)
+        		+ " zgodnosc watkow: " + (Arrays.equals(pessimistic, parallel.getAssignment(ProfileAssignment.Procedure.PESSIMISTIC))
+        				&& Arrays.equals(optimistic, parallel.getAssignment(ProfileAssignment.Procedure.OPTIMISTIC)))
+        		+ " pesymistyczna <= optymistyczna: " + ordered);
+	}
+	
+	public static void testParallelism()   {
+		
+        System.out.println();
+        System.out.println(">>>>> TEST Electre, MACIERZE LICZONE W 1 I 4 WATKACH <<<<<");
+        double[][] values = randomValues(500, 5, new Random(500));
+        Electre[][] pairs = {{new ElectreI(), new ElectreI()}, {new ElectreIs(), new ElectreIs()}, {new ElectreIv(), new ElectreIv()},
+        		{new ElectreII(), new ElectreII()}, {new ElectreIII(), new ElectreIII()}};
+        for(Electre[] pair : pairs)  {
+        	Electre single = createElectre(pair[0], values);
+        	single.setParallelism(1);
+        	calculate(single);
+        	Electre parallel = createElectre(pair[1], values);
+        	parallel.setParallelism(4);
+        	calculate(parallel);
+        	boolean identical = sameMatrix(single.getConcordanceMatrix(), parallel.getConcordanceMatrix())
+        			&& sameMatrix(single.getDiscordanceMatrix(), parallel.getDiscordanceMatrix())
+        			&& sameMatrix(single.getCredibilityMatrix(), parallel.getCredibilityMatrix());
+        	System.out.println(single.getClass().getSimpleName() + ": macierze identyczne: " + identical
+        			+ " rangi zgodne: " + Arrays.equals(single.getDenseRanks(), parallel.getDenseRanks()));
+        }
+	}
+	
+	private static void calculate(Electre electre)   {
+		
+		if(electre instanceof ElectreI)  {
+			((ElectreI) electre).calculate();
+		}
+		else if(electre instanceof ElectreIs)  {
+			((ElectreIs) electre).calculate();
+		}
+		else if(electre instanceof ElectreIv)  {
+			((ElectreIv) electre).calculate();
+		}
+		else if(electre instanceof ElectreII)  {
+			((ElectreII) electre).calculate();
+		}
+		else  {
+			((ElectreIII) electre).calculate();
+		}
+	}
+	
+	/**
+	 * Checks whether matrices are both missing or have identical elements.
+	 */
+	private static boolean sameMatrix(MatrixStorage a, MatrixStorage b)   {
+		
+		if(a == null || b == null)  {
+			return a == b;
+		}
+		return a.numRows() == b.numRows() && a.numCols() == b.numCols() && maxDifference(a, b) == 0;
+	}
+	
+	public static void testSnapshot() throws IOException   {
+		
+        System.out.println();
+        System.out.println(">>>>> TEST ElectreTri-B, ZAPIS I ODCZYT MIGAWKI BINARNEJ <<<<<");
+        ElectreTri fromCsv = new ElectreTri(Electre_test.class.getResource("/datafileExamples/electre_tri.csv").getPath());
+        File snapshotFile = File.createTempFile("electre", ".mcos");
+        fromCsv.writeSnapshot(snapshotFile.getPath());
+        ElectreTri fromSnapshot = new ElectreTri(snapshotFile.getPath());
+        fromCsv.calculate();
+        fromSnapshot.calculate();
+        printClasses("przydzial pesymistyczny z migawki:", fromSnapshot.getCategories(ProfileAssignment.Procedure.PESSIMISTIC));
+        System.out.println("zgodnosc z plikiem csv: " + (Arrays.equals(fromCsv.getAssignment(ProfileAssignment.Procedure.PESSIMISTIC), fromSnapshot.getAssignment(ProfileAssignment.Procedure.PESSIMISTIC))
+        		&& Arrays.equals(fromCsv.getAssignment(ProfileAssignment.Procedure.OPTIMISTIC), fromSnapshot.getAssignment(ProfileAssignment.Procedure.OPTIMISTIC))));
+        
+        int n = 200000;
+        double[][] values = randomValues(n, 4, new Random(n));
+        ElectreTri large = createProfiles(createElectre(new ElectreTri(), values));
+        large.writeSnapshot(snapshotFile.getPath());
+        long start = System.nanoTime();
+        ElectreTri loaded = new ElectreTri(snapshotFile.getPath());
+        long time = System.nanoTime() - start;
+        large.calculate();
+        loaded.calculate();
+        System.out.println("n: " + n + " odczyt migawki: " + time/1000000 + " ms");
+        System.out.println("n: " + n + " profile: " + loaded.getProfiles().size() + " zgodnosc przydzialow: " + (Arrays.equals(large.getAssignment(ProfileAssignment.Procedure.PESSIMISTIC), loaded.getAssignment(ProfileAssignment.Procedure.PESSIMISTIC))
+        		&& Arrays.equals(large.getAssignment(ProfileAssignment.Procedure.OPTIMISTIC), loaded.getAssignment(ProfileAssignment.Procedure.OPTIMISTIC))));
+        
+        // truncated snapshot and snapshot of other methods family are detected
+        byte[] bytes = Files.readAllBytes(snapshotFile.toPath());
+        Files.write(snapshotFile.toPath(), Arrays.copyOf(bytes, bytes.length/2));
+        try {
+        	new ElectreI(snapshotFile.getPath());
+        	System.out.println("blad nie zostal wykryty");
+        }
+        catch (DataFileException e) {
+        	System.out.println("obcieta migawka wykryta: " + e.getMessage().contains("truncated"));
+        }
+        new Promethee2().writeSnapshot(snapshotFile.getPath());
+        try {
+        	new ElectreI(snapshotFile.getPath());
+        	System.out.println("blad nie zostal wykryty");
+        }
+        catch (DataFileException e) {
+        	System.out.println("migawka Promethee wykryta: " + e.getMessage().contains("Promethee"));
+        }
+        snapshotFile.delete();
+	}
+	
+	private static ElectreTri createProfiles(ElectreTri electre)   {
+		
+		// criteria with even index are minimized, values are in range [0, 19]
+		double[][] profiles = {{14, 6, 14, 6}, {8, 12, 8, 12}, {3, 17, 3, 17}};
+		for(int h=0; h<profiles.length; h++)  {
+			Alternative profile = new Alternative("b" + (h+1));
+			for(int cri=0; cri<profiles[h].length; cri++)  {
+				profile.addCriteriumValue(profiles[h][cri]);
+			}
+			electre.addProfile(profile);
+		}
+		for(Criterium criterium : electre.getCriteria())  {
+			criterium.setQ_(1.0);
+			criterium.setP_(3.0);
+			criterium.setVeto_(9.0);
+		}
+		return electre;
+	}
+	
+	public static void testRanking()   {
+		
+        System.out.println();
+        System.out.println(">>>>> TEST Electre, RANKING I RANGI GESTE <<<<<");
+        ElectreIs electre = new ElectreIs(Electre_test.class.getResource("/datafileExamples/electre.csv").getPath());
+        electre.calculate();
+        System.out.println("rangi geste ElectreIs: " + Arrays.toString(electre.getDenseRanks()));
+        
+        // ranking points with many ties, ranking of ElectreI compared with ordering of the former map based sort
+        for(int n=1000; n<=4000; n=n*2)  {
+        	Random random = new Random(n);
+        	ElectreI electreI = createElectre(new ElectreI(), randomValues(n, 3, random));
+        	long start = System.nanoTime();
+        	electreI.calculate();
+        	long time = System.nanoTime() - start;
+        	
+        	HashMap<Integer,Integer> rankMap = new HashMap<Integer,Integer>();
+        	for(int i=0; i<n; i++)  {
+        		rankMap.put(i, electreI.getAlternative(i).getScore());
+        	}
+        	start = System.nanoTime();
+        	List<Integer> expected = mapRanking(rankMap);
+        	long mapTime = System.nanoTime() - start;
+        	
+        	boolean equal = true;
+        	int[] ranks = electreI.getDenseRanks();
+        	for(int i=0; i<n; i++)  {
+        		Alternative alternative = electreI.getAlternativeByRank(i+1);
+        		equal = equal && alternative == electreI.getAlternative(expected.get(i));
+        		if(i > 0)  {
+        			int previous = electreI.getAlternativeByRank(i).getId() - 1;
+        			int current = alternative.getId() - 1;
+        			int step = electreI.getAlternativeByRank(i).getScore() == alternative.getScore() ? 0 : 1;
+        			equal = equal && ranks[current] == ranks[previous] + step;
+        		}
+        	}
+        	System.out.println("n: " + n + " zgodnosc z sortowaniem mapy: " + equal + " calculate: " + time/1000000 + " ms sortowanie mapy: " + mapTime/1000000 + " ms");
+        }
+	}
+	
+	/**
+	 * Orders alternatives as the former HashMap sort of Electre did - by descending points, equal points by ascending order number.
+	 */
+	private static List<Integer> mapRanking(HashMap<Integer,Integer> passedMap)   {
+		
+		List<Integer> mapKeys = new ArrayList<Integer>(passedMap.keySet());
+		List<Integer> mapValues = new ArrayList<Integer>(passedMap.values());
+		Collections.sort(mapValues);
+		Collections.sort(mapKeys);
+		Collections.reverse(mapValues);
+		List<Integer> sorted = new ArrayList<Integer>();
+		for(Integer val : mapValues)  {
+			for(Iterator<Integer> keyIt = mapKeys.iterator(); keyIt.hasNext(); )  {
+				Integer key = keyIt.next();
+				if(passedMap.get(key).equals(val))  {
+					keyIt.remove();
+					sorted.add(key);
+					break;
+				}
+			}
+		}
+		return sorted;
+	}
+	
+	public static void testMatrixStorage()   {
+		
+        System.out.println();
+        System.out.println(">>>>> TEST Electre, MACIERZE NA STERCIE, W BUFORACH BEZPOSREDNICH I W PLIKACH MAPOWANYCH <<<<<");
+        double[][] values = randomValues(700, 5, new Random(700));
+        MatrixStorage.Factory[] factories = {MatrixStorage.direct(MatrixStorage.Precision.DOUBLE), MatrixStorage.mapped(null, MatrixStorage.Precision.DOUBLE),
+        		MatrixStorage.direct(MatrixStorage.Precision.FLOAT), MatrixStorage.mapped(null, MatrixStorage.Precision.FLOAT)};
+        String[] names = {"bezposrednie double", "mapowane double", "bezposrednie float", "mapowane float"};
+        
+        ElectreI heapI = createElectre(new ElectreI(), values);
+        heapI.calculate();
+        ElectreIII heapIII = createElectre(new ElectreIII(), values);
+        heapIII.calculate();
+        for(int f=0; f<factories.length; f++)  {
+        	ElectreI electreI = createElectre(new ElectreI(), values);
+        	electreI.setMatrixStorage(factories[f]);
+        	electreI.calculate();
+        	ElectreIII electreIII = createElectre(new ElectreIII(), values);
+        	electreIII.setMatrixStorage(factories[f]);
+        	electreIII.calculate();
+        	double difference = Math.max(maxDifference(heapI.getConcordanceMatrix(), electreI.getConcordanceMatrix()),
+        			maxDifference(heapI.getDiscordanceMatrix(), electreI.getDiscordanceMatrix()));
+        	difference = Math.max(difference, maxDifference(heapIII.getCredibilityMatrix(), electreIII.getCredibilityMatrix()));
+        	System.out.println(names[f] + ": max roznica: " + (difference < 1e-6 ? (difference == 0 ? "0" : "< 1e-6") : String.valueOf(difference))
+        			+ " rangi ElectreI zgodne: " + Arrays.equals(heapI.getDenseRanks(), electreI.getDenseRanks()));
+        	electreI.setMatrixStorage(MatrixStorage.heap());
+        	electreIII.setMatrixStorage(MatrixStorage.heap());
+        }
+	}
+	
+	public static void testCompactIndices()   {
+		
+        System.out.println();
+        System.out.println(">>>>> TEST Electre, ZGODNOSC I WIARYGODNOSC W PRECYZJI FLOAT I FIXED16 <<<<<");
+        double[][] values = randomValues(600, 6, new Random(600));
+        ElectreI exactI = createElectre(new ElectreI(), values);
+        exactI.calculate();
+        ElectreIII exactIII = createElectre(new ElectreIII(), values);
+        exactIII.calculate();
+        MatrixStorage.Precision[] precisions = {MatrixStorage.Precision.FLOAT, MatrixStorage.Precision.FIXED16};
+        for(MatrixStorage.Precision precision : precisions)  {
+        	ElectreI electreI = createElectre(new ElectreI(), values);
+        	electreI.setIndexMatrixStorage(MatrixStorage.heap(precision));
+        	electreI.calculate();
+        	ElectreIII electreIII = createElectre(new ElectreIII(), values);
+        	electreIII.setIndexMatrixStorage(MatrixStorage.heap(precision));
+        	electreIII.calculate();
+        	double difference = Math.max(maxDifference(exactI.getConcordanceMatrix(), electreI.getConcordanceMatrix()),
+        			maxDifference(exactIII.getCredibilityMatrix(), electreIII.getCredibilityMatrix()));
+        	System.out.println(precision + ": bajty na indeks: " + electreI.getConcordanceMatrix().getPrecision().getBytes()
+        			+ " roznica w granicy bledu: " + (difference <= precision.getMaxError())
+        			+ " niezgodnosc dokladna: " + (maxDifference(exactI.getDiscordanceMatrix(), electreI.getDiscordanceMatrix()) == 0)
+        			+ " rangi ElectreI zgodne: " + Arrays.equals(exactI.getDenseRanks(), electreI.getDenseRanks())
+        			+ " rozne decyzje ElectreIII tylko blisko progu: " + decisionsNearThreshold(exactIII.getCredibilityMatrix(), electreIII.getCredibilityMatrix(), 2*precision.getMaxError()));
+        }
+	}
+	
+	/**
+	 * Checks whether decisions credibility == 1 differ only for exact credibility closer to 1 than given distance.
+	 */
+	private static boolean decisionsNearThreshold(MatrixStorage exact, MatrixStorage compact, double distance)   {
+		
+		for(int i=0; i<exact.numRows(); i++)  {
+			for(int j=0; j<exact.numCols(); j++)  {
+				if((exact.get(i, j) == 1) != (compact.get(i, j) == 1) && Math.abs(exact.get(i, j) - 1) > distance)  {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	
+	public static void testScoreModel()   {
+		
+        System.out.println();
+        System.out.println(">>>>> TEST ElectreI, MODEL OCEN I AKCEPTOWALNOSC POZYCJI W RANKINGU <<<<<");
+		int n = 30;
+		double[][] values = randomValues(n, 4, new Random(9));
+		// Car11 has the best values of all the criteria (even criteria are minimized)
+		for(int cri=0; cri<4; cri++)  {
+			values[10][cri] = cri%2 == 0 ? -1 : 20;
+		}
+		ElectreI electre = createElectre(new ElectreI(), values);
+		ElectreScoreModel model = electre.createScoreModel();
+		OutrankingRelation relation = electre.calculateOutrankingRelation();
+		double[] scores = new double[n];
+		model.calculateScores(model.getWeights(), scores);
+		boolean sameCounts = true;
+		for(int a=0; a<n; a++)  {
+			sameCounts = sameCounts && scores[a] == relation.countOutranked(a);
+		}
+		RankAcceptability acceptability = new RankAcceptability(model, 5);
+		acceptability.setSamples(2000);
+		double[][] matrix = acceptability.calculate();
+		System.out.println("oceny zgodne z relacja przewyzszania: " + sameCounts + " akceptowalnosc pierwszej pozycji Car11: " + matrix[10][0]);
+		
+		boolean tooLarge = false;
+		try {
+			// 14700^2 * 10 elements do not fit in int index
+			createElectre(new ElectreI(), new double[14700][10]).createScoreModel();
+		}
+		catch (IllegalArgumentException e) {
+			tooLarge = true;
+		}
+		System.out.println("zbyt duzy model wykryty: " + tooLarge);
+	}
+	
+	public static void benchmark()   {
+		
+        System.out.println();
+        System.out.println(">>>>> BENCHMARK ElectreI, PARY SYMETRYCZNE I KAZDA PARA OSOBNO <<<<<");
+        for(int n=250; n<=1000; n=n*2)  {
+        	double[][] values = randomValues(n, 6, new Random(n));
+        	ElectreI symmetric = createElectre(new ElectreI(), values);
+        	long start = System.nanoTime();
+        	symmetric.calculate();
+        	long symmetricTime = System.nanoTime() - start;
+        	
+        	ElectreI pairwise = createElectre(new PairwiseElectreI(), values);
+        	start = System.nanoTime();
+        	pairwise.calculate();
+        	long pairwiseTime = System.nanoTime() - start;
+        	
+        	System.out.println("n: " + n + " symetrycznie: " + symmetricTime/1000000 + " ms osobno: " + pairwiseTime/1000000 + " ms"
+        			+ " max roznica: " + Math.max(maxDifference(symmetric.getConcordanceMatrix(), pairwise.getConcordanceMatrix()),
+        					maxDifference(symmetric.getDiscordanceMatrix(), pairwise.getDiscordanceMatrix())));
+        }
+	}
+	
+	private static <T extends Electre> T createElectre(T electre, double[][] values)   {
+		
+		int criteriaNum = values[0].length;
+		for(int cri=0; cri<criteriaNum; cri++)  {
+			Criterium.Direction direction = cri%2 == 0 ? Criterium.Direction.MIN : Criterium.Direction.MAX;
+			electre.addCriterium(new Criterium("c" + (cri+1), cri+1, direction, 0.0, 0.0, 0.0));
+		}
+		for(int alt=0; alt<values.length; alt++)  {
+			Alternative alternative = new Alternative("Car" + (alt+1));
+			for(int cri=0; cri<criteriaNum; cri++)  {
+				alternative.addCriteriumValue(values[alt][cri]);
+			}
+			electre.addAlternative(alternative);
+		}
+		return electre;
+	}
+	
+	private static double[][] randomValues(int altsNum, int criteriaNum, Random random)   {
+		
+		double[][] values = new double[altsNum][criteriaNum];
+		for(int alt=0; alt<altsNum; alt++)  {
+			for(int cri=0; cri<criteriaNum; cri++)  {
+				// rounded values, so that there are many ties
+				values[alt][cri] = random.nextInt(20);
+			}
+		}
+		return values;
+	}
+	
+	private static double maxDifference(MatrixStorage a, MatrixStorage b)   {
+		
+		double max = 0;
+		for(int i=0; i<a.numRows(); i++)  {
+			for(int j=0; j<a.numCols(); j++)  {
+				max = Math.max(max, Math.abs(a.get(i, j) - b.get(i, j)));
+			}
+		}
+		return max;
+	}
+	
+	/**
+	 * ElectreI calculating concordance and discordance indices separately for every ordered pair of alternatives, used as reference.
+	 */
+	private static class PairwiseElectreI extends ElectreI {
+		
+		@Override
+		protected void calculate_concordance_matrix() {
+			concordanceMatrix_ = squareMatrix(concordanceMatrix_);
+			for (int i=0; i<altsCount_; i++)
+				for (int j=0; j<altsCount_; j++)
+					concordanceMatrix_.set(i, j, i != j ? concordance_index(i, j) : 0);
+		}
+		
+		@Override
+		protected void calculate_discordance_matrix() {
+			discordanceMatrix_ = squareMatrix(discordanceMatrix_, matrixStorage_);
+			for (int i=0; i<altsCount_; i++)
+				for (int j=0; j<altsCount_; j++)
+					discordanceMatrix_.set(i, j, i != j ? discordance_index(i, j) : 0);
+		}
+	}
+}
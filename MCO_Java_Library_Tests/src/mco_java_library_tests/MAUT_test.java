@@ -1,7 +1,20 @@
 
 package mco_java_library_tests;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
+import java.util.Random;
+import methods.BasicTypes.LinearScoreModel;
+import methods.BasicTypes.RankAcceptability;
+import methods.BasicTypes.Ranking;
+import methods.BasicTypes.TopScores;
 import methods.MAUT.*;
 
 /**
@@ -113,4 +126,149 @@ public class MAUT_test {
     }
     
     
+    public static void testRankFile() throws IOException  {
+        System.out.println();
+        System.out.println(">>>>> TEST MAUT, RANKING ALTERNATYW Z PLIKU CZYTANYCH PARTIAMI <<<<<");
+        int n = 100000;
+        int k = 10;
+        MAUT maut = new MAUT(MAUT_test.class.getResource("/datafileExamples/maut.csv").getPath());
+        maut.getAlternatives().clear();
+        Random random = new Random(n);
+        File dataFile = File.createTempFile("maut", ".csv");
+        File valuesFile = File.createTempFile("maut", ".csv");
+        Writer data = new FileWriter(dataFile);
+        Writer values = new FileWriter(valuesFile);
+        data.write("GroupCriterium,root,c1,0.5\nGroupCriterium,c1,c11,0.7\nNormalCriterium,c11,c111,0.6,LINEAR,1,10\nNormalCriterium,c11,c112,0.8,LINEAR,1,10\n"
+                + "NormalCriterium,c1,c12,0.3,LINEAR,2,4\nNormalCriterium,root,c2,0.5,LINEAR,1,9\nAlternatives\n");
+        for(int i=0; i<n; i++)  {
+            Alternative alternative = new Alternative("a" + i);
+            String line = "";
+            for(int j=0; j<4; j++)  {
+                double value = Math.floor(random.nextDouble()*1000)/100;
+                alternative.addCriteriumValue(value);
+                line = line + (j > 0 ? "," : "") + value;
+            }
+            maut.addAlternative(alternative);
+            data.write(line + "\n");
+            values.write(line + "\n");
+        }
+        data.close();
+        values.close();
+        
+        maut.calculate();
+        long[] expected = new long[k];
+        double[] expectedScores = new double[k];
+        for(int i=0; i<k; i++)  {
+            expected[i] = Long.parseLong(maut.getRanking().get(i).getName().substring(1));
+            expectedScores[i] = maut.getRanking().get(i).getScore();
+        }
+        TopScores fromData = maut.rankFile(dataFile.getPath(), k, 4096);
+        TopScores fromValues = maut.rankFile(valuesFile.getPath(), k, 1000);
+        System.out.println("przeczytane alternatywy: " + fromData.getOfferedNum() + " najlepsze: " + Arrays.toString(fromData.getIndices()));
+        System.out.println("zgodne z calculate(): " + (Arrays.equals(expected, fromData.getIndices()) && Arrays.equals(expectedScores, fromData.getScores()))
+                + " zgodne dla pliku z samymi wartosciami: " + (Arrays.equals(fromData.getIndices(), fromValues.getIndices()) && Arrays.equals(fromData.getScores(), fromValues.getScores())));
+        dataFile.delete();
+        valuesFile.delete();
+    }
+    
+    public static void testScoreModel()  {
+        System.out.println();
+        System.out.println(">>>>> TEST MAUT, MODEL OCEN I AKCEPTOWALNOSC POZYCJI W RANKINGU <<<<<");
+        MAUT maut = new MAUT();
+        GroupCriterium c1 = new GroupCriterium("c1", 2.0);
+        c1.addInnerCriterium(new NormalCriterium("c11", 3.0, NormalCriterium.UtilityFunctionType.LINEAR, 0, 10));
+        c1.addInnerCriterium(new NormalCriterium("c12", 1.0, NormalCriterium.UtilityFunctionType.LINEAR, 0, 10));
+        maut.addCriterium(c1);
+        maut.addCriterium(new NormalCriterium("c2", 1.0, NormalCriterium.UtilityFunctionType.LINEAR, 0, 10));
+        int n = 30;
+        Random random = new Random(3);
+        for(int i=0; i<n; i++)  {
+            Alternative alternative = new Alternative("a" + i);
+            // alternatywa a20 ma najlepsze wartosci wszystkich kryteriow
+            for(int r=0; r<3; r++)  {
+                alternative.addCriteriumValue(i == 20 ? 10 : random.nextDouble()*9);
+            }
+            maut.addAlternative(alternative);
+        }
+        LinearScoreModel model = maut.createScoreModel();
+        boolean unchanged = c1.getWeight() == 2.0 && c1.getInnerCriterium(0).getWeight() == 3.0 && c1.getInnerCriterium(1).getWeight() == 1.0
+                && maut.getCriterium(1).getWeight() == 1.0;
+        maut.calculate();
+        double[] scores = new double[n];
+        model.calculateScores(model.getWeights(), scores);
+        double maxDifference = 0;
+        for(int i=0; i<n; i++)  {
+            maxDifference = Math.max(maxDifference, Math.abs(scores[i] - maut.getAlternative(i).getScore()));
+        }
+        System.out.println("wagi kryteriow niezmienione: " + unchanged + " wagi modelu: " + Arrays.toString(model.getWeights())
+                + " uzytecznosc c1 alternatywy a20: " + model.getContribution(20, 0));
+        System.out.println("oceny zgodne z calculate() (< 1e-12): " + (maxDifference < 1e-12));
+        
+        RankAcceptability acceptability = new RankAcceptability(model, 7);
+        acceptability.setDistribution(RankAcceptability.Distribution.DIRICHLET);
+        acceptability.setSamples(5000);
+        acceptability.setParallelism(1);
+        double[][] single = acceptability.calculate();
+        acceptability.setParallelism(4);
+        double[][] parallel = acceptability.calculate();
+        acceptability.setSeed(8);
+        double[][] otherSeed = acceptability.calculate();
+        System.out.println("akceptowalnosc pierwszej pozycji a20: " + single[20][0] + " identyczne dla 1 i 4 watkow: " + Arrays.deepEquals(single, parallel)
+                + " rozne dla innego ziarna: " + !Arrays.deepEquals(single, otherSeed));
+    }
+    
+    public static void testTopAlternatives()  {
+        System.out.println();
+        System.out.println(">>>>> TEST MAUT, NAJLEPSZE ALTERNATYWY BEZ SORTOWANIA CALEGO RANKINGU <<<<<");
+        int n = 200000;
+        MAUT maut = new MAUT();
+        maut.addCriterium(new NormalCriterium("c1", 0.5, NormalCriterium.UtilityFunctionType.LINEAR, 0, 10));
+        maut.addCriterium(new NormalCriterium("c2", 0.5, NormalCriterium.UtilityFunctionType.LINEAR, 0, 10));
+        Random random = new Random(n);
+        for(int i=0; i<n; i++)  {
+            Alternative alternative = new Alternative("a" + i);
+            // few distinct values, so there are many alternatives with equal scores
+            alternative.addCriteriumValue(random.nextInt(11));
+            alternative.addCriteriumValue(random.nextInt(11));
+            maut.addAlternative(alternative);
+        }
+        maut.calculate();
+        long start = System.nanoTime();
+        LinkedList<Alternative> top = maut.getTopAlternatives(50);
+        long topTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        ArrayList<Alternative> full = new ArrayList<Alternative>(maut.getRanking());
+        long fullTime = System.nanoTime() - start;
+        System.out.println("n: " + n + " top 50: " + topTime/1000000 + " ms caly ranking: " + fullTime/1000000 + " ms");
+        
+        ArrayList<Alternative> expected = new ArrayList<Alternative>(maut.getAlternatives());
+        Collections.sort(expected, new Comparator<Alternative>() {
+            @Override
+            public int compare(Alternative o1, Alternative o2) {
+                return Double.compare(o2.getScore(), o1.getScore());
+            }
+        });
+        boolean matching = top.equals(expected.subList(0, 50)) && full.equals(expected);
+        for(int rank=1; rank<=n; rank+=9973)    {
+            matching = matching && maut.getAlternativeByRank(rank) == expected.get(rank-1);
+        }
+        System.out.println("najlepsza: " + top.getFirst().getName() + " " + top.getFirst().getScore() + " zgodne z sortowaniem stabilnym: " + matching);
+        
+        // NaN scores are ranked last by both bounded and full ranking
+        double[] scores = {1, Double.NaN, 3, Double.NEGATIVE_INFINITY, 2};
+        TopScores bounded = new TopScores(4);
+        bounded.offer(0, scores, scores.length);
+        LinkedList<Integer> items = new LinkedList<Integer>();
+        for(int i=0; i<scores.length; i++)  {
+            items.add(i);
+        }
+        LinkedList<Integer> ranked = new Ranking<Integer>(items, scores).top(4);
+        boolean nanLast = true;
+        long[] indices = bounded.getIndices();
+        for(int i=0; i<indices.length; i++)  {
+            nanLast = nanLast && indices[i] == ranked.get(i);
+        }
+        System.out.println("NaN na koncu rankingu, TopScores zgodne z Ranking: " + (nanLast && ranked.getLast() == 1));
+    }
+    
 }
@@ -1,5 +1,8 @@
 package mco_java_library_tests;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 
 /**
  *
@@ -8,9 +11,9 @@ package mco_java_library_tests;
 public class MCO_Java_Library_Tests {
 
     /**
-     * @param args the command line arguments
+     * @param args the command line arguments, --benchmark runs also benchmarks printing calculation times of large problems
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         AHP_test.test();
         System.out.println();
         AHP_test.testFromFile();
@@ -36,6 +39,39 @@ public class MCO_Java_Library_Tests {
         UTASTAR_test.testFromFile();
         System.out.println();
         Electre_test.testFromFile();
+        System.out.println();
+        Electre_test.testTies();
+        Electre_test.testKernel();
+        Electre_test.testDistillation();
+        Electre_test.testProfileAssignment();
+        Electre_test.testRanking();
+        Electre_test.testMatrixStorage();
+        Electre_test.testCompactIndices();
+        Electre_test.testParallelism();
+        Electre_test.testScoreModel();
+        Promethee2_test.testMatrixStorage();
+        Promethee2_test.testParallelMPD();
+        Promethee2_test.testStreamingFlows();
+        Promethee2_test.testBatchPreferences();
+        Promethee2_test.testIncrementalUpdates();
+        Promethee2_test.testSensitivity();
+        Promethee2_test.testFileLoader();
+        Promethee2_test.testSnapshot();
+        Electre_test.testSnapshot();
+        MAUT_test.testRankFile();
+        MAUT_test.testTopAlternatives();
+        MAUT_test.testScoreModel();
+        UTASTAR_test.testRankFile();
+        Promethee2_test.testRankFile();
+        AHP_test.testPowerIteration();
+        AHP_test.testParallelCriteria();
+        AHP_test.testRatings();
+        AHP_test.testRandomConsistencyIndex();
+        AHP_test.testIncompleteComparisons();
+        if(Arrays.asList(args).contains("--benchmark"))  {
+            Promethee2_test.benchmark();
+            Electre_test.benchmark();
+        }
     }
 }
 
@@ -1,5 +1,20 @@
 package mco_java_library_tests;
+import methods.BasicTypes.CsvReader;
+import methods.BasicTypes.DataFileException;
+import methods.BasicTypes.MatrixStorage;
+import methods.BasicTypes.TopScores;
 import methods.Promethee.*;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Random;
 
 
 /**
@@ -102,4 +117,545 @@ public class Promethee2_test {
         
         
     }    
+    
+    public static void testMatrixStorage()   {
+        System.out.println();
+        System.out.println(">>>>> TEST PROMETHEE2, MACIERZ MPD W BUFORACH BEZPOSREDNICH I W PLIKU MAPOWANYM <<<<<");
+        int n = 1500;
+        Promethee2 heap = createRandomPromethee(n);
+        heap.setSortedFlows(false);
+        heap.setFlowMode(Promethee.FlowMode.MATRIX);
+        heap.calculate();
+        MatrixStorage.Factory[] factories = {MatrixStorage.direct(MatrixStorage.Precision.DOUBLE), MatrixStorage.mapped(null, MatrixStorage.Precision.DOUBLE),
+            MatrixStorage.mapped(null, MatrixStorage.Precision.FLOAT)};
+        String[] names = {"bezposrednie double", "mapowane double", "mapowane float"};
+        for(int f=0; f<factories.length; f++)  {
+            Promethee2 promethee = createRandomPromethee(n);
+            promethee.setSortedFlows(false);
+            promethee.setFlowMode(Promethee.FlowMode.MATRIX);
+            promethee.setMatrixStorage(factories[f]);
+            promethee.calculate();
+            double maxDifference = 0;
+            for(int i=0; i<n; i++)  {
+                maxDifference = Math.max(maxDifference, Math.abs(heap.getAlternative(i).getMpf() - promethee.getAlternative(i).getMpf()));
+            }
+            System.out.println(names[f] + ": max roznica MPF: " + (maxDifference < 1e-6 ? (maxDifference == 0 ? "0" : "< 1e-6") : String.valueOf(maxDifference)));
+            promethee.setMatrixStorage(MatrixStorage.heap());
+        }
+    }
+    
+    public static void benchmark()   {
+        System.out.println();       
+        System.out.println(">>>>> BENCHMARK PROMETHEE2, PRZEPLYWY Z SORTOWANIA I PAROWE <<<<<");
+        for(int n=1000; n<=64000; n=n*2)  {
+            Promethee2 sorted = createRandomPromethee(n);
+            sorted.setSortedFlows(true);
+            long start = System.nanoTime();
+            sorted.calculate();
+            long sortedTime = System.nanoTime() - start;
+            System.out.print("n: " + n + " sortowanie: " + sortedTime/1000000 + " ms");
+            
+            if(n<=4000) {
+                Promethee2 pairwise = createRandomPromethee(n);
+                pairwise.setSortedFlows(false);
+                pairwise.setFlowMode(Promethee.FlowMode.STREAMING);
+                start = System.nanoTime();
+                pairwise.calculate();
+                long pairwiseTime = System.nanoTime() - start;
+                double maxDifference = 0;
+                for(int i=0; i<n; i++)  {
+                    maxDifference = Math.max(maxDifference, Math.abs(sorted.getAlternative(i).getMpf() - pairwise.getAlternative(i).getMpf()));
+                }
+                System.out.print(" parami: " + pairwiseTime/1000000 + " ms max roznica MPF: " + maxDifference);
+            }
+            System.out.println();
+        }
+    }
+    
+    public static void testFileLoader() throws IOException   {
+        System.out.println();
+        System.out.println(">>>>> TEST WCZYTYWANIA PLIKOW CSV <<<<<");
+        Random random = new Random(17);
+        String[] numbers = new String[20000];
+        for(int i=0; i<numbers.length; i++)  {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20);
+            switch(i % 5)   {
+                case 0: numbers[i] = Double.toString(value); break;
+                case 1: numbers[i] = String.format(java.util.Locale.US, "%.6f", value); break;
+                case 2: numbers[i] = String.format(java.util.Locale.US, "%.12e", value); break;
+                case 3: numbers[i] = "\t" + random.nextInt(100000) + " "; break;
+                default: numbers[i] = String.format(java.util.Locale.US, "%.25f", value); break;
+            }
+        }
+        File numbersFile = File.createTempFile("numbers", ".csv");
+        Writer writer = new FileWriter(numbersFile);
+        for(int i=0; i<numbers.length; i=i+4)  {
+            writer.write(numbers[i] + "," + numbers[i+1] + "," + numbers[i+2] + "," + numbers[i+3] + (i % 8 == 0 ? "\r\n" : "\n"));
+        }
+        writer.close();
+        CsvReader reader = new CsvReader(numbersFile.getPath(), 256);
+        int read = 0;
+        int differences = 0;
+        while(reader.nextLine())    {
+            for(int f=0; f<reader.getFieldsNum(); f++)  {
+                if(Double.doubleToLongBits(reader.getDouble(f)) != Double.doubleToLongBits(Double.parseDouble(numbers[read])))  {
+                    differences++;
+                }
+                read++;
+            }
+        }
+        reader.close();
+        numbersFile.delete();
+        System.out.println("wczytane liczby: " + read + " rozne od Double.parseDouble: " + differences);
+        
+        int n = 2000;
+        Promethee2 promethee = createRandomPromethee(n);
+        File dataFile = File.createTempFile("promethee", ".csv");
+        writer = new FileWriter(dataFile);
+        writer.write("Criterium,c1,1.0,MIN,LINEAR,0.05,0.2\nCriterium,c2,2.0,MAX,LEVEL,0.1,0.3\nCriterium,c3,1.0,MAX,THRESHOLD,0.1\nCriterium,c4,3.0,MIN,LINEAR,0.5\n");
+        writer.write("Alternatives");
+        for(int i=0; i<n; i++)  {
+            writer.write("," + promethee.getAlternative(i).getName());
+        }
+        writer.write("\r\n");
+        for(int i=0; i<n; i++)  {
+            Alternative alternative = promethee.getAlternative(i);
+            writer.write(alternative.getCriteriumValue(0) + ",\t" + alternative.getCriteriumValue(1) + "," + alternative.getCriteriumValue(2) + "," + alternative.getCriteriumValue(3) + "\r\n");
+        }
+        writer.close();
+        Promethee2 loaded = new Promethee2(dataFile.getPath());
+        promethee.calculate();
+        loaded.calculate();
+        double maxDifference = 0;
+        for(int i=0; i<n; i++)  {
+            maxDifference = Math.max(maxDifference, Math.abs(promethee.getAlternative(i).getMpf() - loaded.getAlternative(i).getMpf()));
+        }
+        System.out.println("alternatywy z pliku: " + loaded.getAlternativesNum() + " max roznica MPF: " + maxDifference);
+        
+        writer = new FileWriter(dataFile);
+        writer.write("Criterium,c1,1.0,MIN,LINEAR,0.05,0.2\nCriterium,c2,2.0,MAX,LEVEL,0.1,0.3\n\nAlternatives,a1,a2\n1.0,2.0\n3.0,x4\n");
+        writer.close();
+        try {
+            new Promethee2(dataFile.getPath());
+            System.out.println("blad nie zostal wykryty");
+        }
+        catch (DataFileException e) {
+            System.out.println("blad w linii " + e.getLine() + " kolumnie " + e.getColumn());
+        }
+        writer = new FileWriter(dataFile);
+        writer.write("Criterium,c1,1.0,MIN,LINEAR,0.05,0.2\nCriterium,c2,2.0,BEST,LEVEL,0.1,0.3\n");
+        writer.close();
+        try {
+            new Promethee2(dataFile.getPath());
+            System.out.println("blad nie zostal wykryty");
+        }
+        catch (DataFileException e) {
+            System.out.println("blad w linii " + e.getLine() + " kolumnie " + e.getColumn());
+        }
+        dataFile.delete();
+    }
+    
+    public static void testSnapshot() throws IOException   {
+        System.out.println();
+        System.out.println(">>>>> TEST PROMETHEE2, ZAPIS I ODCZYT MIGAWKI BINARNEJ <<<<<");
+        int n = 200000;
+        Promethee2 promethee = createRandomPromethee(n);
+        File csvFile = File.createTempFile("promethee", ".csv");
+        Writer writer = new FileWriter(csvFile);
+        writer.write("Criterium,c1,1.0,MIN,LINEAR,0.05,0.2\nCriterium,c2,2.0,MAX,LEVEL,0.1,0.3\nCriterium,c3,1.0,MAX,THRESHOLD,0.1\nCriterium,c4,3.0,MIN,LINEAR,0.5\nConstraint,c1,UPPER,0.9\n");
+        writer.write("Alternatives");
+        for(Alternative alternative : promethee.getAlternatives())  {
+            writer.write("," + alternative.getName());
+        }
+        writer.write("\n");
+        for(Alternative alternative : promethee.getAlternatives())  {
+            writer.write(alternative.getCriteriumValue(0) + "," + alternative.getCriteriumValue(1) + "," + alternative.getCriteriumValue(2) + "," + alternative.getCriteriumValue(3) + "\n");
+        }
+        writer.close();
+        
+        long start = System.nanoTime();
+        Promethee2 fromCsv = new Promethee2(csvFile.getPath());
+        long csvTime = System.nanoTime() - start;
+        File snapshotFile = File.createTempFile("promethee", ".mcos");
+        fromCsv.writeSnapshot(snapshotFile.getPath());
+        start = System.nanoTime();
+        Promethee2 fromSnapshot = new Promethee2(snapshotFile.getPath());
+        long snapshotTime = System.nanoTime() - start;
+        System.out.println("n: " + n + " csv: " + csvTime/1000000 + " ms migawka: " + snapshotTime/1000000 + " ms");
+        
+        // snapshot of loaded object has to be identical, so criteria, preference functions and constraints were restored
+        File secondFile = File.createTempFile("promethee", ".mcos");
+        fromSnapshot.writeSnapshot(secondFile.getPath());
+        boolean identical = Arrays.equals(Files.readAllBytes(snapshotFile.toPath()), Files.readAllBytes(secondFile.toPath()));
+        
+        // 200000 alternatives: flows from sorted criteria values, MPD matrix would not fit in memory
+        promethee.setSortedFlows(true);
+        promethee.calculate();
+        fromSnapshot.setSortedFlows(true);
+        fromSnapshot.calculate();
+        double maxDifference = 0;
+        Iterator<Alternative> loaded = fromSnapshot.getAlternatives().iterator();
+        for(Alternative alternative : promethee.getAlternatives())  {
+            maxDifference = Math.max(maxDifference, Math.abs(alternative.getMpf() - loaded.next().getMpf()));
+        }
+        System.out.println("alternatywy: " + fromSnapshot.getAlternativesNum() + " kryteria: " + fromSnapshot.getCriteriaNum() + " max roznica MPF: " + maxDifference
+                + " identyczna ponowna migawka: " + identical);
+        
+        try {
+            new Promethee1(snapshotFile.getPath().replace(".mcos", ".brak"));
+            System.out.println("blad nie zostal wykryty");
+        }
+        catch (DataFileException e) {
+            System.out.println("brak pliku wykryty, linia: " + e.getLine());
+        }
+        csvFile.delete();
+        snapshotFile.delete();
+        secondFile.delete();
+    }
+    
+    public static void testRankFile() throws IOException   {
+        System.out.println();
+        System.out.println(">>>>> TEST PROMETHEE2, RANKING ALTERNATYW Z PLIKU WZGLEDEM ZBIORU REFERENCYJNEGO <<<<<");
+        int n = 2000;
+        int m = 200000;
+        Promethee2 reference = createRandomPromethee(n);
+        File referenceFile = File.createTempFile("promethee", ".csv");
+        Writer writer = new FileWriter(referenceFile);
+        for(Alternative alternative : reference.getAlternatives())  {
+            writer.write(alternative.getCriteriumValue(0) + "," + alternative.getCriteriumValue(1) + "," + alternative.getCriteriumValue(2) + "," + alternative.getCriteriumValue(3) + "\n");
+        }
+        writer.close();
+        
+        // alternatives of the reference set itself have net flows (n-1)/n times flows calculated by calculate() method, preference over itself is 0
+        reference.calculate();
+        double maxSortedDifference = 0;
+        double maxPairDifference = 0;
+        reference.setSortedFlows(true);
+        TopScores sorted = reference.rankFile(referenceFile.getPath(), n, 300);
+        reference.setSortedFlows(false);
+        TopScores pairwise = reference.rankFile(referenceFile.getPath(), n, 300);
+        double[] mpf = new double[n];
+        int i = 0;
+        for(Alternative alternative : reference.getAlternatives())  {
+            mpf[i++] = alternative.getMpf();
+        }
+        long[] indices = sorted.getIndices();
+        double[] scores = sorted.getScores();
+        for(int j=0; j<n; j++)  {
+            maxSortedDifference = Math.max(maxSortedDifference, Math.abs(scores[j]*n/(n-1) - mpf[(int) indices[j]]));
+        }
+        indices = pairwise.getIndices();
+        scores = pairwise.getScores();
+        for(int j=0; j<n; j++)  {
+            maxPairDifference = Math.max(maxPairDifference, Math.abs(scores[j]*n/(n-1) - mpf[(int) indices[j]]));
+        }
+        System.out.println("alternatywy referencyjne: " + sorted.size() + " max roznica MPF (posortowane): " + (maxSortedDifference < 1e-12)
+                + " max roznica MPF (parami): " + (maxPairDifference < 1e-12));
+        
+        File dataFile = File.createTempFile("promethee", ".csv");
+        writer = new FileWriter(dataFile);
+        writer.write("Criterium,c1,1.0,MIN,LINEAR,0.05,0.2\nCriterium,c2,2.0,MAX,LEVEL,0.1,0.3\nCriterium,c3,1.0,MAX,THRESHOLD,0.1\nCriterium,c4,3.0,MIN,LINEAR,0.5\nAlternatives\n");
+        Random random = new Random(m);
+        for(int j=0; j<m; j++)  {
+            writer.write(random.nextDouble() + "," + random.nextDouble() + "," + random.nextDouble() + "," + random.nextDouble() + "\n");
+        }
+        writer.close();
+        long start = System.nanoTime();
+        TopScores top = reference.rankFile(dataFile.getPath(), 5, 8192);
+        long time = System.nanoTime() - start;
+        TopScores smallBatches = reference.rankFile(dataFile.getPath(), 5, 1000);
+        System.out.println("n: " + m + " zbior referencyjny: " + n + " czas: " + time/1000000 + " ms");
+        System.out.println("przeczytane alternatywy: " + top.getOfferedNum() + " najlepsze: " + Arrays.toString(top.getIndices())
+                + " zgodne dla innego rozmiaru partii: " + (Arrays.equals(top.getIndices(), smallBatches.getIndices()) && Arrays.equals(top.getScores(), smallBatches.getScores())));
+        referenceFile.delete();
+        dataFile.delete();
+    }
+    
+    public static void testParallelMPD()   {
+        System.out.println();
+        System.out.println(">>>>> TEST PROMETHEE2, MACIERZ MPD LICZONA W 1 I 4 WATKACH <<<<<");
+        int n = 1000;
+        Promethee2 single = createRandomPromethee(n);
+        single.setParallelism(1);
+        single.calculate();
+        Promethee2 parallel = createRandomPromethee(n);
+        parallel.setParallelism(4);
+        parallel.calculate();
+        boolean flows = true;
+        for(int i=0; i<n; i++)  {
+            flows = flows && single.getAlternative(i).getMpfPlus() == parallel.getAlternative(i).getMpfPlus()
+                    && single.getAlternative(i).getMpfMinus() == parallel.getAlternative(i).getMpfMinus();
+        }
+        System.out.println("n: " + n + " macierze MPD identyczne: " + sameMatrix(single.getMPD(), parallel.getMPD()) + " przeplywy identyczne: " + flows);
+    }
+    
+    public static void testStreamingFlows()   {
+        System.out.println();
+        System.out.println(">>>>> TEST PROMETHEE2, PRZEPLYWY STRUMIENIOWE I Z MACIERZY MPD <<<<<");
+        int n = 1500;
+        Promethee2 matrix = createRandomPromethee(n);
+        matrix.setFlowMode(Promethee.FlowMode.MATRIX);
+        matrix.calculate();
+        Promethee2 single = createRandomPromethee(n);
+        single.setFlowMode(Promethee.FlowMode.STREAMING);
+        single.setParallelism(1);
+        single.calculate();
+        Promethee2 parallel = createRandomPromethee(n);
+        parallel.setFlowMode(Promethee.FlowMode.STREAMING);
+        parallel.setParallelism(4);
+        parallel.calculate();
+        double maxDifference = 0;
+        boolean plusEqual = true;
+        boolean threadsEqual = true;
+        for(int i=0; i<n; i++)  {
+            Alternative expected = matrix.getAlternative(i);
+            Alternative streamed = single.getAlternative(i);
+            maxDifference = Math.max(maxDifference, Math.abs(expected.getMpfMinus() - streamed.getMpfMinus()));
+            plusEqual = plusEqual && expected.getMpfPlus() == streamed.getMpfPlus();
+            threadsEqual = threadsEqual && streamed.getMpfPlus() == parallel.getAlternative(i).getMpfPlus()
+                    && streamed.getMpfMinus() == parallel.getAlternative(i).getMpfMinus();
+        }
+        System.out.println("n: " + n + " MPF+ identyczne: " + plusEqual + " MPF- zgodne (< 1e-12): " + (maxDifference < 1e-12)
+                + " identyczne dla 1 i 4 watkow: " + threadsEqual);
+    }
+    
+    public static void testBatchPreferences()   {
+        System.out.println();
+        System.out.println(">>>>> TEST PROMETHEE2, WARTOSCI FUNKCJI PREFERENCJI LICZONE DLA CALYCH WIERSZY <<<<<");
+        BatchPreferenceFunction[] functions = {new LinearPreferenceFunction(0.05,0.2), new LinearPreferenceFunction(0.5),
+            new LevelPreferenceFunction(0.1,0.3), new ThresholdPreferenceFunction(0.1), new GaussianPreferenceFunction(0.3)};
+        Random random = new Random(5);
+        double[] values = new double[500];
+        for(int k=0; k<values.length; k++)  {
+            // co czwarta wartosc powtarza sie, zeby sprawdzic roznice rowne 0 i progom
+            values[k] = k % 4 == 0 ? Math.round(random.nextDouble()*10)/10.0 : random.nextDouble();
+        }
+        double[] result = new double[values.length];
+        boolean equal = true;
+        for(BatchPreferenceFunction function : functions)  {
+            for(Criterium.Direction direction : Criterium.Direction.values())  {
+                for(int i=0; i<values.length; i++)  {
+                    function.calculatePreferences(values[i], values, 0, values.length, true, direction, result);
+                    for(int k=0; k<values.length; k++)  {
+                        equal = equal && result[k] == function.calculatePreference(values[i], values[k], direction);
+                    }
+                    function.calculatePreferences(values[i], values, 100, 300, false, direction, result);
+                    for(int k=100; k<300; k++)  {
+                        equal = equal && result[k-100] == function.calculatePreference(values[k], values[i], direction);
+                    }
+                }
+            }
+        }
+        System.out.println("wartosci zgodne z calculatePreference: " + equal);
+        
+        final GaussianPreferenceFunction gaussian = new GaussianPreferenceFunction(0.3);
+        PreferenceFunction pairwise = new PreferenceFunction() {
+            @Override
+            public double calculatePreference(double value1, double value2, Criterium.Direction direction) {
+                return gaussian.calculatePreference(value1, value2, direction);
+            }
+        };
+        Promethee2 batch = createRandomPromethee(300);
+        batch.addCriterium(new Criterium("c5", Criterium.Direction.MIN, 1.0, gaussian));
+        Promethee2 custom = createRandomPromethee(300);
+        custom.addCriterium(new Criterium("c5", Criterium.Direction.MIN, 1.0, pairwise));
+        for(int i=0; i<300; i++)  {
+            double value = random.nextDouble();
+            batch.getAlternative(i).addCriteriumValue(value);
+            custom.getAlternative(i).addCriteriumValue(value);
+        }
+        batch.calculate();
+        custom.calculate();
+        System.out.println("funkcja bez metody wsadowej, macierze MPD identyczne: " + sameMatrix(batch.getMPD(), custom.getMPD()));
+    }
+    
+    public static void testIncrementalUpdates()   {
+        System.out.println();
+        System.out.println(">>>>> TEST PROMETHEE2, DODAWANIE, USUWANIE I ZMIANA ALTERNATYW PO OBLICZENIACH <<<<<");
+        int n = 100;
+        Random random = new Random(11);
+        Promethee2 promethee = createRandomPromethee(n);
+        promethee.calculate();
+        Map<Alternative, Integer> ids = new IdentityHashMap<Alternative, Integer>();
+        for(int i=0; i<n; i++)  {
+            ids.put(promethee.getAlternative(i), promethee.getAlternative(i).getId());
+        }
+        int added = 0;
+        // 400 zmian przekracza prog ponownego liczenia od zera (max(64, n)), wiec sprawdzane sa obie sciezki
+        for(int operation=1; operation<=400; operation++)  {
+            int kind = random.nextInt(3);
+            if(kind == 0)  {
+                Alternative alternative = new Alternative("b" + added++);
+                for(int r=0; r<promethee.getCriteriaNum(); r++)  {
+                    alternative.addCriteriumValue(random.nextDouble());
+                }
+                promethee.addAlternative(alternative);
+                ids.put(alternative, alternative.getId());
+            }
+            else if(kind == 1 && promethee.getAlternativesNum() > 2)  {
+                Alternative alternative = promethee.getAlternative(random.nextInt(promethee.getAlternativesNum()));
+                promethee.removeAlternative(alternative);
+                ids.remove(alternative);
+            }
+            else    {
+                Alternative alternative = promethee.getAlternative(random.nextInt(promethee.getAlternativesNum()));
+                promethee.updateAlternativeValue(alternative, random.nextInt(promethee.getCriteriaNum()), random.nextDouble());
+            }
+            if(operation % 100 == 0)  {
+                Promethee2 reference = recalculate(promethee);
+                double maxDifference = 0;
+                boolean sameRanking = true;
+                for(int i=0; i<promethee.getAlternativesNum(); i++)  {
+                    maxDifference = Math.max(maxDifference, Math.abs(promethee.getAlternative(i).getMpfPlus() - reference.getAlternative(i).getMpfPlus()));
+                    maxDifference = Math.max(maxDifference, Math.abs(promethee.getAlternative(i).getMpfMinus() - reference.getAlternative(i).getMpfMinus()));
+                    sameRanking = sameRanking && promethee.getAlternativeByRank(i+1).getName().equals(reference.getAlternativeByRank(i+1).getName());
+                }
+                System.out.println("zmiany: " + operation + " n: " + promethee.getAlternativesNum() + " przeplywy zgodne z obliczeniami od zera (< 1e-12): " + (maxDifference < 1e-12)
+                        + " ranking zgodny: " + sameRanking);
+            }
+        }
+        Alternative updated = promethee.getAlternative(0);
+        promethee.getMPD();
+        promethee.updateAlternativeValue(updated, 1, 0.5);
+        Promethee2 reference = recalculate(promethee);
+        double maxDifference = 0;
+        for(int i=0; i<promethee.getAlternativesNum(); i++)  {
+            for(int j=0; j<promethee.getAlternativesNum(); j++)  {
+                maxDifference = Math.max(maxDifference, Math.abs(promethee.getMPD().get(i, j) - reference.getMPD().get(i, j)));
+            }
+        }
+        boolean sameIds = true;
+        for(Alternative alternative : promethee.getAlternatives())  {
+            sameIds = sameIds && alternative.getId() == ids.get(alternative);
+        }
+        System.out.println("zaktualizowana macierz MPD zgodna (< 1e-12): " + (maxDifference < 1e-12) + " id alternatyw niezmienione: " + sameIds);
+    }
+    
+    public static void testSensitivity()   {
+        System.out.println();
+        System.out.println(">>>>> TEST PROMETHEE2, PRZEDZIALY STABILNOSCI WAG KRYTERIOW <<<<<");
+        // przeplywy jednokryterialne: a0 (1, -1), a1 (0, 1), a2 (-1, 0), dla wagi t pierwszego kryterium MPF: a0 = 2t-1, a1 = 1-t, a2 = -t
+        // dla t = 0.5 ranking a1 a0 a2 nie zmienia sie dla t z [1/3, 2/3) - w t = 2/3 remis a0 z a1 rozstrzyga nizszy numer a0
+        Promethee2 small = new Promethee2();
+        small.addCriterium(new Criterium("c1", Criterium.Direction.MAX, 1.0, new ThresholdPreferenceFunction(0)));
+        small.addCriterium(new Criterium("c2", Criterium.Direction.MAX, 1.0, new ThresholdPreferenceFunction(0)));
+        double[][] values = {{3, 1}, {2, 3}, {1, 2}};
+        for(int i=0; i<values.length; i++)  {
+            Alternative alternative = new Alternative("a" + i);
+            alternative.addCriteriumValue(values[i][0]);
+            alternative.addCriteriumValue(values[i][1]);
+            small.addAlternative(alternative);
+        }
+        PrometheeSensitivity sensitivity = small.createSensitivity();
+        PrometheeSensitivity.StabilityInterval[] intervals = sensitivity.getStabilityIntervals();
+        System.out.println("przeplywy jednokryterialne a0: " + sensitivity.getUnicriterionFlow(0, 0) + " " + sensitivity.getUnicriterionFlow(0, 1)
+                + " ranking: " + Arrays.toString(sensitivity.calculateRanking(sensitivity.getWeights())));
+        System.out.println("przedzialy: " + intervals[0] + " " + intervals[1] + " zgodne z obliczonymi recznie: "
+                + (Math.abs(intervals[0].getLower() - 1.0/3) < 1e-12 && intervals[0].isLowerIncluded() && Math.abs(intervals[0].getUpper() - 2.0/3) < 1e-12 && !intervals[0].isUpperIncluded()
+                && Math.abs(intervals[1].getLower() - 1.0/3) < 1e-12 && !intervals[1].isLowerIncluded() && Math.abs(intervals[1].getUpper() - 2.0/3) < 1e-12 && intervals[1].isUpperIncluded()));
+        
+        // single alternative has zero flows and its ranking does not change for any weight
+        Promethee2 single = new Promethee2();
+        single.addCriterium(new Criterium("c1", Criterium.Direction.MAX, 1.0, new ThresholdPreferenceFunction(0)));
+        single.addCriterium(new Criterium("c2", Criterium.Direction.MAX, 1.0, new ThresholdPreferenceFunction(0)));
+        Alternative only = new Alternative("a0");
+        only.addCriteriumValue(1);
+        only.addCriteriumValue(2);
+        single.addAlternative(only);
+        PrometheeSensitivity singleSensitivity = single.createSensitivity();
+        PrometheeSensitivity.StabilityInterval[] singleIntervals = singleSensitivity.getStabilityIntervals();
+        System.out.println("jedna alternatywa, przeplyw: " + singleSensitivity.calculateNetFlows(singleSensitivity.getWeights())[0] + " przedzialy: " + singleIntervals[0] + " " + singleIntervals[1]);
+        
+        int n = 40;
+        Promethee2 promethee = createRandomPromethee(n);
+        sensitivity = promethee.createSensitivity();
+        double[] weights = sensitivity.getWeights();
+        double sum = 0;
+        for(int r=0; r<weights.length; r++)  {
+            sum = sum + weights[r];
+        }
+        LinkedList<Alternative> reference = recalculatedRanking(promethee, weights, 0, weights[0]/sum);
+        double[] flows = sensitivity.calculateNetFlows(weights);
+        double maxDifference = 0;
+        for(int i=0; i<n; i++)  {
+            maxDifference = Math.max(maxDifference, Math.abs(flows[i] - promethee.getAlternative(i).getMpf()));
+        }
+        boolean inside = reference.equals(sensitivity.getRanking(weights));
+        boolean outside = true;
+        double epsilon = 1e-7;
+        intervals = sensitivity.getStabilityIntervals();
+        for(int r=0; r<weights.length; r++)  {
+            double lower = intervals[r].getLower();
+            double upper = intervals[r].getUpper();
+            inside = inside && reference.equals(recalculatedRanking(promethee, weights, r, lower + epsilon))
+                    && reference.equals(recalculatedRanking(promethee, weights, r, upper - epsilon));
+            if(lower > epsilon) {
+                outside = outside && !reference.equals(recalculatedRanking(promethee, weights, r, lower - epsilon));
+            }
+            if(upper < 1 - epsilon) {
+                outside = outside && !reference.equals(recalculatedRanking(promethee, weights, r, upper + epsilon));
+            }
+        }
+        System.out.println("n: " + n + " MPF zgodne z calculate() (< 1e-12): " + (maxDifference < 1e-12) + " ranking bez zmian wewnatrz przedzialow: " + inside
+                + " ranking zmieniony poza przedzialami: " + outside);
+    }
+    
+    private static LinkedList<Alternative> recalculatedRanking(Promethee2 promethee, double[] weights, int criterium, double weight)   {
+        double sum = 0;
+        for(int r=0; r<weights.length; r++)  {
+            sum = sum + (r == criterium ? 0 : weights[r]);
+        }
+        for(int r=0; r<weights.length; r++)  {
+            promethee.getCriterium(r).setWeight(r == criterium ? weight : weights[r] / sum * (1 - weight));
+        }
+        promethee.calculate();
+        return promethee.getRanking();
+    }
+    
+    private static Promethee2 recalculate(Promethee2 promethee)   {
+        Promethee2 reference = new Promethee2();
+        for(Criterium criterium : promethee.getCriteria())  {
+            reference.addCriterium(new Criterium(criterium.getName(), criterium.getDirection(), criterium.getWeight(), criterium.getPreferenceFunction()));
+        }
+        for(Alternative alternative : promethee.getAlternatives())  {
+            Alternative copy = new Alternative(alternative.getName());
+            for(int r=0; r<promethee.getCriteriaNum(); r++)  {
+                copy.addCriteriumValue(alternative.getCriteriumValue(r));
+            }
+            reference.addAlternative(copy);
+        }
+        reference.calculate();
+        return reference;
+    }
+    
+    private static boolean sameMatrix(MatrixStorage a, MatrixStorage b)   {
+        if(a.numRows() != b.numRows() || a.numCols() != b.numCols())  {
+            return false;
+        }
+        for(int i=0; i<a.numRows(); i++)  {
+            for(int j=0; j<a.numCols(); j++)  {
+                if(a.get(i, j) != b.get(i, j))  {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    private static Promethee2 createRandomPromethee(int n)   {
+        Random random = new Random(n);
+        Promethee2 promethee = new Promethee2();
+        promethee.addCriterium(new Criterium("c1", Criterium.Direction.MIN, 1.0, new LinearPreferenceFunction(0.05,0.2)));
+        promethee.addCriterium(new Criterium("c2", Criterium.Direction.MAX, 2.0, new LevelPreferenceFunction(0.1,0.3)));
+        promethee.addCriterium(new Criterium("c3", Criterium.Direction.MAX, 1.0, new ThresholdPreferenceFunction(0.1)));
+        promethee.addCriterium(new Criterium("c4", Criterium.Direction.MIN, 3.0, new LinearPreferenceFunction(0.5)));
+        for(int i=0; i<n; i++)  {
+            Alternative alternative = new Alternative("a" + i);
+            for(int j=0; j<4; j++)  {
+                alternative.addCriteriumValue(random.nextDouble());
+            }
+            promethee.addAlternative(alternative);
+        }
+        return promethee;
+    }
 }
@@ -1,5 +1,7 @@
 package mco_java_library_tests;
 
+import java.util.Arrays;
+import methods.BasicTypes.TopScores;
 import methods.UTASTAR.*;
 
 /**
@@ -160,4 +162,21 @@ public class UTASTAR_test {
         System.out.println("\n" + "Oceny alternatyw: \n" + su);        
     }   
     
+    public static void testRankFile()   {
+        System.out.println();
+        System.out.println(">>>>> TEST UTASTAR, RANKING ALTERNATYW Z PLIKU CZYTANYCH PARTIAMI <<<<<");
+        String filename = UTASTAR_test.class.getResource("/datafileExamples/utastar.csv").getPath();
+        UTASTAR test = new UTASTAR(filename);
+        test.calculate();
+        TopScores top = test.rankFile(filename, 3, 2);
+        System.out.println("najlepsze alternatywy: " + Arrays.toString(top.getIndices()) + " oceny: " + Arrays.toString(top.getScores()));
+        boolean matching = true;
+        long[] indices = top.getIndices();
+        double[] scores = top.getScores();
+        for(int i=0; i<top.size(); i++)  {
+            matching = matching && test.getAlternative((int) indices[i]).getScore() == scores[i];
+        }
+        System.out.println("oceny zgodne z calculate(): " + matching);
+    }
+    
 }